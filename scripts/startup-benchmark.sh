@@ -0,0 +1,106 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time from process launch to the first successful
+# GET /api/v1/users, for the default configuration and for the fast-startup
+# profile (AOT processing + AppCDS archive + lazy init + schema validation).
+#
+# Usage: scripts/startup-benchmark.sh
+#   RUNS=5             launches per variant (median is reported)
+#   PORT=8080          port the instance listens on
+#   APP_ARGS="..."     extra application arguments, defaults to a local H2 file database
+#   OUTPUT=file.json   report file, default target/startup-benchmark/report.json
+#   JAVA / MVN         java and maven commands (default: java, sh ./mvnw)
+#
+# The baseline variant runs first with ddl-auto=update, so the H2 schema exists
+# by the time the fast-startup variant validates it. The fast-startup build
+# leaves the H2 driver out of the jar; it is kept when APP_ARGS is not given.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8080}
+JAVA=${JAVA:-java}
+MVN=${MVN:-"sh ./mvnw"}
+WORK_DIR=target/startup-benchmark
+OUTPUT=${OUTPUT:-$WORK_DIR/report.json}
+JAR_NAME=Bank-0.0.1-SNAPSHOT.jar
+BUILD_ARGS=""
+if [[ -z "${APP_ARGS:-}" ]]; then
+    BUILD_ARGS="-Dfast-startup.exclude-group-ids="
+fi
+APP_ARGS=${APP_ARGS:-"--spring.datasource.url=jdbc:h2:file:./$WORK_DIR/db --spring.datasource.username=sa --spring.datasource.password= --spring.datasource.driver-class-name=org.h2.Driver --spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"}
+COMMON_ARGS="--server.port=$PORT --logging.file.name=$WORK_DIR/app.log $APP_ARGS"
+URL="http://localhost:$PORT/api/v1/users?page=0&size=1"
+
+echo "Building with AOT processing for the fast-startup profile..."
+$MVN -q -B -Pfast-startup package -DskipTests $BUILD_ARGS
+
+rm -rf "$WORK_DIR/app"
+mkdir -p "$WORK_DIR"
+"$JAVA" -Djarmode=tools -jar "target/$JAR_NAME" extract --destination "$WORK_DIR/app" > /dev/null
+if ls "$WORK_DIR/app/lib" | grep -q '^spring-boot-devtools'; then
+    echo "spring-boot-devtools is packaged in the jar, startup numbers would not match production" >&2
+    exit 1
+fi
+
+# Returns milliseconds from launch until the first 2xx response
+time_to_first_request() {
+    local start end pid
+    start=$(date +%s%N)
+    "$@" > "$WORK_DIR/stdout.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Application exited before serving a request, see $WORK_DIR/stdout.log" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+# Runs a variant RUNS times and prints its JSON entry
+benchmark() {
+    local name=$1
+    shift
+    local samples=()
+    for ((i = 1; i <= RUNS; i++)); do
+        samples+=("$(time_to_first_request "$@")")
+        echo "  $name run $i: ${samples[-1]} ms" >&2
+    done
+    local sorted median
+    sorted=$(printf '%s\n' "${samples[@]}" | sort -n)
+    median=$(echo "$sorted" | awk '{a[NR]=$1} END {print (NR % 2) ? a[(NR+1)/2] : int((a[NR/2] + a[NR/2+1]) / 2)}')
+    printf '    "%s": {"runsMs": [%s], "medianMs": %s, "minMs": %s}' \
+        "$name" "$(IFS=,; echo "${samples[*]}")" "$median" "$(echo "$sorted" | head -1)"
+}
+
+echo "Baseline (default configuration)..."
+BASELINE=$(benchmark baseline "$JAVA" -jar "$WORK_DIR/app/$JAR_NAME" $COMMON_ARGS)
+
+echo "Training run to record the AppCDS archive..."
+"$JAVA" -XX:ArchiveClassesAtExit="$WORK_DIR/app/app.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$WORK_DIR/app/$JAR_NAME" --spring.profiles.active=fast-startup $COMMON_ARGS > "$WORK_DIR/training.log" 2>&1
+
+echo "Fast startup (AOT + CDS + lazy init + validate)..."
+FAST=$(benchmark fastStartup "$JAVA" -XX:SharedArchiveFile="$WORK_DIR/app/app.jsa" -Dspring.aot.enabled=true \
+    -jar "$WORK_DIR/app/$JAR_NAME" --spring.profiles.active=fast-startup $COMMON_ARGS)
+
+cat > "$OUTPUT" << JSON
+{
+  "timestamp": "$(date -u +%Y-%m-%dT%H:%M:%SZ)",
+  "java": "$("$JAVA" -version 2>&1 | head -1 | sed 's/"/\\"/g')",
+  "runs": $RUNS,
+  "variants": {
+$BASELINE,
+$FAST
+  }
+}
+JSON
+
+cat "$OUTPUT"
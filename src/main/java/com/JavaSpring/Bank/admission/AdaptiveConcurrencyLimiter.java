@@ -0,0 +1,77 @@
+package com.JavaSpring.Bank.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AIMD concurrency limit driven by observed latency.
+ * Each completion under the target latency grows the limit by one (additive increase);
+ * a completion over it shrinks the limit by the backoff ratio (multiplicative decrease), at most
+ * once per latency window: requests already in flight when the limit was cut report the same
+ * overload, so only one that started after the last decrease can cut it again.
+ * In-flight count and limit are plain atomics, so admission is lock-free.
+ */
+public class AdaptiveConcurrencyLimiter {
+    
+    private static final long NEVER = Long.MIN_VALUE;
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final double backoffRatio;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastDecreaseNanos = new AtomicLong(NEVER);
+    
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      long targetLatencyMs, double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit)));
+    }
+    
+    /**
+     * @return true when the caller may proceed; it must then call {@link #release(long)}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    public void release(long latencyNanos) {
+        release(latencyNanos, System.nanoTime());
+    }
+    
+    /**
+     * @param nowNanos completion time on the {@link System#nanoTime()} clock
+     */
+    public void release(long latencyNanos, long nowNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos <= targetLatencyNanos) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+            return;
+        }
+        long last = lastDecreaseNanos.get();
+        // Started before the last decrease: that cut already answered this overload
+        if (last != NEVER && nowNanos - last < latencyNanos) {
+            return;
+        }
+        if (lastDecreaseNanos.compareAndSet(last, nowNanos)) {
+            limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+        }
+    }
+    
+    public int getLimit() { return limit.get(); }
+    
+    public int getInFlight() { return inFlight.get(); }
+}
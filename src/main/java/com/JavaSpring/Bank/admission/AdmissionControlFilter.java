@@ -0,0 +1,199 @@
+package com.JavaSpring.Bank.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rejects over-limit API requests with 429 + Retry-After before any controller,
+ * service or database work happens. Checks, in order:
+ * 1. per-client token bucket, keyed by remote address (or by a gateway-set identity header when configured);
+ *    once max-tracked-clients buckets exist, further clients share one overflow bucket
+ * 2. per-endpoint token bucket shared by all clients (first matching rule)
+ * 3. optional adaptive concurrency limit
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<EndpointRule> endpointRules = new ArrayList<>();
+    private final ConcurrentHashMap<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final TokenBucket overflowBucket;
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime());
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    
+    public AdmissionControlFilter(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.overflowBucket = new TokenBucket(properties.getClient().getRate(), properties.getClient().getBurst());
+        
+        PathPatternParser parser = new PathPatternParser();
+        for (AdmissionProperties.EndpointLimit limit : properties.getEndpoints()) {
+            endpointRules.add(new EndpointRule(
+                limit.getMethod(),
+                parser.parse(limit.getPattern()),
+                new TokenBucket(limit.getRate(), limit.getBurst())));
+        }
+        
+        AdmissionProperties.Concurrency concurrency = properties.getConcurrency();
+        if (concurrency.isEnabled()) {
+            concurrencyLimiter = new AdaptiveConcurrencyLimiter(
+                concurrency.getInitialLimit(), concurrency.getMinLimit(), concurrency.getMaxLimit(),
+                concurrency.getTargetLatencyMs(), concurrency.getBackoffRatio());
+            Gauge.builder("admission.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("admission.concurrency.in.flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Admitted API requests in flight")
+                    .register(meterRegistry);
+        } else {
+            concurrencyLimiter = null;
+        }
+        Gauge.builder("admission.clients.tracked", clientBuckets, ConcurrentHashMap::size)
+                .description("Clients with a partially drained token bucket")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long now = System.nanoTime();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        EndpointRule rule = matchRule(request.getMethod(), path);
+        String endpoint = rule != null ? rule.method + " " + rule.pattern.getPatternString() : "other";
+        
+        TokenBucket clientBucket = clientBucket(clientKey(request), now);
+        long wait = clientBucket.tryAcquire(now);
+        if (wait > 0) {
+            reject(response, clientBucket == overflowBucket ? "client-overflow" : "client", endpoint, wait);
+            return;
+        }
+        
+        if (rule != null) {
+            wait = rule.bucket.tryAcquire(now);
+            if (wait > 0) {
+                reject(response, "endpoint", endpoint, wait);
+                return;
+            }
+        }
+        
+        if (concurrencyLimiter == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        if (!concurrencyLimiter.tryAcquire()) {
+            reject(response, "concurrency", endpoint, TimeUnit.SECONDS.toNanos(1));
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long end = System.nanoTime();
+            concurrencyLimiter.release(end - now, end);
+        }
+    }
+    
+    private EndpointRule matchRule(String method, String path) {
+        PathContainer pathContainer = null;
+        for (EndpointRule rule : endpointRules) {
+            if (rule.method != null && !rule.method.equalsIgnoreCase(method)) {
+                continue;
+            }
+            if (pathContainer == null) {
+                pathContainer = PathContainer.parsePath(path);
+            }
+            if (rule.pattern.matches(pathContainer)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * The remote address (behind a reverse proxy, set server.forward-headers-strategy so this is the
+     * caller's), unless a client header is configured. Only configure one behind a gateway that sets it
+     * from an authenticated identity: callers can put anything in a header, and every new value would
+     * get a fresh bucket.
+     */
+    private String clientKey(HttpServletRequest request) {
+        String header = properties.getClientHeader();
+        if (header != null && !header.isBlank()) {
+            String clientId = request.getHeader(header);
+            if (clientId != null && !clientId.isBlank()) {
+                return clientId;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+    
+    private TokenBucket clientBucket(String key, long now) {
+        TokenBucket bucket = clientBuckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        int maxTrackedClients = properties.getMaxTrackedClients();
+        if (clientBuckets.size() >= maxTrackedClients) {
+            // Full buckets behave exactly like new ones, so dropping them loses nothing.
+            // The sweep is O(n), so it runs at most once per second whatever the arrival rate.
+            long due = nextSweepNanos.get();
+            if (now - due >= 0 && nextSweepNanos.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+                clientBuckets.values().removeIf(existing -> existing.isFull(now));
+            }
+            if (clientBuckets.size() >= maxTrackedClients) {
+                return overflowBucket;
+            }
+        }
+        AdmissionProperties.Limit limit = properties.getClient();
+        return clientBuckets.computeIfAbsent(key, k -> new TokenBucket(limit.getRate(), limit.getBurst()));
+    }
+    
+    private void reject(HttpServletResponse response, String reason, String endpoint,
+                        long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        logger.debug("Admission rejected - reason: {}, endpoint: {}, retry after: {}s", reason, endpoint, retryAfterSeconds);
+        
+        Counter.builder("admission.rejections")
+                .description("API requests rejected by admission control")
+                .tag("reason", reason)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+        
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too Many Requests\","
+                + "\"message\":\"Request rate limit exceeded (" + reason + "), retry after " + retryAfterSeconds + "s\","
+                + "\"status\":429,"
+                + "\"timestamp\":\"" + LocalDateTime.now() + "\"}");
+    }
+    
+    private record EndpointRule(String method, PathPattern pattern, TokenBucket bucket) {}
+}
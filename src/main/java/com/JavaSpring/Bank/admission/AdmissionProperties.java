@@ -0,0 +1,88 @@
+package com.JavaSpring.Bank.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admission control limits, bound from the "admission" section of application.yml
+ */
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+    
+    private boolean enabled = true;
+    // Only for a header set by an authenticating gateway; unset keys clients by remote address
+    private String clientHeader;
+    private int maxTrackedClients = 10000;
+    private Limit client = new Limit();
+    private List<EndpointLimit> endpoints = new ArrayList<>();
+    private Concurrency concurrency = new Concurrency();
+    
+    public static class Limit {
+        private double rate = 100;
+        private int burst = 200;
+        
+        public double getRate() { return rate; }
+        public void setRate(double rate) { this.rate = rate; }
+        
+        public int getBurst() { return burst; }
+        public void setBurst(int burst) { this.burst = burst; }
+    }
+    
+    public static class EndpointLimit extends Limit {
+        private String method;
+        private String pattern;
+        
+        public String getMethod() { return method; }
+        public void setMethod(String method) { this.method = method; }
+        
+        public String getPattern() { return pattern; }
+        public void setPattern(String pattern) { this.pattern = pattern; }
+    }
+    
+    public static class Concurrency {
+        private boolean enabled = false;
+        private int initialLimit = 20;
+        private int minLimit = 5;
+        private int maxLimit = 200;
+        private long targetLatencyMs = 250;
+        private double backoffRatio = 0.9;
+        
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+        
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+        
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+        
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+        
+        public long getTargetLatencyMs() { return targetLatencyMs; }
+        public void setTargetLatencyMs(long targetLatencyMs) { this.targetLatencyMs = targetLatencyMs; }
+        
+        public double getBackoffRatio() { return backoffRatio; }
+        public void setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; }
+    }
+    
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public String getClientHeader() { return clientHeader; }
+    public void setClientHeader(String clientHeader) { this.clientHeader = clientHeader; }
+    
+    public int getMaxTrackedClients() { return maxTrackedClients; }
+    public void setMaxTrackedClients(int maxTrackedClients) { this.maxTrackedClients = maxTrackedClients; }
+    
+    public Limit getClient() { return client; }
+    public void setClient(Limit client) { this.client = client; }
+    
+    public List<EndpointLimit> getEndpoints() { return endpoints; }
+    public void setEndpoints(List<EndpointLimit> endpoints) { this.endpoints = endpoints; }
+    
+    public Concurrency getConcurrency() { return concurrency; }
+    public void setConcurrency(Concurrency concurrency) { this.concurrency = concurrency; }
+}
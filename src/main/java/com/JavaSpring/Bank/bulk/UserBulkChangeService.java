@@ -0,0 +1,268 @@
+package com.JavaSpring.Bank.bulk;
+
+import com.JavaSpring.Bank.dto.request.UserBulkUpdateRequestDTO;
+import com.JavaSpring.Bank.event.UserChangedEvent;
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import com.JavaSpring.Bank.monitoring.ServiceMetrics;
+import com.JavaSpring.Bank.projection.UserField;
+import com.JavaSpring.Bank.repository.JdbcSchema;
+import com.JavaSpring.Bank.repository.UserProjectionRepository;
+import com.JavaSpring.Bank.shard.ShardedUserStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based delete and update of every user matching the city/keyword filters of GET /api/v1/users.
+ *
+ * Rows are never loaded as entities. The matching ids are walked in id order, one chunk per
+ * transaction: the chunk's ids are selected with update locks, then changed by a single
+ * DELETE or UPDATE ... WHERE id IN (...). Locks are therefore held for one chunk only, and a
+ * failure leaves earlier chunks committed; the error says how many rows were already changed.
+ *
+ * Each committed chunk publishes a bulk UserChangedEvent carrying its ids, and is reported with
+ * its affected-row count and elapsed time.
+ */
+@Service
+public class UserBulkChangeService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserBulkChangeService.class);
+    
+    // SQL Server caps a statement at 2100 parameters
+    private static final int MAX_IN_PARAMETERS = 1000;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    // Statements target the single users table, so bulk changes are refused while sharded
+    @Autowired(required = false)
+    private ShardedUserStore shardedStore;
+    
+    @Value("${bulk.by-filter.chunk-size:500}")
+    private int chunkSize;
+    
+    private volatile Boolean sqlServer;
+    
+    /**
+     * Delete every user matching the filters
+     * @return the report: totals plus affected rows and elapsed time per chunk
+     */
+    public Map<String, Object> deleteByFilter(String city, String keyword) {
+        return run("deleteByFilter", city, keyword, null);
+    }
+    
+    /**
+     * Set the non-null fields of {@code request} on every user matching the filters.
+     * Each changed row gets a new updated_at and version.
+     * @return the report: totals plus affected rows and elapsed time per chunk
+     */
+    public Map<String, Object> updateByFilter(String city, String keyword, UserBulkUpdateRequestDTO request) {
+        Map<String, String> changes = new LinkedHashMap<>();
+        putName(changes, UserField.FIRST_NAME, request.getFirstName());
+        putName(changes, UserField.LAST_NAME, request.getLastName());
+        putOptional(changes, UserField.PHONE, request.getPhone());
+        putOptional(changes, UserField.CITY, request.getCity());
+        if (changes.isEmpty()) {
+            throw new InvalidRequestException("At least one of firstName, lastName, phone or city must be set");
+        }
+        return run("updateByFilter", city, keyword, changes);
+    }
+    
+    private static void putName(Map<String, String> changes, UserField field, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.isBlank()) {
+            throw new InvalidRequestException(field.getJsonName() + " cannot be blank");
+        }
+        changes.put(field.getJsonName(), value.trim());
+    }
+    
+    private static void putOptional(Map<String, String> changes, UserField field, String value) {
+        if (value != null) {
+            // Empty clears the column
+            changes.put(field.getJsonName(), value.isBlank() ? null : value.trim());
+        }
+    }
+    
+    /**
+     * @param changes - new value per field JSON name; null for a delete
+     */
+    private Map<String, Object> run(String operation, String city, String keyword, Map<String, String> changes) {
+        if (shardedStore != null) {
+            throw new InvalidRequestException("Bulk changes by filter are not available while sharding is enabled");
+        }
+        String normalizedCity = (city != null && !city.trim().isEmpty()) ? city.trim() : null;
+        String normalizedKeyword = (keyword != null && !keyword.trim().isEmpty()) ? keyword.trim() : null;
+        if (normalizedCity == null && normalizedKeyword == null) {
+            throw new InvalidRequestException("A city or keyword filter is required for bulk changes");
+        }
+        
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, operation, ServiceMetrics.NO_SHAPE, () -> {
+            List<Object> filterArgs = new ArrayList<>();
+            String filter = String.join(" AND ",
+                    UserProjectionRepository.filterConditions(normalizedCity, normalizedKeyword, filterArgs));
+            int limit = Math.max(1, Math.min(chunkSize, MAX_IN_PARAMETERS));
+            String selectSql = isSqlServer()
+                ? "SELECT id FROM users WITH (UPDLOCK, ROWLOCK) WHERE " + filter +
+                  " AND id > ? ORDER BY id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY"
+                : "SELECT id FROM users WHERE " + filter +
+                  " AND id > ? ORDER BY id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY FOR UPDATE";
+            
+            long start = System.nanoTime();
+            List<Map<String, Object>> chunks = new ArrayList<>();
+            long affected = 0;
+            long afterId = 0;
+            while (true) {
+                long chunkStart = System.nanoTime();
+                List<Long> ids;
+                int changed;
+                try {
+                    ids = new ArrayList<>(limit);
+                    changed = changeChunk(selectSql, filterArgs, afterId, limit, changes, ids);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Bulk " + (changes == null ? "delete" : "update") +
+                            " failed after " + affected + " users in " + chunks.size() + " chunks", e);
+                }
+                if (ids.isEmpty()) {
+                    break;
+                }
+                affected += changed;
+                afterId = ids.get(ids.size() - 1);
+                eventPublisher.publishEvent(changes == null
+                        ? UserChangedEvent.bulkDeleted(ids)
+                        : UserChangedEvent.bulkUpdated(ids, changes));
+                
+                Map<String, Object> chunk = new LinkedHashMap<>();
+                chunk.put("chunk", chunks.size() + 1);
+                chunk.put("affected", changed);
+                chunk.put("firstId", ids.get(0));
+                chunk.put("lastId", afterId);
+                chunk.put("elapsedMs", round((System.nanoTime() - chunkStart) / 1_000_000.0));
+                chunks.add(chunk);
+                if (ids.size() < limit) {
+                    break;
+                }
+            }
+            
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("operation", changes == null ? "delete" : "update");
+            report.put("city", normalizedCity);
+            report.put("keyword", normalizedKeyword);
+            if (changes != null) {
+                report.put("changes", changes);
+            }
+            report.put("affected", affected);
+            report.put("chunkSize", limit);
+            report.put("durationMs", round((System.nanoTime() - start) / 1_000_000.0));
+            report.put("chunks", chunks);
+            logger.info("Bulk {} by filter city={}, keyword={} finished: {} users in {} chunks",
+                    report.get("operation"), normalizedCity, normalizedKeyword, affected, chunks.size());
+            return report;
+        });
+    }
+    
+    /**
+     * One transaction: lock the next ids after {@code afterId}, then delete or update them
+     * @param ids - receives the locked ids
+     * @return rows changed
+     */
+    private int changeChunk(String selectSql, List<Object> filterArgs, long afterId, int limit,
+                            Map<String, String> changes, List<Long> ids) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement select = connection.prepareStatement(selectSql)) {
+                    int parameter = 1;
+                    for (Object arg : filterArgs) {
+                        select.setObject(parameter++, arg);
+                    }
+                    select.setLong(parameter++, afterId);
+                    select.setInt(parameter, limit);
+                    try (ResultSet result = select.executeQuery()) {
+                        while (result.next()) {
+                            ids.add(result.getLong(1));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    connection.commit();
+                    return 0;
+                }
+                
+                String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+                int changed;
+                if (changes == null) {
+                    try (PreparedStatement delete = connection.prepareStatement(
+                            "DELETE FROM users WHERE id IN (" + placeholders + ")")) {
+                        bindIds(delete, 1, ids);
+                        changed = delete.executeUpdate();
+                    }
+                } else {
+                    StringBuilder sql = new StringBuilder("UPDATE users SET ");
+                    for (String field : changes.keySet()) {
+                        sql.append(UserField.fromJsonName(field).getColumn()).append(" = ?, ");
+                    }
+                    sql.append("updated_at = ?, version = version + 1 WHERE id IN (").append(placeholders).append(')');
+                    try (PreparedStatement update = connection.prepareStatement(sql.toString())) {
+                        int parameter = 1;
+                        for (String value : changes.values()) {
+                            update.setString(parameter++, value);
+                        }
+                        update.setTimestamp(parameter++, Timestamp.valueOf(LocalDateTime.now()));
+                        bindIds(update, parameter, ids);
+                        changed = update.executeUpdate();
+                    }
+                }
+                connection.commit();
+                return changed;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+    
+    private static void bindIds(PreparedStatement statement, int from, List<Long> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            statement.setLong(from + i, ids.get(i));
+        }
+    }
+    
+    private boolean isSqlServer() {
+        if (sqlServer == null) {
+            sqlServer = JdbcSchema.isSqlServer(jdbcTemplate);
+        }
+        return sqlServer;
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
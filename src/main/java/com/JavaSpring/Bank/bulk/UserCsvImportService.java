@@ -0,0 +1,406 @@
+package com.JavaSpring.Bank.bulk;
+
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.JavaSpring.Bank.event.UserChangedEvent;
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import com.JavaSpring.Bank.monitoring.ServiceMetrics;
+import com.JavaSpring.Bank.repository.JdbcSchema;
+import com.JavaSpring.Bank.shard.ShardedUserStore;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bulk user import from a CSV stream (header row: firstName,lastName,email,phone,city).
+ *
+ * The caller's thread parses and validates rows and hands chunks to a bounded worker pool;
+ * when the pool and its queue are full the caller inserts the chunk itself, which stops it
+ * reading. Memory therefore stays at roughly (threads + queue + 1) chunks whatever the file size.
+ *
+ * Emails are deduplicated within each chunk in memory and against the table with one IN
+ * query per chunk. Duplicates spread across chunks that race each other are caught by the
+ * users.email unique constraint: the failing chunk is rolled back and retried row by row
+ * so every row is still accounted for. Which of two such rows is kept depends on which chunk
+ * commits first. Each committed chunk is published as an IMPORTED event with its new ids.
+ *
+ * Progress, per-row errors and the final summary are emitted as messages to the sink.
+ */
+@Service
+public class UserCsvImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserCsvImportService.class);
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO users (first_name, last_name, email, phone, city, created_at, updated_at, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+    
+    private static final List<String> COLUMNS = List.of("firstname", "lastname", "email", "phone", "city");
+    // SQL Server caps a statement at 2100 parameters
+    private static final int MAX_IN_PARAMETERS = 1000;
+    private static final int MAX_RECORD_LENGTH = 4096;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    // Batched inserts target the single users table, so imports are refused while sharded
+    @Autowired(required = false)
+    private ShardedUserStore shardedStore;
+    
+    @Value("${bulk.import.threads:4}")
+    private int threads;
+    
+    @Value("${bulk.import.queue-capacity:4}")
+    private int queueCapacity;
+    
+    @Value("${bulk.import.chunk-size:1000}")
+    private int chunkSize;
+    
+    @Value("${bulk.import.batch-size:500}")
+    private int batchSize;
+    
+    /**
+     * Import every row of {@code csv}, emitting progress, error and summary messages to {@code sink}
+     * from the calling thread only.
+     * @return the summary message
+     */
+    public Map<String, Object> importCsv(InputStream csv, Consumer<Map<String, Object>> sink) throws IOException {
+        if (shardedStore != null) {
+            throw new InvalidRequestException("CSV bulk import is not available while sharding is enabled");
+        }
+        CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8), MAX_RECORD_LENGTH);
+        int[] columns = headerColumns(reader.next());
+        
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "importCsv", ServiceMetrics.NO_SHAPE, () -> {
+            ImportRun run = new ImportRun(sink);
+            ThreadPoolExecutor workers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+            List<Future<?>> pending = new ArrayList<>();
+            try {
+                List<Row> chunk = new ArrayList<>(chunkSize);
+                Set<String> chunkEmails = new HashSet<>();
+                List<String> record;
+                while ((record = reader.next()) != null) {
+                    // Rejections are sent as they happen; a file of invalid rows never fills a chunk
+                    run.flush(false);
+                    run.rowsRead.incrementAndGet();
+                    Row row = validate(reader.getRecordLine(), record, columns, run);
+                    if (row == null) {
+                        continue;
+                    }
+                    if (!chunkEmails.add(row.emailKey())) {
+                        run.reject(row, "email", "Duplicate email in file");
+                        continue;
+                    }
+                    chunk.add(row);
+                    if (chunk.size() == chunkSize) {
+                        pending.add(submit(workers, chunk, run));
+                        pending.removeIf(Future::isDone);
+                        chunk = new ArrayList<>(chunkSize);
+                        chunkEmails.clear();
+                        run.flush(true);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    pending.add(submit(workers, chunk, run));
+                }
+                for (Future<?> future : pending) {
+                    future.get();
+                }
+            } catch (IOException e) {
+                throw new InvalidRequestException("Failed to read CSV upload: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("CSV import interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("CSV import failed", e.getCause());
+            } finally {
+                workers.shutdownNow();
+            }
+            
+            run.flush(false);
+            Map<String, Object> summary = run.summary();
+            sink.accept(summary);
+            logger.info("CSV import finished: {}", summary);
+            return summary;
+        });
+    }
+    
+    private Future<?> submit(ThreadPoolExecutor workers, List<Row> chunk, ImportRun run) {
+        return workers.submit(() -> {
+            try {
+                insertChunk(chunk, run);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to insert users from CSV lines " +
+                        chunk.get(0).line() + " - " + chunk.get(chunk.size() - 1).line(), e);
+            }
+        });
+    }
+    
+    private int[] headerColumns(List<String> header) {
+        if (header == null) {
+            throw new InvalidRequestException("CSV upload is empty");
+        }
+        int[] columns = new int[COLUMNS.size()];
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").replace("_", "").replace(" ", "")
+                    .toLowerCase(Locale.ROOT);
+            int column = COLUMNS.indexOf(name);
+            if (column >= 0) {
+                columns[column] = i;
+            }
+        }
+        for (int column = 0; column < 3; column++) {
+            if (columns[column] < 0) {
+                throw new InvalidRequestException("CSV header must include firstName, lastName and email columns");
+            }
+        }
+        return columns;
+    }
+    
+    private Row validate(long line, List<String> record, int[] columns, ImportRun run) {
+        UserRequestDTO request = new UserRequestDTO(
+            field(record, columns[0]), field(record, columns[1]), field(record, columns[2]),
+            field(record, columns[3]), field(record, columns[4]));
+        
+        Set<ConstraintViolation<UserRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            Map<String, String> errors = new TreeMap<>();
+            violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+            run.reject(line, request.getEmail(), errors);
+            return null;
+        }
+        return new Row(line, request);
+    }
+    
+    private static String field(List<String> record, int index) {
+        if (index < 0 || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private void insertChunk(List<Row> chunk, ImportRun run) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            
+            Set<String> existing = existingEmails(connection, chunk);
+            List<Row> fresh = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                if (existing.contains(row.emailKey())) {
+                    run.reject(row, "email", "User already exists with email: " + row.request().getEmail());
+                } else {
+                    fresh.add(row);
+                }
+            }
+            
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                int batched = 0;
+                for (Row row : fresh) {
+                    bind(statement, row.request(), now);
+                    statement.addBatch();
+                    if (++batched == batchSize) {
+                        statement.executeBatch();
+                        batched = 0;
+                    }
+                }
+                if (batched > 0) {
+                    statement.executeBatch();
+                }
+                connection.commit();
+                run.inserted.addAndGet(fresh.size());
+                publishImported(connection, fresh);
+            } catch (BatchUpdateException e) {
+                // Most likely a duplicate committed by another chunk in the meantime
+                connection.rollback();
+                insertRowByRow(connection, fresh, now, run);
+            }
+        }
+    }
+    
+    private void insertRowByRow(Connection connection, List<Row> rows, Timestamp now, ImportRun run) throws SQLException {
+        connection.setAutoCommit(true);
+        List<Row> inserted = new ArrayList<>(rows.size());
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            for (Row row : rows) {
+                bind(statement, row.request(), now);
+                try {
+                    statement.executeUpdate();
+                    run.inserted.incrementAndGet();
+                    inserted.add(row);
+                } catch (SQLException e) {
+                    if (!JdbcSchema.isUniqueViolation(e)) {
+                        throw e;
+                    }
+                    run.reject(row, "email", "User already exists with email: " + row.request().getEmail());
+                }
+            }
+        }
+        publishImported(connection, inserted);
+    }
+    
+    /**
+     * Announce a committed chunk. Batched generated keys are not portable, so the new ids are read back by email.
+     */
+    private void publishImported(Connection connection, List<Row> inserted) throws SQLException {
+        if (inserted.isEmpty()) {
+            return;
+        }
+        List<Long> ids = selectByEmail(connection, inserted, "id", result -> result.getLong(1));
+        eventPublisher.publishEvent(UserChangedEvent.imported(ids));
+    }
+    
+    private static void bind(PreparedStatement statement, UserRequestDTO request, Timestamp now) throws SQLException {
+        statement.setString(1, request.getFirstName());
+        statement.setString(2, request.getLastName());
+        statement.setString(3, request.getEmail());
+        statement.setString(4, request.getPhone());
+        statement.setString(5, request.getCity());
+        statement.setTimestamp(6, now);
+        statement.setTimestamp(7, now);
+    }
+    
+    private static Set<String> existingEmails(Connection connection, List<Row> chunk) throws SQLException {
+        return new HashSet<>(selectByEmail(connection, chunk, "email", result -> result.getString(1)));
+    }
+    
+    private static <T> List<T> selectByEmail(Connection connection, List<Row> rows, String column,
+                                             ColumnReader<T> reader) throws SQLException {
+        List<T> values = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += MAX_IN_PARAMETERS) {
+            List<Row> group = rows.subList(from, Math.min(rows.size(), from + MAX_IN_PARAMETERS));
+            String placeholders = String.join(",", Collections.nCopies(group.size(), "?"));
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT " + column + " FROM users WHERE email IN (" + placeholders + ")")) {
+                for (int i = 0; i < group.size(); i++) {
+                    statement.setString(i + 1, group.get(i).request().getEmail());
+                }
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        values.add(reader.read(result));
+                    }
+                }
+            }
+        }
+        return values;
+    }
+    
+    private interface ColumnReader<T> {
+        T read(ResultSet result) throws SQLException;
+    }
+    
+    private record Row(long line, UserRequestDTO request) {
+        
+        // Exact match, the same comparison as the users.email unique constraint
+        String emailKey() {
+            return request.getEmail();
+        }
+    }
+    
+    /**
+     * Counters and outgoing messages for one upload. Workers only enqueue;
+     * the caller's thread is the only one writing to the sink.
+     */
+    private static class ImportRun {
+        
+        private final Consumer<Map<String, Object>> sink;
+        private final Queue<Map<String, Object>> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong inserted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final long startNanos = System.nanoTime();
+        
+        ImportRun(Consumer<Map<String, Object>> sink) {
+            this.sink = sink;
+        }
+        
+        void reject(Row row, String field, String message) {
+            reject(row.line(), row.request().getEmail(), Map.of(field, message));
+        }
+        
+        void reject(long line, String email, Map<String, String> errors) {
+            rejected.incrementAndGet();
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("type", "error");
+            message.put("line", line);
+            message.put("email", email);
+            message.put("errors", errors);
+            messages.add(message);
+        }
+        
+        void flush(boolean progress) {
+            Map<String, Object> message;
+            while ((message = messages.poll()) != null) {
+                sink.accept(message);
+            }
+            if (progress) {
+                sink.accept(counts("progress"));
+            }
+        }
+        
+        Map<String, Object> summary() {
+            Map<String, Object> summary = counts("summary");
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            summary.put("durationMs", millis);
+            summary.put("rowsPerSecond", Math.round(rowsRead.get() * 1000.0 / Math.max(millis, 1)));
+            return summary;
+        }
+        
+        private Map<String, Object> counts(String type) {
+            Map<String, Object> counts = new LinkedHashMap<>();
+            counts.put("type", type);
+            counts.put("rowsRead", rowsRead.get());
+            counts.put("inserted", inserted.get());
+            counts.put("rejected", rejected.get());
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.JavaSpring.Bank.config;
+
+import com.JavaSpring.Bank.controller.UserController;
+import com.JavaSpring.Bank.monitoring.AllocationMetricsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Per-request allocation accounting for UserController and WebController routes.
+ * Shows which endpoints drive GC pressure without attaching a profiler.
+ */
+@Configuration
+@ConditionalOnProperty(name = "monitoring.allocations.enabled", havingValue = "true", matchIfMissing = true)
+public class AllocationMetricsConfig {
+    
+    @Bean
+    public FilterRegistrationBean<AllocationMetricsFilter> allocationMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AllocationMetricsFilter> registration = new FilterRegistrationBean<>(
+            new AllocationMetricsFilter(meterRegistry, UserController.class.getPackageName()));
+        // Outside the query filter so its bookkeeping is part of the measured request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -1,19 +1,24 @@
 package com.JavaSpring.Bank.config;
 
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
 import com.JavaSpring.Bank.entity.User;
 import com.JavaSpring.Bank.repository.UserRepository;
+import com.JavaSpring.Bank.shard.ShardedUserStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import javax.sql.DataSource;
 import java.util.Arrays;
 import java.util.List;
 
 /**
  * Initialize the database with sample data
  * This ensures the H2 database has users to display
+ * Set data.generator.users to load a production-sized synthetic table instead
  */
 @Component
 public class DataInitializer implements CommandLineRunner {
@@ -23,12 +28,79 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired(required = false)
+    private ShardedUserStore shardedStore;
+    
+    @Value("${data.generator.users:0}")
+    private long generatedUsers;
+    
+    @Value("${data.generator.threads:4}")
+    private int generatorThreads;
+    
+    @Value("${data.generator.chunk-size:10000}")
+    private int generatorChunkSize;
+    
+    @Value("${data.generator.batch-size:1000}")
+    private int generatorBatchSize;
+    
+    @Value("${data.generator.seed:42}")
+    private long generatorSeed;
+    
+    @Value("${data.generator.city-skew:1.1}")
+    private double generatorCitySkew;
+    
     @Override
 public void run(String... args) throws Exception {
-    if (userRepository.count() == 0) {
+    if (shardedStore != null) {
+        initializeShards();
+        return;
+    }
+    
+    // Single COUNT round trip on startup
+    long existingUsers = userRepository.count();
+    if (existingUsers == 0 && generatedUsers > 0) {
+        new SyntheticUserGenerator(dataSource, generatorThreads, generatorChunkSize,
+                                   generatorBatchSize, generatorSeed, generatorCitySkew)
+            .generate(generatedUsers);
+    } else if (existingUsers == 0) {
         logger.info("Initializing database with Malaysian sample users...");
         
-        List<User> sampleUsers = Arrays.asList(
+        List<User> sampleUsers = sampleUsers();
+        userRepository.saveAll(sampleUsers);
+        logger.info("Successfully initialized database with {} Malaysian sample users", sampleUsers.size());
+    } else {
+        logger.info("Database already contains {} users, skipping initialization", existingUsers);
+    }
+}
+
+    /**
+     * Sample users go through the store so ids and email routes are allocated as for any create.
+     * The synthetic generator writes the single users table with plain JDBC batches and is skipped.
+     */
+    private void initializeShards() {
+        long existingUsers = shardedStore.count(null, null);
+        if (existingUsers > 0) {
+            logger.info("Shards already contain {} users, skipping initialization", existingUsers);
+            return;
+        }
+        if (generatedUsers > 0) {
+            logger.warn("data.generator.users is not supported with sharding.enabled, loading sample users instead");
+        }
+        
+        List<User> sampleUsers = sampleUsers();
+        for (User user : sampleUsers) {
+            shardedStore.create(new UserRequestDTO(
+                user.getFirstName(), user.getLastName(), user.getEmail(), user.getPhone(), user.getCity()));
+        }
+        logger.info("Successfully initialized {} shards with {} Malaysian sample users",
+                    shardedStore.getShardCount(), sampleUsers.size());
+    }
+    
+    private List<User> sampleUsers() {
+        return Arrays.asList(
             new User("Ahmad", "bin Abdullah", "ahmad.abdullah@company.com", "+60-12-345-6789", "Kuala Lumpur"),
             new User("Siti", "binti Aminah", "siti.aminah@company.com", "+60-19-876-5432", "Johor Bahru"),
             new User("Lim", "Wei Ming", "lim.weiming@company.com", "+60-16-234-5678", "Penang"),
@@ -60,11 +132,5 @@ public void run(String... args) throws Exception {
             new User("Anand", "Krishnan", "anand.krishnan@company.com", "+60-13-456-7890", "Sepang"),
             new User("Goh", "Swee Hock", "goh.sweehock@company.com", "+60-17-789-0123", "Puchong")
         );
-        
-        userRepository.saveAll(sampleUsers);
-        logger.info("Successfully initialized database with {} Malaysian sample users", sampleUsers.size());
-    } else {
-        logger.info("Database already contains {} users, skipping initialization", userRepository.count());
     }
-}
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.JavaSpring.Bank.config;
+
+import com.JavaSpring.Bank.stub.ExternalApiStubServer;
+import com.JavaSpring.Bank.stub.StubBehavior;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Starts the embedded JSONPlaceholder stand-in when the "stub-external" profile is active.
+ * application-stub-external.yml points external.api.jsonplaceholder.base-url at it.
+ */
+@Configuration
+@Profile("stub-external")
+public class ExternalApiStubConfig {
+    
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ExternalApiStubServer externalApiStubServer(
+            ObjectMapper objectMapper,
+            @Value("${external.stub.port:8089}") int port,
+            @Value("${external.stub.users:10}") int users,
+            @Value("${external.stub.seed:42}") long seed,
+            @Value("${external.stub.latency.distribution:none}") String distribution,
+            @Value("${external.stub.latency.min-ms:0}") long minLatencyMs,
+            @Value("${external.stub.latency.mean-ms:0}") long meanLatencyMs,
+            @Value("${external.stub.latency.sigma:1.0}") double sigma,
+            @Value("${external.stub.latency.max-ms:30000}") long maxLatencyMs,
+            @Value("${external.stub.errors.rate:0}") double errorRate,
+            @Value("${external.stub.errors.status:503}") int errorStatus,
+            @Value("${external.stub.trickle.rate:0}") double trickleRate,
+            @Value("${external.stub.trickle.chunk-bytes:64}") int trickleChunkBytes,
+            @Value("${external.stub.trickle.chunk-delay-ms:50}") long trickleChunkDelayMs) {
+        
+        StubBehavior behavior = new StubBehavior(
+            seed,
+            StubBehavior.Distribution.valueOf(distribution.trim().toUpperCase()),
+            minLatencyMs, meanLatencyMs, sigma, maxLatencyMs,
+            errorRate, errorStatus,
+            trickleRate, trickleChunkBytes, trickleChunkDelayMs);
+        
+        return new ExternalApiStubServer(port, users, behavior, objectMapper);
+    }
+}
@@ -0,0 +1,38 @@
+package com.JavaSpring.Bank.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+import org.springframework.util.ReflectionUtils;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+/**
+ * Beans that stay eager under the fast-startup profile's lazy initialization.
+ * The DataSource and EntityManagerFactory must come up before the instance reports ready,
+ * so a bad connection or a schema that fails validation stops startup instead of the first request.
+ * Beans with @Scheduled methods are only scheduled once created, so a lazy one would never run.
+ */
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+    
+    @Bean
+    public static LazyInitializationExcludeFilter eagerPersistenceBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class);
+    }
+    
+    @Bean
+    public static LazyInitializationExcludeFilter eagerScheduledBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(beanType))
+                        .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                                || AnnotatedElementUtils.hasAnnotation(method, Schedules.class));
+    }
+}
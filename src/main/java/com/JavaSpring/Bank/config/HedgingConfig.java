@@ -0,0 +1,24 @@
+package com.JavaSpring.Bank.config;
+
+import com.JavaSpring.Bank.hedging.HedgingProperties;
+import com.JavaSpring.Bank.hedging.RequestHedger;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hedging for external API fetches. The hedger is always present and passes calls straight
+ * through unless external.api.jsonplaceholder.hedging.enabled is set.
+ */
+@Configuration
+@EnableConfigurationProperties(HedgingProperties.class)
+public class HedgingConfig {
+    
+    @Bean
+    public RequestHedger requestHedger(HedgingProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RequestHedger(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+}
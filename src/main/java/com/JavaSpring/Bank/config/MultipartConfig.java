@@ -0,0 +1,50 @@
+package com.JavaSpring.Bank.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.util.Set;
+
+/**
+ * Container multipart handling stays on for every endpoint except the uploads that parse their own
+ * request stream (bulk CSV import). Those are never resolved by the DispatcherServlet, so the container
+ * does not spool the body before the handler reads it.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(MultipartProperties.class)
+@ConditionalOnProperty(name = "spring.servlet.multipart.enabled", havingValue = "true", matchIfMissing = true)
+public class MultipartConfig {
+    
+    // POST paths, relative to the context path
+    static final Set<String> STREAMED_UPLOADS = Set.of("/api/v1/users/bulk");
+    
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public MultipartResolver multipartResolver(MultipartProperties properties) {
+        StreamedUploadAwareMultipartResolver resolver = new StreamedUploadAwareMultipartResolver();
+        resolver.setResolveLazily(properties.isResolveLazily());
+        resolver.setStrictServletCompliance(properties.isStrictServletCompliance());
+        return resolver;
+    }
+    
+    static class StreamedUploadAwareMultipartResolver extends StandardServletMultipartResolver {
+        
+        @Override
+        public boolean isMultipart(HttpServletRequest request) {
+            return !isStreamedUpload(request) && super.isMultipart(request);
+        }
+        
+        static boolean isStreamedUpload(HttpServletRequest request) {
+            return "POST".equals(request.getMethod())
+                    && STREAMED_UPLOADS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+        }
+    }
+}
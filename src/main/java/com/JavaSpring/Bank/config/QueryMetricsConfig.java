@@ -0,0 +1,46 @@
+package com.JavaSpring.Bank.config;
+
+import com.JavaSpring.Bank.monitoring.QueryCountingDataSource;
+import com.JavaSpring.Bank.monitoring.QueryMetricsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Lightweight per-request SQL statement count and JDBC time instrumentation.
+ * Replaces show-sql / binder TRACE logging as the way to see query volume in production.
+ */
+@Configuration
+@ConditionalOnProperty(name = "monitoring.queries.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMetricsConfig {
+    
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+    
+    @Bean
+    public FilterRegistrationBean<QueryMetricsFilter> queryMetricsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${monitoring.queries.response-headers:false}") boolean responseHeaders) {
+        FilterRegistrationBean<QueryMetricsFilter> registration =
+            new FilterRegistrationBean<>(new QueryMetricsFilter(meterRegistry, responseHeaders));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
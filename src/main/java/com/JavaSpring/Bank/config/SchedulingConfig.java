@@ -0,0 +1,12 @@
+package com.JavaSpring.Bank.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background work (e.g. the user snapshot consistency check)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
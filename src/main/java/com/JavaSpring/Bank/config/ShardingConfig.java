@@ -0,0 +1,54 @@
+package com.JavaSpring.Bank.config;
+
+import com.JavaSpring.Bank.shard.ShardedUserStore;
+import com.JavaSpring.Bank.shard.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opt-in hash-sharded user storage (sharding.enabled=true).
+ * The primary datasource stays the routing database; users live in the shard datasources.
+ * Bulk CSV import, the city index and the user snapshot read or write the primary users table
+ * directly, so they stay on the single-database path and the snapshot may not be combined with sharding.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+    
+    @Bean(destroyMethod = "close")
+    public ShardedUserStore shardedUserStore(ShardingProperties properties,
+                                             DataSource dataSource,
+                                             PlatformTransactionManager transactionManager,
+                                             @Value("${snapshot.users.enabled:false}") boolean snapshotEnabled) {
+        if (snapshotEnabled) {
+            throw new IllegalStateException("snapshot.users.enabled cannot be combined with sharding.enabled");
+        }
+        
+        List<DataSource> shards = new ArrayList<>();
+        List<ShardingProperties.Shard> configured = properties.resolveShards();
+        for (int n = 0; n < configured.size(); n++) {
+            ShardingProperties.Shard shard = configured.get(n);
+            HikariDataSource shardDataSource = new HikariDataSource();
+            shardDataSource.setPoolName("users-shard-" + n);
+            shardDataSource.setJdbcUrl(shard.getUrl());
+            shardDataSource.setUsername(shard.getUsername() != null ? shard.getUsername() : properties.getUsername());
+            shardDataSource.setPassword(shard.getPassword() != null ? shard.getPassword() : properties.getPassword());
+            shardDataSource.setMaximumPoolSize(properties.getPoolSize());
+            shards.add(shardDataSource);
+        }
+        
+        ShardedUserStore store = new ShardedUserStore(dataSource, transactionManager, shards, properties.getIdBlockSize());
+        store.initialize();
+        return store;
+    }
+}
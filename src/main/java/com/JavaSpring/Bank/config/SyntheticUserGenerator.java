@@ -0,0 +1,189 @@
+package com.JavaSpring.Bank.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates large volumes of realistic users straight through JDBC batches.
+ * Rows are split into chunks loaded in parallel, one transaction per chunk,
+ * so nothing goes through the persistence context and ids stay database-generated.
+ * City choice follows a Zipf distribution so popular cities dominate like in production.
+ * For SQL Server add useBulkCopyForBatchInsert=true to the JDBC URL to use the bulk-copy path.
+ */
+public class SyntheticUserGenerator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticUserGenerator.class);
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO users (first_name, last_name, email, phone, city, created_at, updated_at, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+    
+    private static final String[] FIRST_NAMES = {
+        "Ahmad", "Siti", "Lim", "Priya", "Muhammad", "Tan", "Raj", "Fatimah", "Wong", "Nurul",
+        "Ravi", "Lee", "Azman", "Kavitha", "Ong", "Zainab", "Kumar", "Chong", "Salmah", "Devi",
+        "Cheah", "Halim", "Meera", "Yap", "Faizal", "Deepa", "Lau", "Rosmah", "Anand", "Goh",
+        "Aisyah", "Hafiz", "Mei Ling", "Arjun", "Farah", "Wei Jie", "Nadia", "Suresh", "Hui Min", "Amir"
+    };
+    private static final String[] LAST_NAMES = {
+        "bin Abdullah", "binti Aminah", "Wei Ming", "Devi", "Farid", "Ai Ling", "Kumar", "binti Hassan",
+        "Chee Keong", "Aina", "Shankar", "Mei Yee", "bin Omar", "Balan", "Boon Huat", "binti Yusof",
+        "Selvam", "Li Hua", "binti Rahmat", "Krishnan", "Wee Loon", "bin Rashid", "Patel", "Sook Cheng",
+        "bin Zulkifli", "Menon", "Kah Seng", "binti Ali", "Swee Hock", "Rahman", "Ismail", "Nair"
+    };
+    // Ordered by popularity, the Zipf rank follows this order
+    private static final String[] CITIES = {
+        "Kuala Lumpur", "Johor Bahru", "Petaling Jaya", "Shah Alam", "Penang", "Subang Jaya", "Ipoh",
+        "Klang", "Kuching", "Kota Kinabalu", "Seremban", "Malacca", "Ampang", "Kajang", "Puchong",
+        "Cyberjaya", "Putrajaya", "Alor Setar", "Kuantan", "Kuala Terengganu", "Kota Bharu", "Miri",
+        "Sandakan", "Tawau", "Sibu", "Batu Pahat", "Taiping", "Rawang", "Nilai", "Sepang",
+        "Muar", "Bintulu", "Kluang", "Seri Kembangan", "Temerloh", "Bentong", "Lahad Datu", "Segamat"
+    };
+    private static final String[] DOMAINS = {"gmail.com", "yahoo.com", "company.com", "hotmail.com", "outlook.com"};
+    // Cumulative domain weights: 45% gmail, 20% yahoo, 15% company, 12% hotmail, 8% outlook
+    private static final double[] DOMAIN_CDF = {0.45, 0.65, 0.80, 0.92, 1.0};
+    private static final String[] MOBILE_PREFIXES = {"12", "13", "16", "17", "19"};
+    
+    private final DataSource dataSource;
+    private final int threads;
+    private final int chunkSize;
+    private final int batchSize;
+    private final long seed;
+    private final double[] cityCdf;
+    
+    public SyntheticUserGenerator(DataSource dataSource, int threads, int chunkSize, int batchSize,
+                                  long seed, double citySkew) {
+        this.dataSource = dataSource;
+        this.threads = Math.max(1, threads);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.seed = seed;
+        this.cityCdf = zipfCdf(CITIES.length, citySkew);
+    }
+    
+    /**
+     * Insert {@code total} users and return the achieved rows per second.
+     */
+    public double generate(long total) throws InterruptedException {
+        logger.info("Generating {} synthetic users with {} threads, chunk size {}, batch size {}",
+                   total, threads, chunkSize, batchSize);
+        long start = System.nanoTime();
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long from = 0; from < total; from += chunkSize) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(total, from + chunkSize);
+                chunks.add(executor.submit(() -> {
+                    insertChunk(chunkFrom, chunkTo);
+                    return null;
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Synthetic user generation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double rowsPerSecond = total / Math.max(seconds, 1e-9);
+        logger.info("Generated {} synthetic users in {} s ({} rows/s)",
+                   total, String.format("%.2f", seconds), String.format("%.0f", rowsPerSecond));
+        return rowsPerSecond;
+    }
+    
+    private void insertChunk(long from, long to) throws SQLException {
+        // Seeded per chunk: the same settings always produce the same rows
+        SplittableRandom random = new SplittableRandom(seed * 1_000_003 + from);
+        LocalDateTime now = LocalDateTime.now();
+        
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                int pending = 0;
+                for (long index = from; index < to; index++) {
+                    String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                    String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                    Timestamp createdAt = Timestamp.valueOf(now.minusMinutes(random.nextLong(3L * 365 * 24 * 60)));
+                    
+                    statement.setString(1, firstName);
+                    statement.setString(2, lastName);
+                    statement.setString(3, email(firstName, lastName, index, random));
+                    statement.setString(4, String.format("+60-%s-%03d-%04d",
+                        MOBILE_PREFIXES[random.nextInt(MOBILE_PREFIXES.length)], random.nextInt(1000), random.nextInt(10000)));
+                    statement.setString(5, CITIES[sample(cityCdf, random.nextDouble())]);
+                    statement.setTimestamp(6, createdAt);
+                    statement.setTimestamp(7, createdAt);
+                    statement.addBatch();
+                    
+                    if (++pending == batchSize) {
+                        statement.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    statement.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        logger.debug("Inserted synthetic users {} - {}", from, to - 1);
+    }
+    
+    /**
+     * The row index keeps emails unique without a lookup.
+     */
+    private static String email(String firstName, String lastName, long index, SplittableRandom random) {
+        String local = (firstName + "." + lastName).toLowerCase(Locale.ROOT)
+                .replace("bin ", "").replace("binti ", "").replace(' ', '.');
+        return local + "." + index + "@" + DOMAINS[sample(DOMAIN_CDF, random.nextDouble())];
+    }
+    
+    static double[] zipfCdf(int size, double exponent) {
+        double[] cdf = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1.0 / Math.pow(rank, exponent);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+    
+    static int sample(double[] cdf, double value) {
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,88 @@
+package com.JavaSpring.Bank.controller;
+
+import com.JavaSpring.Bank.dto.request.JobRequestDTO;
+import com.JavaSpring.Bank.job.JobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background jobs for long-running user operations.
+ * Submitting returns 202 with the job id at once; progress, throughput and the outcome are read from
+ * GET /api/v1/jobs/{id}, and DELETE asks the job to stop.
+ */
+@RestController
+@RequestMapping("/api/v1/jobs")
+@Validated
+@CrossOrigin(origins = "*")
+public class JobController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobController.class);
+    
+    @Autowired
+    private JobService jobService;
+    
+    /**
+     * Queue a job, e.g. {"type": "external-import", "parameters": {"externalIds": [1, 2, 3]}}
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submitJob(@Valid @RequestBody JobRequestDTO request) {
+        logger.info("REQUEST - POST /v1/jobs - Submitting {} job, parameters: {}", 
+                   request.getType(), request.getParameters());
+        
+        Map<String, Object> job = jobService.submit(request.getType().trim(), request.getParameters());
+        
+        logger.info("RESPONSE - POST /v1/jobs - Status: 202, Job {} {}", job.get("id"), job.get("status"));
+        return ResponseEntity.accepted().location(URI.create("/api/v1/jobs/" + job.get("id"))).body(job);
+    }
+    
+    /**
+     * Most recent jobs, newest first
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getJobs(
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        logger.info("REQUEST - GET /v1/jobs - Listing {} most recent jobs", limit);
+        
+        List<Map<String, Object>> jobs = jobService.getRecentJobs(limit);
+        
+        logger.info("RESPONSE - GET /v1/jobs - Status: 200, Jobs: {}", jobs.size());
+        return ResponseEntity.ok(jobs);
+    }
+    
+    /**
+     * Status, progress (processed, failed, total, percent), items per second and per-item errors
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String id) {
+        logger.info("REQUEST - GET /v1/jobs/{} - Fetching job", id);
+        
+        Map<String, Object> job = jobService.getJob(id);
+        
+        logger.info("RESPONSE - GET /v1/jobs/{} - Status: 200, Job status: {}", id, job.get("status"));
+        return ResponseEntity.ok(job);
+    }
+    
+    /**
+     * Cancel a queued job or stop a running one at its next item; 409 once it has finished
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> cancelJob(@PathVariable String id) {
+        logger.info("REQUEST - DELETE /v1/jobs/{} - Cancelling job", id);
+        
+        Map<String, Object> job = jobService.cancel(id);
+        
+        logger.info("RESPONSE - DELETE /v1/jobs/{} - Status: 202, Job status: {}", id, job.get("status"));
+        return ResponseEntity.accepted().body(job);
+    }
+}
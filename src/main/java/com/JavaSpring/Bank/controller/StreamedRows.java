@@ -0,0 +1,70 @@
+package com.JavaSpring.Bank.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Template iteration over a row stream that flushes the response every chunk of rows,
+ * so a streamed page reaches the browser while the query is still being read.
+ * Closes the stream once exhausted; {@link #close()} also covers renders that stop early.
+ */
+final class StreamedRows<T> implements Iterator<T>, AutoCloseable {
+    
+    private final Stream<T> rows;
+    private final Iterator<T> iterator;
+    private final HttpServletResponse response;
+    private final int chunkSize;
+    private int served;
+    private boolean closed;
+    
+    StreamedRows(Stream<T> rows, HttpServletResponse response, int chunkSize) {
+        this.rows = rows;
+        this.iterator = rows.iterator();
+        this.response = response;
+        this.chunkSize = chunkSize;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        // Everything rendered so far goes out before the next chunk is read
+        if (served % chunkSize == 0) {
+            flush();
+        }
+        if (iterator.hasNext()) {
+            return true;
+        }
+        close();
+        return false;
+    }
+    
+    @Override
+    public T next() {
+        T row = iterator.next();
+        served++;
+        return row;
+    }
+    
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            rows.close();
+        }
+    }
+    
+    private void flush() {
+        try {
+            response.flushBuffer();
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Client went away during a streamed render", e);
+        }
+    }
+}
@@ -1,23 +1,49 @@
 package com.JavaSpring.Bank.controller;
 
+import com.JavaSpring.Bank.dto.request.UserBulkUpdateRequestDTO;
+import com.JavaSpring.Bank.dto.request.UserMultiGetRequestDTO;
 import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.JavaSpring.Bank.dto.response.MultiGetResponseDTO;
+import com.JavaSpring.Bank.dto.response.UserLookupDTO;
 import com.JavaSpring.Bank.dto.response.UserResponseDTO;
 import com.JavaSpring.Bank.dto.response.PagedResponseDTO;
 import com.JavaSpring.Bank.service.UserService;
 import com.JavaSpring.Bank.service.ExternalApiService;
 import com.JavaSpring.Bank.dto.external.ExternalUserDTO;
+import com.JavaSpring.Bank.exception.StaleResourceException;
+import com.JavaSpring.Bank.event.UserChangeBroadcaster;
+import com.JavaSpring.Bank.bulk.UserBulkChangeService;
+import com.JavaSpring.Bank.bulk.UserCsvImportService;
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import com.JavaSpring.Bank.projection.UserFieldSet;
+import com.JavaSpring.Bank.projection.UserProjection;
+import com.JavaSpring.Bank.snapshot.UserSnapshot;
+import com.JavaSpring.Bank.sync.ExternalUserSyncService;
+import com.JavaSpring.Bank.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Max;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -44,27 +70,50 @@ public class UserController {
     @Autowired
     private ExternalApiService externalApiService;
     
+    @Autowired
+    private UserChangeBroadcaster userChangeBroadcaster;
+    
+    @Autowired
+    private UserCsvImportService userCsvImportService;
+    
+    @Autowired
+    private UserBulkChangeService userBulkChangeService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ExternalUserSyncService externalUserSyncService;
+    
+    @Value("${multi-get.users.max-ids:1000}")
+    private int maxMultiGetIds;
+    
     /**
      * Get all users with pagination
      * @Transactional(readOnly = true) - handled by UserService
      * Default page size: 10 (as required by assessment)
+     * fields=id,email,city narrows both the SQL projection and each user in the response (id is always included)
      */
     @GetMapping
-    public ResponseEntity<PagedResponseDTO<UserResponseDTO>> getAllUsers(
+    public ResponseEntity<PagedResponseDTO<?>> getAllUsers(
             @RequestParam(defaultValue = "0") @Min(0) int page,
             @RequestParam(defaultValue = "10") @Min(1) @Max(50) int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDir,
             @RequestParam(required = false) String city,
-            @RequestParam(required = false) String keyword) {
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String fields) {
         
         // REQUEST LOGGING as required by assessment
-        logger.info("REQUEST - GET /v1/users - Loading users page: {}, size: {}, city: {}, keyword: {}", 
-                   page, size, city, keyword);
+        logger.info("REQUEST - GET /v1/users - Loading users page: {}, size: {}, city: {}, keyword: {}, fields: {}", 
+                   page, size, city, keyword, fields);
         
-        Page<UserResponseDTO> users = userService.getAllUsers(page, size, sortBy, sortDir, city, keyword);
+        UserFieldSet fieldSet = UserFieldSet.parse(fields);
+        Page<?> users = fieldSet != null
+                ? userService.getAllUsers(page, size, sortBy, sortDir, city, keyword, fieldSet)
+                : userService.getAllUsers(page, size, sortBy, sortDir, city, keyword);
         
-        PagedResponseDTO<UserResponseDTO> response = new PagedResponseDTO<>(
+        PagedResponseDTO<?> response = new PagedResponseDTO<>(
             users.getContent(),
             users.getNumber(),
             users.getSize(),
@@ -75,6 +124,7 @@ public class UserController {
             sortBy,
             sortDir
         );
+        response.setCityFacets(userService.getCityFacets(keyword));
         
         // RESPONSE LOGGING as required by assessment
         logger.info("RESPONSE - GET /v1/users - Status: 200, Total Elements: {}, Current Page: {}, Page Size: {}", 
@@ -83,18 +133,75 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Stream of committed user changes as Server-Sent Events ("user" events, JSON payload).
+     * Browsers resend the last seen event id on reconnect and receive what they missed;
+     * a "reset" event means the gap is too old to replay and the client should reload.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        logger.info("REQUEST - GET /v1/users/stream - Last-Event-ID: {}", lastEventId);
+        
+        SseEmitter emitter = userChangeBroadcaster.subscribe(lastEventId);
+        
+        logger.info("RESPONSE - GET /v1/users/stream - Status: 200, Subscribers: {}", 
+                   userChangeBroadcaster.getSubscriberCount());
+        return emitter;
+    }
+    
     /**
      * Get user by ID
      * @Transactional(readOnly = true) - handled by UserService
+     * fields= selects a subset of the user fields, as on the list endpoint
      */
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponseDTO> getUserById(@PathVariable @Min(1) Long id) {
-        logger.info("REQUEST - GET /v1/users/{} - User ID: {}", id, id);
+    public ResponseEntity<?> getUserById(@PathVariable @Min(1) Long id,
+                                         @RequestParam(required = false) String fields) {
+        logger.info("REQUEST - GET /v1/users/{} - User ID: {}, fields: {}", id, id, fields);
+        
+        UserFieldSet fieldSet = UserFieldSet.parse(fields);
+        if (fieldSet != null) {
+            UserProjection user = userService.getUserById(id, fieldSet);
+            logger.info("RESPONSE - GET /v1/users/{} - Status: 200, Fields: {}", id, fieldSet);
+            return ResponseEntity.ok().eTag(String.valueOf(user.getVersion())).body(user);
+        }
+        
+        // Warm path: the pre-rendered body from the memory-mapped snapshot, written as-is
+        UserSnapshot.Cached cached = userService.getCachedUserById(id);
+        if (cached != null) {
+            logger.info("RESPONSE - GET /v1/users/{} - Status: 200, Served from snapshot", id);
+            return ResponseEntity.ok()
+                    .eTag(String.valueOf(cached.version()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(cached.json());
+        }
         
         UserResponseDTO user = userService.getUserById(id);
         
         logger.info("RESPONSE - GET /v1/users/{} - Status: 200, User found: {}", id, user.getEmail());
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok().eTag(String.valueOf(user.getVersion())).body(user);
+    }
+    
+    /**
+     * Get many users by ID in one call, e.g. {"ids": [3, 1, 42]}
+     * Results follow the request order; ids without a user come back with found=false instead of a 404.
+     * fields= selects a subset of the user fields, as on the list endpoint
+     */
+    @PostMapping("/_mget")
+    public ResponseEntity<MultiGetResponseDTO> getUsersByIds(@Valid @RequestBody UserMultiGetRequestDTO request,
+                                                             @RequestParam(required = false) String fields) {
+        logger.info("REQUEST - POST /v1/users/_mget - Ids: {}, fields: {}", request.getIds().size(), fields);
+        
+        if (request.getIds().size() > maxMultiGetIds) {
+            throw new InvalidRequestException("At most " + maxMultiGetIds + " ids per request, got " + request.getIds().size());
+        }
+        List<UserLookupDTO> users = userService.getUsersByIds(request.getIds(), UserFieldSet.parse(fields));
+        MultiGetResponseDTO response = new MultiGetResponseDTO(users);
+        
+        logger.info("RESPONSE - POST /v1/users/_mget - Status: 200, Found: {}, Missing: {}", 
+                   response.getFound(), response.getMissing());
+        return ResponseEntity.ok(response);
     }
     
     /**
@@ -111,32 +218,100 @@ public class UserController {
         return ResponseEntity.status(201).body(createdUser);
     }
     
+    /**
+     * Bulk create users from a CSV file (multipart field "file").
+     * The upload is parsed as it arrives and the response is newline-delimited JSON written as rows
+     * are processed: "error" lines per rejected row, "progress" lines per chunk and a final "summary".
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public void bulkImportUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.info("REQUEST - POST /v1/users/bulk - Content-Length: {}", request.getContentLengthLong());
+        
+        FileItemInput file = findFilePart(request);
+        
+        // Content type is set on the first line so header errors can still become a JSON 400
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Map<String, Object> summary;
+        try {
+            summary = userCsvImportService.importCsv(file.getInputStream(), message -> {
+                try {
+                    if (response.getContentType() == null) {
+                        response.setContentType("application/x-ndjson");
+                    }
+                    Writer writer = response.getWriter();
+                    writer.write(objectMapper.writeValueAsString(message));
+                    writer.write('\n');
+                    if (!"error".equals(message.get("type"))) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException("Client disconnected during bulk import", e);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                throw e;
+            }
+            // Too late for an error status; the stream ends with a failure line instead of a summary
+            logger.error("Bulk import failed after streaming started", e);
+            Map<String, Object> failure = new HashMap<>();
+            failure.put("type", "failed");
+            failure.put("message", e.getMessage());
+            response.getWriter().write(objectMapper.writeValueAsString(failure) + "\n");
+            response.getWriter().flush();
+            return;
+        }
+        response.getWriter().flush();
+        
+        logger.info("RESPONSE - POST /v1/users/bulk - Status: 200, Summary: {}", summary);
+    }
+    
+    private static FileItemInput findFilePart(HttpServletRequest request) throws IOException {
+        if (!JakartaServletFileUpload.isMultipartContent(request)) {
+            throw new InvalidRequestException("Expected a multipart/form-data upload");
+        }
+        FileItemInputIterator items = new JakartaServletFileUpload<>().getItemIterator(request);
+        while (items.hasNext()) {
+            FileItemInput item = items.next();
+            if (!item.isFormField() && "file".equals(item.getFieldName())) {
+                return item;
+            }
+        }
+        throw new InvalidRequestException("Multipart upload has no \"file\" part");
+    }
+    
     /**
      * Update existing user
      * @Transactional - handled by UserService
+     * Optional If-Match header carries the ETag (version) from a previous GET
      */
     @PutMapping("/{id}")
     public ResponseEntity<UserResponseDTO> updateUser(
             @PathVariable @Min(1) Long id, 
+            @RequestHeader(value = "If-Match", required = false) String ifMatch,
             @Valid @RequestBody UserRequestDTO request) {
         
-        logger.info("REQUEST - PUT /v1/users/{} - Updating user with email: {}", id, request.getEmail());
+        logger.info("REQUEST - PUT /v1/users/{} - Updating user with email: {}, If-Match: {}", 
+                   id, request.getEmail(), ifMatch);
         
-        UserResponseDTO updatedUser = userService.updateUser(id, request);
+        UserResponseDTO updatedUser = userService.updateUser(id, request, parseIfMatch(ifMatch));
         
-        logger.info("RESPONSE - PUT /v1/users/{} - Status: 200, User updated", id);
-        return ResponseEntity.ok(updatedUser);
+        logger.info("RESPONSE - PUT /v1/users/{} - Status: 200, User updated to version {}", id, updatedUser.getVersion());
+        return ResponseEntity.ok().eTag(String.valueOf(updatedUser.getVersion())).body(updatedUser);
     }
     
     /**
      * Delete user
      * @Transactional - handled by UserService
+     * Optional If-Match header carries the ETag (version) from a previous GET
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> deleteUser(@PathVariable @Min(1) Long id) {
-        logger.info("REQUEST - DELETE /v1/users/{} - Deleting user", id);
+    public ResponseEntity<Map<String, Object>> deleteUser(
+            @PathVariable @Min(1) Long id,
+            @RequestHeader(value = "If-Match", required = false) String ifMatch) {
+        logger.info("REQUEST - DELETE /v1/users/{} - Deleting user, If-Match: {}", id, ifMatch);
         
-        userService.deleteUser(id);
+        userService.deleteUser(id, parseIfMatch(ifMatch));
         
         Map<String, Object> response = new HashMap<>();
         response.put("message", "User deleted successfully");
@@ -148,6 +323,43 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Delete every user matching the city/keyword filters of GET /api/v1/users; at least one is required.
+     * Runs as chunked set-based deletes and returns affected rows and elapsed time per chunk.
+     */
+    @DeleteMapping
+    public ResponseEntity<Map<String, Object>> deleteUsersByFilter(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String keyword) {
+        logger.info("REQUEST - DELETE /v1/users - Bulk delete by city: {}, keyword: {}", city, keyword);
+        
+        Map<String, Object> report = userBulkChangeService.deleteByFilter(city, keyword);
+        
+        logger.info("RESPONSE - DELETE /v1/users - Status: 200, Deleted: {}, Duration: {} ms", 
+                   report.get("affected"), report.get("durationMs"));
+        return ResponseEntity.ok(report);
+    }
+    
+    /**
+     * Set the given fields on every user matching the city/keyword filters of GET /api/v1/users;
+     * at least one filter is required. Runs as chunked set-based updates and returns affected rows
+     * and elapsed time per chunk.
+     */
+    @PatchMapping
+    public ResponseEntity<Map<String, Object>> updateUsersByFilter(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String keyword,
+            @Valid @RequestBody UserBulkUpdateRequestDTO request) {
+        logger.info("REQUEST - PATCH /v1/users - Bulk update by city: {}, keyword: {}, changes: {}", 
+                   city, keyword, request);
+        
+        Map<String, Object> report = userBulkChangeService.updateByFilter(city, keyword, request);
+        
+        logger.info("RESPONSE - PATCH /v1/users - Status: 200, Updated: {}, Duration: {} ms", 
+                   report.get("affected"), report.get("durationMs"));
+        return ResponseEntity.ok(report);
+    }
+    
     /**
      * External API Integration - Get users from JSONPlaceholder
      * Demonstrates nested API calling pattern:
@@ -179,4 +391,56 @@ public class UserController {
                    externalId, importedUser.getId());
         return ResponseEntity.status(201).body(importedUser);
     }
+    
+    /**
+     * Run the external user sync now instead of waiting for the schedule.
+     * Returns the run report; 409 while a run is already in progress.
+     */
+    @PostMapping("/sync/external")
+    public ResponseEntity<Map<String, Object>> syncExternalUsers() {
+        logger.info("REQUEST - POST /v1/users/sync/external - Synchronizing users from external API");
+        
+        Map<String, Object> report = externalUserSyncService.synchronize();
+        
+        logger.info("RESPONSE - POST /v1/users/sync/external - Status: 200, Report: {}", report);
+        return ResponseEntity.ok(report);
+    }
+    
+    /**
+     * Report of the most recent external user sync, scheduled or manual
+     */
+    @GetMapping("/sync/external")
+    public ResponseEntity<Map<String, Object>> getExternalSyncReport() {
+        logger.info("REQUEST - GET /v1/users/sync/external - Fetching last sync report");
+        
+        Map<String, Object> report = externalUserSyncService.getLastReport();
+        if (report == null) {
+            throw new ResourceNotFoundException("No external user sync has run yet");
+        }
+        
+        logger.info("RESPONSE - GET /v1/users/sync/external - Status: 200, Status: {}", report.get("status"));
+        return ResponseEntity.ok(report);
+    }
+    
+    /**
+     * Convert an If-Match header into the expected entity version.
+     * Missing header or "*" means unconditional (null).
+     */
+    private Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new StaleResourceException("If-Match does not match any version: " + ifMatch);
+        }
+    }
 }
\ No newline at end of file
@@ -1,15 +1,26 @@
 package com.JavaSpring.Bank.controller;
 
 import com.JavaSpring.Bank.service.UserService;
+import com.JavaSpring.Bank.service.UserStreamService;
 import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.monitoring.LiveMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.Semaphore;
 
 /**
  * Web Controller for serving HTML pages
@@ -20,9 +31,30 @@ public class WebController {
     
     private static final Logger logger = LoggerFactory.getLogger(WebController.class);
     
+    // Rows rendered between flushes of a streamed page
+    private static final int STREAM_CHUNK_ROWS = 50;
+    
     @Autowired
     private UserService userService;  // NOW USES REAL DATABASE!
     
+    @Autowired
+    private UserStreamService userStreamService;
+    
+    @Autowired
+    private LiveMetrics liveMetrics;
+    
+    // Page sizes above this are streamed instead of loaded into the model
+    @Value("${web.users.stream-threshold:200}")
+    private int streamThreshold;
+    
+    // Each streamed page holds a pooled connection until its last row is rendered, and /users
+    // is outside admission control, so only this many may render at once
+    private final Semaphore streamedRenders;
+    
+    public WebController(@Value("${web.users.max-concurrent-streams:4}") int maxConcurrentStreams) {
+        this.streamedRenders = new Semaphore(maxConcurrentStreams);
+    }
+    
     /**
      * Home page
      */
@@ -49,8 +81,28 @@ public class WebController {
         return "dashboard";
     }
     
+    /**
+     * Live performance panel feed: one "metrics" Server-Sent Event per monitoring.live.interval
+     * with request rate and latency per endpoint, connection pool usage, cache hit ratios and
+     * external API latency
+     */
+    @GetMapping(value = LiveMetrics.STREAM_URI, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter dashboardMetrics() {
+        logger.info("REQUEST - GET {} - Opening live metrics stream", LiveMetrics.STREAM_URI);
+        
+        SseEmitter emitter = liveMetrics.subscribe();
+        
+        logger.info("RESPONSE - GET {} - Status: 200, Subscribers: {}", LiveMetrics.STREAM_URI,
+                   liveMetrics.getSubscriberCount());
+        return emitter;
+    }
+    
     /**
      * Users list page - NOW USES REAL DATABASE
+     * Pages larger than web.users.stream-threshold are streamed: rows are read from the database
+     * and rendered in chunks instead of loading the whole page into the model first. At most
+     * web.users.max-concurrent-streams pages are streamed at once; further ones get a 503.
      */
     @GetMapping("/users")
     public String usersList(
@@ -58,38 +110,81 @@ public class WebController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String city,
             @RequestParam(required = false) String keyword,
-            Model model) {
+            Model model,
+            HttpServletResponse response) {
         
         logger.info("REQUEST - GET /users - Loading users list page: {}, size: {}, city: {}, keyword: {}", 
                    page, size, city, keyword);
         
         try {
-            // GET REAL DATABASE DATA instead of simulation
-            Page<UserResponseDTO> usersPage = userService.getAllUsers(page, size, "id", "asc", city, keyword);
+            long totalUsers;
+            int pageRows;
+            if (size > streamThreshold && !streamedRenders.tryAcquire()) {
+                logger.warn("RESPONSE - GET /users - Status: 503, too many streamed pages rendering, size: {}", size);
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader("Retry-After", "1");
+                totalUsers = 0;
+                pageRows = 0;
+                model.addAttribute("users", java.util.Collections.emptyList());
+                model.addAttribute("errorMessage", "Too many large pages are being rendered, please retry shortly or use a smaller page size");
+            } else if (size > streamThreshold) {
+                boolean handedOver = false;
+                try {
+                    totalUsers = userService.countUsers(city, keyword);
+                    pageRows = (int) Math.max(0, Math.min(size, totalUsers - (long) page * size));
+                    
+                    StreamedRows<UserResponseDTO> rows = new StreamedRows<>(
+                            userStreamService.streamUsers(page, size, city, keyword), response, STREAM_CHUNK_ROWS);
+                    // Closes the query if rendering stops before the last row, and frees the permit
+                    RequestContextHolder.currentRequestAttributes()
+                            .registerDestructionCallback(StreamedRows.class.getName(), () -> {
+                                try {
+                                    rows.close();
+                                } finally {
+                                    streamedRenders.release();
+                                }
+                            }, RequestAttributes.SCOPE_REQUEST);
+                    handedOver = true;
+                    model.addAttribute("users", rows);
+                } finally {
+                    if (!handedOver) {
+                        streamedRenders.release();
+                    }
+                }
+            } else {
+                // GET REAL DATABASE DATA instead of simulation
+                Page<UserResponseDTO> usersPage = userService.getAllUsers(page, size, "id", "asc", city, keyword);
+                totalUsers = usersPage.getTotalElements();
+                pageRows = usersPage.getNumberOfElements();
+                model.addAttribute("users", usersPage.getContent());
+            }
+            int totalPages = size > 0 ? (int) ((totalUsers + size - 1) / size) : 0;
             
             model.addAttribute("title", "Users Management");
-            model.addAttribute("users", usersPage.getContent());
+            model.addAttribute("pageRows", pageRows);
             model.addAttribute("currentPage", page);
             model.addAttribute("pageSize", size);
-            model.addAttribute("totalPages", usersPage.getTotalPages());
-            model.addAttribute("totalUsers", usersPage.getTotalElements());
-            model.addAttribute("hasNext", usersPage.hasNext());
-            model.addAttribute("hasPrevious", usersPage.hasPrevious());
+            model.addAttribute("totalPages", totalPages);
+            model.addAttribute("totalUsers", totalUsers);
+            model.addAttribute("hasNext", page + 1 < totalPages);
+            model.addAttribute("hasPrevious", page > 0);
             model.addAttribute("city", city);
             model.addAttribute("keyword", keyword);
+            model.addAttribute("cityFacets", userService.getCityFacets(keyword));
             
             // Page range for pagination controls
             int startPage = Math.max(0, page - 2);
-            int endPage = Math.min(usersPage.getTotalPages() - 1, page + 2);
+            int endPage = Math.min(totalPages - 1, page + 2);
             model.addAttribute("startPage", startPage);
             model.addAttribute("endPage", endPage);
             
             logger.info("RESPONSE - GET /users - Users list page loaded for page {} with {} users", 
-                       page, usersPage.getNumberOfElements());
+                       page, pageRows);
                        
         } catch (Exception e) {
             logger.error("Error loading users page: {}", e.getMessage());
             model.addAttribute("users", java.util.Collections.emptyList());
+            model.addAttribute("pageRows", 0);
             model.addAttribute("totalUsers", 0);
             model.addAttribute("errorMessage", "Error loading users from database");
         }
@@ -0,0 +1,29 @@
+package com.JavaSpring.Bank.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.Map;
+
+public class JobRequestDTO {
+    
+    @NotBlank(message = "Job type is required")
+    private String type;
+    
+    // Type-specific; see the job handler
+    private Map<String, Object> parameters;
+    
+    // Constructors
+    public JobRequestDTO() {}
+    
+    public JobRequestDTO(String type, Map<String, Object> parameters) {
+        this.type = type;
+        this.parameters = parameters;
+    }
+    
+    // Getters and Setters
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    
+    public Map<String, Object> getParameters() { return parameters; }
+    public void setParameters(Map<String, Object> parameters) { this.parameters = parameters; }
+}
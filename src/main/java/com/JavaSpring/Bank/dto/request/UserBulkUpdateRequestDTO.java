@@ -0,0 +1,63 @@
+package com.JavaSpring.Bank.dto.request;
+
+import jakarta.validation.constraints.Null;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Fields set on every user matched by PATCH /api/v1/users. Absent (null) fields are left unchanged;
+ * an empty phone or city clears it.
+ */
+public class UserBulkUpdateRequestDTO {
+    
+    @Size(min = 2, max = 50, message = "First name must be between 2 and 50 characters")
+    private String firstName;
+    
+    @Size(min = 2, max = 50, message = "Last name must be between 2 and 50 characters")
+    private String lastName;
+    
+    // Unique per user, so it can never be set on a set of rows
+    @Null(message = "Email cannot be changed by a bulk update")
+    private String email;
+    
+    @Size(max = 20, message = "Phone number cannot exceed 20 characters")
+    private String phone;
+    
+    @Size(max = 100, message = "City name cannot exceed 100 characters")
+    private String city;
+    
+    // Constructors
+    public UserBulkUpdateRequestDTO() {}
+    
+    public UserBulkUpdateRequestDTO(String firstName, String lastName, String phone, String city) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.phone = phone;
+        this.city = city;
+    }
+    
+    // Getters and Setters
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+    
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+    
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+    
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+    
+    @Override
+    public String toString() {
+        return "UserBulkUpdateRequestDTO{" +
+                "firstName='" + firstName + '\'' +
+                ", lastName='" + lastName + '\'' +
+                ", phone='" + phone + '\'' +
+                ", city='" + city + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,24 @@
+package com.JavaSpring.Bank.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public class UserMultiGetRequestDTO {
+    
+    @NotEmpty(message = "At least one id is required")
+    private List<@NotNull(message = "Ids cannot be null") @Min(value = 1, message = "Ids must be positive") Long> ids;
+    
+    // Constructors
+    public UserMultiGetRequestDTO() {}
+    
+    public UserMultiGetRequestDTO(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    // Getters and Setters
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+}
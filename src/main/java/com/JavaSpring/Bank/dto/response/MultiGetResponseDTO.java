@@ -0,0 +1,28 @@
+package com.JavaSpring.Bank.dto.response;
+
+import java.util.List;
+
+public class MultiGetResponseDTO {
+    
+    // One entry per requested id, in request order
+    private List<UserLookupDTO> users;
+    private int found;
+    private int missing;
+    
+    // Constructor
+    public MultiGetResponseDTO(List<UserLookupDTO> users) {
+        this.users = users;
+        this.found = (int) users.stream().filter(UserLookupDTO::isFound).count();
+        this.missing = users.size() - found;
+    }
+    
+    // Getters and Setters
+    public List<UserLookupDTO> getUsers() { return users; }
+    public void setUsers(List<UserLookupDTO> users) { this.users = users; }
+    
+    public int getFound() { return found; }
+    public void setFound(int found) { this.found = found; }
+    
+    public int getMissing() { return missing; }
+    public void setMissing(int missing) { this.missing = missing; }
+}
@@ -1,6 +1,9 @@
 package com.JavaSpring.Bank.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
+import java.util.Map;
 
 public class PagedResponseDTO<T> {
     
@@ -13,6 +16,9 @@ public class PagedResponseDTO<T> {
     private boolean hasPrevious;
     private String sortBy;
     private String sortDirection;
+    // Users per city for the current keyword, ignoring the city filter
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, Long> cityFacets;
     
     // Constructor
     public PagedResponseDTO(List<T> content, int currentPage, int pageSize, 
@@ -56,4 +62,7 @@ public class PagedResponseDTO<T> {
     
     public String getSortDirection() { return sortDirection; }
     public void setSortDirection(String sortDirection) { this.sortDirection = sortDirection; }
+    
+    public Map<String, Long> getCityFacets() { return cityFacets; }
+    public void setCityFacets(Map<String, Long> cityFacets) { this.cityFacets = cityFacets; }
 }
\ No newline at end of file
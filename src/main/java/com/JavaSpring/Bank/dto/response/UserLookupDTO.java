@@ -0,0 +1,32 @@
+package com.JavaSpring.Bank.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One requested id of a multi-get: the user, or found=false when no user has that id
+ */
+public class UserLookupDTO {
+    
+    private Long id;
+    private boolean found;
+    // UserResponseDTO or a sparse UserProjection; omitted when not found
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Object user;
+    
+    // Constructor
+    public UserLookupDTO(Long id, Object user) {
+        this.id = id;
+        this.found = user != null;
+        this.user = user;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public boolean isFound() { return found; }
+    public void setFound(boolean found) { this.found = found; }
+    
+    public Object getUser() { return user; }
+    public void setUser(Object user) { this.user = user; }
+}
@@ -13,6 +13,7 @@ public class UserResponseDTO {
     private String city;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     
     // Default constructor
     public UserResponseDTO() {}
@@ -27,6 +28,7 @@ public class UserResponseDTO {
         this.city = user.getCity();
         this.createdAt = user.getCreatedAt();
         this.updatedAt = user.getUpdatedAt();
+        this.version = user.getVersion();
     }
     
     // Getters and Setters
@@ -54,6 +56,9 @@ public class UserResponseDTO {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     @Override
     public String toString() {
         return "UserResponseDTO{" +
@@ -65,6 +70,7 @@ public class UserResponseDTO {
                 ", city='" + city + '\'' +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
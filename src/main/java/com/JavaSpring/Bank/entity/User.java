@@ -6,13 +6,22 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GeneratedColumn;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users", 
-       uniqueConstraints = @UniqueConstraint(columnNames = "email"))
+       uniqueConstraints = @UniqueConstraint(columnNames = "email"),
+       // Serve the sortable list columns and findByCity without a full scan (QueryPlanRegressionTest)
+       indexes = {
+           @Index(name = "idx_users_first_name", columnList = "first_name"),
+           @Index(name = "idx_users_last_name", columnList = "last_name"),
+           @Index(name = "idx_users_city", columnList = "city"),
+           @Index(name = "idx_users_city_key", columnList = "city_key"),
+           @Index(name = "idx_users_created_at", columnList = "created_at")
+       })
 public class User {
     
     @Id
@@ -42,6 +51,12 @@ public class User {
     @Column(name = "city", length = 100)
     private String city;
     
+    // City as CityIndex.normalize has it, computed by the database so every writer keeps it current.
+    // The case-insensitive city filter compares this column, so it can seek idx_users_city_key.
+    @GeneratedColumn("LOWER(LTRIM(RTRIM(city)))")
+    @Column(name = "city_key", length = 100, insertable = false, updatable = false)
+    private String cityKey;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -50,6 +65,10 @@ public class User {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    
     // Constructors
     public User() {}
     
@@ -86,6 +105,9 @@ public class User {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     @Override
     public String toString() {
         return "User{" +
@@ -97,6 +119,7 @@ public class User {
                 ", city='" + city + '\'' +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,230 @@
+package com.JavaSpring.Bank.event;
+
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans committed user changes out to Server-Sent Events subscribers.
+ *
+ * Publishing never blocks on a client: each subscriber has a bounded queue drained by its own
+ * virtual thread. A subscriber whose queue fills up is sent what it already queued and then
+ * disconnected; the browser reconnects with Last-Event-ID and is replayed from the history
+ * buffer, or told to reload if it fell further behind than the history reaches. The replay is
+ * written straight to the stream, so a gap wider than the queue still makes progress.
+ */
+@Component
+public class UserChangeBroadcaster {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeBroadcaster.class);
+    
+    public static final String CHANGE_EVENT = "user";
+    public static final String RESET_EVENT = "reset";
+    
+    private final int bufferSize;
+    private final int historySize;
+    private final Duration heartbeat;
+    private final long timeoutMillis;
+    
+    // Guarded by this: sequence numbers, history and registration are updated together
+    // so a resuming subscriber never misses or duplicates an event
+    private long sequence;
+    private final ArrayDeque<ChangeMessage> history;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter overflows;
+    
+    public UserChangeBroadcaster(@Value("${events.users.buffer-size:256}") int bufferSize,
+                                 @Value("${events.users.history-size:1024}") int historySize,
+                                 @Value("${events.users.heartbeat:15s}") Duration heartbeat,
+                                 @Value("${events.users.timeout:30m}") Duration timeout,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.heartbeat = heartbeat;
+        this.timeoutMillis = timeout.toMillis();
+        this.history = new ArrayDeque<>(historySize);
+        
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("users.stream.subscribers", subscribers, Set::size)
+                .description("Open user change streams")
+                .register(registry);
+        overflows = Counter.builder("users.stream.overflows")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(registry);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        publish(event);
+    }
+    
+    synchronized void publish(UserChangedEvent event) {
+        ChangeMessage message = new ChangeMessage(++sequence, event.getType(), event.getUserId(),
+                event.getUser(), event.getCount(), event.getUserIds(), event.getChanges(), LocalDateTime.now());
+        if (history.size() == historySize) {
+            history.removeFirst();
+        }
+        history.addLast(message);
+        
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(message);
+        }
+    }
+    
+    /**
+     * Open a stream, replaying everything after {@code lastEventId} when it is still in history.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        
+        synchronized (this) {
+            Long resumeFrom = parseEventId(lastEventId);
+            if (resumeFrom != null) {
+                long oldest = history.isEmpty() ? sequence + 1 : history.peekFirst().id();
+                if (resumeFrom > sequence || resumeFrom < oldest - 1) {
+                    // Restarted server or gap wider than the history: the client must reload
+                    subscriber.reset = true;
+                } else {
+                    // Sent before anything queued from now on, so the order is kept
+                    subscriber.replay = history.stream().filter(message -> message.id() > resumeFrom).toList();
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        Thread.ofVirtual().name("user-stream").start(subscriber::drain);
+        return emitter;
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+    
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+    
+    /**
+     * Payload of one SSE "user" event; {@code id} is also sent as the SSE event id.
+     * userIds and changes are only sent for the bulk types.
+     */
+    public record ChangeMessage(long id, UserChangedEvent.Type type, Long userId,
+                                UserResponseDTO user, long count,
+                                @JsonInclude(JsonInclude.Include.NON_EMPTY) List<Long> userIds,
+                                @JsonInclude(JsonInclude.Include.NON_EMPTY) Map<String, String> changes,
+                                LocalDateTime timestamp) {
+    }
+    
+    private class Subscriber {
+        
+        private final SseEmitter emitter;
+        private final BlockingQueue<ChangeMessage> queue = new ArrayBlockingQueue<>(bufferSize);
+        private volatile List<ChangeMessage> replay = List.of();
+        private volatile boolean overflowed;
+        private volatile boolean reset;
+        private volatile boolean closed;
+        
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        void offer(ChangeMessage message) {
+            if (!queue.offer(message) && !overflowed) {
+                overflowed = true;
+                overflows.increment();
+            }
+        }
+        
+        void drain() {
+            try {
+                emitter.send(SseEmitter.event().comment("connected").reconnectTime(3000));
+                if (reset) {
+                    emitter.send(SseEmitter.event().name(RESET_EVENT).data("history unavailable"));
+                }
+                for (ChangeMessage message : replay) {
+                    send(message);
+                }
+                replay = List.of();
+                while (!closed && !overflowed) {
+                    ChangeMessage message = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (message == null) {
+                        // Keeps proxies from idling the connection out and detects dead clients
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        send(message);
+                    }
+                }
+                if (overflowed) {
+                    // Flushed first so the client resumes after them instead of falling behind again
+                    for (ChangeMessage message = queue.poll(); message != null && !closed; message = queue.poll()) {
+                        send(message);
+                    }
+                    // The client reconnects with Last-Event-ID and catches up from history
+                    logger.warn("User change stream subscriber fell {} events behind, disconnecting", bufferSize);
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter timed out; the container finishes the response
+                logger.debug("User change stream closed: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } finally {
+                close();
+            }
+        }
+        
+        private void send(ChangeMessage message) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(message.id()))
+                    .name(CHANGE_EVENT)
+                    .data(message, MediaType.APPLICATION_JSON));
+        }
+        
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.JavaSpring.Bank.event;
+
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by UserService for every user write. Listeners that must not see
+ * rolled-back changes use @TransactionalEventListener so they run after commit.
+ */
+public class UserChangedEvent {
+    
+    public enum Type { CREATED, UPDATED, DELETED, IMPORTED, BULK_UPDATED, BULK_DELETED }
+    
+    private final Type type;
+    // Null for IMPORTED and the bulk types
+    private final Long userId;
+    // Row state after the write; null for DELETED, IMPORTED and the bulk types
+    private final UserResponseDTO user;
+    // Rows affected: 1, or the number of ids of an imported or bulk chunk
+    private final long count;
+    // IMPORTED and bulk types only: every id the chunk added or changed
+    private final List<Long> userIds;
+    // BULK_UPDATED only: new value per changed field (firstName, lastName, phone, city); null clears
+    private final Map<String, String> changes;
+    
+    private UserChangedEvent(Type type, Long userId, UserResponseDTO user, long count,
+                             List<Long> userIds, Map<String, String> changes) {
+        this.type = type;
+        this.userId = userId;
+        this.user = user;
+        this.count = count;
+        this.userIds = userIds;
+        this.changes = changes;
+    }
+    
+    private UserChangedEvent(Type type, Long userId, UserResponseDTO user, long count) {
+        this(type, userId, user, count, List.of(), Map.of());
+    }
+    
+    public static UserChangedEvent created(UserResponseDTO user) {
+        return new UserChangedEvent(Type.CREATED, user.getId(), user, 1);
+    }
+    
+    public static UserChangedEvent updated(UserResponseDTO user) {
+        return new UserChangedEvent(Type.UPDATED, user.getId(), user, 1);
+    }
+    
+    public static UserChangedEvent deleted(Long userId) {
+        return new UserChangedEvent(Type.DELETED, userId, null, 1);
+    }
+    
+    /**
+     * One committed chunk of a bulk insert; listeners read the new rows by id rather than receiving each one
+     */
+    public static UserChangedEvent imported(List<Long> userIds) {
+        return new UserChangedEvent(Type.IMPORTED, null, null, userIds.size(), List.copyOf(userIds), Map.of());
+    }
+    
+    /**
+     * One committed chunk of a set-based update; every id received the same changes
+     */
+    public static UserChangedEvent bulkUpdated(List<Long> userIds, Map<String, String> changes) {
+        return new UserChangedEvent(Type.BULK_UPDATED, null, null, userIds.size(),
+                List.copyOf(userIds), Collections.unmodifiableMap(new LinkedHashMap<>(changes)));
+    }
+    
+    /**
+     * One committed chunk of a set-based delete
+     */
+    public static UserChangedEvent bulkDeleted(List<Long> userIds) {
+        return new UserChangedEvent(Type.BULK_DELETED, null, null, userIds.size(), List.copyOf(userIds), Map.of());
+    }
+    
+    public Type getType() { return type; }
+    
+    public Long getUserId() { return userId; }
+    
+    public UserResponseDTO getUser() { return user; }
+    
+    public long getCount() { return count; }
+    
+    public List<Long> getUserIds() { return userIds; }
+    
+    public Map<String, String> getChanges() { return changes; }
+}
@@ -0,0 +1,12 @@
+package com.JavaSpring.Bank.exception;
+
+public class StaleResourceException extends RuntimeException {
+    
+    public StaleResourceException(String message) {
+        super(message);
+    }
+    
+    public StaleResourceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
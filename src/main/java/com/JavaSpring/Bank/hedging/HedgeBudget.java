@@ -0,0 +1,43 @@
+package com.JavaSpring.Bank.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps hedges at a fraction of calls: every call deposits ratio of a token, a hedge spends one.
+ * At most burst tokens are saved up, so a quiet period cannot fund a hedge storm.
+ * Starts full, so hedging works before the first calls have paid in.
+ */
+class HedgeBudget {
+    
+    // Fixed point: one token is SCALE units
+    private static final long SCALE = 1000;
+    
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+    
+    HedgeBudget(double ratio, int burst) {
+        if (ratio < 0 || burst < 1) {
+            throw new IllegalArgumentException("ratio must not be negative and burst at least 1");
+        }
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = burst * SCALE;
+        this.balance = new AtomicLong(capacity);
+    }
+    
+    void deposit() {
+        balance.accumulateAndGet(deposit, (current, amount) -> Math.min(capacity, current + amount));
+    }
+    
+    boolean tryAcquire() {
+        while (true) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.JavaSpring.Bank.hedging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Request hedging for external API fetches, bound from "external.api.jsonplaceholder.hedging"
+ */
+@ConfigurationProperties(prefix = "external.api.jsonplaceholder.hedging")
+public class HedgingProperties {
+    
+    private boolean enabled = false;
+    private double percentile = 0.95;
+    private Duration initialDelay = Duration.ofMillis(500);
+    private Duration minDelay = Duration.ofMillis(20);
+    private int windowSize = 1000;
+    private int minSamples = 50;
+    private double budgetRatio = 0.1;
+    private int budgetBurst = 10;
+    
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public double getPercentile() { return percentile; }
+    public void setPercentile(double percentile) { this.percentile = percentile; }
+    
+    public Duration getInitialDelay() { return initialDelay; }
+    public void setInitialDelay(Duration initialDelay) { this.initialDelay = initialDelay; }
+    
+    public Duration getMinDelay() { return minDelay; }
+    public void setMinDelay(Duration minDelay) { this.minDelay = minDelay; }
+    
+    public int getWindowSize() { return windowSize; }
+    public void setWindowSize(int windowSize) { this.windowSize = windowSize; }
+    
+    public int getMinSamples() { return minSamples; }
+    public void setMinSamples(int minSamples) { this.minSamples = minSamples; }
+    
+    public double getBudgetRatio() { return budgetRatio; }
+    public void setBudgetRatio(double budgetRatio) { this.budgetRatio = budgetRatio; }
+    
+    public int getBudgetBurst() { return budgetBurst; }
+    public void setBudgetBurst(int budgetBurst) { this.budgetBurst = budgetBurst; }
+}
@@ -0,0 +1,59 @@
+package com.JavaSpring.Bank.hedging;
+
+import java.util.Arrays;
+
+/**
+ * The most recent N call latencies and one percentile over them.
+ * The percentile is re-sorted from the window every size/20 samples rather than per call.
+ */
+class LatencyWindow {
+    
+    private final long[] samples;
+    private final double percentile;
+    private final int recomputeEvery;
+    
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private long cachedNanos = -1;
+    
+    LatencyWindow(int size, double percentile) {
+        if (size < 1 || percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("size must be positive and percentile in (0, 1]");
+        }
+        this.samples = new long[size];
+        this.percentile = percentile;
+        this.recomputeEvery = Math.max(1, size / 20);
+    }
+    
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (++sinceRecompute >= recomputeEvery) {
+            cachedNanos = -1;
+        }
+    }
+    
+    synchronized int size() {
+        return count;
+    }
+    
+    /**
+     * @return the configured percentile of the window, or -1 while it is empty
+     */
+    synchronized long percentileNanos() {
+        if (count == 0) {
+            return -1;
+        }
+        if (cachedNanos < 0) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cachedNanos = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+            sinceRecompute = 0;
+        }
+        return cachedNanos;
+    }
+}
@@ -0,0 +1,131 @@
+package com.JavaSpring.Bank.hedging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests: when the first attempt has not answered by the configured percentile of
+ * recent latencies, a second identical attempt is sent and whichever answers first is used.
+ * The other attempt is cancelled, which closes its connection.
+ *
+ * Only the first attempt may fail the call. A failed hedge is ignored and the first attempt
+ * keeps running, so hedging never turns a slow success into a fast error.
+ *
+ * Metrics: external.api.hedge{operation, result} counts calls by result - not_needed (answered
+ * before the delay), won / lost (hedge sent and answered first / second) and no_budget (hedge due
+ * but the budget was spent). Hedge rate is (won + lost) / all, win rate is won / (won + lost).
+ * external.api.hedge.delay is the current hedge delay.
+ */
+public class RequestHedger {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RequestHedger.class);
+    
+    private static final int NOT_SENT = 0;
+    private static final int SENT = 1;
+    private static final int NO_BUDGET = 2;
+    
+    private final HedgingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LatencyWindow latencies;
+    private final HedgeBudget budget;
+    
+    public RequestHedger(HedgingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.latencies = new LatencyWindow(properties.getWindowSize(), properties.getPercentile());
+        this.budget = new HedgeBudget(properties.getBudgetRatio(), properties.getBudgetBurst());
+        Gauge.builder("external.api.hedge.delay", this, hedger -> hedger.currentDelay().toNanos())
+                .baseUnit("nanoseconds")
+                .description("Time an external call waits before it is hedged")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * @param attempt - creates one independent attempt per subscription
+     */
+    public <T> Mono<T> hedge(String operation, Supplier<Mono<T>> attempt) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(attempt);
+        }
+        return Mono.defer(() -> {
+            budget.deposit();
+            Duration delay = currentDelay();
+            AtomicInteger hedge = new AtomicInteger(NOT_SENT);
+            AtomicBoolean counted = new AtomicBoolean();
+            
+            long start = System.nanoTime();
+            Mono<Answer<T>> first = Mono.defer(attempt)
+                    .map(value -> new Answer<>(value, false))
+                    .defaultIfEmpty(new Answer<>(null, false))
+                    // Cancelled when the hedge wins: records the time waited so far, a lower bound
+                    .doFinally(signal -> latencies.record(System.nanoTime() - start));
+            
+            Mono<Answer<T>> second = Mono.delay(delay).flatMap(tick -> {
+                if (!budget.tryAcquire()) {
+                    hedge.set(NO_BUDGET);
+                    return Mono.never();
+                }
+                hedge.set(SENT);
+                logger.debug("Hedging {} after {} ms", operation, delay.toMillis());
+                long hedgeStart = System.nanoTime();
+                return Mono.defer(attempt)
+                        .map(value -> new Answer<>(value, true))
+                        .defaultIfEmpty(new Answer<>(null, true))
+                        .doOnSuccess(answer -> latencies.record(System.nanoTime() - hedgeStart))
+                        .onErrorResume(e -> {
+                            logger.debug("Hedge for {} failed: {}", operation, e.getMessage());
+                            return Mono.never();
+                        });
+            });
+            
+            return Mono.firstWithSignal(first, second)
+                    .<T>handle((answer, sink) -> {
+                        // Counted before emitting: a blocking caller may return on the value
+                        if (counted.compareAndSet(false, true)) {
+                            count(operation, hedge.get(), answer.hedge());
+                        }
+                        if (answer.value() != null) {
+                            sink.next(answer.value());
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (counted.compareAndSet(false, true)) {
+                            count(operation, hedge.get(), false);
+                        }
+                    });
+        });
+    }
+    
+    Duration currentDelay() {
+        if (latencies.size() < properties.getMinSamples()) {
+            return properties.getInitialDelay();
+        }
+        long nanos = Math.max(latencies.percentileNanos(), properties.getMinDelay().toNanos());
+        return Duration.ofNanos(nanos);
+    }
+    
+    private void count(String operation, int hedge, boolean hedgeWon) {
+        String result = switch (hedge) {
+            case SENT -> hedgeWon ? "won" : "lost";
+            case NO_BUDGET -> "no_budget";
+            default -> "not_needed";
+        };
+        Counter.builder("external.api.hedge")
+                .description("External calls by hedging result")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+    
+    private record Answer<T>(T value, boolean hedge) {}
+}
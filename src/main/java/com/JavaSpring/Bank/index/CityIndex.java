@@ -0,0 +1,271 @@
+package com.JavaSpring.Bank.index;
+
+import com.JavaSpring.Bank.event.UserChangedEvent;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index: normalized city -> compressed bitmap of user ids.
+ * Built from the users table when the application is ready and kept current
+ * from UserChangedEvent after each committed write. Until the first build completes
+ * {@link #isReady()} is false and callers fall back to the database.
+ *
+ * Writes made by other instances raise no event here, so the index is rebuilt every
+ * index.city.rebuild-interval; their users show up in city filters within that interval.
+ */
+@Component
+public class CityIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CityIndex.class);
+    
+    private static final int MAX_IN_PARAMETERS = 1000;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, RoaringBitmap> bitmaps = new HashMap<>();
+    // First spelling seen for each normalized city, used as the facet label
+    private final Map<String, String> labels = new HashMap<>();
+    
+    // Writes that land while a rebuild is scanning, replayed onto its result; guarded by lock
+    private List<Runnable> writesDuringRebuild;
+    
+    private volatile boolean ready;
+    
+    public CityIndex(JdbcTemplate jdbcTemplate, @Value("${index.city.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+    
+    public static String normalize(String city) {
+        return city == null ? null : city.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${index.city.rebuild-interval:5m}", initialDelayString = "${index.city.rebuild-interval:5m}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<String, RoaringBitmap> built = new HashMap<>();
+        Map<String, String> builtLabels = new HashMap<>();
+        
+        try {
+            // Streams id/city pairs; no entities are materialized
+            jdbcTemplate.query("SELECT id, city FROM users", row -> {
+                String city = row.getString(2);
+                if (city == null || city.isBlank()) {
+                    return;
+                }
+                String key = normalize(city);
+                builtLabels.putIfAbsent(key, city.trim());
+                built.computeIfAbsent(key, k -> new RoaringBitmap()).add(toIndexId(row.getLong(1)));
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        built.values().forEach(RoaringBitmap::runOptimize);
+        
+        lock.writeLock().lock();
+        try {
+            bitmaps.clear();
+            bitmaps.putAll(built);
+            labels.clear();
+            labels.putAll(builtLabels);
+            writesDuringRebuild.forEach(Runnable::run);
+            writesDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("City index built with {} cities in {} ms", built.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * @return a copy of the ids in the given city (empty if unknown)
+     */
+    public RoaringBitmap lookup(String city) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap bitmap = bitmaps.get(normalize(city));
+            return bitmap != null ? bitmap.clone() : new RoaringBitmap();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Users per city, restricted to {@code filter} when given, largest first.
+     */
+    public Map<String, Long> facets(RoaringBitmap filter) {
+        List<Map.Entry<String, Long>> counts = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, RoaringBitmap> entry : bitmaps.entrySet()) {
+                long count = filter == null
+                        ? entry.getValue().getLongCardinality()
+                        : RoaringBitmap.andCardinality(entry.getValue(), filter);
+                if (count > 0) {
+                    counts.add(Map.entry(labels.get(entry.getKey()), count));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        counts.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        Map<String, Long> facets = new LinkedHashMap<>();
+        counts.forEach(entry -> facets.put(entry.getKey(), entry.getValue()));
+        return facets;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getType() == UserChangedEvent.Type.IMPORTED) {
+            usersImported(event.getUserIds());
+        } else if (event.getType() == UserChangedEvent.Type.DELETED) {
+            userDeleted(event.getUserId());
+        } else if (event.getType() == UserChangedEvent.Type.BULK_DELETED) {
+            usersDeleted(event.getUserIds());
+        } else if (event.getType() == UserChangedEvent.Type.BULK_UPDATED) {
+            if (event.getChanges().containsKey("city")) {
+                usersMoved(event.getUserIds(), event.getChanges().get("city"));
+            }
+        } else {
+            userSaved(event.getUserId(), event.getUser().getCity());
+        }
+    }
+    
+    /**
+     * Record the current city of a user, moving it out of any previous city
+     */
+    public void userSaved(Long id, String city) {
+        applyWrite(() -> {
+            removeFromAll(toIndexId(id));
+            if (city != null && !city.isBlank()) {
+                String key = normalize(city);
+                labels.putIfAbsent(key, city.trim());
+                bitmaps.computeIfAbsent(key, k -> new RoaringBitmap()).add(toIndexId(id));
+            }
+        });
+    }
+    
+    public void userDeleted(Long id) {
+        applyWrite(() -> removeFromAll(toIndexId(id)));
+    }
+    
+    /**
+     * Move every id to one city under a single write lock, as after a set-based update
+     */
+    public void usersMoved(Collection<Long> ids, String city) {
+        RoaringBitmap moved = toBitmap(ids);
+        applyWrite(() -> {
+            removeFromAll(moved);
+            if (city != null && !city.isBlank()) {
+                String key = normalize(city);
+                labels.putIfAbsent(key, city.trim());
+                bitmaps.computeIfAbsent(key, k -> new RoaringBitmap()).or(moved);
+            }
+        });
+    }
+    
+    /**
+     * Add newly inserted users, reading their cities by primary key rather than rescanning the table
+     */
+    public void usersImported(List<Long> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        Map<Long, String> cities = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_PARAMETERS) {
+            List<Long> group = ids.subList(from, Math.min(ids.size(), from + MAX_IN_PARAMETERS));
+            String placeholders = String.join(",", Collections.nCopies(group.size(), "?"));
+            jdbcTemplate.query("SELECT id, city FROM users WHERE id IN (" + placeholders + ")",
+                    row -> { cities.put(row.getLong(1), row.getString(2)); }, group.toArray());
+        }
+        applyWrite(() -> cities.forEach((id, city) -> {
+            if (city != null && !city.isBlank()) {
+                String key = normalize(city);
+                labels.putIfAbsent(key, city.trim());
+                bitmaps.computeIfAbsent(key, k -> new RoaringBitmap()).add(toIndexId(id));
+            }
+        }));
+    }
+    
+    public void usersDeleted(Collection<Long> ids) {
+        RoaringBitmap deleted = toBitmap(ids);
+        applyWrite(() -> removeFromAll(deleted));
+    }
+    
+    private void applyWrite(Runnable write) {
+        lock.writeLock().lock();
+        try {
+            write.run();
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void removeFromAll(int id) {
+        // A few hundred cities at most; cheaper than keeping an id -> city map for every user
+        bitmaps.values().removeIf(bitmap -> bitmap.checkedRemove(id) && bitmap.isEmpty());
+    }
+    
+    private void removeFromAll(RoaringBitmap ids) {
+        bitmaps.values().removeIf(bitmap -> {
+            bitmap.andNot(ids);
+            return bitmap.isEmpty();
+        });
+    }
+    
+    private static RoaringBitmap toBitmap(Collection<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        ids.forEach(id -> bitmap.add(toIndexId(id)));
+        return bitmap;
+    }
+    
+    private static int toIndexId(long id) {
+        if (id < 0 || id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("User id " + id + " exceeds the city index range");
+        }
+        return (int) id;
+    }
+}
@@ -0,0 +1,96 @@
+package com.JavaSpring.Bank.job;
+
+import com.JavaSpring.Bank.dto.external.ExternalUserDTO;
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import com.JavaSpring.Bank.service.ExternalApiService;
+import com.JavaSpring.Bank.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports external users one by one through {@link ExternalApiService#importExternalUser}, the same
+ * path as POST /api/v1/users/import/{externalId}.
+ *
+ * Parameters: {"externalIds": [1, 2, ...]}; without them every user listed by the external API is
+ * imported, and the resolved ids are stored with the job so a resumed run sees the same list.
+ * A user that fails (already imported, not found, external error) is recorded and skipped.
+ */
+@Component
+public class ExternalImportJobHandler implements JobHandler {
+    
+    public static final String TYPE = "external-import";
+    static final String EXTERNAL_IDS = "externalIds";
+    
+    @Autowired
+    private ExternalApiService externalApiService;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Value("${jobs.external-import.max-ids:10000}")
+    private int maxIds;
+    
+    @Override
+    public String getType() {
+        return TYPE;
+    }
+    
+    @Override
+    public void validate(Map<String, Object> parameters) {
+        for (String name : parameters.keySet()) {
+            if (!EXTERNAL_IDS.equals(name)) {
+                throw new InvalidRequestException("Unknown parameter for " + TYPE + ": " + name);
+            }
+        }
+        if (parameters.containsKey(EXTERNAL_IDS)) {
+            List<Long> ids = externalIds(parameters.get(EXTERNAL_IDS));
+            if (ids.isEmpty() || ids.size() > maxIds) {
+                throw new InvalidRequestException(EXTERNAL_IDS + " must hold between 1 and " + maxIds + " ids");
+            }
+        }
+    }
+    
+    @Override
+    public void run(JobContext context) {
+        List<Long> ids;
+        if (context.getParameters().containsKey(EXTERNAL_IDS)) {
+            ids = externalIds(context.getParameters().get(EXTERNAL_IDS));
+        } else {
+            ids = new ArrayList<>();
+            for (ExternalUserDTO user : externalApiService.fetchExternalUsers()) {
+                ids.add(user.getId());
+            }
+            context.setParameter(EXTERNAL_IDS, ids);
+        }
+        context.setTotal(ids.size());
+        
+        for (int i = (int) context.getProcessed(); i < ids.size() && !context.isStopped(); i++) {
+            Long externalId = ids.get(i);
+            try {
+                externalApiService.importExternalUser(externalId, userService);
+                context.itemSucceeded();
+            } catch (RuntimeException e) {
+                context.itemFailed(externalId, e.getMessage());
+            }
+        }
+    }
+    
+    private static List<Long> externalIds(Object value) {
+        if (!(value instanceof List<?> values)) {
+            throw new InvalidRequestException(EXTERNAL_IDS + " must be a list of ids");
+        }
+        List<Long> ids = new ArrayList<>(values.size());
+        for (Object id : values) {
+            if (!(id instanceof Number number) || number.longValue() < 1) {
+                throw new InvalidRequestException(EXTERNAL_IDS + " must hold positive ids, got: " + id);
+            }
+            ids.add(number.longValue());
+        }
+        return ids;
+    }
+}
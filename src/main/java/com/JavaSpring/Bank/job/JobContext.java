@@ -0,0 +1,161 @@
+package com.JavaSpring.Bank.job;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Parameters and progress of one running job. The handler reports items from the worker thread;
+ * {@link JobService} reads the counters for status requests and writes them to the jobs table
+ * at most once per progress interval.
+ */
+public class JobContext {
+    
+    private final String id;
+    private final String type;
+    private final Map<String, Object> parameters;
+    private final AtomicLong processed;
+    private final AtomicLong failed;
+    // First failures only, as {item, error}; later ones are counted
+    private final List<Map<String, Object>> errors;
+    private final int maxErrors;
+    private final long startedProcessed;
+    private final long startNanos = System.nanoTime();
+    private final long checkpointNanos;
+    private final Consumer<JobContext> checkpointer;
+    
+    private volatile Long total;
+    private volatile boolean cancelled;
+    private volatile boolean shuttingDown;
+    // The lease was lost and another instance re-queued the job; nothing more is written for this run
+    private volatile boolean abandoned;
+    private boolean parametersChanged;
+    private long lastCheckpointNanos = startNanos;
+    
+    JobContext(String id, String type, Map<String, Object> parameters, Long total, long processed, long failed,
+               List<Map<String, Object>> errors, int maxErrors, long checkpointNanos, Consumer<JobContext> checkpointer) {
+        this.id = id;
+        this.type = type;
+        this.parameters = new LinkedHashMap<>(parameters);
+        this.total = total;
+        this.processed = new AtomicLong(processed);
+        this.failed = new AtomicLong(failed);
+        this.errors = Collections.synchronizedList(new ArrayList<>(errors));
+        this.maxErrors = maxErrors;
+        this.startedProcessed = processed;
+        this.checkpointNanos = checkpointNanos;
+        this.checkpointer = checkpointer;
+    }
+    
+    public String getId() { return id; }
+    
+    public String getType() { return type; }
+    
+    public Map<String, Object> getParameters() { return Collections.unmodifiableMap(parameters); }
+    
+    /**
+     * Replace a parameter, stored with the next checkpoint. Used to pin inputs resolved at run time
+     * (e.g. "all ids") so a resumed job sees the same items in the same order.
+     */
+    public void setParameter(String name, Object value) {
+        synchronized (parameters) {
+            parameters.put(name, value);
+            parametersChanged = true;
+        }
+    }
+    
+    public Long getTotal() { return total; }
+    
+    public void setTotal(long total) { this.total = total; }
+    
+    /**
+     * Items done so far, failed ones included; on resume, the number of items to skip
+     */
+    public long getProcessed() { return processed.get(); }
+    
+    public long getFailed() { return failed.get(); }
+    
+    public void itemSucceeded() {
+        processed.incrementAndGet();
+        checkpointIfDue();
+    }
+    
+    public void itemFailed(Object item, String error) {
+        failed.incrementAndGet();
+        processed.incrementAndGet();
+        if (errors.size() < maxErrors) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("item", item);
+            entry.put("error", error);
+            errors.add(entry);
+        }
+        checkpointIfDue();
+    }
+    
+    /**
+     * True once the job was cancelled, the application is shutting down or the job was taken over
+     * by another instance; the handler should return
+     */
+    public boolean isStopped() {
+        return cancelled || shuttingDown || abandoned;
+    }
+    
+    boolean isCancelled() {
+        return cancelled;
+    }
+    
+    void cancel() {
+        cancelled = true;
+    }
+    
+    void shutDown() {
+        shuttingDown = true;
+    }
+    
+    boolean isAbandoned() {
+        return abandoned;
+    }
+    
+    void abandon() {
+        abandoned = true;
+    }
+    
+    /**
+     * Items per second since this run started, resumed items excluded
+     */
+    double itemsPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds > 0 ? (processed.get() - startedProcessed) / seconds : 0;
+    }
+    
+    List<Map<String, Object>> errors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+    
+    /**
+     * Parameters to store, or null when unchanged since the last call
+     */
+    Map<String, Object> takeChangedParameters() {
+        synchronized (parameters) {
+            if (!parametersChanged) {
+                return null;
+            }
+            parametersChanged = false;
+            return new LinkedHashMap<>(parameters);
+        }
+    }
+    
+    private void checkpointIfDue() {
+        long now = System.nanoTime();
+        if (now - lastCheckpointNanos >= checkpointNanos) {
+            lastCheckpointNanos = now;
+            checkpointer.accept(this);
+        }
+    }
+}
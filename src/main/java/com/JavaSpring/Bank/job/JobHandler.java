@@ -0,0 +1,31 @@
+package com.JavaSpring.Bank.job;
+
+import java.util.Map;
+
+/**
+ * One kind of background job. Implementations are Spring beans, picked up by {@link JobService}
+ * and addressed by {@link #getType()} in POST /api/v1/jobs.
+ */
+public interface JobHandler {
+    
+    /**
+     * Job type name used in the API and stored with each job
+     */
+    String getType();
+    
+    /**
+     * Check parameters when a job is submitted, before anything is stored
+     * @throws com.JavaSpring.Bank.exception.InvalidRequestException when they are unusable
+     */
+    default void validate(Map<String, Object> parameters) {
+    }
+    
+    /**
+     * Process the job's items in a stable order, reporting each through the context.
+     *
+     * A job resumed after a restart gets a context whose {@link JobContext#getProcessed()} is the
+     * number of items already done; those are skipped. Stop early once {@link JobContext#isStopped()}.
+     * An exception fails the whole job; failures of single items belong in {@link JobContext#itemFailed}.
+     */
+    void run(JobContext context) throws Exception;
+}
@@ -0,0 +1,496 @@
+package com.JavaSpring.Bank.job;
+
+import com.JavaSpring.Bank.exception.DuplicateResourceException;
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import com.JavaSpring.Bank.exception.ResourceNotFoundException;
+import com.JavaSpring.Bank.repository.JdbcSchema;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs long operations as background jobs instead of inside the HTTP request.
+ *
+ * Submitting stores a QUEUED row in user_jobs and returns its id at once. At most jobs.threads
+ * jobs run at a time; the rest wait in the table, oldest first, so the queue costs no memory and
+ * survives a restart. Running jobs write their progress back every jobs.progress-interval.
+ *
+ * Several instances may share the table. A claimed job records its owner (jobs.instance-id) and
+ * holds a lease that the owner renews every jobs.heartbeat-interval and at each checkpoint. Only
+ * jobs whose lease has been expired for jobs.lease are queued again, by whichever instance notices
+ * first, and resume after the items they had processed. Jobs stopped by a graceful shutdown are
+ * queued again at once. A checkpoint that finds its lease gone stops the job without writing.
+ *
+ * Cancellation is cooperative: a queued job is cancelled immediately, a running one is marked
+ * CANCELLING in the table and its owner stops it after the next item that reaches a checkpoint.
+ */
+@Service
+public class JobService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobService.class);
+    
+    static final String TABLE = "user_jobs";
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+    private static final int MAX_OWNER_LENGTH = 128;
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {};
+    
+    public enum Status {
+        QUEUED, RUNNING, CANCELLING, SUCCEEDED, FAILED, CANCELLED;
+        
+        boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, JobHandler> handlers = new HashMap<>();
+    private final int threads;
+    private final long checkpointNanos;
+    private final int maxErrors;
+    private final String instanceId;
+    private final Duration lease;
+    private final ExecutorService executor;
+    private final Map<String, JobContext> running = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    
+    private volatile boolean tableReady;
+    private volatile boolean shuttingDown;
+    
+    public JobService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, List<JobHandler> handlers,
+                      ObjectProvider<MeterRegistry> meterRegistry,
+                      @Value("${jobs.threads:2}") int threads,
+                      @Value("${jobs.progress-interval:1s}") Duration progressInterval,
+                      @Value("${jobs.max-errors:100}") int maxErrors,
+                      @Value("${jobs.instance-id:}") String instanceId,
+                      @Value("${jobs.lease:30s}") Duration lease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        handlers.forEach(handler -> this.handlers.put(handler.getType(), handler));
+        this.threads = Math.max(1, threads);
+        this.checkpointNanos = progressInterval.toNanos();
+        this.maxErrors = maxErrors;
+        // pid@host unless configured: unique among live processes
+        String owner = instanceId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : instanceId;
+        this.instanceId = owner.length() > MAX_OWNER_LENGTH ? owner.substring(0, MAX_OWNER_LENGTH) : owner;
+        this.lease = lease;
+        this.executor = Executors.newFixedThreadPool(this.threads, Thread.ofPlatform().name("job-", 1).factory());
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("jobs.running", running, Map::size)
+                .description("Background jobs currently running")
+                .register(this.meterRegistry);
+    }
+    
+    /**
+     * Queue a job; it starts as soon as a worker is free
+     * @return the job view, status QUEUED or already RUNNING
+     * @throws InvalidRequestException for an unknown type or unusable parameters
+     */
+    public Map<String, Object> submit(String type, Map<String, Object> parameters) {
+        JobHandler handler = handlers.get(type);
+        if (handler == null) {
+            throw new InvalidRequestException("Unknown job type: " + type + ", expected any of " + handlers.keySet());
+        }
+        Map<String, Object> checked = parameters != null ? parameters : Map.of();
+        handler.validate(checked);
+        ensureTable();
+        
+        String id = UUID.randomUUID().toString();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO " + TABLE + " (id, job_type, status, parameters, processed, failed, " +
+                "started_processed, created_at, updated_at) VALUES (?, ?, ?, ?, 0, 0, 0, ?, ?)",
+                id, type, Status.QUEUED.name(), toJson(checked), now, now);
+        logger.info("Job {} queued: {} {}", id, type, checked);
+        
+        dispatch();
+        return getJob(id);
+    }
+    
+    /**
+     * Status, progress and throughput of a job; live counters while it runs here
+     * @throws ResourceNotFoundException when there is no such job
+     */
+    public Map<String, Object> getJob(String id) {
+        ensureTable();
+        List<JobRow> rows = jdbcTemplate.query("SELECT * FROM " + TABLE + " WHERE id = ?", ROW_MAPPER, id);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Job not found with id: " + id);
+        }
+        return view(rows.get(0));
+    }
+    
+    /**
+     * Most recently submitted jobs first
+     */
+    public List<Map<String, Object>> getRecentJobs(int limit) {
+        ensureTable();
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        jdbcTemplate.query("SELECT * FROM " + TABLE + " ORDER BY created_at DESC, id OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY",
+                ROW_MAPPER, limit).forEach(row -> jobs.add(view(row)));
+        return jobs;
+    }
+    
+    /**
+     * Cancel a queued job, or ask a running one to stop at its next item, on whichever instance runs it
+     * @throws DuplicateResourceException (409) when the job already finished
+     */
+    public Map<String, Object> cancel(String id) {
+        Map<String, Object> job = getJob(id);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int queued = jdbcTemplate.update("UPDATE " + TABLE + " SET status = ?, finished_at = ?, updated_at = ? " +
+                "WHERE id = ? AND status = ?", Status.CANCELLED.name(), now, now, id, Status.QUEUED.name());
+        if (queued == 0) {
+            // The owner sees CANCELLING at its next checkpoint
+            int requested = jdbcTemplate.update("UPDATE " + TABLE + " SET status = ?, updated_at = ? " +
+                    "WHERE id = ? AND status = ?", Status.CANCELLING.name(), now, id, Status.RUNNING.name());
+            JobContext context = running.get(id);
+            if (context != null) {
+                context.cancel();
+            } else if (requested == 0 && Status.valueOf((String) job.get("status")).isFinished()) {
+                throw new DuplicateResourceException("Job " + id + " already finished with status " + job.get("status"));
+            }
+        }
+        logger.info("Job {} cancellation requested", id);
+        return getJob(id);
+    }
+    
+    /**
+     * Queue again the jobs left behind by a crashed instance and start what is queued
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        ensureTable();
+        requeueExpired();
+        dispatch();
+    }
+    
+    /**
+     * Renews the lease of the jobs running here, including one stuck on a slow item, and recovers
+     * jobs of instances that stopped renewing theirs. Must run well within jobs.lease.
+     */
+    @Scheduled(fixedDelayString = "${jobs.heartbeat-interval:10s}", initialDelayString = "${jobs.heartbeat-interval:10s}")
+    public void heartbeat() {
+        if (shuttingDown) {
+            return;
+        }
+        ensureTable();
+        if (!running.isEmpty()) {
+            jdbcTemplate.update("UPDATE " + TABLE + " SET heartbeat_at = ? WHERE owner = ? AND status IN (?, ?)",
+                    Timestamp.valueOf(LocalDateTime.now()), instanceId, Status.RUNNING.name(), Status.CANCELLING.name());
+        }
+        requeueExpired();
+        dispatch();
+    }
+    
+    /**
+     * Jobs whose lease expired are queued again; those being cancelled are done. Leases are compared
+     * with this instance's clock, so instance clocks must agree to well within jobs.lease.
+     */
+    private void requeueExpired() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp expiredBefore = Timestamp.valueOf(LocalDateTime.now().minus(lease));
+        jdbcTemplate.update("UPDATE " + TABLE + " SET status = ?, finished_at = ?, updated_at = ? " +
+                "WHERE status = ? AND (heartbeat_at IS NULL OR heartbeat_at < ?)",
+                Status.CANCELLED.name(), now, now, Status.CANCELLING.name(), expiredBefore);
+        int resumed = jdbcTemplate.update("UPDATE " + TABLE + " SET status = ?, owner = NULL, updated_at = ? " +
+                "WHERE status = ? AND (heartbeat_at IS NULL OR heartbeat_at < ?)",
+                Status.QUEUED.name(), now, Status.RUNNING.name(), expiredBefore);
+        if (resumed > 0) {
+            logger.info("Re-queued {} jobs whose owner stopped renewing its lease", resumed);
+        }
+    }
+    
+    /**
+     * Start queued jobs, oldest first, while workers are free
+     */
+    private synchronized void dispatch() {
+        while (!shuttingDown && running.size() < threads) {
+            JobRow next = claimNext();
+            if (next == null) {
+                return;
+            }
+            JobContext context = new JobContext(next.id(), next.type(), fromJson(next.parameters()), next.total(),
+                    next.processed(), next.failed(), errorsOf(next.result()), maxErrors, checkpointNanos, this::checkpoint);
+            running.put(next.id(), context);
+            executor.execute(() -> execute(context));
+        }
+    }
+    
+    private JobRow claimNext() {
+        List<JobRow> queued = jdbcTemplate.query("SELECT * FROM " + TABLE + " WHERE status = ? " +
+                "ORDER BY created_at, id OFFSET 0 ROWS FETCH NEXT 1 ROWS ONLY", ROW_MAPPER, Status.QUEUED.name());
+        if (queued.isEmpty()) {
+            return null;
+        }
+        JobRow row = queued.get(0);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int claimed = jdbcTemplate.update("UPDATE " + TABLE + " SET status = ?, owner = ?, heartbeat_at = ?, " +
+                "started_at = ?, started_processed = processed, updated_at = ? WHERE id = ? AND status = ?",
+                Status.RUNNING.name(), instanceId, now, now, now, row.id(), Status.QUEUED.name());
+        // Cancelled in between: look again
+        return claimed == 1 ? row : claimNext();
+    }
+    
+    private void execute(JobContext context) {
+        Status status;
+        String message = null;
+        try {
+            JobHandler handler = handlers.get(context.getType());
+            if (handler == null) {
+                throw new IllegalStateException("No handler for job type " + context.getType());
+            }
+            logger.info("Job {} started: {} from item {}", context.getId(), context.getType(), context.getProcessed());
+            handler.run(context);
+            status = Status.SUCCEEDED;
+        } catch (Exception e) {
+            logger.error("Job {} failed: {}", context.getId(), e.getMessage(), e);
+            status = Status.FAILED;
+            message = e.getMessage();
+        }
+        if (context.isCancelled()) {
+            status = Status.CANCELLED;
+        } else if (context.isStopped()) {
+            status = Status.QUEUED;
+        }
+        
+        try {
+            if (context.isAbandoned()) {
+                logger.warn("Job {} stopped: its lease expired and it was queued again", context.getId());
+            } else if (status == Status.QUEUED) {
+                pause(context);
+            } else {
+                finish(context, status, message);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to record the end of job {}", context.getId(), e);
+        } finally {
+            running.remove(context.getId());
+        }
+        dispatch();
+    }
+    
+    /**
+     * Writes progress and renews the lease; stops the job when another instance asked to cancel it
+     * or when the lease was lost
+     */
+    private void checkpoint(JobContext context) {
+        Map<String, Object> parameters = context.takeChangedParameters();
+        String progress = "UPDATE " + TABLE + " SET total = ?, processed = ?, failed = ?, result = ?, " +
+                "heartbeat_at = ?, updated_at = ? WHERE id = ? AND owner = ?";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Object[] arguments = {context.getTotal(), context.getProcessed(), context.getFailed(),
+                toJson(Map.of("errors", context.errors())), now, now, context.getId(), instanceId};
+        
+        int written = jdbcTemplate.update(progress + " AND status = ?", append(arguments, Status.RUNNING.name()));
+        if (written == 0) {
+            // Not RUNNING any more: CANCELLING if the row is still ours, else taken over
+            written = jdbcTemplate.update(progress, arguments);
+            if (written == 0) {
+                context.abandon();
+                return;
+            }
+            context.cancel();
+        }
+        if (parameters != null) {
+            jdbcTemplate.update("UPDATE " + TABLE + " SET parameters = ? WHERE id = ? AND owner = ?",
+                    toJson(parameters), context.getId(), instanceId);
+        }
+    }
+    
+    /**
+     * Stopped by shutdown: queued again so this or another instance resumes it without waiting for the lease
+     */
+    private void pause(JobContext context) {
+        checkpoint(context);
+        if (context.isAbandoned()) {
+            return;
+        }
+        if (context.isCancelled()) {
+            finish(context, Status.CANCELLED, null);
+            return;
+        }
+        jdbcTemplate.update("UPDATE " + TABLE + " SET status = ?, owner = NULL, updated_at = ? " +
+                "WHERE id = ? AND owner = ? AND status = ?", Status.QUEUED.name(),
+                Timestamp.valueOf(LocalDateTime.now()), context.getId(), instanceId, Status.RUNNING.name());
+        logger.info("Job {} paused for shutdown after {} items", context.getId(), context.getProcessed());
+    }
+    
+    private void finish(JobContext context, Status status, String message) {
+        checkpoint(context);
+        if (context.isAbandoned()) {
+            logger.warn("Job {} was taken over by another instance; its {} result is dropped", context.getId(), status);
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("UPDATE " + TABLE + " SET status = ?, message = ?, finished_at = ?, updated_at = ? " +
+                "WHERE id = ? AND owner = ?", status.name(), truncate(message), now, now, context.getId(), instanceId);
+        Counter.builder("jobs.finished")
+                .description("Background jobs finished, by type and final status")
+                .tag("type", context.getType())
+                .tag("status", status.name())
+                .register(meterRegistry)
+                .increment();
+        logger.info("Job {} {}: {} items, {} failed", context.getId(), status, context.getProcessed(), context.getFailed());
+    }
+    
+    private Map<String, Object> view(JobRow row) {
+        JobContext context = running.get(row.id());
+        Long total = context != null ? context.getTotal() : row.total();
+        long processed = context != null ? context.getProcessed() : row.processed();
+        long failed = context != null ? context.getFailed() : row.failed();
+        
+        Map<String, Object> job = new LinkedHashMap<>();
+        job.put("id", row.id());
+        job.put("type", row.type());
+        job.put("status", row.status());
+        job.put("parameters", fromJson(row.parameters()));
+        
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("processed", processed);
+        progress.put("failed", failed);
+        progress.put("total", total);
+        progress.put("percent", total != null && total > 0 ? round(processed * 100.0 / total) : null);
+        job.put("progress", progress);
+        
+        double itemsPerSecond;
+        if (context != null) {
+            itemsPerSecond = context.itemsPerSecond();
+        } else if (row.startedAt() != null) {
+            LocalDateTime end = row.finishedAt() != null ? row.finishedAt() : row.updatedAt();
+            double seconds = Duration.between(row.startedAt(), end).toMillis() / 1000.0;
+            itemsPerSecond = seconds > 0 ? (processed - row.startedProcessed()) / seconds : 0;
+        } else {
+            itemsPerSecond = 0;
+        }
+        job.put("itemsPerSecond", round(itemsPerSecond));
+        job.put("createdAt", row.createdAt());
+        job.put("startedAt", row.startedAt());
+        job.put("finishedAt", row.finishedAt());
+        job.put("message", row.message());
+        job.put("errors", context != null ? context.errors() : errorsOf(row.result()));
+        return job;
+    }
+    
+    /**
+     * Stops running jobs at their next item and records their progress, before the web server and
+     * the DataSource shut down. They are queued again and resume on another instance or the next start.
+     */
+    @EventListener(ContextClosedEvent.class)
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        running.values().forEach(JobContext::shutDown);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Jobs still running at shutdown; they resume on the next start");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void ensureTable() {
+        if (tableReady) {
+            return;
+        }
+        String timestamp = JdbcSchema.timestampType(jdbcTemplate);
+        String text = JdbcSchema.textType(jdbcTemplate);
+        JdbcSchema.createTableIfMissing(jdbcTemplate, TABLE, "CREATE TABLE " + TABLE + " (" +
+                "id VARCHAR(36) NOT NULL PRIMARY KEY, job_type VARCHAR(64) NOT NULL, status VARCHAR(16) NOT NULL, " +
+                "parameters " + text + ", result " + text + ", message VARCHAR(" + MAX_MESSAGE_LENGTH + "), " +
+                "total BIGINT, processed BIGINT NOT NULL, failed BIGINT NOT NULL, started_processed BIGINT NOT NULL, " +
+                "created_at " + timestamp + " NOT NULL, started_at " + timestamp + ", finished_at " + timestamp + ", " +
+                "updated_at " + timestamp + " NOT NULL, owner VARCHAR(" + MAX_OWNER_LENGTH + "), " +
+                "heartbeat_at " + timestamp + ")");
+        JdbcSchema.addColumnIfMissing(jdbcTemplate, TABLE, "owner", "VARCHAR(" + MAX_OWNER_LENGTH + ")");
+        JdbcSchema.addColumnIfMissing(jdbcTemplate, TABLE, "heartbeat_at", timestamp);
+        tableReady = true;
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize job data", e);
+        }
+    }
+    
+    private Map<String, Object> fromJson(String json) {
+        if (json == null || json.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, JSON_OBJECT);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read job data", e);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> errorsOf(String result) {
+        Object errors = fromJson(result).get("errors");
+        return errors instanceof List<?> list ? (List<Map<String, Object>>) list : List.of();
+    }
+    
+    private static Object[] append(Object[] values, Object value) {
+        Object[] appended = Arrays.copyOf(values, values.length + 1);
+        appended[values.length] = value;
+        return appended;
+    }
+    
+    private static String truncate(String message) {
+        return message != null && message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+    
+    private record JobRow(String id, String type, String status, String parameters, String result, String message,
+                          Long total, long processed, long failed, long startedProcessed, LocalDateTime createdAt,
+                          LocalDateTime startedAt, LocalDateTime finishedAt, LocalDateTime updatedAt) {
+    }
+    
+    private static final RowMapper<JobRow> ROW_MAPPER = (rs, rowNum) -> {
+        long total = rs.getLong("total");
+        Long nullableTotal = rs.wasNull() ? null : total;
+        return new JobRow(rs.getString("id"), rs.getString("job_type"), rs.getString("status"),
+                rs.getString("parameters"), rs.getString("result"), rs.getString("message"), nullableTotal,
+                rs.getLong("processed"), rs.getLong("failed"), rs.getLong("started_processed"),
+                rs.getObject("created_at", LocalDateTime.class), rs.getObject("started_at", LocalDateTime.class),
+                rs.getObject("finished_at", LocalDateTime.class), rs.getObject("updated_at", LocalDateTime.class));
+    };
+}
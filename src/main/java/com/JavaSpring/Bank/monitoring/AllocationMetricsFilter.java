@@ -0,0 +1,90 @@
+package com.JavaSpring.Bank.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Publishes the bytes allocated by the request thread for every controller request
+ * as a Micrometer distribution summary tagged by endpoint pattern and method:
+ * - http.server.requests.allocated
+ * The number is also left on the request as {@link #ALLOCATED_BYTES_ATTRIBUTE} for allocation budget tests.
+ *
+ * Only the servlet thread is measured: work handed to other threads (async dispatch,
+ * bulk import workers, the SSE broadcaster) is not attributed to the request.
+ */
+public class AllocationMetricsFilter extends OncePerRequestFilter {
+    
+    public static final String ALLOCATED_BYTES_ATTRIBUTE = AllocationMetricsFilter.class.getName() + ".allocatedBytes";
+    
+    private final MeterRegistry meterRegistry;
+    private final String controllerPackage;
+    private final com.sun.management.ThreadMXBean threads;
+    
+    /**
+     * @param controllerPackage only handlers declared in this package are recorded
+     */
+    public AllocationMetricsFilter(MeterRegistry meterRegistry, String controllerPackage) {
+        this.meterRegistry = meterRegistry;
+        this.controllerPackage = controllerPackage;
+        this.threads = supportedThreadMXBean();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (threads == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        long before = threads.getCurrentThreadAllocatedBytes();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+            request.setAttribute(ALLOCATED_BYTES_ATTRIBUTE, allocated);
+            record(request, allocated);
+        }
+    }
+    
+    private void record(HttpServletRequest request, long allocated) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod method)
+                || !method.getBeanType().getPackageName().equals(controllerPackage)) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        
+        DistributionSummary.builder("http.server.requests.allocated")
+                .description("Bytes allocated by the request thread per request")
+                .baseUnit("bytes")
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .tag("method", request.getMethod())
+                .register(meterRegistry)
+                .record(allocated);
+    }
+    
+    /**
+     * @return the HotSpot thread bean with allocation accounting switched on, or null when unavailable
+     */
+    private static com.sun.management.ThreadMXBean supportedThreadMXBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)
+                || !bean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        if (!bean.isThreadAllocatedMemoryEnabled()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,41 @@
+package com.JavaSpring.Bank.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one HTTP call to the external user API. The event duration is the call latency.
+ */
+@Name("com.JavaSpring.Bank.ExternalApiCall")
+@Label("External API Call")
+@Category({"Bank", "External API"})
+@Description("An outgoing HTTP call made by ExternalApiService")
+@StackTrace(false)
+public class ExternalApiEvent extends Event {
+    
+    @Label("URL")
+    String url;
+    
+    @Label("Status")
+    @Description("HTTP status code, or 0 when no response arrived")
+    int status;
+    
+    public ExternalApiEvent(String url) {
+        this.url = url;
+    }
+    
+    /**
+     * End the event and commit it when the recording wants it
+     */
+    public void finish(int status) {
+        end();
+        if (shouldCommit()) {
+            this.status = status;
+            commit();
+        }
+    }
+}
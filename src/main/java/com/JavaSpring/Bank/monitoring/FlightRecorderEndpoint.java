@@ -0,0 +1,265 @@
+package com.JavaSpring.Bank.monitoring;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.Access;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-demand Java Flight Recorder recordings at /actuator/jfr.
+ * <ul>
+ *   <li>GET /actuator/jfr - list recordings</li>
+ *   <li>POST /actuator/jfr {"preset": "profile", "duration": "2m"} - start a recording</li>
+ *   <li>DELETE /actuator/jfr/{id} - stop a recording, or discard a stopped one</li>
+ *   <li>GET /actuator/jfr/{id} - download the .jfr file; a running recording is dumped as-is to a
+ *       file of that request, deleted when the download ends</li>
+ * </ul>
+ * Presets are the JDK configurations ("default" is always-on safe, "profile" adds sampling and
+ * lower thresholds). Recordings always stop on their own after the requested duration.
+ *
+ * Recordings contain heap contents, system properties and environment variables, so access is
+ * none unless granted (the jfr profile does, on a loopback-only management port). Disk use is
+ * bounded by max-concurrent running plus retain finished recordings of at most max-size each.
+ */
+@Component
+@WebEndpoint(id = "jfr", defaultAccess = Access.NONE)
+public class FlightRecorderEndpoint {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderEndpoint.class);
+    
+    @Value("${jfr.recordings.directory:data/jfr}")
+    private Path directory;
+    
+    @Value("${jfr.recordings.default-duration:60s}")
+    private Duration defaultDuration;
+    
+    @Value("${jfr.recordings.max-duration:10m}")
+    private Duration maxDuration;
+    
+    @Value("${jfr.recordings.max-size:100MB}")
+    private DataSize maxSize;
+    
+    @Value("${jfr.recordings.max-concurrent:1}")
+    private int maxConcurrent;
+    
+    // Finished recordings kept for download; the oldest is discarded first
+    @Value("${jfr.recordings.retain:5}")
+    private int retain;
+    
+    private final Map<Long, Recording> recordings = new LinkedHashMap<>();
+    
+    /**
+     * Files of an earlier process can no longer be listed, downloaded or discarded
+     */
+    @PostConstruct
+    void removeLeftovers() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "recording-*.jfr")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+                logger.info("Deleted leftover JFR recording {}", file);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to clean JFR directory {}: {}", directory, e.getMessage());
+        }
+    }
+    
+    @ReadOperation
+    public synchronized Map<String, Object> list() {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        recordings.values().forEach(recording -> entries.add(describe(recording)));
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("presets", Configuration.getConfigurations().stream().map(Configuration::getName).toList());
+        response.put("recordings", entries);
+        return response;
+    }
+    
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable String preset,
+                                                                       @Nullable Duration duration) {
+        String name = preset != null ? preset : "default";
+        Duration length = duration != null ? duration : defaultDuration;
+        if (length.isNegative() || length.isZero() || length.compareTo(maxDuration) > 0) {
+            return error(400, "Bad Request", "duration must be between 1s and " + maxDuration);
+        }
+        long running = recordings.values().stream()
+                .filter(recording -> recording.getState() == RecordingState.RUNNING)
+                .count();
+        if (running >= maxConcurrent) {
+            return error(409, "Conflict", running + " recording(s) already running, the limit is " + maxConcurrent);
+        }
+        
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(name);
+        } catch (IOException | ParseException e) {
+            return error(400, "Bad Request", "Unknown preset: " + name);
+        }
+        
+        try {
+            Files.createDirectories(directory);
+            Recording recording = new Recording(configuration);
+            recording.setName("bank-" + name);
+            recording.setToDisk(true);
+            recording.setDuration(length);
+            recording.setMaxSize(maxSize.toBytes());
+            recording.setDestination(directory.resolve("recording-" + recording.getId() + ".jfr"));
+            recording.start();
+            recordings.put(recording.getId(), recording);
+            discardOldest();
+            
+            logger.info("Started JFR recording {} with preset {} for {}", recording.getId(), name, length);
+            return new WebEndpointResponse<>(describe(recording), 201);
+        } catch (IOException e) {
+            logger.error("Failed to start JFR recording: {}", e.getMessage());
+            return error(500, "Internal Server Error", "Failed to start recording: " + e.getMessage());
+        }
+    }
+    
+    @DeleteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> stop(@Selector long id) {
+        Recording recording = recordings.get(id);
+        if (recording == null) {
+            return error(404, "Resource Not Found", "Recording not found with id: " + id);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            // Writes the destination file
+            recording.stop();
+            logger.info("Stopped JFR recording {}", id);
+            return new WebEndpointResponse<>(describe(recording), 200);
+        }
+        
+        discard(recording);
+        logger.info("Discarded JFR recording {}", id);
+        return new WebEndpointResponse<>(describe(recording), 200);
+    }
+    
+    @ReadOperation
+    public WebEndpointResponse<Resource> download(@Selector long id) {
+        Recording recording;
+        synchronized (this) {
+            recording = recordings.get(id);
+        }
+        if (recording == null) {
+            return new WebEndpointResponse<>(404);
+        }
+        
+        if (recording.getState() == RecordingState.RUNNING) {
+            return dump(recording);
+        }
+        Path file = recording.getDestination();
+        if (file == null || !Files.exists(file)) {
+            return new WebEndpointResponse<>(404);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(file), 200);
+    }
+    
+    /**
+     * Dumps a running recording to a file of this request only, deleted once the download closes it
+     */
+    private WebEndpointResponse<Resource> dump(Recording recording) {
+        Path file = null;
+        try {
+            file = Files.createTempFile(directory, "recording-" + recording.getId() + "-", "-partial.jfr");
+            recording.dump(file);
+            return new WebEndpointResponse<>(
+                    new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE)), 200);
+        } catch (IOException e) {
+            logger.error("Failed to dump JFR recording {}: {}", recording.getId(), e.getMessage());
+            deleteQuietly(file);
+            return new WebEndpointResponse<>(500);
+        }
+    }
+    
+    private static void deleteQuietly(@Nullable Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete JFR dump {}: {}", file, e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    synchronized void close() {
+        recordings.values().forEach(Recording::close);
+        recordings.clear();
+    }
+    
+    private void discardOldest() {
+        List<Recording> finished = recordings.values().stream()
+                .filter(recording -> recording.getState() != RecordingState.RUNNING)
+                .toList();
+        for (int i = 0; i < finished.size() - retain; i++) {
+            discard(finished.get(i));
+        }
+    }
+    
+    private void discard(Recording recording) {
+        recordings.remove(recording.getId());
+        recording.close();
+        try {
+            Files.deleteIfExists(recording.getDestination());
+        } catch (IOException e) {
+            logger.warn("Failed to delete JFR recording {}: {}", recording.getId(), e.getMessage());
+        }
+    }
+    
+    private static Map<String, Object> describe(Recording recording) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", recording.getId());
+        entry.put("name", recording.getName());
+        entry.put("state", recording.getState());
+        entry.put("startTime", recording.getStartTime());
+        entry.put("stopTime", recording.getStopTime());
+        entry.put("duration", recording.getDuration());
+        entry.put("size", recording.getSize());
+        entry.put("file", recording.getDestination() != null ? recording.getDestination().toString() : null);
+        return entry;
+    }
+    
+    private static WebEndpointResponse<Map<String, Object>> error(int status, String error, String message) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("error", error);
+        body.put("message", message);
+        body.put("status", status);
+        body.put("timestamp", LocalDateTime.now());
+        return new WebEndpointResponse<>(body, status);
+    }
+}
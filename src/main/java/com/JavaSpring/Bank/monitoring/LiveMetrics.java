@@ -0,0 +1,361 @@
+package com.JavaSpring.Bank.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Live performance panel for the dashboard: samples in-process meters every
+ * monitoring.live.interval and pushes one {@link Sample} per interval to Server-Sent Events
+ * subscribers.
+ *
+ * Rates and latency percentiles cover the last interval only. They are the difference between
+ * two readings of the cumulative counters and histogram buckets, so nothing is added to the
+ * request path. Percentiles are interpolated within histogram buckets (as Prometheus
+ * histogram_quantile does), so they are estimates at bucket resolution.
+ *
+ * Nothing is read while nobody is subscribed. Each subscriber holds only the newest sample: a
+ * slow client skips samples instead of queueing them.
+ */
+@Component
+public class LiveMetrics {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LiveMetrics.class);
+    
+    public static final String STREAM_URI = "/dashboard/metrics";
+    public static final String SAMPLE_EVENT = "metrics";
+    
+    private static final String HTTP_REQUESTS = "http.server.requests";
+    private static final String SNAPSHOT_LOOKUPS = "user.snapshot.lookups";
+    // How often a drained subscriber checks whether it was closed
+    private static final long POLL_MILLIS = 5000;
+    
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMillis;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    // Guarded by this
+    private Reading previous;
+    private Sample latest;
+    
+    public LiveMetrics(ObjectProvider<MeterRegistry> meterRegistry,
+                       @Value("${monitoring.live.timeout:30m}") Duration timeout) {
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("monitoring.live.subscribers", subscribers, Set::size)
+                .description("Open dashboard metrics streams")
+                .register(this.meterRegistry);
+    }
+    
+    @Scheduled(fixedRateString = "${monitoring.live.interval:2s}")
+    public void scheduledSample() {
+        sample();
+    }
+    
+    /**
+     * Reads the meters and, from the second reading on, publishes the difference.
+     */
+    synchronized Sample sample() {
+        if (subscribers.isEmpty()) {
+            // An average over an idle gap would be misleading: the next viewer starts fresh
+            previous = null;
+            latest = null;
+            return null;
+        }
+        Reading current = read();
+        if (previous != null) {
+            latest = compare(previous, current);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(latest);
+            }
+        }
+        previous = current;
+        return latest;
+    }
+    
+    /**
+     * Open a stream; the newest sample, if any, is sent straight away.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        synchronized (this) {
+            subscribers.add(subscriber);
+            if (latest != null) {
+                subscriber.offer(latest);
+            }
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        Thread.ofVirtual().name("live-metrics").start(subscriber::drain);
+        return emitter;
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+    
+    private Reading read() {
+        Map<String, TimerReading> endpoints = readTimers(HTTP_REQUESTS, id -> {
+            String uri = id.getTag("uri");
+            // The stream itself is one long request; it would only distort the latencies
+            return STREAM_URI.equals(uri) ? null : id.getTag("method") + " " + uri;
+        });
+        Map<String, TimerReading> external = readTimers(ServiceMetrics.EXTERNAL_API, id -> id.getTag("operation"));
+        
+        Map<String, long[]> caches = new TreeMap<>();
+        for (Counter counter : meterRegistry.find(SNAPSHOT_LOOKUPS).counters()) {
+            long[] hitsAndMisses = caches.computeIfAbsent("user.snapshot", cache -> new long[2]);
+            hitsAndMisses["hit".equals(counter.getId().getTag("result")) ? 0 : 1] += (long) counter.count();
+        }
+        return new Reading(System.nanoTime(), endpoints, external, caches);
+    }
+    
+    /**
+     * Cumulative count and bucket counts per key, summed over the timers that share a key
+     * (e.g. every status of one endpoint). A null key skips the timer.
+     */
+    private Map<String, TimerReading> readTimers(String name, Function<Meter.Id, String> key) {
+        Map<String, TimerReading> readings = new HashMap<>();
+        for (Timer timer : meterRegistry.find(name).timers()) {
+            String k = key.apply(timer.getId());
+            if (k == null) {
+                continue;
+            }
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            boolean error = "SERVER_ERROR".equals(timer.getId().getTag("outcome"))
+                    || "error".equals(timer.getId().getTag("outcome"));
+            readings.merge(k, TimerReading.of(snapshot, error), TimerReading::plus);
+        }
+        return readings;
+    }
+    
+    private Sample compare(Reading before, Reading after) {
+        double seconds = (after.nanos() - before.nanos()) / 1e9;
+        
+        List<Latency> endpoints = latencies(before.endpoints(), after.endpoints(), seconds);
+        TimerReading allBefore = before.endpoints().values().stream().reduce(TimerReading.EMPTY, TimerReading::plus);
+        TimerReading allAfter = after.endpoints().values().stream().reduce(TimerReading.EMPTY, TimerReading::plus);
+        Latency requests = allAfter.since(allBefore, "all", seconds);
+        
+        List<Pool> pools = new ArrayList<>();
+        for (Gauge active : meterRegistry.find("hikaricp.connections.active").gauges()) {
+            String pool = active.getId().getTag("pool");
+            pools.add(new Pool(pool, (int) active.value(), (int) gauge("hikaricp.connections.idle", pool),
+                    (int) gauge("hikaricp.connections.pending", pool), (int) gauge("hikaricp.connections.max", pool)));
+        }
+        
+        List<CacheRatio> caches = new ArrayList<>();
+        after.caches().forEach((cache, counts) -> {
+            long[] earlier = before.caches().getOrDefault(cache, new long[2]);
+            long hits = counts[0] - earlier[0];
+            long misses = counts[1] - earlier[1];
+            long lifetime = counts[0] + counts[1];
+            caches.add(new CacheRatio(cache, hits, misses,
+                    hits + misses > 0 ? round((double) hits / (hits + misses)) : null,
+                    lifetime > 0 ? round((double) counts[0] / lifetime) : null));
+        });
+        
+        List<Latency> external = latencies(before.external(), after.external(), seconds);
+        return new Sample(LocalDateTime.now(), Math.round(seconds * 1000), requests, endpoints, pools, caches, external);
+    }
+    
+    /**
+     * Keys with traffic in the interval, busiest first
+     */
+    private static List<Latency> latencies(Map<String, TimerReading> before, Map<String, TimerReading> after, double seconds) {
+        List<Latency> latencies = new ArrayList<>();
+        after.forEach((key, reading) -> {
+            Latency latency = reading.since(before.getOrDefault(key, TimerReading.EMPTY), key, seconds);
+            if (latency.count() > 0) {
+                latencies.add(latency);
+            }
+        });
+        latencies.sort(Comparator.comparingLong(Latency::count).reversed().thenComparing(Latency::name));
+        return latencies;
+    }
+    
+    private double gauge(String name, String pool) {
+        Gauge gauge = meterRegistry.find(name).tag("pool", pool).gauge();
+        return gauge != null ? gauge.value() : 0;
+    }
+    
+    /**
+     * Latency quantile from per-bucket counts of one interval, interpolated linearly within the
+     * bucket that holds it. Values above the last bucket report the last bound.
+     *
+     * @param bounds - bucket upper bounds in milliseconds, ascending
+     * @param cumulative - values at or below each bound
+     */
+    static Double quantile(double[] bounds, double[] cumulative, long count, double q) {
+        if (count <= 0 || bounds.length == 0) {
+            return null;
+        }
+        double rank = q * count;
+        double lowerBound = 0;
+        double lowerCount = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            if (cumulative[i] >= rank) {
+                double inBucket = cumulative[i] - lowerCount;
+                double fraction = inBucket > 0 ? (rank - lowerCount) / inBucket : 1;
+                return lowerBound + (bounds[i] - lowerBound) * fraction;
+            }
+            lowerBound = bounds[i];
+            lowerCount = cumulative[i];
+        }
+        return bounds[bounds.length - 1];
+    }
+    
+    /**
+     * Two decimals are enough for a panel and keep each pushed sample small
+     */
+    private static Double round(Double value) {
+        return value != null ? Math.round(value * 100) / 100.0 : null;
+    }
+    
+    /**
+     * Cumulative counters at one instant
+     */
+    private record Reading(long nanos, Map<String, TimerReading> endpoints, Map<String, TimerReading> external,
+                           Map<String, long[]> caches) {
+    }
+    
+    private record TimerReading(long count, long errors, double[] bounds, double[] cumulative) {
+        
+        static final TimerReading EMPTY = new TimerReading(0, 0, new double[0], new double[0]);
+        
+        static TimerReading of(HistogramSnapshot snapshot, boolean error) {
+            CountAtBucket[] buckets = snapshot.histogramCounts();
+            double[] bounds = new double[buckets.length];
+            double[] cumulative = new double[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                bounds[i] = buckets[i].bucket(TimeUnit.MILLISECONDS);
+                cumulative[i] = buckets[i].count();
+            }
+            return new TimerReading(snapshot.count(), error ? snapshot.count() : 0, bounds, cumulative);
+        }
+        
+        TimerReading plus(TimerReading other) {
+            // Timers of one name share their bucket layout; an empty side adopts the other's
+            if (bounds.length == 0) {
+                return new TimerReading(count + other.count, errors + other.errors, other.bounds, other.cumulative);
+            }
+            double[] sum = cumulative.clone();
+            for (int i = 0; i < Math.min(sum.length, other.cumulative.length); i++) {
+                sum[i] += other.cumulative[i];
+            }
+            return new TimerReading(count + other.count, errors + other.errors, bounds, sum);
+        }
+        
+        Latency since(TimerReading before, String name, double seconds) {
+            long interval = count - before.count;
+            double[] delta = cumulative.clone();
+            for (int i = 0; i < Math.min(delta.length, before.cumulative.length); i++) {
+                delta[i] -= before.cumulative[i];
+            }
+            return new Latency(name, interval, round(seconds > 0 ? interval / seconds : 0), errors - before.errors,
+                    round(quantile(bounds, delta, interval, 0.5)), round(quantile(bounds, delta, interval, 0.99)));
+        }
+    }
+    
+    /**
+     * One pushed sample; rates, latencies and hit ratios cover the last {@code intervalMs}
+     */
+    public record Sample(LocalDateTime timestamp, long intervalMs, Latency requests, List<Latency> endpoints,
+                         List<Pool> pools, List<CacheRatio> caches, List<Latency> external) {
+    }
+    
+    /**
+     * Calls in the interval; p50Ms / p99Ms are null when the meter has no histogram buckets
+     */
+    public record Latency(String name, long count, double ratePerSecond, long errors, Double p50Ms, Double p99Ms) {
+    }
+    
+    public record Pool(String pool, int active, int idle, int pending, int max) {
+    }
+    
+    /**
+     * hitRatio is for the interval (null without lookups), lifetimeHitRatio since startup
+     */
+    public record CacheRatio(String cache, long hits, long misses, Double hitRatio, Double lifetimeHitRatio) {
+    }
+    
+    private class Subscriber {
+        
+        private final SseEmitter emitter;
+        // Newest sample only
+        private final BlockingQueue<Sample> pending = new ArrayBlockingQueue<>(1);
+        private volatile boolean closed;
+        
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        void offer(Sample sample) {
+            pending.clear();
+            pending.offer(sample);
+        }
+        
+        void drain() {
+            try {
+                emitter.send(SseEmitter.event().comment("connected").reconnectTime(3000));
+                while (!closed) {
+                    Sample sample = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (sample != null) {
+                        emitter.send(SseEmitter.event().name(SAMPLE_EVENT).data(sample, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the emitter timed out; the container finishes the response
+                logger.debug("Live metrics stream closed: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } finally {
+                close();
+            }
+        }
+        
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
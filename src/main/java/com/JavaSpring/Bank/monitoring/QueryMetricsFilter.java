@@ -0,0 +1,250 @@
+package com.JavaSpring.Bank.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the number of SQL statements and accumulated JDBC time of every request
+ * as Micrometer metrics tagged by endpoint pattern and method:
+ * - http.server.requests.queries (distribution summary)
+ * - http.server.requests.query.time (timer)
+ * Optionally exposes the same numbers as X-Query-Count / X-Query-Time (ms) response headers;
+ * the body is then buffered until the handler completes or flushes, so the headers are never dropped.
+ */
+public class QueryMetricsFilter extends OncePerRequestFilter {
+    
+    public static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-Query-Time";
+    
+    private final MeterRegistry meterRegistry;
+    private final boolean responseHeaders;
+    
+    public QueryMetricsFilter(MeterRegistry meterRegistry, boolean responseHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.responseHeaders = responseHeaders;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        QueryStats stats = QueryStats.begin();
+        QueryHeaderResponseWrapper wrapper = responseHeaders ? new QueryHeaderResponseWrapper(response, stats) : null;
+        
+        try {
+            filterChain.doFilter(request, wrapper != null ? wrapper : response);
+            if (wrapper != null) {
+                wrapper.finish();
+            }
+        } finally {
+            QueryStats.end();
+            record(request, stats);
+        }
+    }
+    
+    private void record(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        
+        DistributionSummary.builder("http.server.requests.queries")
+                .description("SQL statements executed per request")
+                .tag("uri", uri)
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(stats.getCount());
+        
+        Timer.builder("http.server.requests.query.time")
+                .description("Accumulated JDBC execution time per request")
+                .tag("uri", uri)
+                .tag("method", method)
+                .register(meterRegistry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * Holds the body back so the headers can still be set once the handler is done: the buffered bytes
+     * are released, headers first, at the end of the chain or when the handler flushes (streamed
+     * responses, SSE). A flushed or oversized response reports the statements run up to that point.
+     */
+    private static final class QueryHeaderResponseWrapper extends HttpServletResponseWrapper {
+        
+        // Larger bodies stop being buffered and go out with the counts so far
+        private static final int MAX_BUFFERED_BYTES = 1024 * 1024;
+        
+        private final QueryStats stats;
+        private final FastByteArrayOutputStream buffer = new FastByteArrayOutputStream(1024);
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private boolean released;
+        
+        QueryHeaderResponseWrapper(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+        
+        /**
+         * Set the headers and send everything buffered so far; later writes go straight through
+         */
+        synchronized void release() throws IOException {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (!isCommitted()) {
+                setHeader(QUERY_COUNT_HEADER, String.valueOf(stats.getCount()));
+                setHeader(QUERY_TIME_HEADER, String.format("%.3f", stats.getMillis()));
+            }
+            if (buffer.size() > 0) {
+                buffer.writeTo(getResponse().getOutputStream());
+                buffer.reset();
+            }
+        }
+        
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            release();
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (outputStream == null) {
+                outputStream = new BufferingOutputStream();
+            }
+            return outputStream;
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called");
+            }
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(new BufferingOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            release();
+            super.flushBuffer();
+        }
+        
+        @Override
+        public void resetBuffer() {
+            buffer.reset();
+            super.resetBuffer();
+        }
+        
+        @Override
+        public void reset() {
+            buffer.reset();
+            super.reset();
+        }
+        
+        @Override
+        public void sendError(int sc) throws IOException {
+            discard();
+            super.sendError(sc);
+        }
+        
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            discard();
+            super.sendError(sc, msg);
+        }
+        
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            discard();
+            super.sendRedirect(location);
+        }
+        
+        private void discard() throws IOException {
+            buffer.reset();
+            release();
+        }
+        
+        private final class BufferingOutputStream extends ServletOutputStream {
+            
+            @Override
+            public void write(int b) throws IOException {
+                synchronized (QueryHeaderResponseWrapper.this) {
+                    if (!released) {
+                        buffer.write(b);
+                        releaseIfTooLarge();
+                        return;
+                    }
+                }
+                getResponse().getOutputStream().write(b);
+            }
+            
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (QueryHeaderResponseWrapper.this) {
+                    if (!released) {
+                        buffer.write(b, off, len);
+                        releaseIfTooLarge();
+                        return;
+                    }
+                }
+                getResponse().getOutputStream().write(b, off, len);
+            }
+            
+            @Override
+            public void flush() throws IOException {
+                release();
+                getResponse().getOutputStream().flush();
+            }
+            
+            @Override
+            public boolean isReady() {
+                return !released || uncheckedOutputStream().isReady();
+            }
+            
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                uncheckedOutputStream().setWriteListener(listener);
+            }
+            
+            private void releaseIfTooLarge() throws IOException {
+                if (buffer.size() > MAX_BUFFERED_BYTES) {
+                    release();
+                }
+            }
+            
+            private ServletOutputStream uncheckedOutputStream() {
+                try {
+                    return getResponse().getOutputStream();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.JavaSpring.Bank.monitoring;
+
+/**
+ * Per-request SQL statement counter bound to the request thread.
+ * Filled by {@link QueryCountingDataSource}, opened and closed by {@link QueryMetricsFilter}.
+ */
+public final class QueryStats {
+    
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+    
+    private int count;
+    private long nanos;
+    
+    private QueryStats() {}
+    
+    public static QueryStats begin() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+    
+    /**
+     * @return stats of the current request, or null outside of a request
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+    
+    public static void end() {
+        CURRENT.remove();
+    }
+    
+    void record(long elapsedNanos) {
+        count++;
+        nanos += elapsedNanos;
+    }
+    
+    public int getCount() { return count; }
+    
+    public long getNanos() { return nanos; }
+    
+    public double getMillis() { return nanos / 1_000_000.0; }
+}
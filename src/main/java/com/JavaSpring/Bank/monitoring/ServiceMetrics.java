@@ -0,0 +1,118 @@
+package com.JavaSpring.Bank.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+
+/**
+ * Latency timers for service operations.
+ * Histogram and SLO buckets are configured per meter name in application.yml
+ * (management.metrics.distribution.*), so timers here only carry the tags.
+ */
+@Component
+public class ServiceMetrics {
+    
+    public static final String USER_SERVICE = "user.service";
+    public static final String EXTERNAL_API = "external.api";
+    
+    // Bounded tag values - sortBy comes straight from the request
+    private static final Set<String> SORT_FIELDS = Set.of(
+        "id", "firstName", "lastName", "email", "phone", "city", "createdAt", "updatedAt");
+    
+    /**
+     * Shape tags for operations that take no list filters. Prometheus rejects meters that
+     * share a name but not a tag key set, so every user.service timer carries the shape keys.
+     */
+    public static final Tags NO_SHAPE = Tags.of("city", "none", "keyword", "none", "sort", "none");
+    
+    private final MeterRegistry meterRegistry;
+    
+    public ServiceMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+    }
+    
+    /**
+     * Time an operation, tagging it with its outcome and exception class on failure.
+     * UserService operations are also emitted as {@link UserServiceEvent} for flight recordings.
+     */
+    public <T> T timed(String name, String operation, Tags tags, Supplier<T> body) {
+        UserServiceEvent event = USER_SERVICE.equals(name) ? new UserServiceEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        T result = null;
+        try {
+            result = body.get();
+            return result;
+        } catch (RuntimeException e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            String outcome = exception.equals("none") ? "success" : "error";
+            sample.stop(Timer.builder(name)
+                    .tags(tags)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.operation = operation;
+                    event.filters = describe(tags);
+                    event.rows = rows(result);
+                    event.outcome = outcome;
+                    event.commit();
+                }
+            }
+        }
+    }
+    
+    public void timed(String name, String operation, Tags tags, Runnable body) {
+        timed(name, operation, tags, () -> {
+            body.run();
+            return null;
+        });
+    }
+    
+    /**
+     * Query shape tags for list operations: which filters are present and the sort field.
+     */
+    public static Tags queryShape(String city, String keyword, String sortBy) {
+        return Tags.of(
+            "city", city != null ? "filtered" : "none",
+            "keyword", keyword != null ? "filtered" : "none",
+            "sort", sortBy != null && SORT_FIELDS.contains(sortBy) ? sortBy : "other");
+    }
+    
+    private static String describe(Tags tags) {
+        StringJoiner filters = new StringJoiner(",");
+        tags.forEach(tag -> filters.add(tag.getKey() + "=" + tag.getValue()));
+        return filters.toString();
+    }
+    
+    private static int rows(Object result) {
+        if (result instanceof Page<?> page) {
+            return page.getNumberOfElements();
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        return result != null ? 1 : 0;
+    }
+}
@@ -0,0 +1,33 @@
+package com.JavaSpring.Bank.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one UserService operation, committed by {@link ServiceMetrics}.
+ * Filters carry the same bounded query shape as the timer tags, never the searched values.
+ */
+@Name("com.JavaSpring.Bank.UserService")
+@Label("User Service Operation")
+@Category({"Bank", "Service"})
+@Description("A UserService call with its query shape and result size")
+@StackTrace(false)
+public class UserServiceEvent extends Event {
+    
+    @Label("Operation")
+    String operation;
+    
+    @Label("Filters")
+    String filters;
+    
+    @Label("Rows")
+    @Description("Rows returned, or 1 for single-entity operations")
+    int rows;
+    
+    @Label("Outcome")
+    String outcome;
+}
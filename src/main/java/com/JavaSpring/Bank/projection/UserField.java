@@ -0,0 +1,86 @@
+package com.JavaSpring.Bank.projection;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * A selectable UserResponseDTO field: its JSON name, users column and JDBC reader
+ */
+public enum UserField {
+    
+    ID("id", "id") {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            return rs.getLong(column);
+        }
+    },
+    FIRST_NAME("firstName", "first_name"),
+    LAST_NAME("lastName", "last_name"),
+    EMAIL("email", "email"),
+    PHONE("phone", "phone"),
+    CITY("city", "city"),
+    CREATED_AT("createdAt", "created_at") {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            return rs.getObject(column, LocalDateTime.class);
+        }
+    },
+    UPDATED_AT("updatedAt", "updated_at") {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            return rs.getObject(column, LocalDateTime.class);
+        }
+    },
+    VERSION("version", "version") {
+        @Override
+        Object read(ResultSet rs, int column) throws SQLException {
+            long version = rs.getLong(column);
+            return rs.wasNull() ? null : version;
+        }
+    };
+    
+    private static final UserField[] FIELDS = values();
+    
+    private final String jsonName;
+    private final String column;
+    // Pre-encoded once, so writing the property name is a byte copy
+    private final SerializedString serializedName;
+    
+    UserField(String jsonName, String column) {
+        this.jsonName = jsonName;
+        this.column = column;
+        this.serializedName = new SerializedString(jsonName);
+    }
+    
+    /**
+     * Strings by default; typed fields override
+     */
+    Object read(ResultSet rs, int column) throws SQLException {
+        return rs.getString(column);
+    }
+    
+    /**
+     * @return the field with this exact JSON name, or null
+     */
+    public static UserField fromJsonName(String jsonName) {
+        for (UserField field : FIELDS) {
+            if (field.jsonName.equals(jsonName)) {
+                return field;
+            }
+        }
+        return null;
+    }
+    
+    int bit() {
+        return 1 << ordinal();
+    }
+    
+    public String getJsonName() { return jsonName; }
+    
+    public String getColumn() { return column; }
+    
+    SerializedString getSerializedName() { return serializedName; }
+}
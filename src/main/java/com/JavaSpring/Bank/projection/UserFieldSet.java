@@ -0,0 +1,91 @@
+package com.JavaSpring.Bank.projection;
+
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The fields requested with fields=, always including id.
+ *
+ * Every combination of the nine fields (512) is built once at class load with its SELECT list
+ * and field order, so a request only parses names into a bit mask and picks the prebuilt set.
+ */
+public final class UserFieldSet {
+    
+    private static final UserField[] FIELDS = UserField.values();
+    private static final UserFieldSet[] BY_MASK = new UserFieldSet[1 << FIELDS.length];
+    private static final Map<String, UserField> BY_NAME = new HashMap<>();
+    
+    static {
+        for (int mask = 0; mask < BY_MASK.length; mask++) {
+            BY_MASK[mask] = new UserFieldSet(mask);
+        }
+        for (UserField field : FIELDS) {
+            BY_NAME.put(field.getJsonName().toLowerCase(), field);
+        }
+    }
+    
+    public static final UserFieldSet ALL = BY_MASK[BY_MASK.length - 1];
+    
+    private final int mask;
+    private final UserField[] fields;
+    private final String selectList;
+    
+    private UserFieldSet(int mask) {
+        this.mask = mask;
+        this.fields = Arrays.stream(FIELDS).filter(field -> (mask & field.bit()) != 0).toArray(UserField[]::new);
+        this.selectList = Arrays.stream(fields).map(UserField::getColumn).collect(Collectors.joining(", "));
+    }
+    
+    /**
+     * @param fields - comma separated JSON field names, case-insensitive
+     * @return the field set, or null when no fields were requested
+     * @throws InvalidRequestException for an unknown field name
+     */
+    public static UserFieldSet parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        int mask = UserField.ID.bit();
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            UserField field = BY_NAME.get(trimmed.toLowerCase());
+            if (field == null) {
+                throw new InvalidRequestException("Unknown field: " + trimmed + ", expected any of " +
+                        Arrays.stream(FIELDS).map(UserField::getJsonName).collect(Collectors.joining(", ")));
+            }
+            mask |= field.bit();
+        }
+        return BY_MASK[mask];
+    }
+    
+    public UserFieldSet with(UserField field) {
+        return BY_MASK[mask | field.bit()];
+    }
+    
+    public boolean contains(UserField field) {
+        return (mask & field.bit()) != 0;
+    }
+    
+    /**
+     * Fields in UserResponseDTO order, which is also the column order of {@link #getSelectList()}
+     */
+    UserField[] fields() {
+        return fields;
+    }
+    
+    public String getSelectList() {
+        return selectList;
+    }
+    
+    @Override
+    public String toString() {
+        return Arrays.stream(fields).map(UserField::getJsonName).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,100 @@
+package com.JavaSpring.Bank.projection;
+
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A user row holding only the selected columns. Serialized by walking the field set's
+ * precomputed field list, so no bean introspection happens per request; properties keep
+ * the names and order of UserResponseDTO.
+ */
+@JsonSerialize(using = UserProjection.Serializer.class)
+public final class UserProjection {
+    
+    private final UserFieldSet output;
+    private final Object[] values = new Object[UserField.values().length];
+    
+    private UserProjection(UserFieldSet output) {
+        this.output = output;
+    }
+    
+    /**
+     * Reads a row selected with {@code selected.getSelectList()}
+     * @param output - fields to serialize, a subset of selected
+     */
+    public static UserProjection fromRow(ResultSet rs, UserFieldSet selected, UserFieldSet output) throws SQLException {
+        UserProjection user = new UserProjection(output);
+        UserField[] fields = selected.fields();
+        for (int i = 0; i < fields.length; i++) {
+            user.values[fields[i].ordinal()] = fields[i].read(rs, i + 1);
+        }
+        return user;
+    }
+    
+    /**
+     * Narrows an already loaded user, for storage paths without a projected query
+     */
+    public static UserProjection of(UserResponseDTO dto, UserFieldSet output) {
+        UserProjection user = new UserProjection(output);
+        user.values[UserField.ID.ordinal()] = dto.getId();
+        user.values[UserField.FIRST_NAME.ordinal()] = dto.getFirstName();
+        user.values[UserField.LAST_NAME.ordinal()] = dto.getLastName();
+        user.values[UserField.EMAIL.ordinal()] = dto.getEmail();
+        user.values[UserField.PHONE.ordinal()] = dto.getPhone();
+        user.values[UserField.CITY.ordinal()] = dto.getCity();
+        user.values[UserField.CREATED_AT.ordinal()] = dto.getCreatedAt();
+        user.values[UserField.UPDATED_AT.ordinal()] = dto.getUpdatedAt();
+        user.values[UserField.VERSION.ordinal()] = dto.getVersion();
+        return user;
+    }
+    
+    public Object get(UserField field) {
+        return values[field.ordinal()];
+    }
+    
+    public Long getId() {
+        return (Long) values[UserField.ID.ordinal()];
+    }
+    
+    public Long getVersion() {
+        return (Long) values[UserField.VERSION.ordinal()];
+    }
+    
+    public UserFieldSet getFields() {
+        return output;
+    }
+    
+    public static final class Serializer extends StdSerializer<UserProjection> {
+        
+        public Serializer() {
+            super(UserProjection.class);
+        }
+        
+        @Override
+        public void serialize(UserProjection user, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(user);
+            for (UserField field : user.output.fields()) {
+                gen.writeFieldName(field.getSerializedName());
+                Object value = user.values[field.ordinal()];
+                if (value == null) {
+                    gen.writeNull();
+                } else if (value instanceof String text) {
+                    gen.writeString(text);
+                } else if (value instanceof Long number) {
+                    gen.writeNumber(number);
+                } else {
+                    // Timestamps go through the configured serializer to match UserResponseDTO
+                    provider.defaultSerializeValue(value, gen);
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
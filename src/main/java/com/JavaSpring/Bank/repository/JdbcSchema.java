@@ -0,0 +1,122 @@
+package com.JavaSpring.Bank.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * DDL helpers for tables kept outside the JPA model (shard tables, sync bookkeeping, jobs),
+ * and the dialect differences that come with them
+ */
+public final class JdbcSchema {
+    
+    private JdbcSchema() {}
+    
+    public static void createTableIfMissing(JdbcTemplate jdbc, String table, String ddl) {
+        Boolean exists = jdbc.execute((Connection connection) -> {
+            // Limited to the connection's schema: H2 also has an INFORMATION_SCHEMA.USERS view
+            String schema = connection.getSchema();
+            for (String name : new String[] {table, table.toUpperCase()}) {
+                try (ResultSet tables = connection.getMetaData().getTables(null, schema, name, new String[] {"TABLE"})) {
+                    if (tables.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+        if (!Boolean.TRUE.equals(exists)) {
+            jdbc.execute(ddl);
+        }
+    }
+    
+    /**
+     * Add a column to a table created by an earlier version
+     */
+    public static void addColumnIfMissing(JdbcTemplate jdbc, String table, String column, String definition) {
+        Boolean exists = jdbc.execute((Connection connection) -> {
+            String schema = connection.getSchema();
+            for (String[] names : new String[][] {{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+                try (ResultSet columns = connection.getMetaData().getColumns(null, schema, names[0], names[1])) {
+                    if (columns.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+        if (!Boolean.TRUE.equals(exists)) {
+            jdbc.execute("ALTER TABLE " + table + " ADD " + column + " " + definition);
+        }
+    }
+    
+    public static void createIndexIfMissing(JdbcTemplate jdbc, String table, String index, String ddl) {
+        Boolean exists = jdbc.execute((Connection connection) -> {
+            String schema = connection.getSchema();
+            for (String name : new String[] {table, table.toUpperCase()}) {
+                try (ResultSet indexes = connection.getMetaData().getIndexInfo(null, schema, name, false, false)) {
+                    while (indexes.next()) {
+                        if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        });
+        if (!Boolean.TRUE.equals(exists)) {
+            jdbc.execute(ddl);
+        }
+    }
+    
+    public static boolean isSqlServer(JdbcTemplate jdbc) {
+        return Boolean.TRUE.equals(jdbc.execute((Connection connection) ->
+                connection.getMetaData().getDatabaseProductName().contains("SQL Server")));
+    }
+    
+    /**
+     * Duplicate key on H2 / PostgreSQL (SQLState 23505) or SQL Server (2627 constraint, 2601 unique index).
+     * Other integrity errors (23xxx) and connection failures are not about the row being a duplicate.
+     */
+    public static boolean isUniqueViolation(SQLException e) {
+        return "23505".equals(e.getSQLState()) || e.getErrorCode() == 2627 || e.getErrorCode() == 2601;
+    }
+    
+    /**
+     * Whether a translated data access exception was caused by a duplicate key
+     */
+    public static boolean isUniqueViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && isUniqueViolation(sql)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Column type for a point in time; TIMESTAMP is a row version on SQL Server
+     */
+    public static String timestampType(JdbcTemplate jdbc) {
+        return isSqlServer(jdbc) ? "DATETIME2" : "TIMESTAMP";
+    }
+    
+    /**
+     * Definition of the city_key column compared by the city filter: the trimmed, lower-cased
+     * city, computed by the database like the users entity's generated column
+     */
+    public static String cityKeyColumn(JdbcTemplate jdbc) {
+        return isSqlServer(jdbc)
+                ? "AS LOWER(LTRIM(RTRIM(city))) PERSISTED"
+                : "VARCHAR(100) GENERATED ALWAYS AS (LOWER(LTRIM(RTRIM(city))))";
+    }
+    
+    /**
+     * Column type for unbounded text such as JSON documents
+     */
+    public static String textType(JdbcTemplate jdbc) {
+        return isSqlServer(jdbc) ? "NVARCHAR(MAX)" : "CLOB";
+    }
+}
@@ -0,0 +1,130 @@
+package com.JavaSpring.Bank.repository;
+
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import com.JavaSpring.Bank.index.CityIndex;
+import com.JavaSpring.Bank.projection.UserField;
+import com.JavaSpring.Bank.projection.UserFieldSet;
+import com.JavaSpring.Bank.projection.UserProjection;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Users table reads that select only the columns of a {@link UserFieldSet}.
+ * Filters match {@link UserRepository#findByCityAndKeyword}.
+ */
+@Repository
+public class UserProjectionRepository {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * @param selected - columns to read, a superset of output
+     * @param output - fields the returned rows serialize
+     */
+    public Optional<UserProjection> findById(Long id, UserFieldSet selected, UserFieldSet output) {
+        return jdbcTemplate.query("SELECT " + selected.getSelectList() + " FROM users WHERE id = ?",
+                mapper(selected, output), id).stream().findFirst();
+    }
+    
+    /**
+     * Rows for the given ids, in the order of ids; missing ids are skipped
+     */
+    public List<UserProjection> findByIds(List<Long> ids, UserFieldSet selected, UserFieldSet output) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<UserProjection> rows = jdbcTemplate.query(
+                "SELECT " + selected.getSelectList() + " FROM users WHERE id IN (" + placeholders + ")",
+                mapper(selected, output), ids.toArray());
+        
+        Map<Long, UserProjection> byId = new HashMap<>(rows.size() * 2);
+        rows.forEach(row -> byId.put(row.getId(), row));
+        List<UserProjection> ordered = new ArrayList<>(rows.size());
+        for (Long id : ids) {
+            UserProjection row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+    
+    /**
+     * Ids of every user matching the keyword, collected into a bitmap without reading whole rows
+     */
+    public RoaringBitmap findIdsByKeyword(String keyword) {
+        List<Object> args = new ArrayList<>();
+        RoaringBitmap ids = new RoaringBitmap();
+        jdbcTemplate.query("SELECT id FROM users WHERE " + String.join(" AND ", filterConditions(null, keyword, args)),
+                row -> { ids.add(Math.toIntExact(row.getLong(1))); }, args.toArray());
+        return ids;
+    }
+    
+    /**
+     * One page ordered by the sort property, ties broken by id
+     * @throws InvalidRequestException when the sort property is not a user field
+     */
+    public List<UserProjection> findPage(String city, String keyword, Sort.Order order, long offset, int limit,
+                                         UserFieldSet selected, UserFieldSet output) {
+        UserField sortField = UserField.fromJsonName(order.getProperty());
+        if (sortField == null) {
+            throw new InvalidRequestException("Unsupported sort field: " + order.getProperty());
+        }
+        String direction = order.isAscending() ? "ASC" : "DESC";
+        
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(selected.getSelectList()).append(" FROM users");
+        List<String> conditions = filterConditions(city, keyword, args);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ").append(sortField.getColumn()).append(' ').append(direction);
+        if (sortField != UserField.ID) {
+            sql.append(", id ").append(direction);
+        }
+        sql.append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+        args.add(offset);
+        args.add(limit);
+        
+        return jdbcTemplate.query(sql.toString(), mapper(selected, output), args.toArray());
+    }
+    
+    /**
+     * SQL conditions for the city and keyword filters of GET /api/v1/users, adding their parameters to args.
+     * Empty when both are null. Shared by every query over a users table (main, shards, streams and
+     * bulk changes), all of which have the generated city_key column.
+     */
+    public static List<String> filterConditions(String city, String keyword, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (city != null) {
+            conditions.add("city_key = ?");
+            args.add(CityIndex.normalize(city));
+        }
+        if (keyword != null) {
+            String pattern = "%" + keyword.toLowerCase(Locale.ROOT) + "%";
+            conditions.add("(LOWER(first_name) LIKE ? OR LOWER(last_name) LIKE ? OR LOWER(email) LIKE ?)");
+            args.add(pattern);
+            args.add(pattern);
+            args.add(pattern);
+        }
+        return conditions;
+    }
+    
+    private static RowMapper<UserProjection> mapper(UserFieldSet selected, UserFieldSet output) {
+        return (rs, rowNum) -> UserProjection.fromRow(rs, selected, output);
+    }
+}
@@ -1,13 +1,18 @@
 package com.JavaSpring.Bank.repository;
 
 import com.JavaSpring.Bank.entity.User;
+import com.JavaSpring.Bank.index.CityIndex;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -15,8 +20,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByEmail(String email);
     
-    boolean existsByEmail(String email);
-    
     Page<User> findByCity(String city, Pageable pageable);
     
     @Query("SELECT u FROM User u WHERE " +
@@ -25,13 +28,91 @@ public interface UserRepository extends JpaRepository<User, Long> {
            "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     Page<User> findByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
-    @Query("SELECT u FROM User u WHERE " +
-           "(:city IS NULL OR LOWER(u.city) = LOWER(:city)) AND " +
-           "(:keyword IS NULL OR " +
+    /**
+     * Users matching the optional city (case-insensitive) and keyword filters. Each combination runs its
+     * own statement: an "IS NULL OR" guard would keep the city condition from seeking idx_users_city_key.
+     */
+    default Page<User> findByCityAndKeyword(String city, String keyword, Pageable pageable) {
+        if (city == null) {
+            return keyword == null ? findAll(pageable) : findByKeyword(keyword, pageable);
+        }
+        String cityKey = CityIndex.normalize(city);
+        return keyword == null ? findByCityKey(cityKey, pageable) : findByCityKeyAndKeyword(cityKey, keyword, pageable);
+    }
+    
+    default long countByCityAndKeyword(String city, String keyword) {
+        if (city == null) {
+            return keyword == null ? count() : countByKeyword(keyword);
+        }
+        String cityKey = CityIndex.normalize(city);
+        return keyword == null ? countByCityKey(cityKey) : countByCityKeyAndKeyword(cityKey, keyword);
+    }
+    
+    /**
+     * @param cityKey - city as {@link CityIndex#normalize} returns it
+     */
+    Page<User> findByCityKey(String cityKey, Pageable pageable);
+    
+    long countByCityKey(String cityKey);
+    
+    @Query("SELECT u FROM User u WHERE u.cityKey = :cityKey AND (" +
            "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')))")
-    Page<User> findByCityAndKeyword(@Param("city") String city, 
-                                   @Param("keyword") String keyword, 
-                                   Pageable pageable);
+    Page<User> findByCityKeyAndKeyword(@Param("cityKey") String cityKey,
+                                       @Param("keyword") String keyword,
+                                       Pageable pageable);
+    
+    @Query("SELECT COUNT(u) FROM User u WHERE u.cityKey = :cityKey AND (" +
+           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    long countByCityKeyAndKeyword(@Param("cityKey") String cityKey, @Param("keyword") String keyword);
+    
+    @Query("SELECT COUNT(u) FROM User u WHERE " +
+           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+    long countByKeyword(@Param("keyword") String keyword);
+    
+    /**
+     * Which of the given ids (city index candidates) match the keyword; reads only those rows
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids AND (" +
+           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    List<Long> findIdsByKeywordAmong(@Param("ids") Collection<Long> ids, @Param("keyword") String keyword);
+    
+    /**
+     * One page of the given ids; returns a List so no COUNT query is issued
+     */
+    List<User> findByIdIn(Collection<Long> ids, Pageable pageable);
+    
+    /**
+     * Single-statement conditional update. A null version matches any row version.
+     * Returns the affected-row count: 0 means the row is missing or the version is stale.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET " +
+           "u.firstName = :firstName, u.lastName = :lastName, u.email = :email, " +
+           "u.phone = :phone, u.city = :city, u.updatedAt = :updatedAt, " +
+           "u.version = u.version + 1 " +
+           "WHERE u.id = :id AND (:version IS NULL OR u.version = :version)")
+    int updateIfVersionMatches(@Param("id") Long id,
+                               @Param("version") Long version,
+                               @Param("firstName") String firstName,
+                               @Param("lastName") String lastName,
+                               @Param("email") String email,
+                               @Param("phone") String phone,
+                               @Param("city") String city,
+                               @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * Single-statement conditional delete. A null version matches any row version.
+     * Returns the affected-row count: 0 means the row is missing or the version is stale.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM User u WHERE u.id = :id AND (:version IS NULL OR u.version = :version)")
+    int deleteIfVersionMatches(@Param("id") Long id, @Param("version") Long version);
 }
\ No newline at end of file
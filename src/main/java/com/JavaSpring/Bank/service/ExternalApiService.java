@@ -1,16 +1,25 @@
 package com.JavaSpring.Bank.service;
 
 import com.JavaSpring.Bank.dto.external.ExternalUserDTO;
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
 import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.hedging.RequestHedger;
+import com.JavaSpring.Bank.monitoring.ExternalApiEvent;
+import com.JavaSpring.Bank.monitoring.ServiceMetrics;
+import io.micrometer.core.instrument.Tags;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * External API Service - Handles integration with JSONPlaceholder API
@@ -23,14 +32,21 @@ public class ExternalApiService {
     
     private final WebClient webClient;
     
+    private final ServiceMetrics serviceMetrics;
+    
+    private final RequestHedger requestHedger;
+    
     @Value("${external.api.jsonplaceholder.base-url:https://jsonplaceholder.typicode.com}")
     private String baseUrl;
     
     @Value("${external.api.jsonplaceholder.timeout:5000}")
     private int timeout;
     
-    public ExternalApiService(WebClient.Builder webClientBuilder) {
+    public ExternalApiService(WebClient.Builder webClientBuilder, ServiceMetrics serviceMetrics,
+                              RequestHedger requestHedger) {
         this.webClient = webClientBuilder.build();
+        this.serviceMetrics = serviceMetrics;
+        this.requestHedger = requestHedger;
     }
     
     /**
@@ -40,46 +56,68 @@ public class ExternalApiService {
     public List<ExternalUserDTO> fetchExternalUsers() {
         logger.info("Fetching users from external API: {}", baseUrl);
         
-        try {
-            List<ExternalUserDTO> users = webClient.get()
-                    .uri(baseUrl + "/users")
-                    .retrieve()
-                    .bodyToFlux(ExternalUserDTO.class)
-                    .collectList()
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
-            
-            logger.info("Successfully fetched {} users from external API", users != null ? users.size() : 0);
-            return users;
-            
-        } catch (Exception e) {
-            logger.error("Error fetching users from external API: {}", e.getMessage());
-            throw new RuntimeException("Failed to fetch users from external API", e);
-        }
+        return serviceMetrics.timed(ServiceMetrics.EXTERNAL_API, "fetchExternalUsers", Tags.empty(), () -> {
+            try {
+                String url = baseUrl + "/users";
+                List<ExternalUserDTO> users = recorded(url, webClient.get()
+                        .uri(url)
+                        .retrieve()
+                        .toEntityList(ExternalUserDTO.class))
+                        .block();
+                
+                logger.info("Successfully fetched {} users from external API", users != null ? users.size() : 0);
+                return users;
+                
+            } catch (Exception e) {
+                logger.error("Error fetching users from external API: {}", e.getMessage());
+                throw new RuntimeException("Failed to fetch users from external API", e);
+            }
+        });
     }
     
     /**
      * Fetch single user from JSONPlaceholder API
+     * Hedged when external.api.jsonplaceholder.hedging.enabled: a slow first attempt gets a second one
      * @param externalId - external user ID
      */
     public ExternalUserDTO fetchExternalUser(Long externalId) {
         logger.info("Fetching user {} from external API: {}", externalId, baseUrl);
         
-        try {
-            ExternalUserDTO user = webClient.get()
-                    .uri(baseUrl + "/users/" + externalId)
-                    .retrieve()
-                    .bodyToMono(ExternalUserDTO.class)
+        return serviceMetrics.timed(ServiceMetrics.EXTERNAL_API, "fetchExternalUser", Tags.empty(), () -> {
+            try {
+                String url = baseUrl + "/users/" + externalId;
+                ExternalUserDTO user = requestHedger.hedge("fetchExternalUser", () -> recorded(url, webClient.get()
+                        .uri(url)
+                        .retrieve()
+                        .toEntity(ExternalUserDTO.class)))
+                        .block();
+                
+                logger.info("Successfully fetched user {} from external API", externalId);
+                return user;
+                
+            } catch (Exception e) {
+                logger.error("Error fetching user {} from external API: {}", externalId, e.getMessage());
+                throw new RuntimeException("Failed to fetch user from external API", e);
+            }
+        });
+    }
+    
+    /**
+     * One HTTP call with the configured timeout, recorded as an {@link ExternalApiEvent} carrying
+     * its url and response status. Each subscription is a separate call; a cancelled call has status 0.
+     */
+    private <T> Mono<T> recorded(String url, Mono<ResponseEntity<T>> call) {
+        return Mono.defer(() -> {
+            ExternalApiEvent event = new ExternalApiEvent(url);
+            AtomicInteger status = new AtomicInteger();
+            event.begin();
+            return call
                     .timeout(Duration.ofMillis(timeout))
-                    .block();
-            
-            logger.info("Successfully fetched user {} from external API", externalId);
-            return user;
-            
-        } catch (Exception e) {
-            logger.error("Error fetching user {} from external API: {}", externalId, e.getMessage());
-            throw new RuntimeException("Failed to fetch user from external API", e);
-        }
+                    .doOnNext(response -> status.set(response.getStatusCode().value()))
+                    .doOnError(WebClientResponseException.class, e -> status.set(e.getStatusCode().value()))
+                    .doFinally(signal -> event.finish(status.get()))
+                    .mapNotNull(ResponseEntity::getBody);
+        });
     }
     
     /**
@@ -91,27 +129,36 @@ public class ExternalApiService {
     public UserResponseDTO importExternalUser(Long externalId, UserService userService) {
         logger.info("Importing user {} from external API", externalId);
         
-        // Step 1: Fetch from external API
-        ExternalUserDTO externalUser = fetchExternalUser(externalId);
-        
-        // Step 2: Transform to local format
+        return serviceMetrics.timed(ServiceMetrics.EXTERNAL_API, "importExternalUser", Tags.empty(), () -> {
+            // Step 1: Fetch from external API
+            ExternalUserDTO externalUser = fetchExternalUser(externalId);
+            
+            // Step 2: Transform to local format
+            UserRequestDTO userRequest = toUserRequest(externalUser);
+            
+            // Step 3: Save to local database
+            UserResponseDTO savedUser = userService.createUser(userRequest);
+            
+            logger.info("Successfully imported user {} as local user {}", externalId, savedUser.getId());
+            return savedUser;
+        });
+    }
+    
+    /**
+     * Local form of an external user: the name is split at the first space and only the
+     * address city is kept
+     */
+    public static UserRequestDTO toUserRequest(ExternalUserDTO externalUser) {
         String[] nameParts = externalUser.getName().split(" ", 2);
         String firstName = nameParts[0];
         String lastName = nameParts.length > 1 ? nameParts[1] : "";
         
-        com.JavaSpring.Bank.dto.request.UserRequestDTO userRequest = 
-            new com.JavaSpring.Bank.dto.request.UserRequestDTO(
-                firstName,
-                lastName,
-                externalUser.getEmail(),
-                externalUser.getPhone(),
-                externalUser.getAddress() != null ? externalUser.getAddress().getCity() : ""
-            );
-        
-        // Step 3: Save to local database
-        UserResponseDTO savedUser = userService.createUser(userRequest);
-        
-        logger.info("Successfully imported user {} as local user {}", externalId, savedUser.getId());
-        return savedUser;
+        return new UserRequestDTO(
+            firstName,
+            lastName,
+            externalUser.getEmail(),
+            externalUser.getPhone(),
+            externalUser.getAddress() != null ? externalUser.getAddress().getCity() : ""
+        );
     }
 }
\ No newline at end of file
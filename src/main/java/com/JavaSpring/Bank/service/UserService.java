@@ -1,21 +1,49 @@
 package com.JavaSpring.Bank.service;
 
 import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.JavaSpring.Bank.dto.response.UserLookupDTO;
 import com.JavaSpring.Bank.dto.response.UserResponseDTO;
 import com.JavaSpring.Bank.entity.User;
 import com.JavaSpring.Bank.exception.DuplicateResourceException;
 import com.JavaSpring.Bank.exception.ResourceNotFoundException;
+import com.JavaSpring.Bank.event.UserChangedEvent;
+import com.JavaSpring.Bank.exception.StaleResourceException;
+import com.JavaSpring.Bank.index.CityIndex;
+import com.JavaSpring.Bank.monitoring.ServiceMetrics;
+import com.JavaSpring.Bank.projection.UserField;
+import com.JavaSpring.Bank.projection.UserFieldSet;
+import com.JavaSpring.Bank.projection.UserProjection;
+import com.JavaSpring.Bank.repository.JdbcSchema;
+import com.JavaSpring.Bank.repository.UserProjectionRepository;
 import com.JavaSpring.Bank.repository.UserRepository;
+import com.JavaSpring.Bank.shard.ShardedUserStore;
+import com.JavaSpring.Bank.snapshot.UserSnapshot;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @Transactional
 public class UserService {
@@ -25,101 +53,449 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
     
-    @Transactional(readOnly = true)
-public Page<UserResponseDTO> getAllUsers(int page, int size, String sortBy, 
-                                       String sortDir, String city, String keyword) {
-    logger.info("Fetching users with pagination - Page: {}, Size: {}, SortBy: {}, " +
-               "SortDir: {}, City: {}, Keyword: {}", page, size, sortBy, sortDir, city, keyword);
+    @Autowired
+    private UserProjectionRepository userProjectionRepository;
     
-    Sort sort = sortDir.equalsIgnoreCase("desc") ? 
-               Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+    @Autowired
+    private ServiceMetrics serviceMetrics;
     
-    Pageable pageable = PageRequest.of(page, size, sort);
+    @Autowired
+    private CityIndex cityIndex;
     
-    // CRITICAL FIX: Handle empty strings as null
-    String normalizedCity = (city != null && !city.trim().isEmpty()) ? city.trim() : null;
-    String normalizedKeyword = (keyword != null && !keyword.trim().isEmpty()) ? keyword.trim() : null;
+    // Listeners (city index, change stream) act on these after the transaction commits
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
-    Page<User> users;
-    if (normalizedCity != null || normalizedKeyword != null) {
-        logger.info("Using filtered query with city: {}, keyword: {}", normalizedCity, normalizedKeyword);
-        users = userRepository.findByCityAndKeyword(normalizedCity, normalizedKeyword, pageable);
-    } else {
-        logger.info("Using findAll query for all users");
-        users = userRepository.findAll(pageable);
-    }
+    // Present only with sharding.enabled=true; users then live in the shards, not in the users table
+    @Autowired(required = false)
+    private ShardedUserStore shardedStore;
     
-    logger.info("Query returned {} users out of {} total", users.getNumberOfElements(), users.getTotalElements());
+    // Pre-rendered detail responses (snapshot.users.enabled); may be absent outside the full application
+    @Autowired(required = false)
+    private UserSnapshot userSnapshot;
     
-    return users.map(UserResponseDTO::new);
-}
+    // Ids per IN list: keyword checks run in blocks of this size; a non-id sort over more candidates
+    // goes back to the database, where the city filter seeks idx_users_city_key
+    private static final int MAX_IN_LIST_CANDIDATES = 1000;
+    
+    // Ids per IN query for multi-gets, well under SQL Server's 2100 parameter limit
+    private static final int MULTI_GET_CHUNK_SIZE = 500;
     
     @Transactional(readOnly = true)
-    public UserResponseDTO getUserById(Long id) {
-        logger.info("Fetching user by ID: {}", id);
+    public Page<UserResponseDTO> getAllUsers(int page, int size, String sortBy, 
+                                             String sortDir, String city, String keyword) {
+        logger.info("Fetching users with pagination - Page: {}, Size: {}, SortBy: {}, " +
+                   "SortDir: {}, City: {}, Keyword: {}", page, size, sortBy, sortDir, city, keyword);
         
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
+        // CRITICAL FIX: Handle empty strings as null
+        String normalizedCity = (city != null && !city.trim().isEmpty()) ? city.trim() : null;
+        String normalizedKeyword = (keyword != null && !keyword.trim().isEmpty()) ? keyword.trim() : null;
         
-        return new UserResponseDTO(user);
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "getAllUsers",
+                ServiceMetrics.queryShape(normalizedCity, normalizedKeyword, sortBy), () -> {
+            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
+                       Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+            
+            Pageable pageable = PageRequest.of(page, size, sort);
+            
+            if (shardedStore != null) {
+                logger.info("Using sharded query across {} shards", shardedStore.getShardCount());
+                return shardedStore.findPage(normalizedCity, normalizedKeyword, pageable);
+            }
+            
+            Page<User> users = null;
+            if (normalizedCity != null && cityIndex.isReady()) {
+                logger.info("Using city index with city: {}, keyword: {}", normalizedCity, normalizedKeyword);
+                users = findByIndexedCity(normalizedCity, normalizedKeyword, pageable);
+            }
+            
+            if (users == null && (normalizedCity != null || normalizedKeyword != null)) {
+                logger.info("Using filtered query with city: {}, keyword: {}", normalizedCity, normalizedKeyword);
+                users = userRepository.findByCityAndKeyword(normalizedCity, normalizedKeyword, pageable);
+            } else if (users == null) {
+                logger.info("Using findAll query for all users");
+                users = userRepository.findAll(pageable);
+            }
+            
+            logger.info("Query returned {} users out of {} total", users.getNumberOfElements(), users.getTotalElements());
+            
+            return users.map(UserResponseDTO::new);
+        });
     }
     
-    @Transactional
-    public UserResponseDTO createUser(UserRequestDTO request) {
-        logger.info("Creating new user with email: {}", request.getEmail());
+    /**
+     * Same page as {@link #getAllUsers(int, int, String, String, String, String)}, selecting and
+     * serializing only the requested fields. Id-sorted city pages are still cut from the city index;
+     * the COUNT is skipped when the first page is not full.
+     */
+    @Transactional(readOnly = true)
+    public Page<UserProjection> getAllUsers(int page, int size, String sortBy, String sortDir,
+                                            String city, String keyword, UserFieldSet fields) {
+        logger.info("Fetching user fields [{}] with pagination - Page: {}, Size: {}, SortBy: {}, " +
+                   "SortDir: {}, City: {}, Keyword: {}", fields, page, size, sortBy, sortDir, city, keyword);
         
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new DuplicateResourceException("User already exists with email: " + request.getEmail());
+        String normalizedCity = (city != null && !city.trim().isEmpty()) ? city.trim() : null;
+        String normalizedKeyword = (keyword != null && !keyword.trim().isEmpty()) ? keyword.trim() : null;
+        
+        if (shardedStore != null) {
+            // Shards return whole rows; only the serialized output is narrowed
+            return getAllUsers(page, size, sortBy, sortDir, city, keyword).map(user -> UserProjection.of(user, fields));
         }
         
-        User user = new User(
-            request.getFirstName(),
-            request.getLastName(),
-            request.getEmail(),
-            request.getPhone(),
-            request.getCity()
-        );
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "getAllUserFields",
+                ServiceMetrics.queryShape(normalizedCity, normalizedKeyword, sortBy), () -> {
+            Sort sort = sortDir.equalsIgnoreCase("desc") ? 
+                       Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+            Pageable pageable = PageRequest.of(page, size, sort);
+            Sort.Order order = sort.iterator().next();
+            
+            RoaringBitmap indexed = normalizedCity != null && cityIndex.isReady()
+                    ? candidatesFor(normalizedCity, normalizedKeyword) : null;
+            if (indexed != null && UserField.ID.getJsonName().equals(order.getProperty())) {
+                long total = indexed.getLongCardinality();
+                List<Long> ids = pageOfIds(indexed, total, order, pageable);
+                return new PageImpl<>(userProjectionRepository.findByIds(ids, fields, fields), pageable, total);
+            }
+            
+            List<UserProjection> content = userProjectionRepository.findPage(
+                    normalizedCity, normalizedKeyword, order, pageable.getOffset(), size, fields, fields);
+            if (page == 0 && content.size() < size) {
+                return new PageImpl<>(content, pageable, content.size());
+            }
+            long total;
+            if (indexed != null) {
+                total = indexed.getLongCardinality();
+            } else if (normalizedCity == null && normalizedKeyword == null) {
+                total = userRepository.count();
+            } else {
+                total = userRepository.countByCityAndKeyword(normalizedCity, normalizedKeyword);
+            }
+            return new PageImpl<>(content, pageable, total);
+        });
+    }
+    
+    /**
+     * Number of users matching the list filters, from the city index when it can answer.
+     */
+    @Transactional(readOnly = true)
+    public long countUsers(String city, String keyword) {
+        String normalizedCity = (city != null && !city.trim().isEmpty()) ? city.trim() : null;
+        String normalizedKeyword = (keyword != null && !keyword.trim().isEmpty()) ? keyword.trim() : null;
         
-        User savedUser = userRepository.save(user);
-        logger.info("User created successfully with ID: {}", savedUser.getId());
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "countUsers",
+                ServiceMetrics.queryShape(normalizedCity, normalizedKeyword, null), () -> {
+            if (shardedStore != null) {
+                return shardedStore.count(normalizedCity, normalizedKeyword);
+            }
+            RoaringBitmap indexed = normalizedCity != null && cityIndex.isReady()
+                    ? candidatesFor(normalizedCity, normalizedKeyword) : null;
+            if (indexed != null) {
+                return indexed.getLongCardinality();
+            }
+            return userRepository.countByCityAndKeyword(normalizedCity, normalizedKeyword);
+        });
+    }
+    
+    /**
+     * Users per city for the current keyword, from the city index bitmaps intersected with the keyword
+     * matches when there is one. The city filter itself is ignored so the UI can offer every other
+     * city as an option. Empty until the index has been built.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> getCityFacets(String keyword) {
+        String normalizedKeyword = (keyword != null && !keyword.trim().isEmpty()) ? keyword.trim() : null;
+        if (shardedStore != null) {
+            return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "getCityFacets",
+                    ServiceMetrics.queryShape(null, normalizedKeyword, null), () -> shardedStore.cityFacets(normalizedKeyword));
+        }
+        if (!cityIndex.isReady()) {
+            return Collections.emptyMap();
+        }
         
-        return new UserResponseDTO(savedUser);
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "getCityFacets",
+                ServiceMetrics.queryShape(null, normalizedKeyword, null), () -> normalizedKeyword == null
+                ? cityIndex.facets(null)
+                : cityIndex.facets(userProjectionRepository.findIdsByKeyword(normalizedKeyword)));
     }
     
-    @Transactional
-    public UserResponseDTO updateUser(Long id, UserRequestDTO request) {
-        logger.info("Updating user with ID: {}", id);
+    /**
+     * City lookup is a bitmap fetch intersected with the keyword matches. Id-sorted pages are
+     * cut straight from the bitmap by rank and the total is its cardinality, so no COUNT runs.
+     * Returns null when a non-id sort has too many candidates for an IN list.
+     */
+    private Page<User> findByIndexedCity(String city, String keyword, Pageable pageable) {
+        RoaringBitmap candidates = candidatesFor(city, keyword);
+        long total = candidates.getLongCardinality();
         
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
+        Sort.Order idOrder = pageable.getSort().getOrderFor("id");
+        if (idOrder != null) {
+            List<Long> ids = pageOfIds(candidates, total, idOrder, pageable);
+            
+            Map<Long, User> byId = userRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            List<User> content = ids.stream().map(byId::get).filter(user -> user != null).toList();
+            return new PageImpl<>(content, pageable, total);
+        }
         
-        // Check for email uniqueness if email is being changed
-        if (!user.getEmail().equals(request.getEmail()) && 
-            userRepository.existsByEmail(request.getEmail())) {
-            throw new DuplicateResourceException("User already exists with email: " + request.getEmail());
+        if (total == 0) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        if (total > MAX_IN_LIST_CANDIDATES) {
+            return null;
         }
+        List<Long> ids = new ArrayList<>((int) total);
+        candidates.forEach((int id) -> ids.add(Integer.toUnsignedLong(id)));
+        return new PageImpl<>(userRepository.findByIdIn(ids, pageable), pageable, total);
+    }
+    
+    private static List<Long> pageOfIds(RoaringBitmap candidates, long total, Sort.Order idOrder, Pageable pageable) {
+        List<Long> ids = new ArrayList<>(pageable.getPageSize());
+        long from = pageable.getOffset();
+        long to = Math.min(from + pageable.getPageSize(), total);
+        for (long rank = from; rank < to; rank++) {
+            long position = idOrder.isAscending() ? rank : total - 1 - rank;
+            ids.add(Integer.toUnsignedLong(candidates.select((int) position)));
+        }
+        return ids;
+    }
+    
+    /**
+     * Users of the city matching the keyword. The keyword is only checked against the city's rows,
+     * by primary key, one IN list of ids at a time.
+     */
+    private RoaringBitmap candidatesFor(String city, String keyword) {
+        RoaringBitmap candidates = cityIndex.lookup(city);
+        if (keyword == null || candidates.isEmpty()) {
+            return candidates;
+        }
+        RoaringBitmap matches = new RoaringBitmap();
+        List<Long> block = new ArrayList<>(Math.min(candidates.getCardinality(), MAX_IN_LIST_CANDIDATES));
+        PeekableIntIterator ids = candidates.getIntIterator();
+        while (ids.hasNext()) {
+            block.add(Integer.toUnsignedLong(ids.next()));
+            if (block.size() == MAX_IN_LIST_CANDIDATES || !ids.hasNext()) {
+                userRepository.findIdsByKeywordAmong(block, keyword).forEach(id -> matches.add(id.intValue()));
+                block.clear();
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * The detail response of a user as rendered into the snapshot, or null when it has to be read with
+     * getUserById: snapshot disabled, user not cached, or a write to the user not yet committed and stored.
+     * No transaction: a hit never touches the database.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserSnapshot.Cached getCachedUserById(Long id) {
+        if (userSnapshot == null || !userSnapshot.isEnabled() || shardedStore != null) {
+            return null;
+        }
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "getCachedUserById", ServiceMetrics.NO_SHAPE,
+                () -> userSnapshot.find(id));
+    }
+    
+    @Transactional(readOnly = true)
+    public UserResponseDTO getUserById(Long id) {
+        logger.info("Fetching user by ID: {}", id);
+        
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "getUserById", ServiceMetrics.NO_SHAPE, () -> {
+            if (shardedStore != null) {
+                return shardedStore.findById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
+            }
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
+            
+            return new UserResponseDTO(user);
+        });
+    }
+    
+    /**
+     * One user with only the requested fields. The version is always read for the ETag.
+     */
+    @Transactional(readOnly = true)
+    public UserProjection getUserById(Long id, UserFieldSet fields) {
+        logger.info("Fetching user fields [{}] by ID: {}", fields, id);
         
-        user.setFirstName(request.getFirstName());
-        user.setLastName(request.getLastName());
-        user.setEmail(request.getEmail());
-        user.setPhone(request.getPhone());
-        user.setCity(request.getCity());
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "getUserFieldsById", ServiceMetrics.NO_SHAPE, () -> {
+            if (shardedStore != null) {
+                return shardedStore.findById(id)
+                        .map(user -> UserProjection.of(user, fields))
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
+            }
+            return userProjectionRepository.findById(id, fields.with(UserField.VERSION), fields)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
+        });
+    }
+    
+    /**
+     * Many users by id with one IN query per chunk of distinct ids.
+     * Returns one entry per requested id, in request order; unknown ids are reported as not found.
+     * @param fields - fields to select and serialize, or null for every field
+     */
+    @Transactional(readOnly = true)
+    public List<UserLookupDTO> getUsersByIds(List<Long> ids, UserFieldSet fields) {
+        logger.info("Fetching {} users by ID, fields: {}", ids.size(), fields);
         
-        User updatedUser = userRepository.save(user);
-        logger.info("User updated successfully with ID: {}", updatedUser.getId());
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "getUsersByIds", ServiceMetrics.NO_SHAPE, () -> {
+            List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+            UserFieldSet selected = fields != null ? fields : UserFieldSet.ALL;
+            
+            Map<Long, Object> found = new HashMap<>(distinct.size() * 2);
+            for (int from = 0; from < distinct.size(); from += MULTI_GET_CHUNK_SIZE) {
+                List<Long> chunk = distinct.subList(from, Math.min(from + MULTI_GET_CHUNK_SIZE, distinct.size()));
+                if (shardedStore != null) {
+                    shardedStore.findByIds(chunk).forEach((id, user) ->
+                            found.put(id, fields != null ? UserProjection.of(user, fields) : user));
+                } else {
+                    // Every field projected serializes exactly like UserResponseDTO, without loading entities
+                    userProjectionRepository.findByIds(chunk, selected, selected)
+                            .forEach(user -> found.put(user.getId(), user));
+                }
+            }
+            
+            List<UserLookupDTO> results = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                results.add(new UserLookupDTO(id, found.get(id)));
+            }
+            logger.info("Found {} of {} distinct users", found.size(), distinct.size());
+            return results;
+        });
+    }
+    
+    @Transactional
+    public UserResponseDTO createUser(UserRequestDTO request) {
+        logger.info("Creating new user with email: {}", request.getEmail());
         
-        return new UserResponseDTO(updatedUser);
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "createUser", ServiceMetrics.NO_SHAPE, () -> {
+            if (shardedStore != null) {
+                // The email route insert is the uniqueness check
+                UserResponseDTO response = shardedStore.create(request);
+                logger.info("User created successfully with ID: {} on shard {}", response.getId(), shardedStore.shardOf(response.getId()));
+                eventPublisher.publishEvent(UserChangedEvent.created(response));
+                return response;
+            }
+            User user = new User(
+                request.getFirstName(),
+                request.getLastName(),
+                request.getEmail(),
+                request.getPhone(),
+                request.getCity()
+            );
+            
+            User savedUser;
+            try {
+                // Insert if absent: the users.email constraint decides between concurrent creates,
+                // no pre-check query. IDENTITY ids make save() run the INSERT right away.
+                savedUser = userRepository.save(user);
+            } catch (DataIntegrityViolationException e) {
+                throw duplicateEmailOr(e, request);
+            }
+            logger.info("User created successfully with ID: {}", savedUser.getId());
+            
+            UserResponseDTO response = new UserResponseDTO(savedUser);
+            eventPublisher.publishEvent(UserChangedEvent.created(response));
+            return response;
+        });
+    }
+    
+    @Transactional
+    public UserResponseDTO updateUser(Long id, UserRequestDTO request) {
+        return updateUser(id, request, null);
+    }
+    
+    /**
+     * Update user with a single conditional UPDATE statement.
+     * @param expectedVersion - version from If-Match, or null to update unconditionally
+     */
+    @Transactional
+    public UserResponseDTO updateUser(Long id, UserRequestDTO request, Long expectedVersion) {
+        logger.info("Updating user with ID: {}, expected version: {}", id, expectedVersion);
+        
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "updateUser", ServiceMetrics.NO_SHAPE, () -> {
+            if (shardedStore != null) {
+                UserResponseDTO response = shardedStore.update(id, request, expectedVersion)
+                        .orElseThrow(() -> missingOrStale(id, expectedVersion));
+                eventPublisher.publishEvent(UserChangedEvent.updated(response));
+                return response;
+            }
+            int updated;
+            try {
+                // Email uniqueness is enforced by the users.email constraint, no pre-check query
+                updated = userRepository.updateIfVersionMatches(
+                    id,
+                    expectedVersion,
+                    request.getFirstName(),
+                    request.getLastName(),
+                    request.getEmail(),
+                    request.getPhone(),
+                    request.getCity(),
+                    LocalDateTime.now()
+                );
+            } catch (DataIntegrityViolationException e) {
+                throw duplicateEmailOr(e, request);
+            }
+            
+            if (updated == 0) {
+                throw missingOrStale(id, expectedVersion);
+            }
+            
+            User updatedUser = userRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
+            logger.info("User updated successfully with ID: {}, version: {}", id, updatedUser.getVersion());
+            
+            UserResponseDTO response = new UserResponseDTO(updatedUser);
+            eventPublisher.publishEvent(UserChangedEvent.updated(response));
+            return response;
+        });
     }
     
     @Transactional
     public void deleteUser(Long id) {
-        logger.info("Deleting user with ID: {}", id);
+        deleteUser(id, null);
+    }
+    
+    /**
+     * Delete user with a single conditional DELETE statement.
+     * @param expectedVersion - version from If-Match, or null to delete unconditionally
+     */
+    @Transactional
+    public void deleteUser(Long id, Long expectedVersion) {
+        logger.info("Deleting user with ID: {}, expected version: {}", id, expectedVersion);
         
-        if (!userRepository.existsById(id)) {
-            throw new ResourceNotFoundException("User not found with ID: " + id);
+        serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "deleteUser", ServiceMetrics.NO_SHAPE, () -> {
+            boolean deleted = shardedStore != null
+                    ? shardedStore.delete(id, expectedVersion)
+                    : userRepository.deleteIfVersionMatches(id, expectedVersion) > 0;
+            if (!deleted) {
+                throw missingOrStale(id, expectedVersion);
+            }
+            eventPublisher.publishEvent(UserChangedEvent.deleted(id));
+            
+            logger.info("User deleted successfully with ID: {}", id);
+        });
+    }
+    
+    /**
+     * users.email is the only unique constraint besides the id; any other integrity error
+     * (a NOT NULL or length check, say) is not a conflict and goes back to the caller as is.
+     */
+    private static RuntimeException duplicateEmailOr(DataIntegrityViolationException e, UserRequestDTO request) {
+        if (JdbcSchema.isUniqueViolation(e)) {
+            return new DuplicateResourceException("User already exists with email: " + request.getEmail(), e);
         }
-        
-        userRepository.deleteById(id);
-        logger.info("User deleted successfully with ID: {}", id);
+        return e;
+    }
+    
+    /**
+     * Only called when a conditional statement affected no rows,
+     * so the happy path never pays for the existence check.
+     */
+    private RuntimeException missingOrStale(Long id, Long expectedVersion) {
+        if (expectedVersion != null && (shardedStore != null ? shardedStore.existsById(id) : userRepository.existsById(id))) {
+            return new StaleResourceException("User with ID: " + id + " has been modified, expected version: " + expectedVersion);
+        }
+        return new ResourceNotFoundException("User not found with ID: " + id);
     }
 }
\ No newline at end of file
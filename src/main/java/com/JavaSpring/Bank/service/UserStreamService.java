@@ -0,0 +1,96 @@
+package com.JavaSpring.Bank.service;
+
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.monitoring.ServiceMetrics;
+import com.JavaSpring.Bank.repository.UserProjectionRepository;
+import com.JavaSpring.Bank.shard.ShardedUserStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Row-by-row user listings for pages too large to hold in memory.
+ *
+ * Deliberately not @Transactional: a transaction (or an empty transaction scope) releases its
+ * connection when the service method returns, while these streams keep reading from theirs
+ * until the caller closes them - typically after the view has been rendered.
+ */
+@Service
+public class UserStreamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserStreamService.class);
+    
+    private static final int FETCH_SIZE = 200;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired(required = false)
+    private ShardedUserStore shardedStore;
+    
+    /**
+     * One id-ordered page of users with the same filters as {@link UserService#getAllUsers}.
+     * The stream holds a JDBC connection until it is closed.
+     */
+    public Stream<UserResponseDTO> streamUsers(int page, int size, String city, String keyword) {
+        logger.info("Streaming users - Page: {}, Size: {}, City: {}, Keyword: {}", page, size, city, keyword);
+        
+        String normalizedCity = (city != null && !city.trim().isEmpty()) ? city.trim() : null;
+        String normalizedKeyword = (keyword != null && !keyword.trim().isEmpty()) ? keyword.trim() : null;
+        
+        if (shardedStore != null) {
+            // A scatter-gather page is merged in memory, there is no single cursor to stream from
+            return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "streamUsers",
+                    ServiceMetrics.queryShape(normalizedCity, normalizedKeyword, "id"), () ->
+                    shardedStore.findPage(normalizedCity, normalizedKeyword, PageRequest.of(page, size, Sort.by("id")))
+                            .getContent().stream());
+        }
+        
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, first_name, last_name, email, phone, city, created_at, updated_at, version FROM users");
+        List<Object> args = new ArrayList<>();
+        List<String> conditions = UserProjectionRepository.filterConditions(normalizedCity, normalizedKeyword, args);
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY id OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+        args.add((long) page * size);
+        args.add(size);
+        
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "streamUsers",
+                ServiceMetrics.queryShape(normalizedCity, normalizedKeyword, "id"), () ->
+                jdbcTemplate.queryForStream(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(sql.toString());
+                    statement.setFetchSize(FETCH_SIZE);
+                    for (int i = 0; i < args.size(); i++) {
+                        statement.setObject(i + 1, args.get(i));
+                    }
+                    return statement;
+                }, (rs, rowNum) -> {
+                    UserResponseDTO user = new UserResponseDTO();
+                    user.setId(rs.getLong("id"));
+                    user.setFirstName(rs.getString("first_name"));
+                    user.setLastName(rs.getString("last_name"));
+                    user.setEmail(rs.getString("email"));
+                    user.setPhone(rs.getString("phone"));
+                    user.setCity(rs.getString("city"));
+                    user.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+                    user.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+                    user.setVersion(rs.getLong("version"));
+                    return user;
+                }));
+    }
+}
@@ -0,0 +1,60 @@
+package com.JavaSpring.Bank.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Globally unique user ids for all shards, handed out in blocks from a counter row
+ * on the routing database. Each instance reserves blockSize ids per round trip, so ids
+ * are unique across instances and shards but only roughly ordered by creation time.
+ * Ids stay small enough for the 32-bit city index.
+ */
+class IdBlockAllocator {
+    
+    static final String TABLE = "user_id_allocator";
+    
+    private final JdbcTemplate routing;
+    private final TransactionTemplate newTransaction;
+    private final int blockSize;
+    
+    private long next;
+    private long limit;
+    
+    IdBlockAllocator(JdbcTemplate routing, PlatformTransactionManager transactionManager, int blockSize) {
+        this.routing = routing;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        // Never part of the caller's transaction: a rolled back create must not hand its block out again
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+    
+    /**
+     * Creates the counter row, starting above any id already present in the shards
+     */
+    void initialize(long maxExistingId) {
+        newTransaction.executeWithoutResult(status -> {
+            Integer rows = routing.queryForObject("SELECT COUNT(*) FROM " + TABLE + " WHERE name = 'users'", Integer.class);
+            if (rows == null || rows == 0) {
+                routing.update("INSERT INTO " + TABLE + " (name, next_id) VALUES ('users', ?)", maxExistingId + 1);
+            } else {
+                routing.update("UPDATE " + TABLE + " SET next_id = ? WHERE name = 'users' AND next_id <= ?",
+                        maxExistingId + 1, maxExistingId);
+            }
+        });
+    }
+    
+    synchronized long nextId() {
+        if (next == limit) {
+            long end = newTransaction.execute(status -> {
+                // The UPDATE takes the row lock, so concurrent instances get disjoint blocks
+                routing.update("UPDATE " + TABLE + " SET next_id = next_id + ? WHERE name = 'users'", blockSize);
+                return routing.queryForObject("SELECT next_id FROM " + TABLE + " WHERE name = 'users'", Long.class);
+            });
+            next = end - blockSize;
+            limit = end;
+        }
+        return next++;
+    }
+}
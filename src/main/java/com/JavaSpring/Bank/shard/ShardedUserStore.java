@@ -0,0 +1,481 @@
+package com.JavaSpring.Bank.shard;
+
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.exception.DuplicateResourceException;
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import com.JavaSpring.Bank.index.CityIndex;
+import com.JavaSpring.Bank.repository.JdbcSchema;
+import com.JavaSpring.Bank.repository.UserProjectionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * User rows partitioned across N databases by a hash of the user id.
+ *
+ * The routing database (the application's primary datasource) holds the id allocator and
+ * an email -> id index whose primary key keeps emails unique across every shard. Route rows
+ * are written before the shard row and removed again when the shard write fails, so the index
+ * may briefly hold an email that no shard has yet, never the other way round.
+ *
+ * List queries run on all shards in parallel. Each shard returns its first offset + size rows
+ * in the requested order and the results are merged by a k-way merge, so deep pages cost
+ * offset + size rows per shard. String sort keys are merged with String.compareTo, which
+ * matches H2's default collation; shards must use a binary collation for the merge to agree.
+ */
+public class ShardedUserStore implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ShardedUserStore.class);
+    
+    static final String ROUTES_TABLE = "user_email_routes";
+    
+    private static final String COLUMNS =
+            "id, first_name, last_name, email, phone, city, created_at, updated_at, version";
+    
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id", "firstName", "first_name", "lastName", "last_name", "email", "email",
+            "phone", "phone", "city", "city", "createdAt", "created_at", "updatedAt", "updated_at");
+    
+    private static final RowMapper<UserResponseDTO> USER_ROW = ShardedUserStore::mapUser;
+    
+    private final JdbcTemplate routing;
+    private final List<DataSource> shardDataSources;
+    private final List<JdbcTemplate> shards;
+    private final IdBlockAllocator ids;
+    private final ExecutorService scatter = Executors.newVirtualThreadPerTaskExecutor();
+    
+    public ShardedUserStore(DataSource routingDataSource, PlatformTransactionManager routingTransactions,
+                            List<DataSource> shardDataSources, int idBlockSize) {
+        this.routing = new JdbcTemplate(routingDataSource);
+        this.shardDataSources = shardDataSources;
+        this.shards = shardDataSources.stream().map(JdbcTemplate::new).toList();
+        this.ids = new IdBlockAllocator(routing, routingTransactions, idBlockSize);
+    }
+    
+    /**
+     * Creates missing tables and moves the id allocator past every existing user
+     */
+    public void initialize() {
+        JdbcSchema.createTableIfMissing(routing, ROUTES_TABLE,
+                "CREATE TABLE " + ROUTES_TABLE + " (email VARCHAR(100) NOT NULL PRIMARY KEY, user_id BIGINT NOT NULL)");
+        JdbcSchema.createTableIfMissing(routing, IdBlockAllocator.TABLE,
+                "CREATE TABLE " + IdBlockAllocator.TABLE + " (name VARCHAR(32) NOT NULL PRIMARY KEY, next_id BIGINT NOT NULL)");
+        for (JdbcTemplate shard : shards) {
+            String timestamp = JdbcSchema.timestampType(shard);
+            JdbcSchema.createTableIfMissing(shard, "users", "CREATE TABLE users (" +
+                    "id BIGINT NOT NULL PRIMARY KEY, " +
+                    "first_name VARCHAR(50) NOT NULL, last_name VARCHAR(50) NOT NULL, " +
+                    "email VARCHAR(100) NOT NULL, phone VARCHAR(20), city VARCHAR(100), " +
+                    "created_at " + timestamp + " NOT NULL, updated_at " + timestamp + ", " +
+                    "version BIGINT DEFAULT 0 NOT NULL, " +
+                    "city_key " + JdbcSchema.cityKeyColumn(shard) + ")");
+            // Shards created before the city filter moved to city_key
+            JdbcSchema.addColumnIfMissing(shard, "users", "city_key", JdbcSchema.cityKeyColumn(shard));
+            JdbcSchema.createIndexIfMissing(shard, "users", "idx_users_city_key",
+                    "CREATE INDEX idx_users_city_key ON users (city_key)");
+        }
+        
+        long maxId = scatterGather(shard -> shard.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class))
+                .stream().mapToLong(Long::longValue).max().orElse(0);
+        ids.initialize(maxId);
+        logger.info("Sharded user store ready: {} shards, highest existing id {}", shards.size(), maxId);
+    }
+    
+    public int getShardCount() {
+        return shards.size();
+    }
+    
+    /**
+     * Shard index for a user id. Ids are allocated sequentially, so they are mixed first
+     * to spread neighbouring ids across shards.
+     */
+    public int shardOf(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) shards.size());
+    }
+    
+    public Optional<UserResponseDTO> findById(long id) {
+        return shardFor(id).query("SELECT " + COLUMNS + " FROM users WHERE id = ?", USER_ROW, id)
+                .stream().findFirst();
+    }
+    
+    /**
+     * Users for many ids: one IN query per shard that owns any of them, all shards in parallel
+     * @return found users by id; missing ids have no entry
+     */
+    public Map<Long, UserResponseDTO> findByIds(Collection<Long> ids) {
+        List<List<Long>> byShard = new ArrayList<>();
+        for (int n = 0; n < shards.size(); n++) {
+            byShard.add(new ArrayList<>());
+        }
+        for (Long id : ids) {
+            byShard.get(shardOf(id)).add(id);
+        }
+
+        List<CompletableFuture<List<UserResponseDTO>>> futures = new ArrayList<>();
+        for (int n = 0; n < shards.size(); n++) {
+            List<Long> shardIds = byShard.get(n);
+            if (!shardIds.isEmpty()) {
+                JdbcTemplate shard = shards.get(n);
+                String placeholders = String.join(", ", Collections.nCopies(shardIds.size(), "?"));
+                futures.add(CompletableFuture.supplyAsync(() -> shard.query(
+                        "SELECT " + COLUMNS + " FROM users WHERE id IN (" + placeholders + ")",
+                        USER_ROW, shardIds.toArray()), scatter));
+            }
+        }
+
+        Map<Long, UserResponseDTO> found = new HashMap<>(ids.size() * 2);
+        try {
+            futures.forEach(future -> future.join().forEach(user -> found.put(user.getId(), user)));
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return found;
+    }
+
+    public boolean existsById(long id) {
+        Integer rows = shardFor(id).queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, id);
+        return rows != null && rows > 0;
+    }
+    
+    public UserResponseDTO create(UserRequestDTO request) {
+        long id = ids.nextId();
+        addRoute(request.getEmail(), id);
+        
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            shardFor(id).update("INSERT INTO users (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)",
+                    id, request.getFirstName(), request.getLastName(), request.getEmail(),
+                    request.getPhone(), request.getCity(), now, now);
+        } catch (RuntimeException e) {
+            removeRoute(request.getEmail(), id);
+            throw e;
+        }
+        
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(id);
+        user.setFirstName(request.getFirstName());
+        user.setLastName(request.getLastName());
+        user.setEmail(request.getEmail());
+        user.setPhone(request.getPhone());
+        user.setCity(request.getCity());
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        user.setVersion(0L);
+        return user;
+    }
+    
+    /**
+     * Conditional update on the owning shard. A changed email is routed before the row
+     * changes and the old route is dropped afterwards.
+     * @param expectedVersion - null updates unconditionally
+     * @return the updated user, or empty when the row is missing or the version is stale
+     */
+    public Optional<UserResponseDTO> update(long id, UserRequestDTO request, Long expectedVersion) {
+        JdbcTemplate shard = shardFor(id);
+        List<String> current = shard.queryForList("SELECT email FROM users WHERE id = ?", String.class, id);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        String oldEmail = current.get(0);
+        boolean emailChanged = !oldEmail.equals(request.getEmail());
+        if (emailChanged) {
+            addRoute(request.getEmail(), id);
+        }
+        
+        List<Object> args = new ArrayList<>(List.of(request.getFirstName(), request.getLastName(), request.getEmail()));
+        args.add(request.getPhone());
+        args.add(request.getCity());
+        args.add(LocalDateTime.now());
+        args.add(id);
+        // The email guard keeps the routes right if another update changed the email meanwhile
+        args.add(oldEmail);
+        int updated;
+        try {
+            updated = shard.update("UPDATE users SET first_name = ?, last_name = ?, email = ?, phone = ?, city = ?, " +
+                    "updated_at = ?, version = version + 1 WHERE id = ? AND email = ?" + versionCondition(expectedVersion, args),
+                    args.toArray());
+        } catch (RuntimeException e) {
+            if (emailChanged) {
+                removeRoute(request.getEmail(), id);
+            }
+            throw e;
+        }
+        
+        if (updated == 0) {
+            if (emailChanged) {
+                removeRoute(request.getEmail(), id);
+            }
+            return Optional.empty();
+        }
+        if (emailChanged) {
+            removeRoute(oldEmail, id);
+        }
+        return findById(id);
+    }
+    
+    /**
+     * @param expectedVersion - null deletes unconditionally
+     * @return false when the row is missing or the version is stale
+     */
+    public boolean delete(long id, Long expectedVersion) {
+        JdbcTemplate shard = shardFor(id);
+        List<String> current = shard.queryForList("SELECT email FROM users WHERE id = ?", String.class, id);
+        if (current.isEmpty()) {
+            return false;
+        }
+        List<Object> args = new ArrayList<>(List.of(id));
+        int deleted = shard.update("DELETE FROM users WHERE id = ?" + versionCondition(expectedVersion, args), args.toArray());
+        if (deleted == 0) {
+            return false;
+        }
+        removeRoute(current.get(0), id);
+        return true;
+    }
+    
+    /**
+     * One page across all shards, with the same filters as the single-database query
+     */
+    public Page<UserResponseDTO> findPage(String city, String keyword, Pageable pageable) {
+        Sort.Order order = pageable.getSort().iterator().next();
+        String column = SORT_COLUMNS.get(order.getProperty());
+        if (column == null) {
+            throw new InvalidRequestException("Unsupported sort field: " + order.getProperty());
+        }
+        String direction = order.isAscending() ? "ASC" : "DESC";
+        long window = pageable.getOffset() + pageable.getPageSize();
+        
+        List<Object> filterArgs = new ArrayList<>();
+        String where = where(city, keyword, filterArgs);
+        List<Object> pageArgs = new ArrayList<>(filterArgs);
+        pageArgs.add(window);
+        String pageSql = "SELECT " + COLUMNS + " FROM users" + where +
+                " ORDER BY " + column + " " + direction + ", id " + direction + " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
+        String countSql = "SELECT COUNT(*) FROM users" + where;
+        
+        List<ShardSlice> slices = scatterGather(shard -> new ShardSlice(
+                shard.query(pageSql, USER_ROW, pageArgs.toArray()),
+                shard.queryForObject(countSql, Long.class, filterArgs.toArray())));
+        
+        long total = slices.stream().mapToLong(ShardSlice::total).sum();
+        Comparator<UserResponseDTO> comparator = comparator(order.getProperty(), order.isAscending());
+        List<UserResponseDTO> content = merge(slices, comparator, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(content, pageable, total);
+    }
+    
+    public long count(String city, String keyword) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM users" + where(city, keyword, args);
+        return scatterGather(shard -> shard.queryForObject(sql, Long.class, args.toArray()))
+                .stream().mapToLong(Long::longValue).sum();
+    }
+    
+    /**
+     * Users per city across all shards, largest first. Cities are grouped case-insensitively
+     * like the city index, keeping the first spelling seen.
+     */
+    public Map<String, Long> cityFacets(String keyword) {
+        List<Object> args = new ArrayList<>();
+        String where = where(null, keyword, args);
+        String sql = "SELECT city, COUNT(*) AS users FROM users" +
+                (where.isEmpty() ? " WHERE city IS NOT NULL" : where + " AND city IS NOT NULL") + " GROUP BY city";
+        
+        Map<String, String> labels = new LinkedHashMap<>();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (List<Map<String, Object>> rows : scatterGather(shard -> shard.queryForList(sql, args.toArray()))) {
+            for (Map<String, Object> row : rows) {
+                String city = ((String) row.get("city")).trim();
+                String key = CityIndex.normalize(city);
+                labels.putIfAbsent(key, city);
+                counts.merge(key, ((Number) row.get("users")).longValue(), Long::sum);
+            }
+        }
+        
+        Map<String, Long> facets = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> facets.put(labels.get(entry.getKey()), entry.getValue()));
+        return facets;
+    }
+    
+    /**
+     * Stops the scatter executor and closes shard pools the store was given
+     */
+    @Override
+    public void close() {
+        scatter.shutdown();
+        for (DataSource dataSource : shardDataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close shard datasource: {}", e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private JdbcTemplate shardFor(long id) {
+        return shards.get(shardOf(id));
+    }
+    
+    private void addRoute(String email, long id) {
+        try {
+            routing.update("INSERT INTO " + ROUTES_TABLE + " (email, user_id) VALUES (?, ?)", email, id);
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateResourceException("User already exists with email: " + email, e);
+        }
+    }
+    
+    private void removeRoute(String email, long id) {
+        try {
+            routing.update("DELETE FROM " + ROUTES_TABLE + " WHERE email = ? AND user_id = ?", email, id);
+        } catch (DataAccessException e) {
+            // A leftover route only blocks reuse of the email; log it for cleanup
+            logger.error("Failed to remove email route {} -> {}: {}", email, id, e.getMessage());
+        }
+    }
+    
+    private <T> List<T> scatterGather(Function<JdbcTemplate, T> query) {
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), scatter))
+                .toList();
+        try {
+            return futures.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private static List<UserResponseDTO> merge(List<ShardSlice> slices, Comparator<UserResponseDTO> comparator,
+                                               long offset, int size) {
+        PriorityQueue<ShardCursor> heads = new PriorityQueue<>(
+                Comparator.comparing((ShardCursor cursor) -> cursor.head(), comparator));
+        for (ShardSlice slice : slices) {
+            if (!slice.rows().isEmpty()) {
+                heads.add(new ShardCursor(slice.rows()));
+            }
+        }
+        
+        List<UserResponseDTO> page = new ArrayList<>(size);
+        long skipped = 0;
+        while (!heads.isEmpty() && page.size() < size) {
+            ShardCursor cursor = heads.poll();
+            UserResponseDTO user = cursor.head();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(user);
+            }
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return page;
+    }
+    
+    private static Comparator<UserResponseDTO> comparator(String property, boolean ascending) {
+        Comparator<UserResponseDTO> byKey = switch (property) {
+            case "firstName" -> Comparator.comparing(UserResponseDTO::getFirstName, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "lastName" -> Comparator.comparing(UserResponseDTO::getLastName, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "email" -> Comparator.comparing(UserResponseDTO::getEmail, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "phone" -> Comparator.comparing(UserResponseDTO::getPhone, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "city" -> Comparator.comparing(UserResponseDTO::getCity, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "createdAt" -> Comparator.comparing(UserResponseDTO::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case "updatedAt" -> Comparator.comparing(UserResponseDTO::getUpdatedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+            default -> (a, b) -> 0;
+        };
+        // Same tie-break as the per-shard ORDER BY
+        Comparator<UserResponseDTO> order = byKey.thenComparing(UserResponseDTO::getId);
+        return ascending ? order : order.reversed();
+    }
+    
+    private static String versionCondition(Long expectedVersion, List<Object> args) {
+        if (expectedVersion == null) {
+            return "";
+        }
+        args.add(expectedVersion);
+        return " AND version = ?";
+    }
+    
+    private static String where(String city, String keyword, List<Object> args) {
+        List<String> conditions = UserProjectionRepository.filterConditions(city, keyword, args);
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+    
+    private static UserResponseDTO mapUser(ResultSet rs, int rowNum) throws SQLException {
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(rs.getLong("id"));
+        user.setFirstName(rs.getString("first_name"));
+        user.setLastName(rs.getString("last_name"));
+        user.setEmail(rs.getString("email"));
+        user.setPhone(rs.getString("phone"));
+        user.setCity(rs.getString("city"));
+        user.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        user.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        user.setVersion(rs.getLong("version"));
+        return user;
+    }
+    
+    private record ShardSlice(List<UserResponseDTO> rows, long total) {}
+    
+    private static final class ShardCursor {
+        
+        private final List<UserResponseDTO> rows;
+        private int position;
+        
+        ShardCursor(List<UserResponseDTO> rows) {
+            this.rows = rows;
+        }
+        
+        UserResponseDTO head() {
+            return rows.get(position);
+        }
+        
+        boolean advance() {
+            return ++position < rows.size();
+        }
+    }
+}
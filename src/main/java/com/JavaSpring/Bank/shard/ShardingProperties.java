@@ -0,0 +1,78 @@
+package com.JavaSpring.Bank.shard;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharded user storage, bound from the "sharding" section of application.yml.
+ * Shards are listed explicitly under "shards", or generated from "url-template" and "count".
+ */
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+    
+    private boolean enabled = false;
+    private int count = 4;
+    private String urlTemplate = "jdbc:h2:mem:users-shard-{n};DB_CLOSE_DELAY=-1";
+    private String username = "sa";
+    private String password = "";
+    private int poolSize = 10;
+    private int idBlockSize = 1000;
+    private List<Shard> shards = new ArrayList<>();
+    
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+        
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+        
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+    }
+    
+    /**
+     * @return the configured shards, or count shards generated from the url template
+     */
+    public List<Shard> resolveShards() {
+        if (!shards.isEmpty()) {
+            return shards;
+        }
+        List<Shard> generated = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            Shard shard = new Shard();
+            shard.setUrl(urlTemplate.replace("{n}", String.valueOf(n)));
+            generated.add(shard);
+        }
+        return generated;
+    }
+    
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+    
+    public String getUrlTemplate() { return urlTemplate; }
+    public void setUrlTemplate(String urlTemplate) { this.urlTemplate = urlTemplate; }
+    
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+    
+    public int getPoolSize() { return poolSize; }
+    public void setPoolSize(int poolSize) { this.poolSize = poolSize; }
+    
+    public int getIdBlockSize() { return idBlockSize; }
+    public void setIdBlockSize(int idBlockSize) { this.idBlockSize = idBlockSize; }
+    
+    public List<Shard> getShards() { return shards; }
+    public void setShards(List<Shard> shards) { this.shards = shards; }
+}
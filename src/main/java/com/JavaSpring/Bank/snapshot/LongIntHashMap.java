@@ -0,0 +1,134 @@
+package com.JavaSpring.Bank.snapshot;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing long -> int map with linear probing and no boxing.
+ * Key 0 marks an empty bucket, so only non-zero keys (database ids) can be stored.
+ *
+ * Not thread-safe. UserSnapshot reads it under optimistic StampedLock reads, so a lookup racing a
+ * write must never fail: keys and values are swapped together on resize and the load factor
+ * keeps an empty bucket to end every probe.
+ */
+class LongIntHashMap {
+    
+    static final int MISSING = -1;
+    
+    private Table table;
+    private int size;
+    
+    LongIntHashMap(int expectedSize) {
+        table = new Table(Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1);
+    }
+    
+    int get(long key) {
+        Table table = this.table;
+        int mask = table.keys.length - 1;
+        for (int bucket = hash(key) & mask; ; bucket = (bucket + 1) & mask) {
+            long candidate = table.keys[bucket];
+            if (candidate == key) {
+                return table.values[bucket];
+            }
+            if (candidate == 0) {
+                return MISSING;
+            }
+        }
+    }
+    
+    void put(long key, int value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        if ((size + 1) * 4L > table.keys.length * 3L) {
+            resize(table.keys.length * 2);
+        }
+        long[] keys = table.keys;
+        int mask = keys.length - 1;
+        int bucket = hash(key) & mask;
+        while (keys[bucket] != 0 && keys[bucket] != key) {
+            bucket = (bucket + 1) & mask;
+        }
+        if (keys[bucket] == 0) {
+            size++;
+        }
+        table.values[bucket] = value;
+        keys[bucket] = key;
+    }
+    
+    int remove(long key) {
+        long[] keys = table.keys;
+        int[] values = table.values;
+        int mask = keys.length - 1;
+        int bucket = hash(key) & mask;
+        while (keys[bucket] != key) {
+            if (keys[bucket] == 0) {
+                return MISSING;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        int removed = values[bucket];
+        size--;
+        
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int gap = bucket;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        return removed;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Visit every key; the map must not be modified during the walk
+     */
+    void forEachKey(LongConsumer action) {
+        for (long key : table.keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+    
+    private void resize(int capacity) {
+        Table old = table;
+        Table resized = new Table(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < old.keys.length; i++) {
+            long key = old.keys[i];
+            if (key != 0) {
+                int bucket = hash(key) & mask;
+                while (resized.keys[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                resized.keys[bucket] = key;
+                resized.values[bucket] = old.values[i];
+            }
+        }
+        table = resized;
+    }
+    
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    private static final class Table {
+        
+        final long[] keys;
+        final int[] values;
+        
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new int[capacity];
+        }
+    }
+}
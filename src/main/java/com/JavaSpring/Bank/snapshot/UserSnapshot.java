@@ -0,0 +1,555 @@
+package com.JavaSpring.Bank.snapshot;
+
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.event.UserChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Off-heap, memory-mapped copy of user detail responses for GET /api/v1/users/{id}.
+ *
+ * The file is a header followed by fixed-size records; each record holds the user's id, version,
+ * updated_at and the pre-rendered JSON body. An in-heap primitive id -> slot map locates records.
+ * A user's record is dropped as soon as a write to it is published inside its transaction and
+ * written again after commit, so a lookup never serves a body older than the committed row.
+ * Records survive restarts and are checked against the users table (version and updated_at) on
+ * startup and periodically. Rows whose JSON does not fit a record are simply not cached.
+ *
+ * Lookups allocate nothing: the index is read under an optimistic stamp, each record carries a
+ * sequence counter (odd while being written) and the body is copied into a per-thread buffer.
+ * Only a single application instance may write to the database while this is enabled; changes
+ * made elsewhere are picked up by the next consistency check.
+ */
+@Component
+public class UserSnapshot {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserSnapshot.class);
+    
+    static final int RECORD_SIZE = 1024;
+    static final int HEADER_SIZE = RECORD_SIZE;
+    private static final long MAGIC = 0x55534E4150303031L; // "USNAP001"
+    
+    // Record layout
+    private static final int SEQ = 0;
+    private static final int ID = 8;
+    private static final int VERSION = 16;
+    private static final int UPDATED_AT = 24;
+    private static final int JSON_LENGTH = 32;
+    private static final int JSON = 36;
+    static final int JSON_CAPACITY = RECORD_SIZE - JSON;
+    
+    private static final int READ_ATTEMPTS = 4;
+    
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    
+    private final boolean enabled;
+    private final Path path;
+    private final int maxRecords;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    
+    private final StampedLock indexLock = new StampedLock();
+    private final LongIntHashMap index = new LongIntHashMap(1024);
+    
+    // Writer state, guarded by this
+    private FileChannel channel;
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int capacity;
+    private int highWaterMark;
+    private volatile MappedByteBuffer buffer;
+    // Users written or deleted by UserService while verify() scans; the scan's older view of them is ignored
+    private Roaring64Bitmap changedDuringVerify;
+    
+    private final ThreadLocal<Hit> hitBuffers = ThreadLocal.withInitial(Hit::new);
+    
+    public UserSnapshot(@Value("${snapshot.users.enabled:false}") boolean enabled,
+                        @Value("${snapshot.users.path:data/user-snapshot.bin}") String path,
+                        @Value("${snapshot.users.max-records:500000}") int maxRecords,
+                        JdbcTemplate jdbcTemplate,
+                        ObjectMapper objectMapper,
+                        ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        // A single mapping is limited to 2 GB
+        this.maxRecords = Math.min(maxRecords, (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE);
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        hits = Counter.builder("user.snapshot.lookups").tag("result", "hit").register(registry);
+        misses = Counter.builder("user.snapshot.lookups").tag("result", "miss").register(registry);
+        invalidations = Counter.builder("user.snapshot.invalidations")
+                .description("Records dropped or rewritten by the consistency check")
+                .register(registry);
+        Gauge.builder("user.snapshot.records", this, UserSnapshot::size).register(registry);
+        
+        if (enabled) {
+            open();
+        }
+    }
+    
+    /**
+     * Per-thread lookup result; valid until the same thread's next lookup
+     */
+    public static final class Hit {
+        
+        private final byte[] json = new byte[JSON_CAPACITY];
+        private int length;
+        private long version;
+        
+        public byte[] getJson() { return json; }
+        
+        public int getLength() { return length; }
+        
+        public long getVersion() { return version; }
+    }
+    
+    /**
+     * A copy of a cached response body and the version it was rendered from
+     */
+    public record Cached(long version, byte[] json) {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * @return the cached response body, or null when the user is not in the snapshot
+     */
+    public Hit lookup(long id) {
+        if (!enabled) {
+            return null;
+        }
+        for (int attempt = 0; attempt < READ_ATTEMPTS; attempt++) {
+            int slot = slotOf(id);
+            if (slot == LongIntHashMap.MISSING) {
+                break;
+            }
+            MappedByteBuffer records = buffer;
+            int offset = offset(slot);
+            long before = (long) LONGS.getAcquire(records, offset + SEQ);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (records.getLong(offset + ID) != id) {
+                // Slot was reused between the index read and now
+                continue;
+            }
+            Hit hit = hitBuffers.get();
+            hit.version = records.getLong(offset + VERSION);
+            hit.length = records.getInt(offset + JSON_LENGTH);
+            if (hit.length < 0 || hit.length > JSON_CAPACITY) {
+                continue;
+            }
+            records.get(offset + JSON, hit.json, 0, hit.length);
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getAcquire(records, offset + SEQ) == before) {
+                hits.increment();
+                return hit;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+    
+    /**
+     * Like {@link #lookup} but returns a copy that may be kept beyond the next lookup, e.g. as a response body
+     */
+    public Cached find(long id) {
+        Hit hit = lookup(id);
+        return hit != null ? new Cached(hit.getVersion(), Arrays.copyOf(hit.getJson(), hit.getLength())) : null;
+    }
+    
+    public int size() {
+        long stamp = indexLock.readLock();
+        try {
+            return index.size();
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+    
+    /**
+     * Runs when the write is published, before its transaction commits: from then until the
+     * committed row is written back, lookups miss and read the database.
+     */
+    @EventListener
+    public void onUserChanging(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getType()) {
+            case UPDATED, DELETED -> remove(event.getUserId());
+            case BULK_UPDATED, BULK_DELETED -> event.getUserIds().forEach(this::remove);
+            // New rows are not cached yet
+            case CREATED, IMPORTED -> { }
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        switch (event.getType()) {
+            case CREATED, UPDATED -> put(event.getUser());
+            case DELETED -> remove(event.getUserId());
+            // Stored bodies carry the old values and version; lookups fall back to the database
+            case BULK_UPDATED, BULK_DELETED -> event.getUserIds().forEach(this::remove);
+            // New rows only; lookups for them miss until the next consistency check adds them
+            case IMPORTED -> { }
+        }
+    }
+    
+    /**
+     * Write or replace the record for a user. Older versions never overwrite newer ones.
+     */
+    public synchronized void put(UserResponseDTO user) {
+        write(user);
+        if (changedDuringVerify != null) {
+            changedDuringVerify.addLong(user.getId());
+        }
+    }
+    
+    private void write(UserResponseDTO user) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(user);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render user " + user.getId(), e);
+        }
+        int slot = slotOf(user.getId());
+        if (json.length > JSON_CAPACITY) {
+            if (slot != LongIntHashMap.MISSING) {
+                delete(user.getId());
+            }
+            return;
+        }
+        if (slot != LongIntHashMap.MISSING) {
+            long cachedVersion = buffer.getLong(offset(slot) + VERSION);
+            if (user.getVersion() != null && cachedVersion > user.getVersion()) {
+                return;
+            }
+        } else {
+            slot = allocateSlot();
+            if (slot == LongIntHashMap.MISSING) {
+                return;
+            }
+        }
+        
+        writeRecord(slot, user.getId(), user.getVersion() != null ? user.getVersion() : 0,
+                micros(user.getUpdatedAt()), json);
+        long stamp = indexLock.writeLock();
+        try {
+            index.put(user.getId(), slot);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+    
+    public synchronized void remove(long id) {
+        delete(id);
+        if (changedDuringVerify != null) {
+            changedDuringVerify.addLong(id);
+        }
+    }
+    
+    private void delete(long id) {
+        int slot;
+        long stamp = indexLock.writeLock();
+        try {
+            slot = index.remove(id);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+        if (slot != LongIntHashMap.MISSING) {
+            writeRecord(slot, 0, 0, 0, new byte[0]);
+            freeSlots.push(slot);
+        }
+    }
+    
+    /**
+     * Drop every record, e.g. after writes that bypass UserService.
+     */
+    public synchronized void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+        long[] ids = new long[size()];
+        int[] count = {0};
+        index.forEachKey(id -> ids[count[0]++] = id);
+        for (long id : ids) {
+            delete(id);
+        }
+        invalidations.increment(ids.length);
+        logger.info("User snapshot invalidated ({} records)", ids.length);
+    }
+    
+    /**
+     * Compare every record with the users table: rewrite records whose version or updated_at
+     * differ, add rows not yet cached (up to max-records) and drop records for deleted users.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${snapshot.users.verify-interval:10m}", initialDelayString = "${snapshot.users.verify-interval:10m}")
+    public void verify() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        Roaring64Bitmap seen = new Roaring64Bitmap();
+        int[] rewritten = {0};
+        long[] stale;
+        synchronized (this) {
+            changedDuringVerify = new Roaring64Bitmap();
+        }
+        
+        try {
+            jdbcTemplate.query("SELECT id, first_name, last_name, email, phone, city, created_at, updated_at, version FROM users", row -> {
+                long id = row.getLong(1);
+                seen.addLong(id);
+                long version = row.getLong(9);
+                long updatedAt = micros(toLocalDateTime(row.getTimestamp(8)));
+                
+                if (matches(id, version, updatedAt)) {
+                    return;
+                }
+                UserResponseDTO user = new UserResponseDTO();
+                user.setId(id);
+                user.setFirstName(row.getString(2));
+                user.setLastName(row.getString(3));
+                user.setEmail(row.getString(4));
+                user.setPhone(row.getString(5));
+                user.setCity(row.getString(6));
+                user.setCreatedAt(toLocalDateTime(row.getTimestamp(7)));
+                user.setUpdatedAt(toLocalDateTime(row.getTimestamp(8)));
+                user.setVersion(version);
+                synchronized (this) {
+                    if (changedDuringVerify.contains(id)) {
+                        return;
+                    }
+                    if (slotOf(id) != LongIntHashMap.MISSING) {
+                        rewritten[0]++;
+                    }
+                    write(user);
+                }
+            });
+            
+            synchronized (this) {
+                seen.or(changedDuringVerify);
+                stale = staleIds(seen);
+                for (long id : stale) {
+                    delete(id);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                changedDuringVerify = null;
+            }
+        }
+        invalidations.increment(rewritten[0] + stale.length);
+        logger.info("User snapshot verified in {} ms: {} records, {} rewritten, {} removed",
+                   (System.nanoTime() - start) / 1_000_000, size(), rewritten[0], stale.length);
+    }
+    
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+        }
+    }
+    
+    private boolean matches(long id, long version, long updatedAtMicros) {
+        int slot = slotOf(id);
+        if (slot == LongIntHashMap.MISSING) {
+            return false;
+        }
+        MappedByteBuffer records = buffer;
+        int offset = offset(slot);
+        return records.getLong(offset + ID) == id
+                && records.getLong(offset + VERSION) == version
+                && records.getLong(offset + UPDATED_AT) == updatedAtMicros;
+    }
+    
+    private long[] staleIds(Roaring64Bitmap seen) {
+        long stamp = indexLock.readLock();
+        try {
+            long[] ids = new long[index.size()];
+            int[] count = {0};
+            index.forEachKey(id -> {
+                if (!seen.contains(id)) {
+                    ids[count[0]++] = id;
+                }
+            });
+            return Arrays.copyOf(ids, count[0]);
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+    
+    private int slotOf(long id) {
+        long stamp = indexLock.tryOptimisticRead();
+        int slot = index.get(id);
+        if (!indexLock.validate(stamp)) {
+            stamp = indexLock.readLock();
+            try {
+                slot = index.get(id);
+            } finally {
+                indexLock.unlockRead(stamp);
+            }
+        }
+        return slot;
+    }
+    
+    private void writeRecord(int slot, long id, long version, long updatedAtMicros, byte[] json) {
+        MappedByteBuffer records = buffer;
+        int offset = offset(slot);
+        // Rounded up to even so a slot never stays marked as being written
+        long sequence = ((long) LONGS.getVolatile(records, offset + SEQ) + 1) & ~1L;
+        LONGS.setVolatile(records, offset + SEQ, sequence + 1);
+        records.putLong(offset + ID, id);
+        records.putLong(offset + VERSION, version);
+        records.putLong(offset + UPDATED_AT, updatedAtMicros);
+        records.putInt(offset + JSON_LENGTH, json.length);
+        records.put(offset + JSON, json);
+        LONGS.setRelease(records, offset + SEQ, sequence + 2);
+    }
+    
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.pop();
+        }
+        if (highWaterMark == maxRecords) {
+            return LongIntHashMap.MISSING;
+        }
+        if (highWaterMark == capacity) {
+            map(Math.min(maxRecords, Math.max(1024, capacity * 2)));
+        }
+        return highWaterMark++;
+    }
+    
+    private void open() {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            if (channel.size() < HEADER_SIZE || !headerMatches()) {
+                logger.info("Creating user snapshot at {}", path.toAbsolutePath());
+                channel.truncate(0);
+                records = 0;
+            }
+            map((int) Math.min(maxRecords, Math.max(1024, records)));
+            writeHeader();
+            load((int) Math.min(records, capacity));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open user snapshot " + path, e);
+        }
+    }
+    
+    private void load(int records) {
+        for (int slot = 0; slot < records; slot++) {
+            int offset = offset(slot);
+            long id = buffer.getLong(offset + ID);
+            // Odd sequence: the process died mid-write, the record can't be trusted.
+            // Read in native order like every other access to SEQ.
+            boolean valid = id != 0 && ((long) LONGS.get(buffer, offset + SEQ) & 1) == 0;
+            if (valid) {
+                index.put(id, slot);
+            } else {
+                LONGS.set(buffer, offset + SEQ, 0L);
+                buffer.putLong(offset + ID, 0);
+                freeSlots.push(slot);
+            }
+        }
+        highWaterMark = records;
+        logger.info("User snapshot loaded {} records from {}", index.size(), path.toAbsolutePath());
+    }
+    
+    private boolean headerMatches() throws IOException {
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        return header.getLong(0) == MAGIC
+                && header.getInt(8) == RECORD_SIZE
+                && header.getInt(12) == responseSchema();
+    }
+    
+    private void writeHeader() {
+        buffer.putLong(0, MAGIC);
+        buffer.putInt(8, RECORD_SIZE);
+        buffer.putInt(12, responseSchema());
+    }
+    
+    /**
+     * Cached bodies are only valid for the response shape that rendered them
+     */
+    private static int responseSchema() {
+        return Arrays.stream(UserResponseDTO.class.getDeclaredFields())
+                .map(field -> field.getName() + ":" + field.getType().getName())
+                .sorted()
+                .toList()
+                .hashCode();
+    }
+    
+    private void map(int records) {
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) records * RECORD_SIZE);
+            capacity = records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map user snapshot " + path, e);
+        }
+    }
+    
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+    
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return 0;
+        }
+        LocalDateTime truncated = time.truncatedTo(ChronoUnit.MICROS);
+        return truncated.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + truncated.getNano() / 1_000;
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,150 @@
+package com.JavaSpring.Bank.stub;
+
+import com.JavaSpring.Bank.dto.external.ExternalUserDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded stand-in for the JSONPlaceholder API serving GET /users and GET /users/{id}.
+ * Runs on its own port and threads so it does not compete with the application's Tomcat pool.
+ * Payloads are rendered once at startup; each request then pays only for the injected behavior.
+ */
+public class ExternalApiStubServer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExternalApiStubServer.class);
+    
+    private final int port;
+    private final StubBehavior behavior;
+    private final byte[] usersJson;
+    private final byte[][] userJson;
+    private final AtomicLong requestCounter = new AtomicLong();
+    
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    public ExternalApiStubServer(int port, int userCount, StubBehavior behavior, ObjectMapper objectMapper) {
+        this.port = port;
+        this.behavior = behavior;
+        
+        ExternalUserGenerator generator = new ExternalUserGenerator();
+        List<ExternalUserDTO> users = new ArrayList<>(userCount);
+        this.userJson = new byte[userCount][];
+        try {
+            for (int i = 0; i < userCount; i++) {
+                ExternalUserDTO user = generator.generate(i + 1);
+                users.add(user);
+                userJson[i] = objectMapper.writeValueAsBytes(user);
+            }
+            this.usersJson = objectMapper.writeValueAsBytes(users);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to render stub users", e);
+        }
+    }
+    
+    public void start() throws IOException {
+        // Handlers mostly sleep, so virtual threads keep injected latency from exhausting the pool
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/users", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        logger.info("External API stub listening on http://localhost:{} with {} users", getPort(), userJson.length);
+    }
+    
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            logger.info("External API stub stopped after {} requests", requestCounter.get());
+        }
+    }
+    
+    public int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            SplittableRandom random = behavior.randomFor(requestCounter.incrementAndGet());
+            sleep(behavior.latencyMs(random));
+            
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, error("Method not allowed"), false);
+                return;
+            }
+            if (behavior.fails(random)) {
+                send(exchange, behavior.getErrorStatus(), error("Injected failure"), false);
+                return;
+            }
+            
+            byte[] body = resolve(exchange.getRequestURI().getPath());
+            if (body == null) {
+                send(exchange, 404, "{}".getBytes(StandardCharsets.UTF_8), false);
+                return;
+            }
+            send(exchange, 200, body, behavior.trickles(random));
+        }
+    }
+    
+    private byte[] resolve(String path) {
+        String rest = path.substring("/users".length());
+        if (rest.isEmpty() || rest.equals("/")) {
+            return usersJson;
+        }
+        try {
+            long id = Long.parseLong(rest.substring(1));
+            return id >= 1 && id <= userJson.length ? userJson[(int) id - 1] : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private void send(HttpExchange exchange, int status, byte[] body, boolean trickle) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (!trickle) {
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            return;
+        }
+        
+        // Chunked transfer, flushing small slices with a pause in between
+        exchange.sendResponseHeaders(status, 0);
+        OutputStream out = exchange.getResponseBody();
+        int chunk = behavior.getTrickleChunkBytes();
+        for (int offset = 0; offset < body.length; offset += chunk) {
+            out.write(body, offset, Math.min(chunk, body.length - offset));
+            out.flush();
+            sleep(behavior.getTrickleChunkDelayMs());
+        }
+    }
+    
+    private static byte[] error(String message) {
+        return ("{\"error\":\"" + message + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.JavaSpring.Bank.stub;
+
+import com.JavaSpring.Bank.dto.external.ExternalUserDTO;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Builds JSONPlaceholder-shaped users. The same id always yields the same user.
+ */
+public class ExternalUserGenerator {
+    
+    private static final String[] FIRST_NAMES = {
+        "Leanne", "Ervin", "Clementine", "Patricia", "Chelsey", "Dennis", "Kurtis", "Nicholas",
+        "Glenna", "Clementina", "Aisyah", "Farid", "Mei Ling", "Arjun", "Nurul", "Wei Jie"
+    };
+    private static final String[] LAST_NAMES = {
+        "Graham", "Howell", "Bauch", "Lebsack", "Dietrich", "Schulist", "Weissnat", "Runolfsdottir",
+        "Reichert", "DuBuque", "Rahman", "Tan", "Krishnan", "Abdullah", "Lim", "Wong"
+    };
+    private static final String[] CITIES = {
+        "Gwenborough", "Wisokyburgh", "McKenziehaven", "South Elvis", "Roscoeview", "South Christy",
+        "Howemouth", "Aliyaview", "Bartholomebury", "Lebsackbury", "Kuala Lumpur", "Penang"
+    };
+    private static final String[] STREETS = {
+        "Kulas Light", "Victor Plains", "Douglas Extension", "Hoeger Mall", "Skiles Walks",
+        "Norberto Crossing", "Rex Trail", "Ellsworth Summit", "Dayna Park", "Kattie Turnpike"
+    };
+    private static final String[] COMPANY_SUFFIXES = {"Group", "LLC", "Inc", "and Sons", "Sdn Bhd"};
+    private static final String[] CATCH_PHRASES = {
+        "Multi-layered client-server neural-net", "Proactive didactic contingency",
+        "Face to face bifurcated interface", "Multi-tiered zero tolerance productivity",
+        "User-centric fault-tolerant solution", "Synchronised bottom-line interface"
+    };
+    private static final String[] BS = {
+        "harness real-time e-markets", "synergize scalable supply-chains",
+        "e-enable strategic applications", "transition cutting-edge web services",
+        "revolutionize end-to-end systems", "target end-to-end models"
+    };
+    
+    public ExternalUserDTO generate(long id) {
+        SplittableRandom random = new SplittableRandom(id);
+        String firstName = pick(random, FIRST_NAMES);
+        String lastName = pick(random, LAST_NAMES);
+        String username = (firstName.replace(" ", "") + "." + lastName + id).toLowerCase(Locale.ROOT);
+        
+        ExternalUserDTO.GeoDTO geo = new ExternalUserDTO.GeoDTO();
+        geo.setLat(String.format(Locale.ROOT, "%.4f", random.nextDouble(-90, 90)));
+        geo.setLng(String.format(Locale.ROOT, "%.4f", random.nextDouble(-180, 180)));
+        
+        ExternalUserDTO.AddressDTO address = new ExternalUserDTO.AddressDTO();
+        address.setStreet(pick(random, STREETS));
+        address.setSuite("Apt. " + random.nextInt(100, 1000));
+        address.setCity(pick(random, CITIES));
+        address.setZipcode(String.format("%05d-%04d", random.nextInt(100000), random.nextInt(10000)));
+        address.setGeo(geo);
+        
+        ExternalUserDTO.CompanyDTO company = new ExternalUserDTO.CompanyDTO();
+        company.setName(pick(random, LAST_NAMES) + " " + pick(random, COMPANY_SUFFIXES));
+        company.setCatchPhrase(pick(random, CATCH_PHRASES));
+        company.setBs(pick(random, BS));
+        
+        ExternalUserDTO user = new ExternalUserDTO();
+        user.setId(id);
+        user.setName(firstName + " " + lastName);
+        user.setUsername(username);
+        user.setEmail(username + "@stub.jsonplaceholder.local");
+        user.setPhone(String.format("1-%03d-%03d-%04d x%d",
+            random.nextInt(200, 1000), random.nextInt(100, 1000), random.nextInt(10000), random.nextInt(100, 1000)));
+        user.setWebsite(lastName.toLowerCase(Locale.ROOT) + ".info");
+        user.setAddress(address);
+        user.setCompany(company);
+        return user;
+    }
+    
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,82 @@
+package com.JavaSpring.Bank.stub;
+
+import java.util.SplittableRandom;
+
+/**
+ * Latency, error and trickle settings of the external API stub.
+ * Every decision is drawn from a random seeded by (seed, request number),
+ * so the n-th request of a run always behaves the same way.
+ */
+public class StubBehavior {
+    
+    public enum Distribution { NONE, FIXED, UNIFORM, EXPONENTIAL, LOGNORMAL }
+    
+    private final long seed;
+    private final Distribution distribution;
+    private final long minLatencyMs;
+    private final long meanLatencyMs;
+    private final double sigma;
+    private final long maxLatencyMs;
+    private final double errorRate;
+    private final int errorStatus;
+    private final double trickleRate;
+    private final int trickleChunkBytes;
+    private final long trickleChunkDelayMs;
+    
+    public StubBehavior(long seed, Distribution distribution, long minLatencyMs, long meanLatencyMs,
+                        double sigma, long maxLatencyMs, double errorRate, int errorStatus,
+                        double trickleRate, int trickleChunkBytes, long trickleChunkDelayMs) {
+        this.seed = seed;
+        this.distribution = distribution;
+        this.minLatencyMs = minLatencyMs;
+        this.meanLatencyMs = meanLatencyMs;
+        this.sigma = sigma;
+        this.maxLatencyMs = maxLatencyMs;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.trickleRate = trickleRate;
+        this.trickleChunkBytes = Math.max(1, trickleChunkBytes);
+        this.trickleChunkDelayMs = trickleChunkDelayMs;
+    }
+    
+    public SplittableRandom randomFor(long requestNumber) {
+        return new SplittableRandom(seed * 31 + requestNumber);
+    }
+    
+    /**
+     * Delay before the response headers: min-ms plus a draw with mean mean-ms, capped at max-ms.
+     */
+    public long latencyMs(SplittableRandom random) {
+        double extra = switch (distribution) {
+            case NONE -> 0;
+            case FIXED -> meanLatencyMs;
+            case UNIFORM -> random.nextDouble() * 2 * meanLatencyMs;
+            case EXPONENTIAL -> -meanLatencyMs * Math.log(1 - random.nextDouble());
+            case LOGNORMAL -> {
+                // mu chosen so that the distribution mean equals mean-ms
+                double mu = Math.log(Math.max(1, meanLatencyMs)) - sigma * sigma / 2;
+                yield Math.exp(mu + sigma * gaussian(random));
+            }
+        };
+        return Math.min(maxLatencyMs, minLatencyMs + Math.round(extra));
+    }
+    
+    public boolean fails(SplittableRandom random) {
+        return errorRate > 0 && random.nextDouble() < errorRate;
+    }
+    
+    public boolean trickles(SplittableRandom random) {
+        return trickleRate > 0 && random.nextDouble() < trickleRate;
+    }
+    
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller, one value per call is enough here
+        double u1 = 1 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+    
+    public int getErrorStatus() { return errorStatus; }
+    public int getTrickleChunkBytes() { return trickleChunkBytes; }
+    public long getTrickleChunkDelayMs() { return trickleChunkDelayMs; }
+}
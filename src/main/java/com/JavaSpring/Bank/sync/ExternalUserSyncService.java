@@ -0,0 +1,672 @@
+package com.JavaSpring.Bank.sync;
+
+import com.JavaSpring.Bank.dto.external.ExternalUserDTO;
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.event.UserChangedEvent;
+import com.JavaSpring.Bank.exception.DuplicateResourceException;
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import com.JavaSpring.Bank.monitoring.ServiceMetrics;
+import com.JavaSpring.Bank.repository.JdbcSchema;
+import com.JavaSpring.Bank.service.ExternalApiService;
+import com.JavaSpring.Bank.shard.ShardedUserStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps local users current with the external user directory.
+ *
+ * Every external record is reduced to the local fields it maps to and hashed. The hash of the
+ * last applied content is kept per external id in external_user_links together with the local
+ * user id, so a record whose hash is unchanged costs one read per batch and no writes. Changed
+ * records are updated, new ones inserted (or linked to an existing user with the same email),
+ * in one transaction per batch. Local edits to a synced user are kept until the external record
+ * itself changes. An update only applies to the version read when its batch was classified; a user
+ * written in between is reported as failed and compared again by the next run.
+ *
+ * Records are applied in external id order and each batch that writes commits the id it
+ * reached in external_sync_checkpoints. A run that fails leaves its checkpoint behind and the next run
+ * resumes after it; records before it are picked up again by the run after that.
+ *
+ * The checkpoint row is also the run's lease: it names the owning instance, which renews
+ * heartbeat_at as it goes. Other instances skip their run while the lease is fresh and take the
+ * checkpoint over once it has not been renewed for external.sync.lease. An owner that finds its
+ * lease taken stops without writing further.
+ */
+@Service
+public class ExternalUserSyncService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ExternalUserSyncService.class);
+    
+    static final String LINKS_TABLE = "external_user_links";
+    static final String CHECKPOINT_TABLE = "external_sync_checkpoints";
+    static final String SOURCE = "jsonplaceholder";
+    
+    private static final String INSERT_USER_SQL =
+        "INSERT INTO users (first_name, last_name, email, phone, city, created_at, updated_at, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String UPDATE_USER_SQL =
+        "UPDATE users SET first_name = ?, last_name = ?, email = ?, phone = ?, city = ?, updated_at = ?, " +
+        "version = version + 1 WHERE id = ? AND version = ?";
+    private static final String INSERT_LINK_SQL =
+        "INSERT INTO " + LINKS_TABLE + " (external_id, user_id, content_hash, synced_at) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_LINK_SQL =
+        "UPDATE " + LINKS_TABLE + " SET user_id = ?, content_hash = ?, synced_at = ? WHERE external_id = ?";
+    
+    // SQL Server caps a statement at 2100 parameters
+    private static final int MAX_BATCH_SIZE = 1000;
+    
+    @Autowired
+    private ExternalApiService externalApiService;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    // Writes target the single users table, so syncing is refused while sharded
+    @Autowired(required = false)
+    private ShardedUserStore shardedStore;
+    
+    @Value("${external.sync.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${external.sync.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${external.sync.lease:2m}")
+    private Duration lease;
+    
+    // pid@host: unique among live processes
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName();
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean tablesReady;
+    private volatile Map<String, Object> lastReport;
+    
+    @Scheduled(fixedDelayString = "${external.sync.interval:15m}", initialDelayString = "${external.sync.initial-delay:1m}")
+    public void scheduledSync() {
+        if (!enabled || shardedStore != null) {
+            return;
+        }
+        try {
+            synchronize();
+        } catch (DuplicateResourceException e) {
+            logger.info("Scheduled external user sync skipped: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Scheduled external user sync failed: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Fetch the external user list and apply it
+     * @return the run report
+     * @throws DuplicateResourceException when a sync is already running
+     */
+    public Map<String, Object> synchronize() {
+        if (shardedStore != null) {
+            throw new InvalidRequestException("External user sync is not available while sharding is enabled");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new DuplicateResourceException("An external user sync is already running");
+        }
+        try {
+            return apply(externalApiService.fetchExternalUsers());
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    /**
+     * Report of the most recent run, or null before the first
+     */
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+    
+    Map<String, Object> apply(List<ExternalUserDTO> externalUsers) {
+        return serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "syncExternalUsers", ServiceMetrics.NO_SHAPE, () -> {
+            ensureTables();
+            SyncRun run = new SyncRun();
+            try {
+                List<ExternalUserDTO> ordered = new ArrayList<>(externalUsers == null ? List.of() : externalUsers);
+                ordered.removeIf(user -> {
+                    if (user.getId() == null) {
+                        run.fail("?", "External user without id");
+                        return true;
+                    }
+                    return false;
+                });
+                ordered.sort(Comparator.comparing(ExternalUserDTO::getId));
+                
+                Long resumeAfter = startCheckpoint();
+                run.resumedAfter = resumeAfter;
+                int from = 0;
+                if (resumeAfter != null) {
+                    while (from < ordered.size() && ordered.get(from).getId() <= resumeAfter) {
+                        from++;
+                    }
+                    logger.info("Resuming external user sync after external id {}", resumeAfter);
+                }
+                
+                int size = Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+                for (int start = from; start < ordered.size(); start += size) {
+                    applyBatch(ordered.subList(start, Math.min(ordered.size(), start + size)), run);
+                }
+                jdbcTemplate.update("DELETE FROM " + CHECKPOINT_TABLE + " WHERE source = ? AND owner = ?", SOURCE, instanceId);
+                run.status = "completed";
+            } catch (SQLException e) {
+                run.status = "failed";
+                releaseCheckpoint();
+                throw new IllegalStateException("External user sync failed after external id " + run.lastExternalId, e);
+            } catch (RuntimeException e) {
+                run.status = "failed";
+                releaseCheckpoint();
+                throw e;
+            } finally {
+                lastReport = run.report();
+                countRecords(run);
+                logger.info("External user sync {}: {}", run.status, lastReport);
+            }
+            return lastReport;
+        });
+    }
+    
+    private void applyBatch(List<ExternalUserDTO> batch, SyncRun run) throws SQLException {
+        Map<Long, Change> changes = new LinkedHashMap<>();
+        for (ExternalUserDTO user : batch) {
+            run.scanned++;
+            UserRequestDTO request = toRequest(user, run);
+            if (request != null) {
+                changes.put(user.getId(), new Change(user.getId(), request, contentHash(request)));
+            }
+        }
+        long lastExternalId = batch.get(batch.size() - 1).getId();
+        
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                classify(connection, changes, run);
+                LocalDateTime now = LocalDateTime.now();
+                List<Change> pending = changes.values().stream().filter(change -> !change.unchanged).toList();
+                if (pending.isEmpty()) {
+                    // Nothing to write, not even the checkpoint: resuming before this batch only re-reads it
+                    renewLeaseIfDue(run);
+                    run.lastExternalId = lastExternalId;
+                    return;
+                }
+                List<Long> insertedIds = new ArrayList<>();
+                try {
+                    write(connection, pending, now);
+                    checkpoint(connection, lastExternalId, run);
+                    connection.commit();
+                    pending.forEach(change -> applied(change, now, run, insertedIds));
+                } catch (SQLException e) {
+                    // Most likely an email taken by another user; retried alone so the rest of the batch applies
+                    connection.rollback();
+                    writeRowByRow(connection, pending, now, run, insertedIds);
+                    checkpoint(connection, lastExternalId, run);
+                    connection.commit();
+                }
+                if (!insertedIds.isEmpty()) {
+                    eventPublisher.publishEvent(UserChangedEvent.imported(insertedIds));
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        run.lastExternalId = lastExternalId;
+    }
+    
+    private UserRequestDTO toRequest(ExternalUserDTO user, SyncRun run) {
+        if (user.getName() == null) {
+            run.fail(user.getId(), "name is required");
+            return null;
+        }
+        UserRequestDTO request = ExternalApiService.toUserRequest(user);
+        var violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            run.fail(user.getId(), violations.iterator().next().getPropertyPath() + " " +
+                    violations.iterator().next().getMessage());
+            return null;
+        }
+        return request;
+    }
+    
+    /**
+     * Marks unchanged records and resolves the local user of every other one: the linked user,
+     * else an existing user with the same email, else none (insert)
+     */
+    private void classify(Connection connection, Map<Long, Change> changes, SyncRun run) throws SQLException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        query(connection, "SELECT l.external_id, l.content_hash, u.id, u.created_at, u.version FROM " + LINKS_TABLE +
+                " l LEFT JOIN users u ON u.id = l.user_id WHERE l.external_id IN ", changes.keySet(), row -> {
+            Change change = changes.get(row.getLong(1));
+            change.linked = true;
+            long userId = row.getLong(3);
+            if (row.wasNull()) {
+                // The linked user was deleted locally; the record is added again
+                return;
+            }
+            change.found(userId, row.getTimestamp(4), row.getLong(5));
+            if (change.hash == row.getLong(2)) {
+                change.unchanged = true;
+                run.unchanged++;
+            }
+        });
+        
+        Map<String, Change> byEmail = new HashMap<>();
+        changes.values().stream().filter(change -> change.userId == null)
+                .forEach(change -> byEmail.put(change.request.getEmail(), change));
+        if (!byEmail.isEmpty()) {
+            query(connection, "SELECT email, id, created_at, version FROM users WHERE email IN ",
+                    byEmail.keySet(), row -> {
+                Change change = byEmail.get(row.getString(1));
+                if (change != null) {
+                    change.found(row.getLong(2), row.getTimestamp(3), row.getLong(4));
+                }
+            });
+        }
+    }
+    
+    private void write(Connection connection, List<Change> changes, LocalDateTime now) throws SQLException {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Change> inserts = changes.stream().filter(change -> change.userId == null).toList();
+        List<Change> updates = changes.stream().filter(change -> change.userId != null).toList();
+        
+        if (!inserts.isEmpty()) {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_USER_SQL)) {
+                for (Change change : inserts) {
+                    bind(statement, change.request);
+                    statement.setTimestamp(6, timestamp);
+                    statement.setTimestamp(7, timestamp);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            // Batched generated keys are not portable; the new ids are read back by email
+            Map<String, Change> byEmail = new HashMap<>();
+            inserts.forEach(change -> byEmail.put(change.request.getEmail(), change));
+            query(connection, "SELECT email, id FROM users WHERE email IN ", byEmail.keySet(),
+                    row -> byEmail.get(row.getString(1)).insertedId = row.getLong(2));
+        }
+        if (!updates.isEmpty()) {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_USER_SQL)) {
+                for (Change change : updates) {
+                    bind(statement, change.request);
+                    statement.setTimestamp(6, timestamp);
+                    statement.setLong(7, change.userId);
+                    statement.setLong(8, change.version);
+                    statement.addBatch();
+                }
+                int[] counts = statement.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    // The user was written since it was classified (a local edit, or another record of this batch)
+                    updates.get(i).conflict = counts[i] == 0;
+                }
+            }
+        }
+        
+        try (PreparedStatement insertLink = connection.prepareStatement(INSERT_LINK_SQL);
+             PreparedStatement updateLink = connection.prepareStatement(UPDATE_LINK_SQL)) {
+            for (Change change : changes) {
+                if (change.conflict) {
+                    // No hash is recorded, so the next run compares the record again
+                    continue;
+                }
+                long userId = change.userId != null ? change.userId : change.insertedId;
+                if (change.linked) {
+                    updateLink.setLong(1, userId);
+                    updateLink.setLong(2, change.hash);
+                    updateLink.setTimestamp(3, timestamp);
+                    updateLink.setLong(4, change.externalId);
+                    updateLink.addBatch();
+                } else {
+                    insertLink.setLong(1, change.externalId);
+                    insertLink.setLong(2, userId);
+                    insertLink.setLong(3, change.hash);
+                    insertLink.setTimestamp(4, timestamp);
+                    insertLink.addBatch();
+                }
+            }
+            insertLink.executeBatch();
+            updateLink.executeBatch();
+        }
+    }
+    
+    private void writeRowByRow(Connection connection, List<Change> changes, LocalDateTime now, SyncRun run,
+                               List<Long> insertedIds) throws SQLException {
+        for (Change change : changes) {
+            change.insertedId = null;
+            change.conflict = false;
+            try {
+                write(connection, List.of(change), now);
+                connection.commit();
+                applied(change, now, run, insertedIds);
+            } catch (SQLException e) {
+                connection.rollback();
+                run.fail(change.externalId, e.getMessage());
+            }
+        }
+    }
+    
+    private void applied(Change change, LocalDateTime now, SyncRun run, List<Long> insertedIds) {
+        if (change.userId == null) {
+            run.inserted++;
+            insertedIds.add(change.insertedId);
+            return;
+        }
+        if (change.conflict) {
+            run.fail(change.externalId, "User " + change.userId + " changed during the sync; retried on the next run");
+            return;
+        }
+        run.updated++;
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(change.userId);
+        user.setFirstName(change.request.getFirstName());
+        user.setLastName(change.request.getLastName());
+        user.setEmail(change.request.getEmail());
+        user.setPhone(change.request.getPhone());
+        user.setCity(change.request.getCity());
+        user.setCreatedAt(change.createdAt);
+        user.setUpdatedAt(now);
+        // The update matched this version, so it stored exactly the next one
+        user.setVersion(change.version + 1);
+        eventPublisher.publishEvent(UserChangedEvent.updated(user));
+    }
+    
+    /**
+     * Takes the lease on the checkpoint row. Leases are compared with this instance's clock, so
+     * instance clocks must agree to well within external.sync.lease.
+     * @return the external id an interrupted run reached, or null to start from the beginning
+     * @throws DuplicateResourceException when another instance holds a live lease
+     */
+    private Long startCheckpoint() {
+        List<Checkpoint> reached = jdbcTemplate.query(
+                "SELECT last_external_id, owner, heartbeat_at FROM " + CHECKPOINT_TABLE + " WHERE source = ?",
+                (row, rowNum) -> {
+                    long id = row.getLong(1);
+                    return new Checkpoint(row.wasNull() ? null : id, row.getString(2), row.getTimestamp(3));
+                }, SOURCE);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (reached.isEmpty()) {
+            try {
+                jdbcTemplate.update("INSERT INTO " + CHECKPOINT_TABLE + " (source, last_external_id, started_at, " +
+                        "owner, heartbeat_at) VALUES (?, NULL, ?, ?, ?)", SOURCE, now, instanceId, now);
+            } catch (DuplicateKeyException e) {
+                throw new DuplicateResourceException("An external user sync was just started by another instance");
+            }
+            return null;
+        }
+        Checkpoint checkpoint = reached.get(0);
+        Timestamp expiredBefore = Timestamp.valueOf(LocalDateTime.now().minus(lease));
+        if (checkpoint.heartbeatAt() != null && !checkpoint.heartbeatAt().before(expiredBefore)) {
+            throw new DuplicateResourceException("An external user sync is running on " + checkpoint.owner());
+        }
+        // Of two instances taking over the expired lease at once, one matches no row
+        int claimed = jdbcTemplate.update("UPDATE " + CHECKPOINT_TABLE + " SET started_at = ?, owner = ?, " +
+                "heartbeat_at = ? WHERE source = ? AND (heartbeat_at IS NULL OR heartbeat_at < ?)",
+                now, instanceId, now, SOURCE, expiredBefore);
+        if (claimed == 0) {
+            throw new DuplicateResourceException("An external user sync was just resumed by another instance");
+        }
+        return checkpoint.lastExternalId();
+    }
+    
+    /**
+     * Records the external id reached and renews the lease, in the batch's transaction
+     */
+    private void checkpoint(Connection connection, long lastExternalId, SyncRun run) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE " + CHECKPOINT_TABLE +
+                " SET last_external_id = ?, heartbeat_at = ? WHERE source = ? AND owner = ?")) {
+            statement.setLong(1, lastExternalId);
+            statement.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setString(3, SOURCE);
+            statement.setString(4, instanceId);
+            if (statement.executeUpdate() == 0) {
+                throw leaseLost();
+            }
+        }
+        run.leaseRenewedNanos = System.nanoTime();
+    }
+    
+    /**
+     * Batches without writes renew the lease only every quarter lease, so an unchanged feed stays one read per batch
+     */
+    private void renewLeaseIfDue(SyncRun run) {
+        if (System.nanoTime() - run.leaseRenewedNanos < lease.toNanos() / 4) {
+            return;
+        }
+        int renewed = jdbcTemplate.update("UPDATE " + CHECKPOINT_TABLE + " SET heartbeat_at = ? WHERE source = ? AND owner = ?",
+                Timestamp.valueOf(LocalDateTime.now()), SOURCE, instanceId);
+        if (renewed == 0) {
+            throw leaseLost();
+        }
+        run.leaseRenewedNanos = System.nanoTime();
+    }
+    
+    /**
+     * A failed run keeps its checkpoint but gives up the lease, so the next run on any instance resumes at once
+     */
+    private void releaseCheckpoint() {
+        try {
+            jdbcTemplate.update("UPDATE " + CHECKPOINT_TABLE + " SET owner = NULL, heartbeat_at = NULL " +
+                    "WHERE source = ? AND owner = ?", SOURCE, instanceId);
+        } catch (RuntimeException e) {
+            // The lease then expires on its own
+            logger.warn("Failed to release the external user sync checkpoint: {}", e.getMessage());
+        }
+    }
+    
+    private DuplicateResourceException leaseLost() {
+        return new DuplicateResourceException("External user sync stopped: another instance took over its checkpoint");
+    }
+    
+    private void ensureTables() {
+        if (tablesReady) {
+            return;
+        }
+        String timestamp = JdbcSchema.timestampType(jdbcTemplate);
+        JdbcSchema.createTableIfMissing(jdbcTemplate, LINKS_TABLE, "CREATE TABLE " + LINKS_TABLE + " (" +
+                "external_id BIGINT NOT NULL PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                "content_hash BIGINT NOT NULL, synced_at " + timestamp + " NOT NULL)");
+        JdbcSchema.createTableIfMissing(jdbcTemplate, CHECKPOINT_TABLE, "CREATE TABLE " + CHECKPOINT_TABLE + " (" +
+                "source VARCHAR(32) NOT NULL PRIMARY KEY, last_external_id BIGINT, " +
+                "started_at " + timestamp + " NOT NULL, owner VARCHAR(255), heartbeat_at " + timestamp + ")");
+        JdbcSchema.addColumnIfMissing(jdbcTemplate, CHECKPOINT_TABLE, "owner", "VARCHAR(255)");
+        JdbcSchema.addColumnIfMissing(jdbcTemplate, CHECKPOINT_TABLE, "heartbeat_at", timestamp);
+        tablesReady = true;
+    }
+    
+    private void countRecords(SyncRun run) {
+        increment("inserted", run.inserted);
+        increment("updated", run.updated);
+        increment("unchanged", run.unchanged);
+        increment("failed", run.failed);
+    }
+    
+    private void increment(String result, long amount) {
+        Counter.builder("external.sync.records")
+                .description("External user records processed by the sync job")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment(amount);
+    }
+    
+    /**
+     * 64 bits of SHA-256 over the mapped local fields. Fields outside the local model
+     * (username, website, company, ...) do not affect it.
+     */
+    static long contentHash(UserRequestDTO request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (String field : new String[] {request.getFirstName(), request.getLastName(), request.getEmail(),
+                request.getPhone(), request.getCity()}) {
+            // Length prefix keeps ("ab", "c") and ("a", "bc") apart; -1 marks null
+            byte[] bytes = field == null ? new byte[0] : field.getBytes(StandardCharsets.UTF_8);
+            digest.update(ByteBuffer.allocate(4).putInt(field == null ? -1 : bytes.length).array());
+            digest.update(bytes);
+        }
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+    
+    private static void bind(PreparedStatement statement, UserRequestDTO request) throws SQLException {
+        statement.setString(1, request.getFirstName());
+        statement.setString(2, request.getLastName());
+        statement.setString(3, request.getEmail());
+        statement.setString(4, request.getPhone());
+        statement.setString(5, request.getCity());
+    }
+    
+    private static <K> void query(Connection connection, String sqlPrefix, Collection<K> keys,
+                                  RowHandler handler) throws SQLException {
+        String placeholders = String.join(",", Collections.nCopies(keys.size(), "?"));
+        try (PreparedStatement statement = connection.prepareStatement(sqlPrefix + "(" + placeholders + ")")) {
+            int index = 1;
+            for (K key : keys) {
+                statement.setObject(index++, key);
+            }
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    handler.handle(result);
+                }
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    private interface RowHandler {
+        void handle(ResultSet row) throws SQLException;
+    }
+    
+    /**
+     * One external record and what the batch does with it
+     */
+    private record Checkpoint(Long lastExternalId, String owner, Timestamp heartbeatAt) {}
+    
+    private static class Change {
+        
+        private final long externalId;
+        private final UserRequestDTO request;
+        private final long hash;
+        // A link row exists for the external id
+        private boolean linked;
+        private boolean unchanged;
+        // Existing local user, null to insert
+        private Long userId;
+        private LocalDateTime createdAt;
+        private long version;
+        private Long insertedId;
+        // Guarded update matched no row
+        private boolean conflict;
+        
+        Change(long externalId, UserRequestDTO request, long hash) {
+            this.externalId = externalId;
+            this.request = request;
+            this.hash = hash;
+        }
+        
+        void found(long userId, Timestamp createdAt, long version) {
+            this.userId = userId;
+            this.createdAt = createdAt != null ? createdAt.toLocalDateTime() : null;
+            this.version = version;
+        }
+    }
+    
+    private static class SyncRun {
+        
+        private final long startNanos = System.nanoTime();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        // The lease is taken when the run starts
+        private long leaseRenewedNanos = startNanos;
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+        private String status = "running";
+        private Long resumedAfter;
+        private Long lastExternalId;
+        private long scanned;
+        private long inserted;
+        private long updated;
+        private long unchanged;
+        private long failed;
+        
+        void fail(Object externalId, String message) {
+            failed++;
+            // Enough to diagnose a bad feed without growing with it
+            if (errors.size() < 100) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("externalId", externalId);
+                error.put("message", message);
+                errors.add(error);
+            }
+        }
+        
+        Map<String, Object> report() {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("status", status);
+            report.put("startedAt", startedAt);
+            report.put("durationMs", (System.nanoTime() - startNanos) / 1_000_000);
+            report.put("resumedAfter", resumedAfter);
+            report.put("lastExternalId", lastExternalId);
+            report.put("scanned", scanned);
+            report.put("inserted", inserted);
+            report.put("updated", updated);
+            report.put("unchanged", unchanged);
+            report.put("failed", failed);
+            report.put("errors", errors);
+            return report;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.JavaSpring.Bank.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AdmissionControlTest - token bucket and adaptive limiter behavior, client keying in the filter
+ */
+public class AdmissionControlTest {
+    
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    
+    @Test
+    void testBucketAllowsBurstThenRejectsWithWait() {
+        TokenBucket bucket = new TokenBucket(10, 5);
+        long now = 1_000 * SECOND;
+        
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(now), "burst request " + i);
+        }
+        long wait = bucket.tryAcquire(now);
+        assertTrue(wait > 0 && wait <= SECOND / 10, "next token within one emission interval");
+        
+        // One interval later exactly one more token is available
+        assertEquals(0, bucket.tryAcquire(now + SECOND / 10));
+        assertTrue(bucket.tryAcquire(now + SECOND / 10) > 0);
+    }
+    
+    @Test
+    void testBucketRefillsToFull() {
+        TokenBucket bucket = new TokenBucket(100, 3);
+        long now = 5 * SECOND;
+        
+        bucket.tryAcquire(now);
+        assertFalse(bucket.isFull(now));
+        assertTrue(bucket.isFull(now + SECOND));
+    }
+    
+    @Test
+    void testBucketNeverOverAdmitsUnderContention() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 100);
+        long now = 10 * SECOND;
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    if (bucket.tryAcquire(now) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        
+        assertEquals(100, admitted.get());
+    }
+    
+    @Test
+    void testConcurrencyLimiterBacksOffOnSlowResponses() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 50, 100, 0.5);
+        
+        assertTrue(limiter.tryAcquire());
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(5, limiter.getLimit());
+        
+        assertTrue(limiter.tryAcquire());
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(6, limiter.getLimit());
+    }
+    
+    @Test
+    void testConcurrencyLimiterBacksOffOncePerLatencyWindow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 50, 100, 0.5);
+        long second = TimeUnit.SECONDS.toNanos(1);
+        
+        // Ten requests in flight together all come back slow
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int i = 0; i < 10; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(500), second + TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(10, limiter.getLimit());
+        
+        // One admitted after the decrease that is still slow cuts again
+        assertTrue(limiter.tryAcquire());
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(500), 2 * second);
+        assertEquals(5, limiter.getLimit());
+    }
+    
+    @Test
+    void testConcurrencyLimiterRejectsAtLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 100, 0.9);
+        
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+    
+    @Test
+    void testClientIdHeaderDoesNotBypassPerClientLimit() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControlFilter filter = new AdmissionControlFilter(clientLimit(2, 100), registry);
+        
+        assertEquals(200, call(filter, "10.0.0.1", "caller-1"));
+        assertEquals(200, call(filter, "10.0.0.1", "caller-2"));
+        assertEquals(429, call(filter, "10.0.0.1", "caller-3"));
+        // Another address has its own bucket
+        assertEquals(200, call(filter, "10.0.0.2", "caller-3"));
+        assertEquals(2.0, registry.get("admission.clients.tracked").gauge().value());
+    }
+    
+    @Test
+    void testConfiguredClientHeaderKeysClients() throws Exception {
+        AdmissionProperties properties = clientLimit(1, 100);
+        properties.setClientHeader("X-Client-Id");
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, new SimpleMeterRegistry());
+        
+        assertEquals(200, call(filter, "10.0.0.1", "tenant-a"));
+        assertEquals(200, call(filter, "10.0.0.1", "tenant-b"));
+        assertEquals(429, call(filter, "10.0.0.1", "tenant-a"));
+    }
+    
+    @Test
+    void testClientsBeyondTrackedLimitShareOverflowBucket() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdmissionControlFilter filter = new AdmissionControlFilter(clientLimit(3, 4), registry);
+        
+        int rejected = 0;
+        for (int i = 0; i < 1_000; i++) {
+            if (call(filter, "10.1." + (i / 250) + "." + (i % 250), null) == 429) {
+                rejected++;
+            }
+        }
+        
+        assertEquals(4.0, registry.get("admission.clients.tracked").gauge().value());
+        // 4 tracked clients plus one overflow bucket of 3 tokens
+        assertEquals(1_000 - 4 - 3, rejected);
+        assertEquals(rejected, registry.get("admission.rejections").tag("reason", "client-overflow").counter().count());
+    }
+    
+    private static AdmissionProperties clientLimit(int burst, int maxTrackedClients) {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getClient().setRate(0.001);
+        properties.getClient().setBurst(burst);
+        properties.setMaxTrackedClients(maxTrackedClients);
+        return properties;
+    }
+    
+    private static int call(AdmissionControlFilter filter, String remoteAddress, String clientId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users");
+        request.setRemoteAddr(remoteAddress);
+        if (clientId != null) {
+            request.addHeader("X-Client-Id", clientId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,119 @@
+package com.JavaSpring.Bank.bulk;
+
+import com.JavaSpring.Bank.dto.request.UserBulkUpdateRequestDTO;
+import com.JavaSpring.Bank.entity.User;
+import com.JavaSpring.Bank.event.UserChangedEvent;
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import com.JavaSpring.Bank.index.CityIndex;
+import com.JavaSpring.Bank.monitoring.ServiceMetrics;
+import com.JavaSpring.Bank.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UserBulkChangeServiceTest - chunked set-based delete and update by the list filters.
+ * The service commits through its own connections, so tests run outside a test transaction.
+ */
+@DataJpaTest
+@Import({UserBulkChangeService.class, ServiceMetrics.class, CityIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "bulk.by-filter.chunk-size=2"
+})
+public class UserBulkChangeServiceTest {
+    
+    @Autowired
+    private UserBulkChangeService bulkChangeService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private CityIndex cityIndex;
+    
+    @Autowired
+    private ApplicationEvents events;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.save(new User("Siti", "Aminah", "siti@company.com", null, "Ipoh"));
+        userRepository.save(new User("Tan", "Wei", "tan.wei@company.com", null, "IPOH"));
+        userRepository.save(new User("Lim", "Tan", "lim.tan@company.com", null, "ipoh"));
+        userRepository.save(new User("Raj", "Kumar", "raj@company.com", null, "Ipoh"));
+        userRepository.save(new User("Mei", "Ling", "mei@company.com", null, "Ipoh"));
+        userRepository.save(new User("Tan", "Ai Ling", "tan.ailing@company.com", null, "Penang"));
+        cityIndex.rebuild();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+    
+    @Test
+    void testDeleteByCityRunsInChunks() {
+        Map<String, Object> report = bulkChangeService.deleteByFilter(" ipoh ", null);
+        
+        assertEquals(5L, report.get("affected"));
+        List<?> chunks = (List<?>) report.get("chunks");
+        assertEquals(List.of(2, 2, 1), chunks.stream().map(chunk -> ((Map<?, ?>) chunk).get("affected")).toList());
+        assertTrue(chunks.stream().allMatch(chunk -> ((Map<?, ?>) chunk).get("elapsedMs") instanceof Double));
+        
+        assertEquals(List.of("Penang"), userRepository.findAll().stream().map(User::getCity).toList());
+        assertTrue(cityIndex.lookup("Ipoh").isEmpty());
+        assertEquals(1, cityIndex.lookup("Penang").getCardinality());
+        
+        List<UserChangedEvent> deleted = events.stream(UserChangedEvent.class).toList();
+        assertEquals(3, deleted.size());
+        assertTrue(deleted.stream().allMatch(event -> event.getType() == UserChangedEvent.Type.BULK_DELETED));
+        assertEquals(5, deleted.stream().mapToLong(event -> event.getUserIds().size()).sum());
+    }
+    
+    @Test
+    void testUpdateByCityAndKeywordChangesOnlyMatchingRows() {
+        Map<String, Object> report = bulkChangeService.updateByFilter("Ipoh", "tan",
+            new UserBulkUpdateRequestDTO(null, null, "", "Kuala Lumpur"));
+        
+        assertEquals(2L, report.get("affected"));
+        List<User> moved = userRepository.findByCity("Kuala Lumpur", Pageable.unpaged()).getContent();
+        assertEquals(List.of("lim.tan@company.com", "tan.wei@company.com"),
+            moved.stream().map(User::getEmail).sorted().toList());
+        assertTrue(moved.stream().allMatch(user -> user.getVersion() == 1 && user.getPhone() == null));
+        // Same keyword in another city is untouched
+        assertEquals("Penang", userRepository.findByEmail("tan.ailing@company.com").orElseThrow().getCity());
+        
+        assertEquals(2, cityIndex.lookup("kuala lumpur").getCardinality());
+        assertEquals(3, cityIndex.lookup("Ipoh").getCardinality());
+        UserChangedEvent event = events.stream(UserChangedEvent.class).findFirst().orElseThrow();
+        assertEquals(UserChangedEvent.Type.BULK_UPDATED, event.getType());
+        assertEquals("Kuala Lumpur", event.getChanges().get("city"));
+    }
+    
+    @Test
+    void testBulkChangesRequireFilterAndFields() {
+        assertThrows(InvalidRequestException.class, () -> bulkChangeService.deleteByFilter(null, " "));
+        assertThrows(InvalidRequestException.class,
+            () -> bulkChangeService.updateByFilter("Ipoh", null, new UserBulkUpdateRequestDTO()));
+        assertThrows(InvalidRequestException.class,
+            () -> bulkChangeService.updateByFilter("Ipoh", null, new UserBulkUpdateRequestDTO("  ", null, null, null)));
+        assertEquals(6, userRepository.count());
+        assertEquals(0, events.stream(UserChangedEvent.class).count());
+    }
+}
@@ -0,0 +1,175 @@
+package com.JavaSpring.Bank.bulk;
+
+import com.JavaSpring.Bank.entity.User;
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import com.JavaSpring.Bank.index.CityIndex;
+import com.JavaSpring.Bank.monitoring.ServiceMetrics;
+import com.JavaSpring.Bank.repository.JdbcSchema;
+import com.JavaSpring.Bank.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UserCsvImportServiceTest - CSV parsing, row validation and duplicate handling.
+ * The importer commits through its own connections, so tests run outside a test transaction.
+ */
+@DataJpaTest
+@Import({UserCsvImportService.class, ServiceMetrics.class, CityIndex.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "bulk.import.chunk-size=3",
+    "bulk.import.batch-size=2",
+    "bulk.import.threads=2",
+    "bulk.import.queue-capacity=1"
+})
+public class UserCsvImportServiceTest {
+    
+    @Autowired
+    private UserCsvImportService importService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private CityIndex cityIndex;
+    
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+    
+    @Test
+    void testCsvReaderHandlesQuotesAndEmbeddedLineBreaks() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("a,\"b, \"\"c\"\"\"\r\n\n\"multi\nline\",d\n"), 100);
+        
+        assertEquals(List.of("a", "b, \"c\""), reader.next());
+        assertEquals(1, reader.getRecordLine());
+        assertEquals(List.of("multi\nline", "d"), reader.next());
+        assertEquals(3, reader.getRecordLine());
+        assertNull(reader.next());
+    }
+    
+    @Test
+    void testImportReportsInvalidAndDuplicateRows() throws Exception {
+        userRepository.save(new User("Ahmad", "Abdullah", "existing@company.com", null, "Penang"));
+        String csv = """
+            first_name,lastName,email,city
+            Siti,Aminah,siti@company.com,Ipoh
+            Raj,Kumar,not-an-email,Ipoh
+            Lim,Wei,lim@company.com,Penang
+            Tan,Ai Ling,lim@company.com,Penang
+            Mei,Ling,existing@company.com,Ipoh
+            Wong,Chee,wong@company.com,Klang
+            Ravi,Shankar,siti@company.com,Klang
+            """;
+        
+        List<Map<String, Object>> messages = new ArrayList<>();
+        Map<String, Object> summary = importService.importCsv(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), messages::add);
+        
+        assertEquals(7L, summary.get("rowsRead"));
+        assertEquals(3L, summary.get("inserted"));
+        assertEquals(4L, summary.get("rejected"));
+        assertEquals(4, userRepository.count());
+        
+        List<Object> rejectedLines = messages.stream()
+                .filter(message -> "error".equals(message.get("type")))
+                .map(message -> message.get("line"))
+                .sorted()
+                .toList();
+        // invalid email, duplicate within a chunk, existing in table
+        assertTrue(rejectedLines.containsAll(List.of(3L, 5L, 6L)), rejectedLines.toString());
+        // Duplicate across chunks: chunks run in parallel, so either occurrence may be the one kept
+        assertTrue(rejectedLines.contains(2L) ^ rejectedLines.contains(8L), rejectedLines.toString());
+        assertEquals(summary, messages.get(messages.size() - 1));
+        
+        // Each committed chunk reaches the city index by id; the pre-existing row was never announced
+        for (User user : userRepository.findAll()) {
+            boolean imported = !"existing@company.com".equals(user.getEmail());
+            assertEquals(imported, cityIndex.lookup(user.getCity()).contains(user.getId().intValue()), user.getEmail());
+        }
+    }
+    
+    @Test
+    void testRejectionsOfInvalidFileAreSentWhileReading() throws Exception {
+        int rows = 50_000;
+        GeneratedCsv csv = new GeneratedCsv(rows);
+        long[] maxPending = new long[1];
+        long[] errors = new long[1];
+        
+        Map<String, Object> summary = importService.importCsv(csv, message -> {
+            if ("error".equals(message.get("type"))) {
+                errors[0]++;
+                maxPending[0] = Math.max(maxPending[0], csv.produced - errors[0]);
+            }
+        });
+        
+        assertEquals((long) rows, summary.get("rejected"));
+        assertEquals(rows, errors[0]);
+        // Only the reader's read-ahead is outstanding, not the whole file
+        assertTrue(maxPending[0] < 2_000, "rejections held back: " + maxPending[0]);
+    }
+    
+    @Test
+    void testOnlyUniqueViolationsCountAsDuplicateRows() {
+        assertTrue(JdbcSchema.isUniqueViolation(new SQLException("duplicate", "23505")));
+        assertTrue(JdbcSchema.isUniqueViolation(new SQLException("duplicate", "23000", 2627)));
+        assertTrue(JdbcSchema.isUniqueViolation(new SQLException("duplicate", "23000", 2601)));
+        assertFalse(JdbcSchema.isUniqueViolation(new SQLException("not null", "23502")));
+        assertFalse(JdbcSchema.isUniqueViolation(new SQLException("connection reset", "08S01")));
+    }
+    
+    @Test
+    void testImportRequiresHeaderColumns() {
+        assertThrows(InvalidRequestException.class, () -> importService.importCsv(
+            new ByteArrayInputStream("name,email\nA,a@b.com\n".getBytes(StandardCharsets.UTF_8)), message -> { }));
+    }
+    
+    /**
+     * Rows with an invalid email, generated as they are read
+     */
+    private static class GeneratedCsv extends InputStream {
+        
+        private final int rows;
+        private long produced;
+        private byte[] current = "firstName,lastName,email\n".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        
+        GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+        
+        @Override
+        public int read() {
+            if (position == current.length) {
+                if (produced == rows) {
+                    return -1;
+                }
+                current = ("Raj,Kumar,not-an-email-" + produced++ + "\n").getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return current[position++];
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.JavaSpring.Bank.config;
+
+import com.JavaSpring.Bank.index.CityIndex;
+import com.JavaSpring.Bank.service.UserService;
+import com.JavaSpring.Bank.sync.ExternalUserSyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FastStartupConfigTest - under lazy initialization, beans with @Scheduled methods are still
+ * created at startup so their schedules run
+ */
+@SpringBootTest
+// test is listed last so its schema settings win over fast-startup's validate
+@TestPropertySource(properties = {"spring.profiles.active=fast-startup,test", "admission.enabled=false"})
+public class FastStartupConfigTest {
+    
+    @Autowired
+    private ConfigurableApplicationContext context;
+    
+    @Autowired
+    private List<ScheduledTaskHolder> scheduledTaskHolders;
+    
+    @Test
+    void testScheduledBeansAreCreatedAtStartup() {
+        assertTrue(context.getEnvironment().getProperty("spring.main.lazy-initialization", Boolean.class));
+        
+        // Scheduled methods are described as "declaring class.method"
+        List<String> scheduled = scheduledTaskHolders.stream()
+                .flatMap(holder -> holder.getScheduledTasks().stream())
+                .map(task -> task.getTask().getRunnable().toString())
+                .toList();
+        assertTrue(scheduled.contains(ExternalUserSyncService.class.getName() + ".scheduledSync"), "scheduled: " + scheduled);
+        assertTrue(scheduled.contains(CityIndex.class.getName() + ".rebuild"), "scheduled: " + scheduled);
+    }
+    
+    @Test
+    void testOtherBeansStayLazy() {
+        String[] names = context.getBeanNamesForType(UserService.class, false, false);
+        assertEquals(1, names.length);
+        assertTrue(context.getBeanFactory().getBeanDefinition(names[0]).isLazyInit());
+    }
+}
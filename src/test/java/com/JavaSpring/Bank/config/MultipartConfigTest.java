@@ -0,0 +1,35 @@
+package com.JavaSpring.Bank.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MultipartConfigTest - only the self-parsing upload endpoints bypass container multipart resolution
+ */
+public class MultipartConfigTest {
+    
+    private final MultipartConfig.StreamedUploadAwareMultipartResolver resolver =
+        new MultipartConfig.StreamedUploadAwareMultipartResolver();
+    
+    @Test
+    void testBulkImportIsLeftToTheHandler() {
+        assertFalse(resolver.isMultipart(upload("POST", "", "/api/v1/users/bulk")));
+        assertFalse(resolver.isMultipart(upload("POST", "/bank", "/bank/api/v1/users/bulk")));
+    }
+    
+    @Test
+    void testOtherUploadsAreResolved() {
+        assertTrue(resolver.isMultipart(upload("POST", "", "/api/v1/users/avatar")));
+        assertTrue(resolver.isMultipart(upload("PUT", "", "/api/v1/users/bulk")));
+    }
+    
+    private static MockHttpServletRequest upload(String method, String contextPath, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setContextPath(contextPath);
+        request.setContentType(MediaType.MULTIPART_FORM_DATA_VALUE + "; boundary=x");
+        return request;
+    }
+}
@@ -0,0 +1,58 @@
+package com.JavaSpring.Bank.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SyntheticUserGeneratorTest - loads a few thousand rows into H2 in parallel chunks
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+public class SyntheticUserGeneratorTest {
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM users");
+    }
+    
+    @Test
+    void testGeneratesRequestedRowsWithUniqueEmails() throws Exception {
+        // Uneven last chunk and a partial last batch
+        new SyntheticUserGenerator(dataSource, 3, 1_000, 128, 7L, 1.1).generate(4_321);
+        
+        assertEquals(4_321, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+        assertEquals(4_321, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT email) FROM users", Long.class));
+    }
+    
+    @Test
+    void testCityDistributionIsSkewed() throws Exception {
+        new SyntheticUserGenerator(dataSource, 2, 2_500, 500, 7L, 1.1).generate(5_000);
+        
+        List<Map<String, Object>> cities = jdbcTemplate.queryForList(
+            "SELECT city, COUNT(*) AS total FROM users GROUP BY city ORDER BY total DESC");
+        
+        assertEquals("Kuala Lumpur", cities.get(0).get("CITY"));
+        long top = ((Number) cities.get(0).get("TOTAL")).longValue();
+        long last = ((Number) cities.get(cities.size() - 1).get("TOTAL")).longValue();
+        assertTrue(top > 10 * last, "Top city should dominate the least popular one");
+    }
+}
@@ -0,0 +1,99 @@
+package com.JavaSpring.Bank.controller;
+
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.monitoring.AllocationBudget;
+import com.JavaSpring.Bank.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * AllocationBudgetTest - fails when a UserController or WebController route allocates more
+ * on the request thread than its budget in allocation-budgets.properties
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {"spring.profiles.active=test", "admission.enabled=false"})
+public class AllocationBudgetTest {
+    
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserService userService;
+    
+    private AllocationBudget budgets;
+    
+    private UserResponseDTO existing;
+    
+    @BeforeEach
+    void setUp() {
+        budgets = new AllocationBudget(mockMvc);
+        existing = newUser();
+    }
+    
+    private UserResponseDTO newUser() {
+        int n = SEQUENCE.incrementAndGet();
+        return userService.createUser(new UserRequestDTO(
+            "Nurul", "Budget", "nurul.budget." + n + "@company.com", "+60-12-000-0000", "Melaka"));
+    }
+    
+    private static String userJson(String email) {
+        return """
+            {"firstName": "Nurul", "lastName": "Budget", "email": "%s", "phone": "+60-12-000-0000", "city": "Melaka"}
+            """.formatted(email);
+    }
+    
+    @Test
+    void testListUsersWithinBudget() throws Exception {
+        budgets.assertWithin("GET /api/v1/users",
+            () -> get("/api/v1/users").param("page", "0").param("size", "10"));
+    }
+    
+    @Test
+    void testSearchUsersWithinBudget() throws Exception {
+        budgets.assertWithin("GET /api/v1/users?keyword",
+            () -> get("/api/v1/users").param("keyword", "Budget").param("size", "10"));
+    }
+    
+    @Test
+    void testGetUserWithinBudget() throws Exception {
+        budgets.assertWithin("GET /api/v1/users/{id}", () -> get("/api/v1/users/{id}", existing.getId()));
+    }
+    
+    @Test
+    void testCreateUserWithinBudget() throws Exception {
+        budgets.assertWithin("POST /api/v1/users", () -> post("/api/v1/users")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(userJson("nurul.create." + SEQUENCE.incrementAndGet() + "@company.com")));
+    }
+    
+    @Test
+    void testUpdateUserWithinBudget() throws Exception {
+        budgets.assertWithin("PUT /api/v1/users/{id}", () -> put("/api/v1/users/{id}", existing.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(userJson(existing.getEmail())));
+    }
+    
+    @Test
+    void testDeleteUserWithinBudget() throws Exception {
+        budgets.assertWithin("DELETE /api/v1/users/{id}", () -> delete("/api/v1/users/{id}", newUser().getId()));
+    }
+    
+    @Test
+    void testUserListPageWithinBudget() throws Exception {
+        budgets.assertWithin("GET /users", () -> get("/users"));
+    }
+}
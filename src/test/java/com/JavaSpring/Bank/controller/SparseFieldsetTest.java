@@ -0,0 +1,104 @@
+package com.JavaSpring.Bank.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * SparseFieldsetTest - fields= narrows list and detail responses without changing
+ * which users are returned or how the remaining fields are written
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {"spring.profiles.active=test", "admission.enabled=false"})
+public class SparseFieldsetTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void testListReturnsOnlyRequestedFields() throws Exception {
+        JsonNode page = json("/api/v1/users?size=5&fields=email,city");
+        
+        assertEquals(5, page.get("content").size());
+        for (JsonNode user : page.get("content")) {
+            List<String> names = new ArrayList<>();
+            user.fieldNames().forEachRemaining(names::add);
+            assertEquals(List.of("id", "email", "city"), names);
+        }
+        assertTrue(page.get("totalElements").asLong() >= 30);
+    }
+    
+    @Test
+    void testSparsePagesMatchFullPages() throws Exception {
+        String[] queries = {
+            "size=7&page=1&sortBy=email&sortDir=desc",
+            "size=5&city=kuching",
+            "size=5&city=Penang&sortBy=email",
+            "size=3&keyword=binti&sortDir=desc"
+        };
+        for (String query : queries) {
+            JsonNode full = json("/api/v1/users?" + query);
+            JsonNode sparse = json("/api/v1/users?" + query + "&fields=firstName,createdAt,version");
+            
+            assertEquals(full.get("totalElements"), sparse.get("totalElements"), query);
+            assertEquals(full.get("content").size(), sparse.get("content").size(), query);
+            for (int i = 0; i < full.get("content").size(); i++) {
+                JsonNode expected = full.get("content").get(i);
+                JsonNode actual = sparse.get("content").get(i);
+                assertEquals(expected.get("id"), actual.get("id"), query);
+                assertEquals(expected.get("firstName"), actual.get("firstName"), query);
+                assertEquals(expected.get("createdAt"), actual.get("createdAt"), query);
+                assertEquals(expected.get("version"), actual.get("version"), query);
+                assertNull(actual.get("email"), query);
+            }
+        }
+    }
+    
+    @Test
+    void testDetailReturnsRequestedFieldsWithEtag() throws Exception {
+        mockMvc.perform(get("/api/v1/users/1").param("fields", "EMAIL, city"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"")))
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.email", notNullValue()))
+                .andExpect(jsonPath("$.city", notNullValue()))
+                .andExpect(jsonPath("$.firstName").doesNotExist())
+                .andExpect(jsonPath("$.version").doesNotExist());
+        
+        mockMvc.perform(get("/api/v1/users/999999").param("fields", "email"))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void testUnknownFieldIsRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/users").param("fields", "email,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("password")));
+        
+        mockMvc.perform(get("/api/v1/users").param("fields", "email").param("sortBy", "salary"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    private JsonNode json(String url) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
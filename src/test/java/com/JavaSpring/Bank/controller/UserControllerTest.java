@@ -7,6 +7,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;  // ✅ Fixed import
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import com.JavaSpring.Bank.monitoring.QueryBudget;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -154,4 +155,21 @@ public class UserControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.pageSize", is(10)));
     }
+    
+    @Test
+    void testGetAllUsersQueryBudget() throws Exception {
+        // One page SELECT plus one COUNT - anything more is an N+1
+        mockMvc.perform(get("/api/v1/users")
+                .param("page", "0")
+                .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(2));
+    }
+    
+    @Test
+    void testGetUserByIdQueryBudget() throws Exception {
+        mockMvc.perform(get("/api/v1/users/2"))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.exactly(1));
+    }
 }
\ No newline at end of file
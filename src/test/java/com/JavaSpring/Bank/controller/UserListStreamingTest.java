@@ -0,0 +1,119 @@
+package com.JavaSpring.Bank.controller;
+
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.JavaSpring.Bank.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * UserListStreamingTest - pages above the stream threshold render the same rows
+ * as the regular in-memory page
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {"spring.profiles.active=test", "admission.enabled=false", "web.users.stream-threshold=5",
+        "web.users.max-concurrent-streams=1"})
+public class UserListStreamingTest {
+    
+    private static final Pattern USER_ID = Pattern.compile("data-user-id=\"(\\d+)\"");
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private WebController webController;
+    
+    @BeforeEach
+    void setUp() {
+        // The application context, and its database, is shared across test methods
+        if (userService.countUsers("Kuching", "Stream") > 0) {
+            return;
+        }
+        for (int i = 0; i < 12; i++) {
+            userService.createUser(new UserRequestDTO(
+                "Farid", "Stream", "farid.stream." + i + "@company.com", "+60-12-000-0000", "Kuching"));
+        }
+    }
+    
+    @Test
+    void testStreamedPageMatchesRegularPages() throws Exception {
+        // size 4 stays in memory, size 8 is streamed
+        List<Long> regular = new ArrayList<>(userIds("/users?size=4&page=0&city=Kuching&keyword=Stream"));
+        regular.addAll(userIds("/users?size=4&page=1&city=Kuching&keyword=Stream"));
+        List<Long> streamed = userIds("/users?size=8&page=0&city=Kuching&keyword=Stream");
+        
+        assertEquals(8, streamed.size());
+        assertEquals(regular, streamed);
+        
+        List<Long> lastPage = userIds("/users?size=8&page=1&city=Kuching&keyword=Stream");
+        assertEquals(4, lastPage.size());
+        assertTrue(lastPage.get(0) > streamed.get(7));
+    }
+    
+    @Test
+    void testStreamedPagePastTheEndIsEmpty() throws Exception {
+        String html = mockMvc.perform(get("/users?size=8&page=50&city=Kuching"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        
+        assertFalse(USER_ID.matcher(html).find());
+        assertTrue(html.contains("No users found"));
+    }
+    
+    @Test
+    void testStreamedPagesBeyondTheLimitAreRejected() throws Exception {
+        // One permit: pages rendered one after another each get it back
+        for (int i = 0; i < 3; i++) {
+            assertEquals(8, userIds("/users?size=8&page=0&city=Kuching&keyword=Stream").size());
+        }
+        
+        Semaphore streamedRenders = (Semaphore) ReflectionTestUtils.getField(webController, "streamedRenders");
+        streamedRenders.acquire();
+        try {
+            String html = mockMvc.perform(get("/users?size=8&page=0&city=Kuching&keyword=Stream"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andReturn().getResponse().getContentAsString();
+            assertFalse(USER_ID.matcher(html).find());
+            
+            // Pages small enough to stay in memory are not limited
+            assertEquals(4, userIds("/users?size=4&page=0&city=Kuching&keyword=Stream").size());
+        } finally {
+            streamedRenders.release();
+        }
+        assertEquals(1, streamedRenders.availablePermits());
+    }
+    
+    private List<Long> userIds(String url) throws Exception {
+        String html = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        
+        List<Long> ids = new ArrayList<>();
+        Matcher matcher = USER_ID.matcher(html);
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,88 @@
+package com.JavaSpring.Bank.controller;
+
+import com.JavaSpring.Bank.monitoring.QueryBudget;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * UserMultiGetTest - POST /api/v1/users/_mget keeps request order, reports missing ids
+ * inline and resolves a batch with chunked IN queries
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {"spring.profiles.active=test", "admission.enabled=false", "multi-get.users.max-ids=600"})
+public class UserMultiGetTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    void testResultsFollowRequestOrder() throws Exception {
+        mockMvc.perform(mget("{\"ids\": [3, 999999, 1, 3]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(4)))
+                .andExpect(jsonPath("$.users[0].id", is(3)))
+                .andExpect(jsonPath("$.users[0].found", is(true)))
+                .andExpect(jsonPath("$.users[0].user.id", is(3)))
+                .andExpect(jsonPath("$.users[0].user.email", notNullValue()))
+                .andExpect(jsonPath("$.users[0].user.createdAt", notNullValue()))
+                .andExpect(jsonPath("$.users[1].id", is(999999)))
+                .andExpect(jsonPath("$.users[1].found", is(false)))
+                .andExpect(jsonPath("$.users[1].user").doesNotExist())
+                .andExpect(jsonPath("$.users[2].user.id", is(1)))
+                .andExpect(jsonPath("$.users[3].user.id", is(3)))
+                .andExpect(jsonPath("$.found", is(3)))
+                .andExpect(jsonPath("$.missing", is(1)));
+    }
+    
+    @Test
+    void testFieldsNarrowEachUser() throws Exception {
+        mockMvc.perform(mget("{\"ids\": [2]}").param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].user.id", is(2)))
+                .andExpect(jsonPath("$.users[0].user.email", notNullValue()))
+                .andExpect(jsonPath("$.users[0].user.firstName").doesNotExist());
+    }
+    
+    @Test
+    void testLargeBatchUsesChunkedQueries() throws Exception {
+        String ids = LongStream.rangeClosed(1, 600).mapToObj(Long::toString).collect(Collectors.joining(","));
+        
+        // 600 ids fit in two IN queries
+        mockMvc.perform(mget("{\"ids\": [" + ids + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(600)))
+                .andExpect(jsonPath("$.users[599].id", is(600)))
+                .andExpect(QueryBudget.exactly(2));
+    }
+    
+    @Test
+    void testInvalidBatchesAreRejected() throws Exception {
+        String tooMany = LongStream.rangeClosed(1, 601).mapToObj(Long::toString).collect(Collectors.joining(","));
+        mockMvc.perform(mget("{\"ids\": [" + tooMany + "]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("600")));
+        
+        mockMvc.perform(mget("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(mget("{\"ids\": [1, null]}"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    private static MockHttpServletRequestBuilder mget(String body) {
+        return post("/api/v1/users/_mget").contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+}
@@ -0,0 +1,146 @@
+package com.JavaSpring.Bank.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UserChangeStreamTest - SSE delivery of committed changes, resume and reset
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.profiles.active=test",
+    "events.users.history-size=4",
+    "events.users.buffer-size=2"
+})
+public class UserChangeStreamTest {
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private UserChangeBroadcaster broadcaster;
+    
+    private final HttpClient client = HttpClient.newHttpClient();
+    
+    @Test
+    void testCommittedChangesAreStreamedAndReplayedAfterLastEventId() throws Exception {
+        CountDownLatch connected = new CountDownLatch(1);
+        CompletableFuture<List<String>> live = readEvents(null, 2, connected);
+        // The subscriber is registered before the server sends its ":connected" comment
+        assertTrue(connected.await(10, TimeUnit.SECONDS), "stream did not connect");
+        
+        long id = createUser("stream.one@company.com");
+        send(HttpRequest.newBuilder(uri("/api/v1/users/" + id)).DELETE());
+        
+        List<String> events = live.get(10, TimeUnit.SECONDS);
+        assertTrue(events.get(0).contains("\"type\":\"CREATED\""), events.get(0));
+        assertTrue(events.get(1).contains("\"type\":\"DELETED\""), events.get(1));
+        
+        // Resuming after the first event replays only the second
+        String firstId = events.get(0).substring(3, events.get(0).indexOf('\n'));
+        List<String> replayed = readEvents(firstId, 1, new CountDownLatch(1)).get(10, TimeUnit.SECONDS);
+        assertEquals(events.get(1), replayed.get(0));
+    }
+    
+    @Test
+    void testResumeBeyondHistorySendsReset() throws Exception {
+        List<String> events = readEvents("999999", 1, new CountDownLatch(1)).get(10, TimeUnit.SECONDS);
+        
+        assertTrue(events.get(0).contains("event:reset"), events.get(0));
+    }
+    
+    @Test
+    void testResumeWithMoreMissedEventsThanBufferReplaysThemAll() throws Exception {
+        CountDownLatch connected = new CountDownLatch(1);
+        CompletableFuture<List<String>> live = readEvents(null, 1, connected);
+        assertTrue(connected.await(10, TimeUnit.SECONDS), "stream did not connect");
+        broadcaster.publish(UserChangedEvent.deleted(-1L));
+        String first = live.get(10, TimeUnit.SECONDS).get(0);
+        String firstId = first.substring(3, first.indexOf('\n'));
+        
+        // Three missed events, one more than the subscriber's buffer holds
+        for (long userId = -2; userId >= -4; userId--) {
+            broadcaster.publish(UserChangedEvent.deleted(userId));
+        }
+        
+        List<String> replayed = readEvents(firstId, 3, new CountDownLatch(1)).get(10, TimeUnit.SECONDS);
+        assertEquals(3, replayed.size(), replayed.toString());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(replayed.get(i).contains("\"userId\":" + (-2 - i)), replayed.get(i));
+        }
+    }
+    
+    private long createUser(String email) throws Exception {
+        String body = """
+            {"firstName":"Stream","lastName":"Test","email":"%s","phone":"+60-12-000-0000","city":"Ipoh"}
+            """.formatted(email);
+        String response = send(HttpRequest.newBuilder(uri("/api/v1/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        return Long.parseLong(response.replaceAll(".*\"id\":(\\d+).*", "$1"));
+    }
+    
+    private String send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+    
+    /**
+     * Collect the first {@code count} events (id/event/data lines, comments skipped),
+     * counting down {@code connected} once the server confirms the subscription
+     */
+    private CompletableFuture<List<String>> readEvents(String lastEventId, int count, CountDownLatch connected) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/api/v1/users/stream"))
+                .timeout(Duration.ofSeconds(10))
+                .header("Accept", "text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    List<String> events = new ArrayList<>();
+                    try (BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                        StringBuilder event = new StringBuilder();
+                        String line;
+                        while (events.size() < count && (line = reader.readLine()) != null) {
+                            if (line.isEmpty()) {
+                                if (!event.isEmpty()) {
+                                    events.add(event.toString());
+                                    event.setLength(0);
+                                }
+                            } else if (line.equals(":connected")) {
+                                connected.countDown();
+                            } else if (!line.startsWith(":") && !line.startsWith("retry:")) {
+                                event.append(line).append('\n');
+                            }
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return events;
+                });
+    }
+    
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,137 @@
+package com.JavaSpring.Bank.hedging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RequestHedgerTest - hedge timing, first answer wins, failed hedges and the hedge budget
+ */
+public class RequestHedgerTest {
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    
+    @Test
+    void testFastAnswerIsNotHedged() {
+        RequestHedger hedger = new RequestHedger(properties(100), registry);
+        AtomicInteger attempts = new AtomicInteger();
+        
+        String value = hedger.hedge("op", () -> {
+            attempts.incrementAndGet();
+            return Mono.just("fast");
+        }).block();
+        
+        assertEquals("fast", value);
+        assertEquals(1, attempts.get());
+        assertEquals(1, count("not_needed"));
+    }
+    
+    @Test
+    void testSlowAnswerIsHedgedAndLoserCancelled() {
+        RequestHedger hedger = new RequestHedger(properties(20), registry);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean firstCancelled = new AtomicBoolean();
+        
+        String value = hedger.hedge("op", () -> attempts.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofSeconds(5)).map(tick -> "slow").doOnCancel(() -> firstCancelled.set(true))
+                : Mono.just("hedge")).block(Duration.ofSeconds(2));
+        
+        assertEquals("hedge", value);
+        assertEquals(2, attempts.get());
+        assertTrue(firstCancelled.get());
+        assertEquals(1, count("won"));
+    }
+    
+    @Test
+    void testFailedHedgeDoesNotFailTheCall() {
+        RequestHedger hedger = new RequestHedger(properties(20), registry);
+        AtomicInteger attempts = new AtomicInteger();
+        
+        String value = hedger.hedge("op", () -> attempts.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofMillis(200)).map(tick -> "first")
+                : Mono.<String>error(new IllegalStateException("hedge failed"))).block(Duration.ofSeconds(2));
+        
+        assertEquals("first", value);
+        assertEquals(1, count("lost"));
+    }
+    
+    @Test
+    void testFirstAttemptErrorFailsTheCall() {
+        RequestHedger hedger = new RequestHedger(properties(100), registry);
+        
+        Mono<String> call = hedger.hedge("op", () -> Mono.error(new IllegalStateException("down")));
+        
+        assertThrows(IllegalStateException.class, call::block);
+    }
+    
+    @Test
+    void testBudgetCapsHedges() {
+        HedgingProperties properties = properties(10);
+        properties.setBudgetRatio(0);
+        properties.setBudgetBurst(2);
+        RequestHedger hedger = new RequestHedger(properties, registry);
+        AtomicInteger attempts = new AtomicInteger();
+        
+        for (int i = 0; i < 4; i++) {
+            hedger.hedge("op", () -> {
+                attempts.incrementAndGet();
+                return Mono.delay(Duration.ofMillis(50)).map(tick -> "slow");
+            }).block(Duration.ofSeconds(2));
+        }
+        
+        // Two hedges from the initial burst, then none
+        assertEquals(6, attempts.get());
+        assertEquals(2, count("no_budget"));
+    }
+    
+    @Test
+    void testDelayFollowsRecentLatencies() {
+        HedgingProperties properties = properties(500);
+        properties.setMinSamples(10);
+        properties.setMinDelay(Duration.ofMillis(1));
+        RequestHedger hedger = new RequestHedger(properties, registry);
+        
+        assertEquals(Duration.ofMillis(500), hedger.currentDelay());
+        for (int i = 0; i < 20; i++) {
+            hedger.hedge("op", () -> Mono.delay(Duration.ofMillis(5)).map(tick -> "ok")).block();
+        }
+        
+        Duration delay = hedger.currentDelay();
+        assertTrue(delay.toMillis() >= 5 && delay.toMillis() < 500, "delay " + delay);
+    }
+    
+    @Test
+    void testDisabledHedgerPassesThrough() {
+        HedgingProperties properties = properties(1);
+        properties.setEnabled(false);
+        RequestHedger hedger = new RequestHedger(properties, registry);
+        AtomicInteger attempts = new AtomicInteger();
+        
+        String value = hedger.hedge("op", () -> {
+            attempts.incrementAndGet();
+            return Mono.delay(Duration.ofMillis(50)).map(tick -> "only");
+        }).block();
+        
+        assertEquals("only", value);
+        assertEquals(1, attempts.get());
+        assertNull(registry.find("external.api.hedge").counter());
+    }
+    
+    private static HedgingProperties properties(long initialDelayMs) {
+        HedgingProperties properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setInitialDelay(Duration.ofMillis(initialDelayMs));
+        return properties;
+    }
+    
+    private double count(String result) {
+        var counter = registry.find("external.api.hedge").tag("result", result).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
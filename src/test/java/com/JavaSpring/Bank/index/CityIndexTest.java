@@ -0,0 +1,168 @@
+package com.JavaSpring.Bank.index;
+
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.entity.User;
+import com.JavaSpring.Bank.event.UserChangedEvent;
+import com.JavaSpring.Bank.monitoring.ServiceMetrics;
+import com.JavaSpring.Bank.repository.UserProjectionRepository;
+import com.JavaSpring.Bank.repository.UserRepository;
+import com.JavaSpring.Bank.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CityIndexTest - city filtering and facet counts served from the bitmap index, keyword filters
+ * restricted to a city's candidates
+ */
+@DataJpaTest
+@Import({UserService.class, UserProjectionRepository.class, ServiceMetrics.class, CityIndex.class})
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class CityIndexTest {
+    
+    @Autowired
+    private CityIndex cityIndex;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        userRepository.saveAndFlush(new User("Ahmad", "Abdullah", "ahmad@company.com", "+60-12-000-0001", "Kuala Lumpur"));
+        userRepository.saveAndFlush(new User("Siti", "Aminah", "siti@company.com", "+60-12-000-0002", "kuala lumpur "));
+        userRepository.saveAndFlush(new User("Raj", "Kumar", "raj@company.com", "+60-12-000-0003", "Penang"));
+        userRepository.saveAndFlush(new User("Mei", "Ling", "mei@company.com", "+60-12-000-0004", "Kuala Lumpur"));
+        entityManager.clear();
+        
+        cityIndex.rebuild();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    @Test
+    void testFacetsGroupNormalizedCities() {
+        Map<String, Long> facets = userService.getCityFacets(null);
+        
+        assertEquals(Map.of("Kuala Lumpur", 3L, "Penang", 1L), facets);
+        assertEquals(List.of("Kuala Lumpur", "Penang"), List.copyOf(facets.keySet()));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void testFacetsFollowKeyword() {
+        assertEquals(Map.of("Kuala Lumpur", 1L), userService.getCityFacets("siti"));
+    }
+    
+    @Test
+    void testCityFilterPagesFromBitmapWithoutCount() {
+        Page<UserResponseDTO> page = userService.getAllUsers(0, 2, "id", "desc", " KUALA LUMPUR", null);
+        
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("mei@company.com", "siti@company.com"),
+                page.getContent().stream().map(UserResponseDTO::getEmail).toList());
+        // Only the entity fetch for the page; the total comes from the bitmap
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void testCityFilterIntersectsKeyword() {
+        Page<UserResponseDTO> page = userService.getAllUsers(0, 10, "firstName", "asc", "Kuala Lumpur", "ah");
+        
+        assertEquals(List.of("Ahmad", "Siti"), page.getContent().stream().map(UserResponseDTO::getFirstName).toList());
+        assertEquals(2, page.getTotalElements());
+        // The keyword is matched against the city's candidates only
+        assertTrue(List.of(statistics.getQueries()).stream().anyMatch(query -> query.contains("u.id IN :ids")));
+        assertEquals(2, userService.countUsers("Kuala Lumpur", "ah"));
+    }
+    
+    @Test
+    void testKeywordOnLargeCityIsMatchedInIdBlocks() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            users.add(new User(i % 10 == 0 ? "Tan" : "Lee", "Ipoh" + i, "ipoh" + i + "@company.com", null, "Ipoh"));
+        }
+        userRepository.saveAllAndFlush(users);
+        entityManager.clear();
+        cityIndex.rebuild();
+        statistics.clear();
+        
+        assertEquals(101, userService.countUsers("Ipoh", "tan"));
+        // 1001 candidates: two IN lists by primary key, no city scan
+        String among = List.of(statistics.getQueries()).stream().filter(query -> query.contains("u.id IN :ids")).findFirst().orElseThrow();
+        assertEquals(2, statistics.getQueryStatistics(among).getExecutionCount());
+        assertTrue(List.of(statistics.getQueries()).stream().noneMatch(query -> query.contains("cityKey")));
+        
+        assertEquals(101, userService.getAllUsers(0, 10, "id", "asc", "Ipoh", "tan").getTotalElements());
+        assertEquals(Map.of("Ipoh", 101L), userService.getCityFacets("tan"));
+    }
+    
+    @Test
+    void testRebuildPicksUpUsersWrittenElsewhere() {
+        // As inserted by another instance: no event reaches this index
+        jdbcTemplate.update("INSERT INTO users (first_name, last_name, email, city, created_at, updated_at, version) " +
+                "VALUES ('Wong', 'Chee', 'wong@company.com', 'Penang', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0)");
+        assertEquals(1, cityIndex.lookup("penang").getCardinality());
+        
+        cityIndex.rebuild();
+        
+        assertEquals(2, cityIndex.lookup("penang").getCardinality());
+    }
+    
+    @Test
+    void testImportedChunkAddsUsersByIdWithoutRescan() {
+        User lim = userRepository.saveAndFlush(new User("Lim", "Wei", "lim@company.com", null, "Ipoh"));
+        User tan = userRepository.saveAndFlush(new User("Tan", "Ai Ling", "tan@company.com", null, "penang"));
+        User unannounced = userRepository.saveAndFlush(new User("Wong", "Chee", "wong@company.com", null, "Ipoh"));
+        
+        cityIndex.onUserChanged(UserChangedEvent.imported(List.of(lim.getId(), tan.getId())));
+        
+        assertTrue(cityIndex.lookup("ipoh").contains(lim.getId().intValue()));
+        assertFalse(cityIndex.lookup("ipoh").contains(unannounced.getId().intValue()));
+        assertEquals(2, cityIndex.lookup("Penang").getCardinality());
+        assertEquals(Map.of("Kuala Lumpur", 3L, "Penang", 2L, "Ipoh", 1L), cityIndex.facets(null));
+    }
+    
+    @Test
+    void testWritesMoveUsersBetweenCities() {
+        cityIndex.userSaved(1000L, "Penang");
+        cityIndex.userSaved(1000L, "Ipoh");
+        assertFalse(cityIndex.lookup("penang").contains(1000));
+        assertTrue(cityIndex.lookup("ipoh").contains(1000));
+        
+        cityIndex.userDeleted(1000L);
+        assertTrue(cityIndex.lookup("ipoh").isEmpty());
+        assertFalse(cityIndex.facets(null).containsKey("Ipoh"));
+    }
+}
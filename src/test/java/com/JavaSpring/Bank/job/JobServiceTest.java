@@ -0,0 +1,155 @@
+package com.JavaSpring.Bank.job;
+
+import com.JavaSpring.Bank.exception.DuplicateResourceException;
+import com.JavaSpring.Bank.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JobServiceTest - external import jobs against the embedded external API stub:
+ * progress and errors, cancellation, and resuming a job interrupted by a restart
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.profiles.active=test,stub-external",
+    "external.stub.port=18093",
+    "external.stub.users=60",
+    "external.stub.latency.distribution=fixed",
+    "external.stub.latency.mean-ms=20",
+    "jobs.threads=1",
+    "jobs.progress-interval=50ms"
+})
+public class JobServiceTest {
+    
+    private static final String STUB_EMAILS = "%@stub.jsonplaceholder.local";
+    
+    @Autowired
+    private JobService jobService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void testImportJobReportsProgressAndItemErrors() throws Exception {
+        // 3 is listed twice and 999 does not exist
+        Map<String, Object> submitted = jobService.submit(ExternalImportJobHandler.TYPE,
+            Map.of("externalIds", List.of(1, 2, 3, 3, 999)));
+        String id = (String) submitted.get("id");
+        
+        Map<String, Object> job = awaitFinished(id);
+        assertEquals("SUCCEEDED", job.get("status"));
+        Map<?, ?> progress = (Map<?, ?>) job.get("progress");
+        assertEquals(5L, progress.get("processed"));
+        assertEquals(2L, progress.get("failed"));
+        assertEquals(5L, progress.get("total"));
+        assertEquals(100.0, progress.get("percent"));
+        assertTrue((Double) job.get("itemsPerSecond") > 0);
+        List<?> errors = (List<?>) job.get("errors");
+        assertEquals(List.of(3, 999), errors.stream().map(error -> ((Map<?, ?>) error).get("item")).toList());
+        assertNotNull(job.get("finishedAt"));
+        
+        assertThrows(DuplicateResourceException.class, () -> jobService.cancel(id));
+    }
+    
+    @Test
+    void testRunningJobStopsWhenCancelled() throws Exception {
+        String id = (String) jobService.submit(ExternalImportJobHandler.TYPE,
+            Map.of("externalIds", LongStream.rangeClosed(6, 40).boxed().toList())).get("id");
+        while (((Map<?, ?>) jobService.getJob(id).get("progress")).get("processed").equals(0L)) {
+            Thread.sleep(10);
+        }
+        jobService.cancel(id);
+        
+        Map<String, Object> job = awaitFinished(id);
+        assertEquals("CANCELLED", job.get("status"));
+        long processed = (Long) ((Map<?, ?>) job.get("progress")).get("processed");
+        assertTrue(processed > 0 && processed < 35, "processed " + processed);
+    }
+    
+    @Test
+    void testJobCancelledThroughTableStopsAtCheckpoint() throws Exception {
+        String id = (String) jobService.submit(ExternalImportJobHandler.TYPE,
+            Map.of("externalIds", LongStream.rangeClosed(11, 40).boxed().toList())).get("id");
+        while (((Map<?, ?>) jobService.getJob(id).get("progress")).get("processed").equals(0L)) {
+            Thread.sleep(10);
+        }
+        // As written by cancel() on another instance
+        jdbcTemplate.update("UPDATE " + JobService.TABLE + " SET status = 'CANCELLING' WHERE id = ? AND status = 'RUNNING'", id);
+        
+        Map<String, Object> job = awaitFinished(id);
+        assertEquals("CANCELLED", job.get("status"));
+        long processed = (Long) ((Map<?, ?>) job.get("progress")).get("processed");
+        assertTrue(processed > 0 && processed < 30, "processed " + processed);
+    }
+    
+    @Test
+    void testJobLeasedByAnotherInstanceIsLeftRunningUntilLeaseExpires() {
+        jdbcTemplate.update("INSERT INTO " + JobService.TABLE + " (id, job_type, status, parameters, total, processed, " +
+            "failed, started_processed, created_at, started_at, updated_at, owner, heartbeat_at) " +
+            "VALUES (?, ?, 'RUNNING', ?, 3, 1, 0, 0, ?, ?, ?, 'other-instance', ?)",
+            "leased-test", ExternalImportJobHandler.TYPE, "{\"externalIds\":[51,52,53]}",
+            LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now());
+        
+        jobService.recover();
+        assertEquals("RUNNING", jobService.getJob("leased-test").get("status"));
+        
+        // Not running here: the owner is asked through the table
+        assertEquals("CANCELLING", jobService.cancel("leased-test").get("status"));
+        
+        // The owner died before its next checkpoint
+        jdbcTemplate.update("UPDATE " + JobService.TABLE + " SET heartbeat_at = ? WHERE id = ?",
+            LocalDateTime.now().minusHours(1), "leased-test");
+        jobService.recover();
+        assertEquals("CANCELLED", jobService.getJob("leased-test").get("status"));
+    }
+    
+    @Test
+    void testInterruptedJobResumesAfterProcessedItems() throws Exception {
+        // As left behind by a crash: running without a lease, 7 of 10 ids done
+        jdbcTemplate.update("INSERT INTO " + JobService.TABLE + " (id, job_type, status, parameters, total, processed, " +
+            "failed, started_processed, created_at, started_at, updated_at) VALUES (?, ?, 'RUNNING', ?, 10, 7, 0, 0, ?, ?, ?)",
+            "resume-test", ExternalImportJobHandler.TYPE, "{\"externalIds\":[41,42,43,44,45,46,47,48,49,50]}",
+            LocalDateTime.now(), LocalDateTime.now(), LocalDateTime.now());
+        Long stubUsers = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email LIKE ?", Long.class, STUB_EMAILS);
+        
+        jobService.recover();
+        
+        Map<String, Object> job = awaitFinished("resume-test");
+        assertEquals("SUCCEEDED", job.get("status"));
+        assertEquals(10L, ((Map<?, ?>) job.get("progress")).get("processed"));
+        assertEquals(stubUsers + 3,
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email LIKE ?", Long.class, STUB_EMAILS));
+    }
+    
+    @Test
+    void testSubmitValidatesTypeAndParameters() {
+        assertThrows(InvalidRequestException.class, () -> jobService.submit("export", Map.of()));
+        assertThrows(InvalidRequestException.class,
+            () -> jobService.submit(ExternalImportJobHandler.TYPE, Map.of("externalIds", List.of(-1))));
+        assertThrows(InvalidRequestException.class,
+            () -> jobService.submit(ExternalImportJobHandler.TYPE, Map.of("ids", List.of(1))));
+    }
+    
+    private Map<String, Object> awaitFinished(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            Map<String, Object> job = jobService.getJob(id);
+            if (List.of("SUCCEEDED", "FAILED", "CANCELLED").contains((String) job.get("status"))) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        fail("Job " + id + " did not finish: " + jobService.getJob(id));
+        return null;
+    }
+}
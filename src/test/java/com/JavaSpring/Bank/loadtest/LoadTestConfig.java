@@ -0,0 +1,115 @@
+package com.JavaSpring.Bank.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, parsed from --key=value arguments.
+ *
+ * --base-url=http://localhost:8080   instance under test
+ * --rate=100                         target arrivals per second (open loop)
+ * --concurrency=32                   max requests in flight
+ * --duration=60s / --warmup=10s      measured period and unrecorded warmup
+ * --timeout=10s                      per-request timeout; a timed out request counts as an error
+ * --mix=list=40,search=20,get=25,create=6,update=5,delete=2,import=2
+ * --label=release-x                  free text copied into the report
+ * --output=target/loadtest.json      report file (stdout when absent)
+ */
+public class LoadTestConfig {
+    
+    static final String DEFAULT_MIX = "list=40,search=20,get=25,create=6,update=5,delete=2,import=2";
+    
+    private String baseUrl = "http://localhost:8080";
+    private double rate = 100;
+    private int concurrency = 32;
+    private Duration duration = Duration.ofSeconds(60);
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration timeout = Duration.ofSeconds(10);
+    private Map<Operation, Integer> mix = parseMix(DEFAULT_MIX);
+    private String label = "";
+    private String output;
+    
+    public static LoadTestConfig fromArgs(String... args) {
+        LoadTestConfig config = new LoadTestConfig();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            
+            switch (key) {
+                case "base-url" -> config.baseUrl = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                case "rate" -> config.rate = Double.parseDouble(value);
+                case "concurrency" -> config.concurrency = Integer.parseInt(value);
+                case "duration" -> config.duration = parseDuration(value);
+                case "warmup" -> config.warmup = parseDuration(value);
+                case "timeout" -> config.timeout = parseDuration(value);
+                case "mix" -> config.mix = parseMix(value);
+                case "label" -> config.label = value;
+                case "output" -> config.output = value;
+                default -> throw new IllegalArgumentException("Unknown option: --" + key);
+            }
+        }
+        if (config.rate <= 0 || config.concurrency <= 0) {
+            throw new IllegalArgumentException("rate and concurrency must be positive");
+        }
+        if (config.timeout.isNegative() || config.timeout.isZero()) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        return config;
+    }
+    
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+    
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.fromKey(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Request mix has no positive weights: " + value);
+        }
+        return mix;
+    }
+    
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("baseUrl", baseUrl);
+        map.put("rate", rate);
+        map.put("concurrency", concurrency);
+        map.put("durationSeconds", duration.toSeconds());
+        map.put("warmupSeconds", warmup.toSeconds());
+        map.put("timeoutMs", timeout.toMillis());
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        mix.forEach((operation, weight) -> weights.put(operation.getKey(), weight));
+        map.put("mix", weights);
+        return map;
+    }
+    
+    public String getBaseUrl() { return baseUrl; }
+    public double getRate() { return rate; }
+    public int getConcurrency() { return concurrency; }
+    public Duration getDuration() { return duration; }
+    public Duration getWarmup() { return warmup; }
+    public Duration getTimeout() { return timeout; }
+    public Map<Operation, Integer> getMix() { return mix; }
+    public String getLabel() { return label; }
+    public String getOutput() { return output; }
+}
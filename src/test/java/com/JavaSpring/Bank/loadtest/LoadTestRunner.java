@@ -0,0 +1,369 @@
+package com.JavaSpring.Bank.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator for /api/v1/users against a locally started instance.
+ *
+ * Requests are scheduled at a fixed arrival rate and latency is measured from the
+ * intended send time, so queueing behind a saturated server (coordinated omission)
+ * shows up in the percentiles instead of silently lowering the offered load.
+ * Results are written as JSON so runs can be diffed across releases.
+ *
+ * Run with: mvn -Ploadtest test-compile exec:java -Dexec.args="--rate=200 --duration=60s"
+ */
+public class LoadTestRunner {
+    
+    private static final String USERS_PATH = "/api/v1/users";
+    private static final String[] CITIES = {
+        "Kuala Lumpur", "Penang", "Johor Bahru", "Ipoh", "Shah Alam", "Malacca", "Kuching", "Kota Kinabalu"
+    };
+    private static final String[] KEYWORDS = {"ah", "lim", "kumar", "binti", "wong", "company"};
+    // Highest trackable latency: one hour in microseconds
+    private static final long MAX_LATENCY_MICROS = TimeUnit.HOURS.toMicros(1);
+    // Recorded in place of a status code
+    private static final int IO_ERROR = -1;
+    private static final int TIMED_OUT = -2;
+    
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final List<Long> readableIds = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedDeque<Long> ownedIds = new ConcurrentLinkedDeque<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    
+    public LoadTestRunner(LoadTestConfig config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        Map<String, Object> report = new LoadTestRunner(config).run();
+        
+        String json = new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValueAsString(report);
+        if (config.getOutput() != null) {
+            Path output = Path.of(config.getOutput());
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            Files.writeString(output, json);
+            System.out.println("Load test report written to " + output.toAbsolutePath());
+        } else {
+            System.out.println(json);
+        }
+    }
+    
+    public Map<String, Object> run() throws InterruptedException {
+        seedReadableIds();
+        
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            config.getConcurrency(), config.getConcurrency(), 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(config.getConcurrency() * 100));
+        
+        Operation[] schedule = weightedSchedule();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.getRate());
+        long start = System.nanoTime();
+        long measureFrom = start + config.getWarmup().toNanos();
+        long end = measureFrom + config.getDuration().toNanos();
+        Instant startedAt = Instant.now();
+        
+        for (long next = start; next < end; next += intervalNanos) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            
+            Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            long intendedStart = next;
+            boolean recorded = intendedStart >= measureFrom;
+            try {
+                executor.execute(() -> execute(operation, intendedStart, recorded));
+            } catch (RejectedExecutionException e) {
+                // Backlog full: the client could not even offer the request
+                if (recorded) {
+                    stats.get(operation).recordDropped();
+                }
+            }
+        }
+        
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        
+        return report(startedAt, config.getDuration().toNanos() / 1e9);
+    }
+    
+    private Operation[] weightedSchedule() {
+        List<Operation> schedule = new ArrayList<>();
+        config.getMix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                schedule.add(operation);
+            }
+        });
+        return schedule.toArray(new Operation[0]);
+    }
+    
+    private void seedReadableIds() {
+        try {
+            HttpResponse<String> response = client.send(
+                request(USERS_PATH + "?page=0&size=50").GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+            for (JsonNode user : objectMapper.readTree(response.body()).path("content")) {
+                readableIds.add(user.path("id").asLong());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Instance under test is not reachable at " + config.getBaseUrl(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void execute(Operation operation, long intendedStart, boolean recorded) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation actual = operation;
+        HttpRequest request;
+        Long ownedId = null;
+        
+        switch (operation) {
+            case LIST -> request = get(USERS_PATH + "?page=" + random.nextInt(3) + "&size=10");
+            case SEARCH -> request = get(USERS_PATH + "?page=0&size=10&city="
+                    + encode(CITIES[random.nextInt(CITIES.length)])
+                    + "&keyword=" + KEYWORDS[random.nextInt(KEYWORDS.length)]);
+            case GET -> {
+                Long id = readableIds.isEmpty() ? ownedIds.peekLast() : readableIds.get(random.nextInt(readableIds.size()));
+                request = get(USERS_PATH + "/" + (id != null ? id : 1));
+            }
+            case UPDATE, DELETE -> {
+                ownedId = ownedIds.pollFirst();
+                if (ownedId == null) {
+                    // Only touch users this run created; create one first when none are left
+                    actual = Operation.CREATE;
+                    request = create();
+                } else if (operation == Operation.UPDATE) {
+                    request = request(USERS_PATH + "/" + ownedId)
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(userJson()))
+                            .build();
+                } else {
+                    request = request(USERS_PATH + "/" + ownedId)
+                            .DELETE()
+                            .build();
+                }
+            }
+            case IMPORT -> request = request(USERS_PATH + "/import/" + (1 + random.nextInt(10)))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            default -> request = create();
+        }
+        
+        int status;
+        String body = null;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            body = response.body();
+        } catch (HttpTimeoutException e) {
+            status = TIMED_OUT;
+        } catch (IOException e) {
+            status = IO_ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long latencyNanos = System.nanoTime() - intendedStart;
+        
+        if (actual == Operation.CREATE && status == 201) {
+            rememberCreatedId(body);
+        } else if (actual == Operation.UPDATE && ownedId != null && status != 404) {
+            ownedIds.addLast(ownedId);
+        }
+        
+        if (recorded) {
+            stats.get(actual).record(status, latencyNanos);
+        }
+    }
+    
+    private void rememberCreatedId(String body) {
+        try {
+            ownedIds.addLast(objectMapper.readTree(body).path("id").asLong());
+        } catch (IOException e) {
+            // Unparseable body still counts as a successful create
+        }
+    }
+    
+    /**
+     * Every request gives up after the configured timeout, so a stalled server shows up as
+     * errors instead of parking the executor's threads and silently lowering the offered load
+     */
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(config.getBaseUrl() + path)).timeout(config.getTimeout());
+    }
+    
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+    
+    private HttpRequest create() {
+        return request(USERS_PATH)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(userJson()))
+                .build();
+    }
+    
+    private String userJson() {
+        long n = sequence.incrementAndGet();
+        String city = CITIES[ThreadLocalRandom.current().nextInt(CITIES.length)];
+        return "{\"firstName\":\"Load\",\"lastName\":\"Tester" + n + "\","
+                + "\"email\":\"lt-" + runId + "-" + n + "@loadtest.local\","
+                + "\"phone\":\"+60-12-000-0000\",\"city\":\"" + city + "\"}";
+    }
+    
+    private static String encode(String value) {
+        return java.net.URLEncoder.encode(value, java.nio.charset.StandardCharsets.UTF_8);
+    }
+    
+    private Map<String, Object> report(Instant startedAt, double measuredSeconds) {
+        Histogram overall = new Histogram(MAX_LATENCY_MICROS, 3);
+        long requests = 0;
+        long errors = 0;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operationStats = entry.getValue();
+            if (operationStats.requests.sum() == 0) {
+                continue;
+            }
+            overall.add(operationStats.latency);
+            requests += operationStats.requests.sum();
+            errors += operationStats.errors.sum();
+            operations.put(entry.getKey().getKey(), operationStats.toMap(measuredSeconds));
+        }
+        
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("requests", requests);
+        totals.put("errors", errors);
+        totals.put("errorRate", requests > 0 ? (double) errors / requests : 0.0);
+        totals.put("throughput", requests / measuredSeconds);
+        totals.put("latencyMs", latencyMap(overall));
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", config.getLabel());
+        report.put("startedAt", startedAt.toString());
+        report.put("config", config.toMap());
+        report.put("totals", totals);
+        report.put("operations", operations);
+        return report;
+    }
+    
+    static Map<String, Object> latencyMap(Histogram histogram) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", histogram.getMean() / 1000.0);
+        latency.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        latency.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+        latency.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        latency.put("p999", histogram.getValueAtPercentile(99.9) / 1000.0);
+        latency.put("max", histogram.getMaxValue() / 1000.0);
+        return latency;
+    }
+    
+    /**
+     * Counters for one operation. Errors are 5xx, transport failures, timeouts and dropped requests;
+     * 4xx responses (e.g. 409 on repeated imports) are reported separately as client errors.
+     */
+    private static final class OperationStats {
+        
+        private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        
+        void record(int status, long latencyNanos) {
+            requests.increment();
+            latency.recordValue(Math.min(MAX_LATENCY_MICROS, Math.max(1, latencyNanos / 1000)));
+            statusCodes.computeIfAbsent(status, s -> new LongAdder()).increment();
+            if (status == TIMED_OUT) {
+                timeouts.increment();
+            }
+            if (status < 0 || status >= 500) {
+                errors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+        }
+        
+        void recordDropped() {
+            requests.increment();
+            errors.increment();
+            dropped.increment();
+        }
+        
+        Map<String, Object> toMap(double measuredSeconds) {
+            long count = requests.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", count);
+            map.put("errors", errors.sum());
+            map.put("clientErrors", clientErrors.sum());
+            map.put("dropped", dropped.sum());
+            map.put("timeouts", timeouts.sum());
+            map.put("errorRate", count > 0 ? (double) errors.sum() / count : 0.0);
+            map.put("throughput", count / measuredSeconds);
+            map.put("latencyMs", latencyMap(latency));
+            Map<String, Long> codes = new TreeMap<>();
+            statusCodes.forEach((status, counter) -> codes.put(statusKey(status), counter.sum()));
+            map.put("statusCodes", codes);
+            return map;
+        }
+        
+        private static String statusKey(int status) {
+            return switch (status) {
+                case TIMED_OUT -> "timeout";
+                case IO_ERROR -> "io-error";
+                default -> String.valueOf(status);
+            };
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.JavaSpring.Bank.loadtest;
+
+/**
+ * Request types driven against /api/v1/users
+ */
+public enum Operation {
+    LIST("list"),
+    SEARCH("search"),
+    GET("get"),
+    CREATE("create"),
+    UPDATE("update"),
+    DELETE("delete"),
+    IMPORT("import");
+    
+    private final String key;
+    
+    Operation(String key) {
+        this.key = key;
+    }
+    
+    public String getKey() { return key; }
+    
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in mix: " + key);
+    }
+}
@@ -0,0 +1,78 @@
+package com.JavaSpring.Bank.monitoring;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-endpoint allocation budgets from allocation-budgets.properties, checked against
+ * the bytes {@link AllocationMetricsFilter} measured on the request thread.
+ *
+ * A measurement is the minimum over several runs after a warm-up, so class loading,
+ * lazy caches and TLAB refills do not make the budget flaky.
+ *
+ * Usage: budgets.assertWithin("GET /api/v1/users/{id}", () -> get("/api/v1/users/{id}", id));
+ */
+public final class AllocationBudget {
+    
+    private static final int WARMUP_RUNS = 30;
+    private static final int MEASURED_RUNS = 5;
+    
+    private final MockMvc mockMvc;
+    private final Properties budgets = new Properties();
+    
+    public AllocationBudget(MockMvc mockMvc) {
+        this.mockMvc = mockMvc;
+        try (InputStream in = AllocationBudget.class.getResourceAsStream("/allocation-budgets.properties")) {
+            assertNotNull(in, "allocation-budgets.properties missing from test resources");
+            budgets.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read allocation budgets", e);
+        }
+    }
+    
+    /**
+     * @param route key in allocation-budgets.properties, e.g. "GET /api/v1/users"
+     * @param request a fresh request per run; requests must be repeatable
+     */
+    public void assertWithin(String route, Supplier<RequestBuilder> request) throws Exception {
+        String budget = budgets.getProperty(route);
+        assertNotNull(budget, "No allocation budget configured for " + route);
+        long maxBytes = Long.parseLong(budget.trim());
+        
+        long allocated = measure(request);
+        assertTrue(allocated <= maxBytes, String.format(
+            "Allocation budget exceeded for %s: expected at most %,d bytes but was %,d", route, maxBytes, allocated));
+    }
+    
+    /**
+     * @return the fewest bytes a single run allocated on the request thread
+     */
+    public long measure(Supplier<RequestBuilder> request) throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            perform(request.get());
+        }
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            min = Math.min(min, perform(request.get()));
+        }
+        return min;
+    }
+    
+    private long perform(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        Object allocated = result.getRequest().getAttribute(AllocationMetricsFilter.ALLOCATED_BYTES_ATTRIBUTE);
+        assertNotNull(allocated, "No allocation measurement - is monitoring.allocations.enabled?");
+        assertTrue(result.getResponse().getStatus() < 400,
+            "Budgeted request failed with status " + result.getResponse().getStatus());
+        return (Long) allocated;
+    }
+}
@@ -0,0 +1,135 @@
+package com.JavaSpring.Bank.monitoring;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FlightRecorderEndpointTest - request validation, the running limit, retention of finished
+ * recordings and per-request dumps of running ones
+ */
+public class FlightRecorderEndpointTest {
+    
+    @TempDir
+    Path dir;
+    
+    private FlightRecorderEndpoint endpoint;
+    
+    @BeforeEach
+    void setUp() {
+        endpoint = new FlightRecorderEndpoint();
+        ReflectionTestUtils.setField(endpoint, "directory", dir);
+        ReflectionTestUtils.setField(endpoint, "defaultDuration", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(endpoint, "maxDuration", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(endpoint, "maxSize", DataSize.ofMegabytes(10));
+        ReflectionTestUtils.setField(endpoint, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(endpoint, "retain", 2);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        endpoint.close();
+    }
+    
+    @Test
+    void testInvalidRequestsAreRejected() {
+        assertEquals(400, endpoint.start(null, Duration.ZERO).getStatus());
+        assertEquals(400, endpoint.start(null, Duration.ofMinutes(11)).getStatus());
+        assertEquals(400, endpoint.start("no-such-preset", null).getStatus());
+        
+        assertEquals(404, endpoint.stop(12345).getStatus());
+        assertEquals(404, endpoint.download(12345).getStatus());
+        assertTrue(recordings().isEmpty());
+    }
+    
+    @Test
+    void testSecondRunningRecordingIsAConflict() {
+        long id = startedId(endpoint.start(null, null));
+        
+        assertEquals(409, endpoint.start("profile", null).getStatus());
+        
+        // Stopping frees the slot
+        assertEquals(200, endpoint.stop(id).getStatus());
+        startedId(endpoint.start("profile", null));
+    }
+    
+    @Test
+    void testOldestFinishedRecordingsAreDiscarded() throws Exception {
+        long first = startAndStop();
+        Path firstFile = dir.resolve("recording-" + first + ".jfr");
+        assertTrue(Files.exists(firstFile));
+        long second = startAndStop();
+        long third = startAndStop();
+        
+        // The third start leaves 3 finished recordings once stopped, the fourth start trims to 2
+        startedId(endpoint.start(null, null));
+        List<Object> ids = recordings().stream().map(recording -> recording.get("id")).toList();
+        assertFalse(ids.contains(first));
+        assertTrue(ids.contains(second));
+        assertTrue(ids.contains(third));
+        assertFalse(Files.exists(firstFile));
+        assertEquals(404, endpoint.download(first).getStatus());
+        
+        // A stopped recording is discarded by a second DELETE
+        assertEquals(200, endpoint.stop(second).getStatus());
+        assertEquals(404, endpoint.download(second).getStatus());
+        assertFalse(Files.exists(dir.resolve("recording-" + second + ".jfr")));
+    }
+    
+    @Test
+    void testRunningRecordingIsDumpedPerDownload() throws Exception {
+        long id = startedId(endpoint.start(null, null));
+        
+        // Two downloads at once get their own files
+        WebEndpointResponse<Resource> first = endpoint.download(id);
+        WebEndpointResponse<Resource> second = endpoint.download(id);
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        
+        try (InputStream in = first.getBody().getInputStream()) {
+            assertTrue(in.readAllBytes().length > 0);
+        }
+        try (InputStream in = second.getBody().getInputStream()) {
+            assertTrue(in.readAllBytes().length > 0);
+        }
+        // Nothing is left once the downloads are closed
+        assertTrue(dumps().isEmpty());
+    }
+    
+    private long startAndStop() {
+        long id = startedId(endpoint.start(null, null));
+        assertEquals(200, endpoint.stop(id).getStatus());
+        return id;
+    }
+    
+    private static long startedId(WebEndpointResponse<Map<String, Object>> response) {
+        assertEquals(201, response.getStatus());
+        return (long) response.getBody().get("id");
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> recordings() {
+        return (List<Map<String, Object>>) endpoint.list().get("recordings");
+    }
+    
+    private List<Path> dumps() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith("-partial.jfr")).toList();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.JavaSpring.Bank.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LiveMetricsTest - interval rates and percentiles from meter deltas, and the dashboard stream
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+    "spring.profiles.active=test",
+    "admission.enabled=false",
+    // Samples are taken by the tests
+    "monitoring.live.interval=1h"
+})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class LiveMetricsTest {
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private LiveMetrics liveMetrics;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final HttpClient client = HttpClient.newHttpClient();
+    
+    @Test
+    void testQuantileInterpolatesWithinBucket() {
+        double[] bounds = {1, 2, 4, 8};
+        // 10 values: 2 up to 1 ms, 6 in (1, 2], 2 in (4, 8]
+        double[] cumulative = {2, 8, 8, 10};
+        
+        assertEquals(1.5, LiveMetrics.quantile(bounds, cumulative, 10, 0.5), 1e-9);
+        assertEquals(7.8, LiveMetrics.quantile(bounds, cumulative, 10, 0.99), 1e-9);
+        assertNull(LiveMetrics.quantile(bounds, new double[4], 0, 0.5));
+        // Beyond the last bucket
+        assertEquals(8, LiveMetrics.quantile(bounds, new double[]{0, 0, 0, 5}, 10, 0.99), 1e-9);
+    }
+    
+    @Test
+    @Order(1)
+    void testNothingIsSampledWithoutSubscribers() {
+        assertEquals(0, liveMetrics.getSubscriberCount());
+        assertNull(liveMetrics.sample());
+    }
+    
+    @Test
+    @Order(2)
+    void testPercentilesCoverOnlyTheLastInterval() {
+        liveMetrics.subscribe();
+        Timer timer = Timer.builder(ServiceMetrics.EXTERNAL_API).tag("operation", "liveTest")
+                .tag("outcome", "success").tag("exception", "none").register(meterRegistry);
+        for (int i = 0; i < 100; i++) {
+            timer.record(Duration.ofMillis(5));
+        }
+        liveMetrics.sample();
+        
+        for (int i = 0; i < 98; i++) {
+            timer.record(Duration.ofMillis(200));
+        }
+        timer.record(Duration.ofSeconds(2));
+        timer.record(Duration.ofSeconds(2));
+        LiveMetrics.Latency latency = liveMetrics.sample().external().stream()
+                .filter(l -> l.name().equals("liveTest")).findFirst().orElseThrow();
+        
+        // The 5 ms calls of the earlier interval are not part of this one
+        assertEquals(100, latency.count());
+        assertEquals(200, latency.p50Ms(), 200 * 0.25);
+        assertEquals(2000, latency.p99Ms(), 2000 * 0.25);
+        assertTrue(latency.ratePerSecond() > 0);
+    }
+    
+    @Test
+    @Order(3)
+    void testDashboardStreamPushesSamples() throws Exception {
+        CountDownLatch connected = new CountDownLatch(1);
+        CompletableFuture<String> sample = CompletableFuture.supplyAsync(() -> readSample("GET /api/v1/users", connected));
+        // The subscriber is registered before the server sends its ":connected" comment
+        assertTrue(connected.await(10, TimeUnit.SECONDS), "stream did not connect");
+        liveMetrics.sample();
+        for (int i = 0; i < 20; i++) {
+            client.send(HttpRequest.newBuilder(uri("/api/v1/users?page=0&size=5")).build(),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+        liveMetrics.sample();
+        
+        String data = sample.get(10, TimeUnit.SECONDS);
+        assertTrue(data.contains("\"name\":\"GET /api/v1/users\",\"count\":20"), data);
+        assertTrue(data.contains("\"pools\":[{\"pool\":"), data);
+        assertTrue(data.contains("\"cache\":\"user.snapshot\""), data);
+        assertFalse(data.contains(LiveMetrics.STREAM_URI), data);
+    }
+    
+    /**
+     * Data of the first "metrics" event containing {@code text}; counts down {@code connected}
+     * once the server confirms the subscription
+     */
+    private String readSample(String text, CountDownLatch connected) {
+        try {
+            HttpResponse<InputStream> response = client.send(
+                    HttpRequest.newBuilder(uri(LiveMetrics.STREAM_URI)).build(), HttpResponse.BodyHandlers.ofInputStream());
+            assertEquals(200, response.statusCode());
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                String event = null;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.equals(":connected")) {
+                        connected.countDown();
+                    } else if (line.startsWith("event:")) {
+                        event = line.substring(6);
+                    } else if (line.startsWith("data:") && LiveMetrics.SAMPLE_EVENT.equals(event) && line.contains(text)) {
+                        return line.substring(5);
+                    }
+                }
+            }
+            throw new AssertionError("Stream ended without a sample containing " + text);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
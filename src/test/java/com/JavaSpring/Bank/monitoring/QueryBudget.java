@@ -0,0 +1,37 @@
+package com.JavaSpring.Bank.monitoring;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MockMvc matchers for per-request SQL statement budgets.
+ * Requires monitoring.queries.response-headers=true (set in application-test.yml).
+ *
+ * Usage: mockMvc.perform(get("/api/v1/users")).andExpect(QueryBudget.atMost(2));
+ */
+public final class QueryBudget {
+    
+    private QueryBudget() {}
+    
+    public static ResultMatcher atMost(int maxQueries) {
+        return result -> {
+            int count = queryCount(result.getResponse().getHeader(QueryMetricsFilter.QUERY_COUNT_HEADER));
+            assertTrue(count <= maxQueries,
+                "Query budget exceeded: expected at most " + maxQueries + " statements but was " + count);
+        };
+    }
+    
+    public static ResultMatcher exactly(int queries) {
+        return result -> assertEquals(queries,
+            queryCount(result.getResponse().getHeader(QueryMetricsFilter.QUERY_COUNT_HEADER)),
+            "Unexpected number of SQL statements");
+    }
+    
+    private static int queryCount(String header) {
+        assertNotNull(header, QueryMetricsFilter.QUERY_COUNT_HEADER + " header missing - is monitoring.queries.response-headers enabled?");
+        return Integer.parseInt(header);
+    }
+}
@@ -0,0 +1,67 @@
+package com.JavaSpring.Bank.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryMetricsFilterTest - X-Query-* headers survive bodies larger than the response buffer
+ * and count the statements run while the body is written
+ */
+public class QueryMetricsFilterTest {
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QueryMetricsFilter filter = new QueryMetricsFilter(registry, true);
+    
+    @Test
+    void testHeadersSetAfterBodyLargerThanResponseBuffer() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setBufferSize(1024);
+        
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users"), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                QueryStats.current().record(2_000_000);
+                resp.getWriter().write("x".repeat(10_000));
+                // e.g. a lazy association loaded while serializing
+                QueryStats.current().record(1_000_000);
+                resp.getWriter().write("y");
+            }
+        }));
+        
+        assertEquals("2", response.getHeader(QueryMetricsFilter.QUERY_COUNT_HEADER));
+        assertEquals(String.format("%.3f", 3.0), response.getHeader(QueryMetricsFilter.QUERY_TIME_HEADER));
+        assertEquals(10_001, response.getContentAsString().length());
+        assertEquals(2.0, registry.get("http.server.requests.queries").summary().totalAmount());
+    }
+    
+    @Test
+    void testFlushedResponseGetsHeadersBeforeFirstBytes() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users"), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                QueryStats.current().record(1_000_000);
+                resp.getOutputStream().write("first chunk\n".getBytes());
+                resp.flushBuffer();
+                assertTrue(resp.isCommitted());
+                QueryStats.current().record(1_000_000);
+                resp.getOutputStream().write("second chunk\n".getBytes());
+            }
+        }));
+        
+        assertEquals("1", response.getHeader(QueryMetricsFilter.QUERY_COUNT_HEADER));
+        assertEquals("first chunk\nsecond chunk\n", response.getContentAsString());
+        assertEquals(2.0, registry.get("http.server.requests.queries").summary().totalAmount());
+    }
+}
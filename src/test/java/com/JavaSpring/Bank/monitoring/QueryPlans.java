@@ -0,0 +1,189 @@
+package com.JavaSpring.Bank.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * H2 EXPLAIN plans for the SQL a repository call issues, checked against the access a path is
+ * allowed and against the baselines in query-plans.properties.
+ *
+ * The SQL is captured from Hibernate, so derived and Spring Data COUNT queries are covered too.
+ * Requires spring.jpa.properties.hibernate.session_factory.statement_inspector set to {@link Capture}.
+ *
+ * Usage: plans.assertPlans("findByCity", EnumSet.of(Access.INDEX_LOOKUP), () -> repository.findByCity(...));
+ * Run with -Dquery-plans.update=true to rewrite the baselines instead of comparing, then review the diff.
+ */
+public final class QueryPlans {
+    
+    public static final String BASELINES = "query-plans.properties";
+    
+    private static final boolean UPDATE = Boolean.getBoolean("query-plans.update");
+    private static final Path BASELINE_SOURCE = Path.of("src", "test", "resources", BASELINES);
+    
+    private static final Pattern COMMENT = Pattern.compile("/\\*\\s*(.*?)\\s*\\*/");
+    // Generated names change with creation order; they are normalized so baselines stay stable
+    private static final Pattern GENERATED_NAME = Pattern.compile("(PRIMARY_KEY|CONSTRAINT_INDEX|_INDEX)_[0-9A-F]+\\b");
+    
+    /**
+     * How a statement reaches its rows, best first
+     */
+    public enum Access {
+        /** Row count from table metadata */
+        DIRECT,
+        /** Index seek on a condition */
+        INDEX_LOOKUP,
+        /** Index walked in the requested order; stops once the page is full */
+        INDEX_ORDER,
+        /** Every row read: table scan, or an index walked with neither a condition nor an order */
+        FULL_SCAN
+    }
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Properties baselines = new Properties();
+    private final Map<String, String> observed = new TreeMap<>();
+    
+    public QueryPlans(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        try (InputStream in = QueryPlans.class.getResourceAsStream("/" + BASELINES)) {
+            if (in != null) {
+                baselines.load(in);
+            } else {
+                assertTrue(UPDATE, BASELINES + " missing from test resources - run with -Dquery-plans.update=true");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read query plan baselines", e);
+        }
+    }
+    
+    /**
+     * Runs the call, then checks the plan of every statement it issued.
+     * Statements are keyed name, name.2, name.3... in the order they ran.
+     *
+     * @param allowed - access each statement may use; FULL_SCAN only with the reason next to the case
+     */
+    public void assertPlans(String name, Set<Access> allowed, Runnable call) {
+        List<String> statements = Capture.during(call);
+        assertFalse(statements.isEmpty(), name + " issued no SQL");
+        for (int i = 0; i < statements.size(); i++) {
+            String key = i == 0 ? name : name + "." + (i + 1);
+            String plan = explain(statements.get(i));
+            Access access = accessOf(plan);
+            String summary = access + " " + String.join(" | ", comments(plan));
+            observed.put(key, summary);
+            
+            assertTrue(allowed.contains(access), String.format(
+                "%s uses %s, allowed %s%n  sql:  %s%n  plan: %s", key, access, allowed, statements.get(i), plan));
+            if (!UPDATE) {
+                String baseline = baselines.getProperty(key);
+                assertNotNull(baseline, "No baseline plan for " + key + " - run with -Dquery-plans.update=true");
+                assertEquals(baseline, summary, key + " plan changed from the baseline\n  sql:  " + statements.get(i));
+            }
+        }
+    }
+    
+    /**
+     * In update mode writes every plan seen by this instance to the source baselines file
+     */
+    public void writeBaselinesIfUpdating() {
+        if (!UPDATE) {
+            return;
+        }
+        StringBuilder out = new StringBuilder()
+            .append("# Expected H2 access per UserRepository statement (QueryPlanRegressionTest), seeded at production size.\n")
+            .append("# Format: <access> <plan comments>; regenerate with -Dquery-plans.update=true and review the diff.\n")
+            .append("# A move towards FULL_SCAN needs an index or the reason in the commit message.\n");
+        observed.forEach((key, summary) -> out.append(key).append('=').append(summary).append('\n'));
+        try {
+            Files.writeString(BASELINE_SOURCE, out, StandardCharsets.ISO_8859_1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + BASELINE_SOURCE, e);
+        }
+    }
+    
+    private String explain(String sql) {
+        // Prepared so the ? placeholders need no values
+        return jdbcTemplate.query(con -> con.prepareStatement("EXPLAIN " + sql), rs -> {
+            assertTrue(rs.next(), "EXPLAIN returned nothing for " + sql);
+            return rs.getString(1);
+        });
+    }
+    
+    static Access accessOf(String plan) {
+        if (plan.contains("/* direct lookup */")) {
+            // COUNT(*) answered from the row count of whichever index H2 names
+            return Access.DIRECT;
+        }
+        Access worst = null;
+        for (String comment : comments(plan)) {
+            Access access;
+            if (comment.endsWith(".tableScan")) {
+                access = Access.FULL_SCAN;
+            } else if (comment.startsWith("PUBLIC.") && comment.contains(": ")) {
+                access = Access.INDEX_LOOKUP;
+            } else if (comment.startsWith("PUBLIC.")) {
+                access = plan.contains("/* index sorted") ? Access.INDEX_ORDER : Access.FULL_SCAN;
+            } else {
+                continue;
+            }
+            if (worst == null || access.compareTo(worst) > 0) {
+                worst = access;
+            }
+        }
+        assertNotNull(worst, "No table access in plan: " + plan);
+        return worst;
+    }
+    
+    static List<String> comments(String plan) {
+        List<String> comments = new ArrayList<>();
+        Matcher matcher = COMMENT.matcher(plan);
+        while (matcher.find()) {
+            comments.add(GENERATED_NAME.matcher(matcher.group(1).replaceAll("\\s+", " ")).replaceAll("$1"));
+        }
+        return comments;
+    }
+    
+    /**
+     * Hibernate statement inspector recording the SQL issued on the current thread
+     */
+    public static final class Capture implements StatementInspector {
+        
+        private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+        
+        @Override
+        public String inspect(String sql) {
+            List<String> captured = CAPTURED.get();
+            if (captured != null) {
+                captured.add(sql);
+            }
+            return sql;
+        }
+        
+        static List<String> during(Runnable call) {
+            CAPTURED.set(new ArrayList<>());
+            try {
+                call.run();
+                return CAPTURED.get().stream().distinct().collect(Collectors.toList());
+            } finally {
+                CAPTURED.remove();
+            }
+        }
+    }
+}
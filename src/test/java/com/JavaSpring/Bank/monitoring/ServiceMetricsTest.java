@@ -0,0 +1,89 @@
+package com.JavaSpring.Bank.monitoring;
+
+import com.JavaSpring.Bank.exception.ResourceNotFoundException;
+import com.JavaSpring.Bank.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ServiceMetricsTest - tags emitted on user.service timers and the SLO buckets configured for them
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.profiles.active=test",
+    "admission.enabled=false"
+})
+public class ServiceMetricsTest {
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private ServiceMetrics serviceMetrics;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Test
+    void testListOperationTaggedWithQueryShapeAndOutcome() {
+        userService.getAllUsers(0, 10, "city", "asc", "Ipoh", " ");
+        assertThrows(RuntimeException.class, () -> userService.getAllUsers(0, 10, "password", "asc", null, "ali"));
+        
+        Timer filtered = meterRegistry.get(ServiceMetrics.USER_SERVICE)
+                .tags("operation", "getAllUsers", "outcome", "success", "exception", "none",
+                      "city", "filtered", "keyword", "none", "sort", "city")
+                .timer();
+        assertTrue(filtered.count() >= 1);
+        // Unknown sort fields collapse to one tag value
+        assertTrue(meterRegistry.get(ServiceMetrics.USER_SERVICE)
+                .tags("operation", "getAllUsers", "outcome", "error", "city", "none", "keyword", "filtered", "sort", "other")
+                .timer().count() >= 1);
+        assertTrue(meterRegistry.find(ServiceMetrics.USER_SERVICE).tag("sort", "password").timers().isEmpty());
+    }
+    
+    @Test
+    void testFailureTaggedWithExceptionAndShapeKeys() {
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(Long.MAX_VALUE));
+        
+        Timer failed = meterRegistry.get(ServiceMetrics.USER_SERVICE)
+                .tags("operation", "getUserById", "outcome", "error", "exception", "ResourceNotFoundException")
+                .tags(ServiceMetrics.NO_SHAPE)
+                .timer();
+        assertEquals(1, failed.count());
+    }
+    
+    @Test
+    void testTimersPublishConfiguredSloBuckets() {
+        serviceMetrics.timed(ServiceMetrics.USER_SERVICE, "sloProbe", ServiceMetrics.NO_SHAPE, () -> { });
+        Timer timer = meterRegistry.get(ServiceMetrics.USER_SERVICE).tag("operation", "sloProbe").timer();
+        timer.record(Duration.ofMillis(30));
+        
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        for (double slo : new double[] {10, 25, 50, 100, 250, 500, 1000}) {
+            assertTrue(Arrays.stream(snapshot.histogramCounts()).anyMatch(bucket -> bucket.bucket(TimeUnit.MILLISECONDS) == slo),
+                "missing SLO bucket " + slo + " ms");
+        }
+        // Buckets are cumulative: the no-op falls under 25 ms, the 30 ms recording under 50 ms
+        assertEquals(1, countAt(snapshot, 25));
+        assertEquals(2, countAt(snapshot, 50));
+    }
+    
+    private static double countAt(HistogramSnapshot snapshot, double boundMs) {
+        return Arrays.stream(snapshot.histogramCounts())
+                .filter(bucket -> bucket.bucket(TimeUnit.MILLISECONDS) == boundMs)
+                .mapToDouble(CountAtBucket::count)
+                .findFirst().orElseThrow();
+    }
+}
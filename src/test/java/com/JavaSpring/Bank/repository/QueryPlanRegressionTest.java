@@ -0,0 +1,146 @@
+package com.JavaSpring.Bank.repository;
+
+import com.JavaSpring.Bank.monitoring.QueryPlans;
+import com.JavaSpring.Bank.monitoring.QueryPlans.Access;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * QueryPlanRegressionTest - EXPLAIN plans of every UserRepository query and its generated COUNT,
+ * on a production-sized table in H2's SQL Server mode. Fails when a sort, city or lookup path
+ * loses its index, or when any plan drifts from query-plans.properties.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestPropertySource(properties = {
+    "spring.profiles.active=test",
+    "spring.datasource.url=jdbc:h2:mem:plans;MODE=MSSQLServer;DB_CLOSE_DELAY=-1",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.JavaSpring.Bank.monitoring.QueryPlans$Capture",
+    "data.generator.users=" + QueryPlanRegressionTest.USERS
+})
+public class QueryPlanRegressionTest {
+    
+    static final int USERS = 50000;
+    
+    private static final Set<Access> INDEXED = EnumSet.of(Access.DIRECT, Access.INDEX_LOOKUP, Access.INDEX_ORDER);
+    private static final Set<Access> LOOKUP = EnumSet.of(Access.DIRECT, Access.INDEX_LOOKUP);
+    private static final Set<Access> ANY = EnumSet.allOf(Access.class);
+    
+    // A full second page, so Spring Data issues the COUNT as well
+    private static final int PAGE = 1;
+    private static final int SIZE = 20;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private QueryPlans plans;
+    
+    @BeforeAll
+    void setUp() {
+        assertEquals(USERS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class), 1000);
+        // Fresh selectivity statistics, as on a long-running server
+        jdbcTemplate.execute("ANALYZE");
+        plans = new QueryPlans(jdbcTemplate);
+    }
+    
+    @AfterAll
+    void tearDown() {
+        plans.writeBaselinesIfUpdating();
+    }
+    
+    @Test
+    void testSortPathsUseIndexes() {
+        for (String field : List.of("id", "firstName", "lastName", "email", "city", "createdAt")) {
+            plans.assertPlans("findAll.sort." + field + ".asc", INDEXED,
+                () -> userRepository.findAll(PageRequest.of(PAGE, SIZE, Sort.by(field).ascending())));
+            plans.assertPlans("findAll.sort." + field + ".desc", INDEXED,
+                () -> userRepository.findAll(PageRequest.of(PAGE, SIZE, Sort.by(field).descending())));
+        }
+        // Not indexed: phone is rarely sorted on and updatedAt changes on every write
+        for (String field : List.of("phone", "updatedAt")) {
+            plans.assertPlans("findAll.sort." + field + ".asc", ANY,
+                () -> userRepository.findAll(PageRequest.of(PAGE, SIZE, Sort.by(field).ascending())));
+        }
+    }
+    
+    @Test
+    void testCityPathsUseIndexes() {
+        plans.assertPlans("findByCity", LOOKUP,
+            () -> userRepository.findByCity("Ipoh", PageRequest.of(PAGE, SIZE, Sort.by("id"))));
+        plans.assertPlans("findByCity.sort.lastName", LOOKUP,
+            () -> userRepository.findByCity("Ipoh", PageRequest.of(PAGE, SIZE, Sort.by("lastName"))));
+        // The city index resolves ids; rows are then read by primary key
+        plans.assertPlans("findByIdIn", LOOKUP,
+            () -> userRepository.findByIdIn(List.of(5L, 500L, 5000L), PageRequest.of(0, SIZE, Sort.by("lastName"))));
+        plans.assertPlans("findAllById", LOOKUP,
+            () -> userRepository.findAllById(List.of(5L, 500L, 5000L)));
+        // A keyword with a city is only matched against that city's candidate rows
+        plans.assertPlans("findIdsByKeywordAmong", LOOKUP,
+            () -> userRepository.findIdsByKeywordAmong(List.of(5L, 500L, 5000L), "tan"));
+        
+        // The case-insensitive city filter, used before the city index is built and for cities too large
+        // for an IN list under a non-id sort, seeks idx_users_city_key
+        plans.assertPlans("findByCityAndKeyword.city", LOOKUP,
+            () -> userRepository.findByCityAndKeyword("Ipoh", null, PageRequest.of(PAGE, SIZE, Sort.by("id"))));
+        plans.assertPlans("findByCityAndKeyword.city.sort.lastName", LOOKUP,
+            () -> userRepository.findByCityAndKeyword("ipoh", null, PageRequest.of(PAGE, SIZE, Sort.by("lastName"))));
+        plans.assertPlans("countByCityAndKeyword.city", LOOKUP,
+            () -> userRepository.countByCityAndKeyword("Ipoh", null));
+        plans.assertPlans("findByCityAndKeyword.cityAndKeyword", LOOKUP,
+            () -> userRepository.findByCityAndKeyword("Ipoh", "tan", PageRequest.of(PAGE, SIZE, Sort.by("id"))));
+    }
+    
+    @Test
+    void testKeywordPathsScanOnlyOnce() {
+        // LIKE '%keyword%' cannot seek any B-tree index: pages walk the sort index until full,
+        // counts read every row once. The baselines catch anything worse.
+        plans.assertPlans("findByKeyword", ANY,
+            () -> userRepository.findByKeyword("tan", PageRequest.of(PAGE, SIZE, Sort.by("id"))));
+        plans.assertPlans("findByKeyword.sort.lastName", ANY,
+            () -> userRepository.findByKeyword("tan", PageRequest.of(PAGE, SIZE, Sort.by("lastName"))));
+        plans.assertPlans("findByCityAndKeyword.keyword", ANY,
+            () -> userRepository.findByCityAndKeyword(null, "tan", PageRequest.of(PAGE, SIZE, Sort.by("id"))));
+        plans.assertPlans("countByCityAndKeyword.keyword", ANY,
+            () -> userRepository.countByCityAndKeyword(null, "tan"));
+    }
+    
+    @Test
+    void testKeyLookupsUseIndexes() {
+        plans.assertPlans("count", LOOKUP, () -> userRepository.count());
+        plans.assertPlans("findById", LOOKUP, () -> userRepository.findById(5000L));
+        plans.assertPlans("existsById", LOOKUP, () -> userRepository.existsById(5000L));
+        plans.assertPlans("findByEmail", LOOKUP, () -> userRepository.findByEmail("nobody@company.com"));
+        
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            plans.assertPlans("updateIfVersionMatches", LOOKUP, () -> userRepository.updateIfVersionMatches(
+                999999L, 0L, "Plan", "Check", "plan.check@company.com", null, "Ipoh", LocalDateTime.now()));
+            plans.assertPlans("deleteIfVersionMatches", LOOKUP,
+                () -> userRepository.deleteIfVersionMatches(999999L, 0L));
+            status.setRollbackOnly();
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package com.JavaSpring.Bank.service;
+
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.JavaSpring.Bank.exception.DuplicateResourceException;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UserCreateConcurrencyTest - many threads creating the same emails at once: exactly one create
+ * per email succeeds and every other attempt is a DuplicateResourceException (409), never a raw
+ * integrity violation (500)
+ */
+@SpringBootTest
+@TestPropertySource(properties = "spring.profiles.active=test")
+public class UserCreateConcurrencyTest {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UserCreateConcurrencyTest.class);
+    
+    private static final int THREADS = 16;
+    private static final int EMAILS = 40;
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void testDuplicateEmailsRaceToExactlyOneCreate() throws Exception {
+        Map<String, AtomicInteger> created = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        List<Throwable> unexpected = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> clients = new ArrayList<>();
+        
+        for (int t = 0; t < THREADS; t++) {
+            // Every thread tries every email, each in its own order
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < EMAILS; i++) {
+                order.add(i);
+            }
+            Collections.shuffle(order, new Random(t));
+            clients.add(executor.submit(() -> {
+                start.await();
+                for (int i : order) {
+                    String email = "race" + i + "@company.com";
+                    try {
+                        userService.createUser(new UserRequestDTO("Race", "Test", email, "+60-12-000-0000", "Ipoh"));
+                        created.computeIfAbsent(email, e -> new AtomicInteger()).incrementAndGet();
+                    } catch (DuplicateResourceException e) {
+                        duplicates.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        unexpected.add(e);
+                    }
+                }
+                return null;
+            }));
+        }
+        
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : clients) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        
+        int attempts = THREADS * EMAILS;
+        logger.info("{} concurrent creates in {} ms ({} per second): {} created, {} duplicates, {} unexpected",
+                attempts, elapsedNanos / 1_000_000, Math.round(attempts * 1e9 / elapsedNanos),
+                created.size(), duplicates.get(), unexpected.size());
+        
+        assertTrue(unexpected.isEmpty(), () -> "unexpected failures: " + unexpected);
+        assertEquals(EMAILS, created.size());
+        created.forEach((email, count) -> assertEquals(1, count.get(), email));
+        assertEquals(attempts - EMAILS, duplicates.get());
+        assertEquals(EMAILS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email LIKE 'race%@company.com'", Integer.class));
+    }
+}
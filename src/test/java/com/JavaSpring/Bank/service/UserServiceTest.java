@@ -1 +1,160 @@
-package com.JavaSpring.Bank.service;
\ No newline at end of file
+package com.JavaSpring.Bank.service;
+
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.entity.User;
+import com.JavaSpring.Bank.exception.DuplicateResourceException;
+import com.JavaSpring.Bank.exception.ResourceNotFoundException;
+import com.JavaSpring.Bank.exception.StaleResourceException;
+import com.JavaSpring.Bank.index.CityIndex;
+import com.JavaSpring.Bank.monitoring.ServiceMetrics;
+import com.JavaSpring.Bank.repository.UserProjectionRepository;
+import com.JavaSpring.Bank.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UserServiceTest - verifies the write paths against an embedded H2 database
+ * and asserts how many SQL statements each operation sends
+ */
+@DataJpaTest
+@Import({UserService.class, UserProjectionRepository.class, ServiceMetrics.class, CityIndex.class})
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+public class UserServiceTest {
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private Statistics statistics;
+    
+    private User existing;
+    
+    @BeforeEach
+    void setUp() {
+        existing = userRepository.saveAndFlush(
+            new User("Ahmad", "bin Abdullah", "ahmad.abdullah@company.com", "+60-12-345-6789", "Kuala Lumpur"));
+        userRepository.saveAndFlush(
+            new User("Siti", "binti Aminah", "siti.aminah@company.com", "+60-19-876-5432", "Johor Bahru"));
+        entityManager.clear();
+        
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+    
+    private UserRequestDTO request(String email) {
+        return new UserRequestDTO("Ahmad", "Updated", email, "+60-12-000-0000", "Penang");
+    }
+    
+    @Test
+    void testCreateUserIsSingleInsert() {
+        UserResponseDTO created = userService.createUser(request("new.user@company.com"));
+        
+        assertNotNull(created.getId());
+        // No existence pre-check: the email constraint is the check
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void testCreateUserDuplicateEmail() {
+        assertThrows(DuplicateResourceException.class, () -> userService.createUser(request("siti.aminah@company.com")));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void testUpdateUserUsesConditionalUpdateAndSingleRead() {
+        UserResponseDTO updated = userService.updateUser(existing.getId(),
+                request("ahmad.updated@company.com"), existing.getVersion());
+        
+        assertEquals("Updated", updated.getLastName());
+        assertEquals(existing.getVersion() + 1, updated.getVersion());
+        // UPDATE ... WHERE id = ? AND version = ?, then the SELECT for the response body
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void testUpdateUserWithoutVersionIsUnconditional() {
+        UserResponseDTO updated = userService.updateUser(existing.getId(), request("ahmad.abdullah@company.com"));
+        
+        assertEquals("Penang", updated.getCity());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void testUpdateUserStaleVersion() {
+        assertThrows(StaleResourceException.class, () -> userService.updateUser(existing.getId(),
+                request("ahmad.abdullah@company.com"), existing.getVersion() + 5));
+        
+        // Failed UPDATE followed by the existence check that classifies the failure
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void testUpdateUserNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> userService.updateUser(999L,
+                request("nobody@company.com")));
+        
+        // Unconditional update: zero rows can only mean not found
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+    
+    @Test
+    void testUpdateUserDuplicateEmail() {
+        assertThrows(DuplicateResourceException.class, () -> userService.updateUser(existing.getId(),
+                request("siti.aminah@company.com")));
+    }
+    
+    @Test
+    void testUpdateUserOtherIntegrityErrorIsNotDuplicate() {
+        // NOT NULL on first_name, not a unique key: no 409
+        UserRequestDTO noFirstName = new UserRequestDTO(null, "Updated", "ahmad.abdullah@company.com", "+60-12-000-0000", "Penang");
+        
+        assertThrows(DataIntegrityViolationException.class, () -> userService.updateUser(existing.getId(), noFirstName));
+    }
+    
+    @Test
+    void testDeleteUserIsSingleStatement() {
+        userService.deleteUser(existing.getId(), existing.getVersion());
+        
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(userRepository.existsById(existing.getId()));
+    }
+    
+    @Test
+    void testDeleteUserStaleVersion() {
+        assertThrows(StaleResourceException.class,
+                () -> userService.deleteUser(existing.getId(), existing.getVersion() + 1));
+        
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertTrue(userRepository.existsById(existing.getId()));
+    }
+    
+    @Test
+    void testDeleteUserNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser(999L));
+        
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
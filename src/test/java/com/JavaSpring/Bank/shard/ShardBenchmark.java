@@ -0,0 +1,171 @@
+package com.JavaSpring.Bank.shard;
+
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput of ShardedUserStore against the number of shards, on in-memory H2 databases.
+ *
+ * Every configuration is seeded with the same users and then driven by a closed loop of
+ * threads issuing a fixed mix of id lookups, filtered pages and creates. All shards share
+ * this JVM's CPUs, so the numbers show the cost of scatter-gather and routing rather than
+ * the capacity gained from adding database servers.
+ *
+ * Run with: mvn -Pshardbench test-compile exec:java -Dexec.args="--shards=1,2,4,8 --users=50000"
+ */
+public class ShardBenchmark {
+    
+    private static final String[] CITIES = {
+        "Kuala Lumpur", "Penang", "Johor Bahru", "Ipoh", "Shah Alam", "Malacca", "Kuching", "Kota Kinabalu"
+    };
+    
+    private final int users;
+    private final int threads;
+    private final long durationMillis;
+    private final long warmupMillis;
+    
+    ShardBenchmark(int users, int threads, long durationMillis, long warmupMillis) {
+        this.users = users;
+        this.threads = threads;
+        this.durationMillis = durationMillis;
+        this.warmupMillis = warmupMillis;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("shards", "1,2,4,8");
+        options.put("users", "50000");
+        options.put("threads", "16");
+        options.put("duration", "15");
+        options.put("warmup", "5");
+        for (String arg : args) {
+            String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+            if (parts.length != 2 || !options.containsKey(parts[0])) {
+                throw new IllegalArgumentException("Unknown option: " + arg + ", expected one of " + options.keySet());
+            }
+            options.put(parts[0], parts[1]);
+        }
+        
+        ShardBenchmark benchmark = new ShardBenchmark(
+                Integer.parseInt(options.get("users")),
+                Integer.parseInt(options.get("threads")),
+                TimeUnit.SECONDS.toMillis(Long.parseLong(options.get("duration"))),
+                TimeUnit.SECONDS.toMillis(Long.parseLong(options.get("warmup"))));
+        
+        System.out.printf("%-7s %12s %12s %12s %12s%n", "shards", "ops/s", "get/s", "list/s", "create/s");
+        for (String shards : options.get("shards").split(",")) {
+            Map<String, Double> result = benchmark.run(Integer.parseInt(shards.trim()));
+            System.out.printf("%-7s %12.0f %12.0f %12.0f %12.0f%n", shards.trim(),
+                    result.get("total"), result.get("get"), result.get("list"), result.get("create"));
+        }
+    }
+    
+    /**
+     * @return operations per second over the measured window, in total and per operation
+     */
+    Map<String, Double> run(int shardCount) throws InterruptedException {
+        String run = shardCount + "-" + System.nanoTime();
+        HikariDataSource routing = dataSource("jdbc:h2:mem:bench-routing-" + run);
+        List<DataSource> shards = new ArrayList<>();
+        for (int n = 0; n < shardCount; n++) {
+            shards.add(dataSource("jdbc:h2:mem:bench-shard-" + run + "-" + n));
+        }
+        
+        try (ShardedUserStore store = new ShardedUserStore(routing, new DataSourceTransactionManager(routing), shards, 1000)) {
+            store.initialize();
+            List<Long> ids = seed(store);
+            
+            LongAdder gets = new LongAdder();
+            LongAdder lists = new LongAdder();
+            LongAdder creates = new LongAdder();
+            AtomicLong sequence = new AtomicLong();
+            long measureFrom = System.currentTimeMillis() + warmupMillis;
+            long end = measureFrom + durationMillis;
+            
+            ExecutorService workers = Executors.newFixedThreadPool(threads);
+            for (int t = 0; t < threads; t++) {
+                workers.execute(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long now;
+                    while ((now = System.currentTimeMillis()) < end) {
+                        boolean measured = now >= measureFrom;
+                        int pick = random.nextInt(100);
+                        if (pick < 60) {
+                            store.findById(ids.get(random.nextInt(ids.size())));
+                            if (measured) gets.increment();
+                        } else if (pick < 95) {
+                            String city = CITIES[random.nextInt(CITIES.length)];
+                            store.findPage(city, null, PageRequest.of(random.nextInt(5), 20, Sort.by("lastName")));
+                            if (measured) lists.increment();
+                        } else {
+                            store.create(user("bench." + sequence.incrementAndGet() + "@bench.com", random));
+                            if (measured) creates.increment();
+                        }
+                    }
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(end - System.currentTimeMillis() + 60_000, TimeUnit.MILLISECONDS);
+            
+            double seconds = durationMillis / 1000.0;
+            Map<String, Double> result = new LinkedHashMap<>();
+            result.put("total", (gets.sum() + lists.sum() + creates.sum()) / seconds);
+            result.put("get", gets.sum() / seconds);
+            result.put("list", lists.sum() / seconds);
+            result.put("create", creates.sum() / seconds);
+            return result;
+        } finally {
+            routing.close();
+        }
+    }
+    
+    private List<Long> seed(ShardedUserStore store) throws InterruptedException {
+        List<Long> ids = new ArrayList<>(users);
+        ExecutorService loaders = Executors.newFixedThreadPool(threads);
+        List<List<Long>> created = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<Long> slice = new ArrayList<>();
+            created.add(slice);
+            int from = users * t / threads;
+            int to = users * (t + 1) / threads;
+            loaders.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = from; i < to; i++) {
+                    slice.add(store.create(user("seed." + i + "@bench.com", random)).getId());
+                }
+            });
+        }
+        loaders.shutdown();
+        loaders.awaitTermination(1, TimeUnit.HOURS);
+        created.forEach(ids::addAll);
+        return ids;
+    }
+    
+    private static UserRequestDTO user(String email, ThreadLocalRandom random) {
+        return new UserRequestDTO("Bench" + random.nextInt(1000), "User" + random.nextInt(10_000), email,
+                "+60-12-000-0000", CITIES[random.nextInt(CITIES.length)]);
+    }
+    
+    private HikariDataSource dataSource(String url) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(threads);
+        return dataSource;
+    }
+}
@@ -0,0 +1,176 @@
+package com.JavaSpring.Bank.shard;
+
+import com.JavaSpring.Bank.dto.request.UserRequestDTO;
+import com.JavaSpring.Bank.dto.response.UserLookupDTO;
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.exception.DuplicateResourceException;
+import com.JavaSpring.Bank.exception.ResourceNotFoundException;
+import com.JavaSpring.Bank.exception.StaleResourceException;
+import com.JavaSpring.Bank.index.CityIndex;
+import com.JavaSpring.Bank.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ShardedUserStoreTest - UserService on three H2 shards: placement, cross-shard email
+ * uniqueness and scatter-gather pages against an in-memory sort of every user
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.profiles.active=test",
+    "sharding.enabled=true",
+    "sharding.count=3",
+    "sharding.url-template=jdbc:h2:mem:shard-test-{n};DB_CLOSE_DELAY=-1"
+})
+public class ShardedUserStoreTest {
+    
+    @Autowired
+    private UserService userService;
+    
+    @Autowired
+    private ShardedUserStore store;
+    
+    @Test
+    void testUsersSpreadAcrossShards() {
+        Set<Long> ids = new HashSet<>();
+        int[] perShard = new int[store.getShardCount()];
+        for (UserResponseDTO user : allUsers()) {
+            assertTrue(ids.add(user.getId()), "duplicate id " + user.getId());
+            perShard[store.shardOf(user.getId())]++;
+            assertEquals(user.getEmail(), userService.getUserById(user.getId()).getEmail());
+        }
+        
+        assertTrue(ids.size() >= 30);
+        for (int shard = 0; shard < perShard.length; shard++) {
+            assertTrue(perShard[shard] > 0, "shard " + shard + " is empty");
+        }
+    }
+    
+    @Test
+    void testEmailIsUniqueAcrossShards() {
+        UserResponseDTO first = userService.createUser(request("unique.one@shard.com"));
+        
+        // Whatever shard the next id lands on, the routing index rejects the email
+        for (int i = 0; i < 5; i++) {
+            assertThrows(DuplicateResourceException.class, () -> userService.createUser(request("unique.one@shard.com")));
+        }
+        
+        UserResponseDTO second = userService.createUser(request("unique.two@shard.com"));
+        assertNotEquals(first.getId(), second.getId());
+    }
+    
+    @Test
+    void testEmailChangeMovesRoute() {
+        UserResponseDTO user = userService.createUser(request("moving.before@shard.com"));
+        
+        UserResponseDTO updated = userService.updateUser(user.getId(), request("moving.after@shard.com"), user.getVersion());
+        assertEquals("moving.after@shard.com", updated.getEmail());
+        assertEquals(user.getVersion() + 1, updated.getVersion());
+        
+        assertThrows(DuplicateResourceException.class, () -> userService.createUser(request("moving.after@shard.com")));
+        UserResponseDTO reused = userService.createUser(request("moving.before@shard.com"));
+        assertNotEquals(user.getId(), reused.getId());
+        
+        // Taking an email that another user holds leaves both rows unchanged
+        assertThrows(DuplicateResourceException.class,
+                () -> userService.updateUser(user.getId(), request("moving.before@shard.com")));
+        assertEquals("moving.after@shard.com", userService.getUserById(user.getId()).getEmail());
+    }
+    
+    @Test
+    void testPagesMatchInMemorySort() {
+        List<UserResponseDTO> all = allUsers();
+        
+        assertPagesMatch(all, "id", true, Comparator.comparing(UserResponseDTO::getId));
+        assertPagesMatch(all, "lastName", true,
+                Comparator.comparing(UserResponseDTO::getLastName).thenComparing(UserResponseDTO::getId));
+        assertPagesMatch(all, "city", false,
+                Comparator.comparing(UserResponseDTO::getCity).thenComparing(UserResponseDTO::getId).reversed());
+        
+        Page<UserResponseDTO> kuching = userService.getAllUsers(0, 100, "id", "asc", "kuching", null);
+        assertEquals(all.stream().filter(user -> "Kuching".equalsIgnoreCase(user.getCity())).count(),
+                kuching.getTotalElements());
+        assertEquals(kuching.getTotalElements(), userService.countUsers("Kuching", null));
+        assertEquals(kuching.getTotalElements(), userService.getCityFacets(null).get("Kuching"));
+    }
+    
+    @Test
+    void testCityFilterIgnoresCaseAndPadding() {
+        userService.createUser(new UserRequestDTO("Shard", "Tester", "mukah.one@shard.com", "+60-12-000-0000", "Mukah"));
+        userService.createUser(new UserRequestDTO("Shard", "Tester", "mukah.two@shard.com", "+60-12-000-0000", "MUKAH "));
+        userService.createUser(new UserRequestDTO("Shard", "Tester", "mukah.three@shard.com", "+60-12-000-0000", "mukah"));
+        
+        assertEquals(3, userService.getAllUsers(0, 100, "id", "asc", " mUKah", null).getTotalElements());
+        assertEquals(3, userService.countUsers("MUKAH", "shard.com"));
+        // One facet, labelled with whichever spelling a shard returned first
+        Map<String, Long> facets = userService.getCityFacets(null);
+        List<String> labels = facets.keySet().stream().filter(city -> CityIndex.normalize(city).equals("mukah")).toList();
+        assertEquals(1, labels.size(), "facets: " + facets);
+        assertEquals(3, facets.get(labels.get(0)));
+    }
+    
+    @Test
+    void testDeleteHonoursVersion() {
+        UserResponseDTO user = userService.createUser(request("deleted@shard.com"));
+        
+        assertThrows(StaleResourceException.class, () -> userService.deleteUser(user.getId(), user.getVersion() + 1));
+        userService.deleteUser(user.getId(), user.getVersion());
+        
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(user.getId()));
+        assertThrows(ResourceNotFoundException.class, () -> userService.deleteUser(user.getId()));
+        // The route went with the row
+        assertNotNull(userService.createUser(request("deleted@shard.com")).getId());
+    }
+    
+    @Test
+    void testMultiGetAcrossShards() {
+        List<Long> ids = new ArrayList<>(allUsers().stream().map(UserResponseDTO::getId).limit(12).toList());
+        Collections.reverse(ids);
+        ids.add(5, 999_999L);
+        
+        List<UserLookupDTO> results = userService.getUsersByIds(ids, null);
+        
+        assertEquals(ids, results.stream().map(UserLookupDTO::getId).toList());
+        for (UserLookupDTO result : results) {
+            assertEquals(result.getId() != 999_999L, result.isFound());
+            if (result.isFound()) {
+                assertEquals(result.getId(), ((UserResponseDTO) result.getUser()).getId());
+            }
+        }
+    }
+    
+    private void assertPagesMatch(List<UserResponseDTO> all, String sortBy, boolean ascending,
+                                  Comparator<UserResponseDTO> reference) {
+        List<Long> expected = all.stream().sorted(reference).map(UserResponseDTO::getId).toList();
+        
+        List<Long> paged = new ArrayList<>();
+        for (int page = 0; paged.size() < expected.size(); page++) {
+            Page<UserResponseDTO> result = userService.getAllUsers(page, 7, sortBy, ascending ? "asc" : "desc", null, null);
+            assertEquals(expected.size(), result.getTotalElements());
+            assertFalse(result.getContent().isEmpty(), "page " + page + " sorted by " + sortBy);
+            result.getContent().forEach(user -> paged.add(user.getId()));
+        }
+        assertEquals(expected, paged, "sorted by " + sortBy);
+    }
+    
+    private List<UserResponseDTO> allUsers() {
+        return userService.getAllUsers(0, 10_000, "id", "asc", null, null).getContent();
+    }
+    
+    private static UserRequestDTO request(String email) {
+        return new UserRequestDTO("Shard", "Tester", email, "+60-12-000-0000", "Kuching");
+    }
+}
@@ -0,0 +1,162 @@
+package com.JavaSpring.Bank.snapshot;
+
+import com.JavaSpring.Bank.dto.response.UserResponseDTO;
+import com.JavaSpring.Bank.event.UserChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UserSnapshotTest - off-heap record layout, index, reload and eviction on writes
+ */
+public class UserSnapshotTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void testMapSurvivesGrowthAndRemoval() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, (int) key * 2);
+        }
+        for (long key = 1; key <= 10_000; key += 3) {
+            map.remove(key);
+        }
+        
+        int expected = 0;
+        for (long key = 1; key <= 10_000; key++) {
+            if ((key - 1) % 3 == 0) {
+                assertEquals(LongIntHashMap.MISSING, map.get(key), "removed key " + key);
+            } else {
+                assertEquals((int) key * 2, map.get(key), "kept key " + key);
+                expected++;
+            }
+        }
+        assertEquals(expected, map.size());
+        
+        Set<Long> keys = new HashSet<>();
+        map.forEachKey(keys::add);
+        assertEquals(expected, keys.size());
+    }
+    
+    @Test
+    void testLookupServesLatestVersionAndReloads() throws Exception {
+        Path file = dir.resolve("users.bin");
+        UserSnapshot snapshot = open(file);
+        
+        snapshot.put(user(1L, "Aisyah", 2L));
+        snapshot.put(user(2L, "Brandon", 0L));
+        // A stale write never replaces a newer record
+        snapshot.put(user(1L, "Stale", 1L));
+        snapshot.remove(2L);
+        
+        UserSnapshot.Hit hit = snapshot.lookup(1L);
+        assertNotNull(hit);
+        assertEquals(2L, hit.getVersion());
+        assertTrue(json(hit).contains("\"firstName\":\"Aisyah\""));
+        assertNull(snapshot.lookup(2L));
+        snapshot.close();
+        
+        UserSnapshot reloaded = open(file);
+        assertEquals(1, reloaded.size());
+        assertTrue(json(reloaded.lookup(1L)).contains("\"firstName\":\"Aisyah\""));
+        assertNull(reloaded.lookup(2L));
+        
+        reloaded.invalidateAll();
+        assertNull(reloaded.lookup(1L));
+        reloaded.close();
+    }
+    
+    @Test
+    void testWriteEvictsRecordUntilCommittedRowIsStored() throws Exception {
+        UserSnapshot snapshot = open(dir.resolve("users.bin"));
+        snapshot.put(user(1L, "Aisyah", 0L));
+        snapshot.put(user(2L, "Brandon", 0L));
+        
+        // Published inside the writing transaction
+        UserChangedEvent update = UserChangedEvent.updated(user(1L, "Aishah", 1L));
+        snapshot.onUserChanging(update);
+        assertNull(snapshot.find(1L));
+        // After commit
+        snapshot.onUserChanged(update);
+        UserSnapshot.Cached cached = snapshot.find(1L);
+        assertEquals(1L, cached.version());
+        assertTrue(new String(cached.json(), StandardCharsets.UTF_8).contains("\"firstName\":\"Aishah\""));
+        
+        snapshot.onUserChanging(UserChangedEvent.deleted(2L));
+        assertNull(snapshot.find(2L));
+        snapshot.close();
+    }
+    
+    @Test
+    void testSlotTornByCrashIsReusable() throws Exception {
+        Path file = dir.resolve("users.bin");
+        UserSnapshot snapshot = open(file);
+        snapshot.put(user(1L, "Aisyah", 0L));
+        snapshot.close();
+        // The process died while rewriting slot 0: odd sequence
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer slot = channel.map(FileChannel.MapMode.READ_WRITE, UserSnapshot.HEADER_SIZE, UserSnapshot.RECORD_SIZE);
+            slot.order(ByteOrder.nativeOrder()).putLong(0, 7);
+        }
+        
+        UserSnapshot reopened = open(file);
+        assertNull(reopened.lookup(1L));
+        // Fill every slot, so one of them reuses the torn slot
+        for (long id = 2; id <= 1_001; id++) {
+            reopened.put(user(id, "Brandon", 0L));
+        }
+        for (long id = 2; id <= 1_001; id++) {
+            assertNotNull(reopened.lookup(id), "user " + id);
+        }
+        reopened.close();
+        
+        UserSnapshot reloaded = open(file);
+        assertEquals(1_000, reloaded.size());
+        assertNull(reloaded.lookup(1L));
+        reloaded.close();
+    }
+    
+    private UserSnapshot open(Path file) {
+        return new UserSnapshot(true, file.toString(), 1_000, null, objectMapper,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+    
+    private static String json(UserSnapshot.Hit hit) {
+        return new String(hit.getJson(), 0, hit.getLength(), StandardCharsets.UTF_8);
+    }
+    
+    private static UserResponseDTO user(Long id, String firstName, Long version) {
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName("Tan");
+        user.setEmail(firstName.toLowerCase() + "@example.com");
+        user.setCity("Ipoh");
+        user.setCreatedAt(LocalDateTime.of(2026, 1, 1, 9, 0));
+        user.setUpdatedAt(LocalDateTime.of(2026, 1, 1, 9, 0).plusMinutes(version));
+        user.setVersion(version);
+        return user;
+    }
+}
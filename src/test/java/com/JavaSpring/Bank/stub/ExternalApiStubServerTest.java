@@ -0,0 +1,111 @@
+package com.JavaSpring.Bank.stub;
+
+import com.JavaSpring.Bank.dto.external.ExternalUserDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExternalApiStubServerTest - payloads, injected latency, errors and trickled bodies of the
+ * JSONPlaceholder stand-in, and repeatability of the injected behavior for a seed
+ */
+public class ExternalApiStubServerTest {
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ExternalApiStubServer server;
+    
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+    
+    @Test
+    void testServesGeneratedUsers() throws Exception {
+        start(25, behavior(StubBehavior.Distribution.NONE, 0, 0, 0, 0));
+        
+        HttpResponse<String> list = get("/users");
+        assertEquals(200, list.statusCode());
+        List<ExternalUserDTO> users = objectMapper.readValue(list.body(), new TypeReference<>() {});
+        assertEquals(25, users.size());
+        
+        ExternalUserDTO third = objectMapper.readValue(get("/users/3").body(), ExternalUserDTO.class);
+        ExternalUserDTO expected = new ExternalUserGenerator().generate(3);
+        assertEquals(expected.getEmail(), third.getEmail());
+        assertEquals(expected.getAddress().getCity(), third.getAddress().getCity());
+        assertEquals(third.getEmail(), users.get(2).getEmail());
+        
+        assertEquals(404, get("/users/26").statusCode());
+        assertEquals(404, get("/users/abc").statusCode());
+    }
+    
+    @Test
+    void testInjectsLatencyAndErrors() throws Exception {
+        start(5, behavior(StubBehavior.Distribution.FIXED, 60, 1.0, 0, 0));
+        
+        long start = System.nanoTime();
+        HttpResponse<String> response = get("/users/1");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        
+        assertEquals(503, response.statusCode());
+        assertTrue(response.body().contains("Injected failure"));
+        assertTrue(elapsedMs >= 60, "elapsed " + elapsedMs + " ms");
+    }
+    
+    @Test
+    void testTrickledBodyArrivesIntactInChunks() throws Exception {
+        start(5, behavior(StubBehavior.Distribution.NONE, 0, 0, 1.0, 10));
+        
+        long start = System.nanoTime();
+        HttpResponse<String> response = get("/users");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        
+        assertEquals(200, response.statusCode());
+        assertEquals(5, objectMapper.readValue(response.body(), new TypeReference<List<ExternalUserDTO>>() {}).size());
+        // 64-byte chunks with 10 ms between them
+        long chunks = (response.body().length() + 63) / 64;
+        assertTrue(elapsedMs >= chunks * 10, "elapsed " + elapsedMs + " ms for " + chunks + " chunks");
+    }
+    
+    @Test
+    void testBehaviorRepeatsForSameSeedAndStaysWithinBounds() {
+        StubBehavior first = new StubBehavior(7, StubBehavior.Distribution.LOGNORMAL, 5, 40, 1.5, 300, 0.2, 503, 0, 64, 0);
+        StubBehavior second = new StubBehavior(7, StubBehavior.Distribution.LOGNORMAL, 5, 40, 1.5, 300, 0.2, 503, 0, 64, 0);
+        
+        long[] latencies = LongStream.rangeClosed(1, 1000).map(n -> first.latencyMs(first.randomFor(n))).toArray();
+        assertArrayEquals(latencies, LongStream.rangeClosed(1, 1000).map(n -> second.latencyMs(second.randomFor(n))).toArray());
+        assertTrue(LongStream.of(latencies).allMatch(latency -> latency >= 5 && latency <= 300));
+        assertTrue(LongStream.of(latencies).anyMatch(latency -> latency == 300), "long tail is capped at max-ms");
+        
+        long failures = LongStream.rangeClosed(1, 1000).filter(n -> first.fails(first.randomFor(n))).count();
+        assertTrue(failures > 150 && failures < 250, "failures " + failures);
+    }
+    
+    private void start(int users, StubBehavior behavior) throws Exception {
+        server = new ExternalApiStubServer(0, users, behavior, objectMapper);
+        server.start();
+    }
+    
+    private static StubBehavior behavior(StubBehavior.Distribution distribution, long meanMs,
+                                         double errorRate, double trickleRate, long trickleDelayMs) {
+        return new StubBehavior(42, distribution, 0, meanMs, 1.0, 30_000, errorRate, 503,
+            trickleRate, 64, trickleDelayMs);
+    }
+    
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path)).build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+}
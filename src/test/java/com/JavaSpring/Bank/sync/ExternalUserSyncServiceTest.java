@@ -0,0 +1,197 @@
+package com.JavaSpring.Bank.sync;
+
+import com.JavaSpring.Bank.dto.external.ExternalUserDTO;
+import com.JavaSpring.Bank.exception.DuplicateResourceException;
+import com.JavaSpring.Bank.monitoring.QueryStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ExternalUserSyncServiceTest - change detection, batching, email and version conflicts and resume
+ */
+@SpringBootTest
+@TestPropertySource(properties = {"spring.profiles.active=test", "external.sync.batch-size=2"})
+public class ExternalUserSyncServiceTest {
+    
+    @Autowired
+    private ExternalUserSyncService syncService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void testUnchangedRecordsAreSkippedWithoutWrites() {
+        List<ExternalUserDTO> users = users(1000, 5);
+        
+        Map<String, Object> first = syncService.apply(users);
+        assertEquals("completed", first.get("status"));
+        assertEquals(5L, first.get("inserted"));
+        assertEquals(1L, userCount("sync1003@"));
+        
+        QueryStats stats = QueryStats.begin();
+        try {
+            // Arrival order does not matter
+            Map<String, Object> second = syncService.apply(users.reversed());
+            assertEquals(5L, second.get("scanned"));
+            assertEquals(5L, second.get("unchanged"));
+            assertEquals(0L, second.get("inserted"));
+            assertEquals(0L, second.get("updated"));
+            // Checkpoint read, insert and delete plus one lookup per batch of two: nothing per record
+            assertEquals(6, stats.getCount());
+        } finally {
+            QueryStats.end();
+        }
+        assertEquals(0L, version("sync1003@example.com"));
+    }
+    
+    @Test
+    void testOnlyChangedRecordsAreUpdated() {
+        List<ExternalUserDTO> users = users(2000, 4);
+        syncService.apply(users);
+        
+        users.get(1).getAddress().setCity("Ipoh");
+        users.get(3).setPhone("012-9999999");
+        // Not a local field, so not a change
+        users.get(2).setWebsite("changed.example.com");
+        Map<String, Object> report = syncService.apply(users);
+        
+        assertEquals(2L, report.get("updated"));
+        assertEquals(2L, report.get("unchanged"));
+        assertEquals("Ipoh", jdbcTemplate.queryForObject(
+                "SELECT city FROM users WHERE email = 'sync2001@example.com'", String.class));
+        assertEquals(1L, version("sync2001@example.com"));
+        assertEquals(1L, version("sync2003@example.com"));
+        assertEquals(0L, version("sync2002@example.com"));
+    }
+    
+    @Test
+    void testExistingUserWithSameEmailIsLinked() {
+        jdbcTemplate.update("INSERT INTO users (first_name, last_name, email, phone, city, created_at, updated_at, version) " +
+                "VALUES ('Old', 'Name', 'sync3000@example.com', NULL, 'Kuching', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0)");
+        
+        Map<String, Object> report = syncService.apply(users(3000, 2));
+        
+        assertEquals(1L, report.get("inserted"));
+        assertEquals(1L, report.get("updated"));
+        assertEquals(1L, userCount("sync3000@"));
+        assertEquals("Sync3000", jdbcTemplate.queryForObject(
+                "SELECT first_name FROM users WHERE email = 'sync3000@example.com'", String.class));
+    }
+    
+    @Test
+    void testInvalidAndConflictingRecordsDoNotBlockTheBatch() {
+        List<ExternalUserDTO> users = users(4000, 4);
+        syncService.apply(users);
+        
+        users.get(0).setName("Cher");
+        users.get(1).setEmail("sync4002@example.com");
+        users.get(3).getAddress().setCity("Melaka");
+        Map<String, Object> report = syncService.apply(users);
+        
+        // Single-word names have no last name; 4001 now wants the email of 4002
+        assertEquals(2L, report.get("failed"));
+        assertEquals(1L, report.get("updated"));
+        assertEquals("Melaka", jdbcTemplate.queryForObject(
+                "SELECT city FROM users WHERE email = 'sync4003@example.com'", String.class));
+        assertEquals(2, ((List<?>) report.get("errors")).size());
+    }
+    
+    @Test
+    void testUpdateOfUserChangedSinceClassifiedIsAConflict() {
+        syncService.apply(users(6000, 1));
+        
+        // 6001 is new and claims the email of the user 6000 is linked to: both resolve to that user at version 0
+        List<ExternalUserDTO> users = users(6000, 2);
+        users.get(0).getAddress().setCity("Ipoh");
+        users.get(1).setEmail("sync6000@example.com");
+        Map<String, Object> report = syncService.apply(users);
+        
+        assertEquals(1L, report.get("updated"));
+        assertEquals(1L, report.get("failed"));
+        assertEquals(1L, version("sync6000@example.com"));
+        assertEquals("Ipoh", jdbcTemplate.queryForObject(
+                "SELECT city FROM users WHERE email = 'sync6000@example.com'", String.class));
+        // The losing record is not linked, so the next run compares it again
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + ExternalUserSyncService.LINKS_TABLE +
+                " WHERE external_id = 6001", Integer.class));
+    }
+    
+    @Test
+    void testInterruptedRunResumesAfterCheckpoint() {
+        // Creates the sync tables
+        syncService.apply(List.of());
+        jdbcTemplate.update("INSERT INTO " + ExternalUserSyncService.CHECKPOINT_TABLE +
+                " (source, last_external_id, started_at) VALUES (?, 5002, CURRENT_TIMESTAMP)", ExternalUserSyncService.SOURCE);
+        
+        Map<String, Object> resumed = syncService.apply(users(5000, 5));
+        assertEquals(5002L, resumed.get("resumedAfter"));
+        assertEquals(2L, resumed.get("scanned"));
+        assertEquals(0L, userCount("sync5001@"));
+        assertEquals(1L, userCount("sync5004@"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + ExternalUserSyncService.CHECKPOINT_TABLE, Integer.class));
+        
+        // The next run starts over and picks up the skipped records
+        Map<String, Object> full = syncService.apply(users(5000, 5));
+        assertNull(full.get("resumedAfter"));
+        assertEquals(3L, full.get("inserted"));
+        assertEquals(2L, full.get("unchanged"));
+    }
+    
+    @Test
+    void testRunLeasedByAnotherInstanceIsNotJoined() {
+        syncService.apply(List.of());
+        // Another instance is running and renewed its lease just now
+        jdbcTemplate.update("INSERT INTO " + ExternalUserSyncService.CHECKPOINT_TABLE + " (source, last_external_id, " +
+                "started_at, owner, heartbeat_at) VALUES (?, 6001, CURRENT_TIMESTAMP, 'other-instance', ?)",
+                ExternalUserSyncService.SOURCE, LocalDateTime.now());
+        
+        assertThrows(DuplicateResourceException.class, () -> syncService.apply(users(6000, 4)));
+        assertEquals(0L, userCount("sync600"));
+        assertEquals("other-instance", jdbcTemplate.queryForObject("SELECT owner FROM " +
+                ExternalUserSyncService.CHECKPOINT_TABLE, String.class));
+        
+        // It died: once the lease expires the checkpoint is taken over
+        jdbcTemplate.update("UPDATE " + ExternalUserSyncService.CHECKPOINT_TABLE + " SET heartbeat_at = ?",
+                LocalDateTime.now().minusHours(1));
+        Map<String, Object> resumed = syncService.apply(users(6000, 4));
+        assertEquals(6001L, resumed.get("resumedAfter"));
+        assertEquals(2L, resumed.get("inserted"));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + ExternalUserSyncService.CHECKPOINT_TABLE, Integer.class));
+    }
+    
+    private static List<ExternalUserDTO> users(int firstId, int count) {
+        List<ExternalUserDTO> users = new ArrayList<>();
+        for (int id = firstId; id < firstId + count; id++) {
+            ExternalUserDTO user = new ExternalUserDTO();
+            user.setId((long) id);
+            user.setName("Sync" + id + " Tester");
+            user.setEmail("sync" + id + "@example.com");
+            user.setPhone("012-" + id);
+            ExternalUserDTO.AddressDTO address = new ExternalUserDTO.AddressDTO();
+            address.setCity("Penang");
+            user.setAddress(address);
+            users.add(user);
+        }
+        return users;
+    }
+    
+    private long userCount(String emailPrefix) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email LIKE ?", Long.class, emailPrefix + "%");
+    }
+    
+    private long version(String email) {
+        return jdbcTemplate.queryForObject("SELECT version FROM users WHERE email = ?", Long.class, email);
+    }
+}